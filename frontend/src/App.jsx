@@ -301,6 +301,7 @@ function App() {
   const [unit, setUnit] = useState("C");
   const [loading, setLoading] = useState(false);
   const [error, setError] = useState("");
+  const [streamLive, setStreamLive] = useState(false);
 
   const loadWeather = useCallback(async (city) => {
     const normalizedCity = city.trim();
@@ -410,12 +411,53 @@ function App() {
     loadWeather(activeCity);
   }, [activeCity, loadWeather]);
 
+  // The stream only carries what the page shows: the tracked cities plus whatever city is open.
+  const streamCities = useMemo(() => {
+    const seen = new Set();
+    return [...cities, activeCity.trim()]
+      .filter((city) => {
+        const key = city.toLowerCase();
+        if (!key || seen.has(key)) return false;
+        seen.add(key);
+        return true;
+      })
+      .join(",");
+  }, [cities, activeCity]);
+
   useEffect(() => {
+    if (typeof EventSource === "undefined") return undefined;
+
+    const source = new EventSource(`${API_BASE_URL}/api/weather/stream?cities=${encodeURIComponent(streamCities)}`);
+    source.onopen = () => setStreamLive(true);
+    source.onerror = () => setStreamLive(false);
+    source.addEventListener("observation", (event) => {
+      const observation = JSON.parse(event.data);
+      setTrackedWeather((previous) =>
+        previous.some((entry) => entry.city === observation.city)
+          ? previous.map((entry) => (entry.city === observation.city ? observation : entry))
+          : previous
+      );
+      if (observation.city.toLowerCase() === activeCity.trim().toLowerCase()) {
+        setCurrentWeather(observation);
+      }
+    });
+    source.addEventListener("alert", (event) => {
+      const alert = JSON.parse(event.data);
+      if (alert.city.toLowerCase() === activeCity.trim().toLowerCase()) {
+        setAlerts((previous) => [alert, ...previous].slice(0, 5));
+      }
+    });
+    source.addEventListener("resync", () => loadWeather(activeCity));
+    return () => source.close();
+  }, [activeCity, loadWeather, streamCities]);
+
+  useEffect(() => {
+    // With the stream open, readings and alerts arrive on their own; the full reload only refreshes the rest.
     const intervalId = setInterval(() => {
       loadWeather(activeCity);
-    }, 120000);
+    }, streamLive ? 600000 : 120000);
     return () => clearInterval(intervalId);
-  }, [activeCity, loadWeather]);
+  }, [activeCity, loadWeather, streamLive]);
 
   const selectedForecast = useMemo(() => {
     if (!forecast.length) return null;
@@ -0,0 +1,70 @@
+package com.nidak.weatherpulse.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+/**
+ * Weather rows and alerts used IDENTITY ids before they moved to pooled sequences (which lets
+ * Hibernate batch their inserts). On a database created under the old mapping the new sequence
+ * starts at 1, so it is moved past the existing ids before anything is inserted.
+ */
+@Component
+public class IdSequenceAligner {
+
+    private static final Logger log = LoggerFactory.getLogger(IdSequenceAligner.class);
+
+    // Matches allocationSize on the entities' @SequenceGenerator.
+    private static final long ALLOCATION_SIZE = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // The EntityManagerFactory is only injected so the schema update has run before alignment.
+    public IdSequenceAligner(EntityManagerFactory entityManagerFactory, JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void alignSequences() {
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT));
+        align(database, "weather_data", "weather_data_seq");
+        align(database, "weather_alert", "weather_alert_seq");
+    }
+
+    private void align(String database, String table, String sequence) {
+        Long maxId = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from " + table, Long.class);
+        if (maxId == null || maxId == 0) {
+            return;
+        }
+        // The pooled optimizer hands out (value - allocationSize, value], so the next value must clear maxId by a full block.
+        long target = maxId + ALLOCATION_SIZE;
+
+        if (database.contains("h2")) {
+            Long next = jdbcTemplate.queryForObject(
+                    "select base_value from information_schema.sequences where sequence_name = ?",
+                    Long.class,
+                    sequence.toUpperCase(Locale.ROOT)
+            );
+            if (next == null || next < target) {
+                jdbcTemplate.execute("alter sequence " + sequence + " restart with " + target);
+                log.info("Moved {} to {} past existing {} ids", sequence, target, table);
+            }
+        } else if (database.contains("mysql")) {
+            // MySQL has no sequences; Hibernate emulates them with a one-row next_val table.
+            Long next = jdbcTemplate.queryForObject("select max(next_val) from " + sequence, Long.class);
+            if (next == null || next < target) {
+                jdbcTemplate.update("update " + sequence + " set next_val = ?", target);
+                log.info("Moved {} to {} past existing {} ids", sequence, target, table);
+            }
+        } else {
+            log.warn("Cannot check {} on {}; make sure it starts above {}", sequence, database, maxId);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.nidak.weatherpulse.config;
+
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+@Configuration
+public class WeatherProviderClientConfig {
+
+    @Bean
+    public CloseableHttpClient weatherProviderHttpClient(
+            @Value("${openweather.http.max-connections:50}") int maxConnections,
+            @Value("${openweather.http.max-connections-per-route:20}") int maxConnectionsPerRoute,
+            @Value("${openweather.http.connect-timeout-ms:3000}") long connectTimeoutMs,
+            @Value("${openweather.http.read-timeout-ms:10000}") long readTimeoutMs,
+            @Value("${openweather.http.pool-wait-timeout-ms:2000}") long poolWaitTimeoutMs,
+            @Value("${openweather.http.gzip:true}") boolean gzip
+    ) {
+        return buildHttpClient(
+                maxConnections,
+                maxConnectionsPerRoute,
+                connectTimeoutMs,
+                readTimeoutMs,
+                poolWaitTimeoutMs,
+                gzip
+        );
+    }
+
+    @Bean
+    public RestTemplate weatherProviderRestTemplate(CloseableHttpClient weatherProviderHttpClient) {
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(weatherProviderHttpClient));
+    }
+
+    public static CloseableHttpClient buildHttpClient(
+            int maxConnections,
+            int maxConnectionsPerRoute,
+            long connectTimeoutMs,
+            long readTimeoutMs,
+            long poolWaitTimeoutMs,
+            boolean gzip
+    ) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                        .setSocketTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(10))
+                        .setTimeToLive(TimeValue.ofMinutes(5))
+                        .build())
+                .build();
+
+        HttpClientBuilder builder = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(poolWaitTimeoutMs))
+                        .setResponseTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofSeconds(30));
+        if (!gzip) {
+            builder.disableContentCompression();
+        }
+        return builder.build();
+    }
+}
@@ -1,26 +1,46 @@
 package com.nidak.weatherpulse.controller;
 
 import com.nidak.weatherpulse.dto.ApiResponse;
+import com.nidak.weatherpulse.dto.CityTrends;
+import com.nidak.weatherpulse.dto.CityWeatherBatch;
+import com.nidak.weatherpulse.dto.WeatherHistory;
 import com.nidak.weatherpulse.entity.DailyWeatherSummaryEntity;
 import com.nidak.weatherpulse.entity.Weather;
 import com.nidak.weatherpulse.entity.WeatherAlert;
-import com.nidak.weatherpulse.entity.WeatherSummary;
 import com.nidak.weatherpulse.entity.WeatherThreshold;
+import com.nidak.weatherpulse.exception.WeatherServiceException;
+import com.nidak.weatherpulse.service.FinalizedDayResponseCache;
+import com.nidak.weatherpulse.service.WeatherExporter;
 import com.nidak.weatherpulse.service.WeatherService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Read endpoints answer with an ETag over their data, so clients can revalidate with {@code If-None-Match} and get a 304.
+ * Per-date reads of finalized days are served from cached bytes with a long {@code max-age} and a {@code Last-Modified}.
+ */
 @RestController
 @RequestMapping("/api/weather")
 public class WeatherController {
@@ -40,44 +60,115 @@ public class WeatherController {
     @GetMapping("/current/{city}")
     public ResponseEntity<ApiResponse<Weather>> getCurrentWeather(@PathVariable String city) {
         Weather currentWeather = weatherService.fetchCurrentWeather(city);
-        return ResponseEntity.ok(ApiResponse.of("Latest weather fetched for " + city, currentWeather));
+        return revalidated("Latest weather fetched for " + city, currentWeather);
     }
 
     @GetMapping("/current/tracked")
     public ResponseEntity<ApiResponse<List<Weather>>> getTrackedCurrentWeather() {
         List<Weather> currentWeatherList = weatherService.getLatestWeatherForTrackedCities();
-        return ResponseEntity.ok(ApiResponse.of("Latest tracked city weather fetched", currentWeatherList));
+        return revalidated("Latest tracked city weather fetched", currentWeatherList);
+    }
+
+    /**
+     * Current weather, today's summary and recent alerts for every city in {@code cities} in one round trip.
+     * Cities that fail are listed with their error; the rest of the batch is still returned.
+     */
+    @GetMapping("/batch")
+    public ResponseEntity<ApiResponse<CityWeatherBatch>> getCityWeatherBatch(@RequestParam List<String> cities) {
+        CityWeatherBatch batch = weatherService.getCityWeatherBatch(cities);
+        return revalidated("Weather fetched for " + batch.succeeded() + " of " + batch.requested() + " cities", batch);
+    }
+
+    /**
+     * Server-sent events: {@code observation} and {@code alert} as soon as they are stored, optionally for {@code cities}
+     * only. Reconnects resume after {@code Last-Event-ID}; a {@code resync} event means the gap was too long to replay.
+     */
+    @GetMapping("/stream")
+    public SseEmitter streamWeatherEvents(
+            @RequestParam(required = false) List<String> cities,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId
+    ) {
+        return weatherService.subscribeToWeatherEvents(cities, lastEventId);
     }
 
     @GetMapping("/forecast/{city}")
     public ResponseEntity<ApiResponse<List<Weather>>> getWeatherForecast(@PathVariable String city) {
         List<Weather> forecast = weatherService.fetchWeatherForecast(city);
-        return ResponseEntity.ok(ApiResponse.of("5-day forecast fetched for " + city, forecast));
+        return revalidated("5-day forecast fetched for " + city, forecast);
     }
 
-    @GetMapping("/history/{city}")
-    public ResponseEntity<ApiResponse<List<Weather>>> getWeatherHistory(
+    @GetMapping(value = "/history/{city}", params = "date")
+    public ResponseEntity<?> getWeatherHistory(
             @PathVariable String city,
             @RequestParam String date
     ) {
         LocalDate localDate = LocalDate.parse(date);
-        LocalDateTime startOfDay = LocalDateTime.of(localDate, LocalTime.MIN);
-        LocalDateTime endOfDay = LocalDateTime.of(localDate, LocalTime.MAX);
-        List<Weather> weatherHistory = weatherService.getWeatherDataForCity(city, startOfDay, endOfDay);
-        return ResponseEntity.ok(ApiResponse.of("Historical weather fetched for " + city, weatherHistory));
+        String message = "Historical weather fetched for " + city;
+        if (weatherService.isFinalizedDay(localDate)) {
+            return finalized(weatherService.getFinalizedDayResponse("history", city, localDate,
+                    () -> ApiResponse.of(message, dayHistory(city, localDate))));
+        }
+        return revalidated(message, dayHistory(city, localDate));
+    }
+
+    /**
+     * Range history; raw, hourly or daily points depending on the span. Bounds take a date or a date-time,
+     * and a date-only {@code to} covers that whole day. {@code to} defaults to now.
+     */
+    @GetMapping(value = "/history/{city}", params = "!date")
+    public ResponseEntity<ApiResponse<WeatherHistory>> getWeatherHistoryRange(
+            @PathVariable String city,
+            @RequestParam String from,
+            @RequestParam(required = false) String to
+    ) {
+        LocalDateTime start = parseHistoryBound(from, LocalTime.MIN);
+        LocalDateTime end = to == null || to.isBlank() ? LocalDateTime.now() : parseHistoryBound(to, LocalTime.MAX);
+        WeatherHistory history = weatherService.getWeatherHistory(city, start, end);
+        return revalidated(
+                "Historical weather fetched for " + city + " at " + history.resolution().name().toLowerCase(Locale.ROOT) + " resolution",
+                history
+        );
+    }
+
+    /**
+     * Streams observations for a city set and range as NDJSON or CSV, without building the list in memory.
+     * {@code cities} defaults to the tracked cities and {@code to} to now.
+     */
+    @GetMapping("/export")
+    public void exportObservations(
+            @RequestParam(required = false) List<String> cities,
+            @RequestParam String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(defaultValue = "ndjson") String format,
+            HttpServletResponse response
+    ) throws IOException {
+        WeatherExporter.Format exportFormat = parseExportFormat(format);
+        LocalDateTime start = parseHistoryBound(from, LocalTime.MIN);
+        LocalDateTime end = to == null || to.isBlank() ? LocalDateTime.now() : parseHistoryBound(to, LocalTime.MAX);
+        if (start.isAfter(end)) {
+            throw new WeatherServiceException(HttpStatus.BAD_REQUEST, "Export 'from' must not be after 'to'.");
+        }
+        List<String> exportCities = weatherService.resolveExportCities(cities);
+
+        response.setContentType(exportFormat.contentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"weather-export." + exportFormat.extension() + "\"");
+        weatherService.exportObservations(exportCities, start, end, exportFormat, response.getOutputStream());
     }
 
     @GetMapping("/summary/{city}")
-    public ResponseEntity<ApiResponse<WeatherSummary>> getWeatherSummary(
+    public ResponseEntity<?> getWeatherSummary(
             @PathVariable String city,
             @RequestParam String date
     ) {
         LocalDate localDate = LocalDate.parse(date);
-        LocalDateTime startOfDay = LocalDateTime.of(localDate, LocalTime.MIN);
-        LocalDateTime endOfDay = LocalDateTime.of(localDate, LocalTime.MAX);
-        List<Weather> weatherHistory = weatherService.getWeatherDataForCity(city, startOfDay, endOfDay);
-        WeatherSummary summary = weatherService.calculateSummary(weatherHistory);
-        return ResponseEntity.ok(ApiResponse.of("Weather summary generated for " + city, summary));
+        String message = "Weather summary generated for " + city;
+        if (weatherService.isFinalizedDay(localDate)) {
+            return finalized(weatherService.getFinalizedDayResponse("summary", city, localDate,
+                    () -> ApiResponse.of(message, weatherService.calculateSummary(dayHistory(city, localDate)))));
+        }
+        return revalidated(message, weatherService.calculateSummary(dayHistory(city, localDate)));
     }
 
     @PostMapping("/threshold")
@@ -99,34 +190,51 @@ public class WeatherController {
     }
 
     @GetMapping("/trends/{city}")
-    public ResponseEntity<ApiResponse<String>> getWeatherTrends(@PathVariable String city) {
-        String trends = weatherService.generateWeatherTrends(city);
-        return ResponseEntity.ok(ApiResponse.of("Weather trend report generated for " + city, trends));
+    public ResponseEntity<ApiResponse<CityTrends>> getWeatherTrends(@PathVariable String city) {
+        CityTrends trends = weatherService.getWeatherTrends(city);
+        return revalidated("Weather trends fetched for " + city, trends);
     }
 
     @GetMapping("/cities")
     public ResponseEntity<ApiResponse<List<String>>> getTrackedCities() {
-        return ResponseEntity.ok(ApiResponse.of("Tracked city list", weatherService.getTrackedCities()));
+        return revalidated("Tracked city list", weatherService.getTrackedCities());
     }
 
     @GetMapping("/daily-summary/{city}")
-    public ResponseEntity<ApiResponse<DailyWeatherSummaryEntity>> getDailySummary(
+    public ResponseEntity<?> getDailySummary(
+            @PathVariable String city,
+            @RequestParam(required = false) String date
+    ) {
+        LocalDate summaryDate = date == null || date.isBlank() ? LocalDate.now() : LocalDate.parse(date);
+        String message = "Daily weather summary fetched for " + city;
+        if (weatherService.isFinalizedDay(summaryDate)) {
+            return finalized(weatherService.getFinalizedDayResponse("daily-summary", city, summaryDate,
+                    () -> ApiResponse.of(message, weatherService.getDailySummary(city, summaryDate))));
+        }
+        return revalidated(message, weatherService.getDailySummary(city, summaryDate));
+    }
+
+    @PostMapping("/daily-summary/{city}/rebuild")
+    public ResponseEntity<ApiResponse<DailyWeatherSummaryEntity>> rebuildDailySummary(
             @PathVariable String city,
             @RequestParam(required = false) String date
     ) {
         LocalDate summaryDate = date == null || date.isBlank() ? LocalDate.now() : LocalDate.parse(date);
-        DailyWeatherSummaryEntity summary = weatherService.getDailySummary(city, summaryDate);
-        return ResponseEntity.ok(ApiResponse.of("Daily weather summary fetched for " + city, summary));
+        DailyWeatherSummaryEntity summary = weatherService.rebuildDailySummary(city, summaryDate);
+        return ResponseEntity.ok(ApiResponse.of("Daily weather summary rebuilt for " + city, summary));
     }
 
     @GetMapping("/daily-summary/tracked")
-    public ResponseEntity<ApiResponse<List<DailyWeatherSummaryEntity>>> getTrackedCityDailySummary(
+    public ResponseEntity<?> getTrackedCityDailySummary(
             @RequestParam(required = false) String date
     ) {
         LocalDate summaryDate = date == null || date.isBlank() ? LocalDate.now() : LocalDate.parse(date);
-        return ResponseEntity.ok(
-                ApiResponse.of("Tracked city daily summaries fetched", weatherService.getTrackedCityDailySummaries(summaryDate))
-        );
+        String message = "Tracked city daily summaries fetched";
+        if (weatherService.isFinalizedDay(summaryDate)) {
+            return finalized(weatherService.getFinalizedDayResponse("daily-summary", null, summaryDate,
+                    () -> ApiResponse.of(message, weatherService.getTrackedCityDailySummaries(summaryDate))));
+        }
+        return revalidated(message, weatherService.getTrackedCityDailySummaries(summaryDate));
     }
 
     @GetMapping("/alerts")
@@ -136,6 +244,50 @@ public class WeatherController {
         List<WeatherAlert> alerts = (city == null || city.isBlank())
                 ? weatherService.getRecentAlerts()
                 : weatherService.getRecentAlertsForCity(city);
-        return ResponseEntity.ok(ApiResponse.of("Recent alerts fetched", alerts));
+        return revalidated("Recent alerts fetched", alerts);
+    }
+
+    private List<Weather> dayHistory(String city, LocalDate date) {
+        LocalDateTime startOfDay = LocalDateTime.of(date, LocalTime.MIN);
+        LocalDateTime endOfDay = LocalDateTime.of(date, LocalTime.MAX);
+        return weatherService.getWeatherDataForCity(city, startOfDay, endOfDay);
+    }
+
+    /**
+     * Must be revalidated on every use. The tag is taken over the data, not the envelope, whose timestamp changes per call;
+     * Spring answers a matching {@code If-None-Match} with a 304.
+     */
+    private <T> ResponseEntity<ApiResponse<T>> revalidated(String message, T data) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(weatherService.getResponseTag(data))
+                .body(ApiResponse.of(message, data));
+    }
+
+    private static ResponseEntity<byte[]> finalized(FinalizedDayResponseCache.CachedResponse response) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.maxAge(response.maxAgeSeconds(), TimeUnit.SECONDS).cachePublic())
+                .eTag(response.etag())
+                .lastModified(response.lastModified())
+                .body(response.body());
+    }
+
+    private static WeatherExporter.Format parseExportFormat(String format) {
+        for (WeatherExporter.Format candidate : WeatherExporter.Format.values()) {
+            if (candidate.extension().equalsIgnoreCase(format.trim())) {
+                return candidate;
+            }
+        }
+        throw new WeatherServiceException(HttpStatus.BAD_REQUEST, "Unsupported export format '" + format + "'. Use ndjson or csv.");
+    }
+
+    private static LocalDateTime parseHistoryBound(String value, LocalTime timeForDate) {
+        try {
+            return value.length() == 10 ? LocalDate.parse(value).atTime(timeForDate) : LocalDateTime.parse(value);
+        } catch (DateTimeParseException exception) {
+            throw new WeatherServiceException(HttpStatus.BAD_REQUEST,
+                    "Invalid history bound '" + value + "'. Use yyyy-MM-dd or yyyy-MM-ddTHH:mm.");
+        }
     }
 }
@@ -0,0 +1,70 @@
+package com.nidak.weatherpulse.controller;
+
+import com.nidak.weatherpulse.dto.ApiResponse;
+import com.nidak.weatherpulse.dto.CacheStats;
+import com.nidak.weatherpulse.dto.CoalescingStats;
+import com.nidak.weatherpulse.dto.IngestPipelineStats;
+import com.nidak.weatherpulse.dto.PollCycleReport;
+import com.nidak.weatherpulse.dto.PollSchedule;
+import com.nidak.weatherpulse.dto.RetentionReport;
+import com.nidak.weatherpulse.service.WeatherService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/weather/diagnostics")
+public class WeatherDiagnosticsController {
+
+    private final WeatherService weatherService;
+
+    public WeatherDiagnosticsController(WeatherService weatherService) {
+        this.weatherService = weatherService;
+    }
+
+    @GetMapping("/polling")
+    public ResponseEntity<ApiResponse<PollCycleReport>> getLastPollCycle() {
+        return ResponseEntity.ok(ApiResponse.of("Last poll cycle report", weatherService.getLastPollCycleReport()));
+    }
+
+    @GetMapping("/poll-schedule")
+    public ResponseEntity<ApiResponse<PollSchedule>> getPollSchedule() {
+        return ResponseEntity.ok(ApiResponse.of("Per-city poll intervals", weatherService.getPollSchedule()));
+    }
+
+    @GetMapping("/latest-cache")
+    public ResponseEntity<ApiResponse<CacheStats>> getLatestWeatherCacheStats() {
+        return ResponseEntity.ok(ApiResponse.of("Latest weather cache stats", weatherService.getLatestWeatherCacheStats()));
+    }
+
+    @GetMapping("/coalescing")
+    public ResponseEntity<ApiResponse<CoalescingStats>> getProviderCoalescingStats() {
+        return ResponseEntity.ok(ApiResponse.of("Provider request coalescing stats", weatherService.getProviderCoalescingStats()));
+    }
+
+    @GetMapping("/forecast-cache")
+    public ResponseEntity<ApiResponse<CacheStats>> getForecastCacheStats() {
+        return ResponseEntity.ok(ApiResponse.of("Forecast cache stats", weatherService.getForecastCacheStats()));
+    }
+
+    @GetMapping("/finalized-day-cache")
+    public ResponseEntity<ApiResponse<CacheStats>> getFinalizedDayCacheStats() {
+        return ResponseEntity.ok(ApiResponse.of("Finalized day response cache stats", weatherService.getFinalizedDayCacheStats()));
+    }
+
+    @GetMapping("/ingest")
+    public ResponseEntity<ApiResponse<IngestPipelineStats>> getIngestPipelineStats() {
+        return ResponseEntity.ok(ApiResponse.of("Ingest pipeline stats", weatherService.getIngestPipelineStats()));
+    }
+
+    @GetMapping("/stream")
+    public ResponseEntity<ApiResponse<Integer>> getWeatherEventSubscriberCount() {
+        return ResponseEntity.ok(ApiResponse.of("Open event stream connections", weatherService.getWeatherEventSubscriberCount()));
+    }
+
+    @GetMapping("/retention")
+    public ResponseEntity<ApiResponse<RetentionReport>> getLastRetentionRun() {
+        return ResponseEntity.ok(ApiResponse.of("Last retention run", weatherService.getLastRetentionReport()));
+    }
+}
@@ -0,0 +1,4 @@
+package com.nidak.weatherpulse.dto;
+
+public record CacheStats(int size, long hits, long misses, long stale) {
+}
@@ -0,0 +1,24 @@
+package com.nidak.weatherpulse.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record CityTrends(String city, LocalDateTime asOf, List<Window> windows) {
+
+    /**
+     * @param window  {@code 24h}, {@code 7d} or {@code 30d}, counted in whole clock hours including the current one
+     * @param samples observations inside the window
+     */
+    public record Window(String window, long samples, Metric temperature, Metric humidity, Metric windSpeed) {
+    }
+
+    /**
+     * Null fields mean there is not enough data in the window: no samples for the averages,
+     * fewer than two distinct sample times for the slope.
+     *
+     * @param ewma        exponentially weighted average with a time constant equal to the window length
+     * @param slopePerDay least-squares trend of the samples in the window, in units per day
+     */
+    public record Metric(Double movingAverage, Double ewma, Double slopePerDay) {
+    }
+}
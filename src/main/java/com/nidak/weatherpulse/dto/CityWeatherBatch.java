@@ -0,0 +1,32 @@
+package com.nidak.weatherpulse.dto;
+
+import com.nidak.weatherpulse.entity.DailyWeatherSummaryEntity;
+import com.nidak.weatherpulse.entity.Weather;
+import com.nidak.weatherpulse.entity.WeatherAlert;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public record CityWeatherBatch(LocalDate summaryDate, int requested, int succeeded, int failed, List<CitySnapshot> cities) {
+
+    public static CityWeatherBatch of(LocalDate summaryDate, List<CitySnapshot> cities) {
+        int failed = (int) cities.stream().filter(snapshot -> snapshot.error() != null).count();
+        return new CityWeatherBatch(summaryDate, cities.size(), cities.size() - failed, failed, cities);
+    }
+
+    /**
+     * One city of the batch. When {@code error} is set the other fields are null.
+     */
+    public record CitySnapshot(
+            String city,
+            Weather current,
+            DailyWeatherSummaryEntity dailySummary,
+            List<WeatherAlert> recentAlerts,
+            String error
+    ) {
+
+        public static CitySnapshot failed(String city, String error) {
+            return new CitySnapshot(city, null, null, null, error);
+        }
+    }
+}
@@ -0,0 +1,4 @@
+package com.nidak.weatherpulse.dto;
+
+public record CoalescingStats(int inFlight, long executed, long coalesced, long timedOut) {
+}
@@ -0,0 +1,18 @@
+package com.nidak.weatherpulse.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * One observation, hour or day of history. Raw points have {@code samples == 1} and min = max = average.
+ */
+public record HistoryPoint(
+        LocalDateTime periodStart,
+        int samples,
+        double averageTemperature,
+        double minTemperature,
+        double maxTemperature,
+        double averageHumidity,
+        double averageWindSpeed,
+        String dominantWeatherCondition
+) {
+}
@@ -0,0 +1,4 @@
+package com.nidak.weatherpulse.dto;
+
+public record IngestPipelineStats(int queued, int capacity, long written, long batches, long rejected, long failed) {
+}
@@ -0,0 +1,45 @@
+package com.nidak.weatherpulse.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @param providerCalls calls the cycle made to the provider; a group call counts once for all its cities
+ */
+public record PollCycleReport(
+        LocalDateTime startedAt,
+        long durationMs,
+        int totalCities,
+        int succeeded,
+        int failed,
+        int skipped,
+        List<String> succeededCities,
+        Map<String, String> failedCities,
+        List<String> skippedCities,
+        int providerCalls
+) {
+
+    public static PollCycleReport of(
+            LocalDateTime startedAt,
+            long durationMs,
+            int totalCities,
+            List<String> succeededCities,
+            Map<String, String> failedCities,
+            List<String> skippedCities,
+            int providerCalls
+    ) {
+        return new PollCycleReport(
+                startedAt,
+                durationMs,
+                totalCities,
+                succeededCities.size(),
+                failedCities.size(),
+                skippedCities.size(),
+                succeededCities,
+                failedCities,
+                skippedCities,
+                providerCalls
+        );
+    }
+}
@@ -0,0 +1,32 @@
+package com.nidak.weatherpulse.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * @param plannedCallsPerMinute provider calls per minute the current intervals add up to, at the measured cost of a poll
+ * @param actualCallsPerMinute  provider calls per minute the scheduled polls made over the last five minutes
+ * @param budgetScale           how far every interval is stretched to stay within the budget (1 when it fits)
+ */
+public record PollSchedule(
+        boolean adaptive,
+        double budgetCallsPerMinute,
+        double plannedCallsPerMinute,
+        double actualCallsPerMinute,
+        double budgetScale,
+        List<CitySchedule> cities
+) {
+
+    /**
+     * @param intervalMs the interval the city is on now, budget stretch included
+     * @param reason     why the city is on that interval
+     */
+    public record CitySchedule(
+            String city,
+            long intervalMs,
+            String reason,
+            LocalDateTime nextPollAt,
+            LocalDateTime lastObservedAt
+    ) {
+    }
+}
@@ -0,0 +1,16 @@
+package com.nidak.weatherpulse.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * @param caughtUp false when the run stopped at its time budget with expired rows left for the next run
+ */
+public record RetentionReport(
+        LocalDateTime startedAt,
+        LocalDateTime cutoff,
+        long durationMs,
+        long rowsPurged,
+        int batches,
+        boolean caughtUp
+) {
+}
@@ -0,0 +1,22 @@
+package com.nidak.weatherpulse.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only copy of one observation for export. Selected as a constructor projection so pages are
+ * never attached to the persistence context and can be dropped as soon as they are written.
+ */
+public record WeatherExportRow(
+        Long id,
+        String city,
+        LocalDateTime timestamp,
+        double temperature,
+        double feelsLike,
+        double humidity,
+        double windSpeed,
+        String weatherCondition,
+        String weatherDescription,
+        Integer weatherCode,
+        String weatherRisk
+) {
+}
@@ -0,0 +1,19 @@
+package com.nidak.weatherpulse.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record WeatherHistory(
+        String city,
+        LocalDateTime from,
+        LocalDateTime to,
+        Resolution resolution,
+        List<HistoryPoint> points
+) {
+
+    public enum Resolution {
+        RAW,
+        HOURLY,
+        DAILY
+    }
+}
@@ -0,0 +1,66 @@
+package com.nidak.weatherpulse.entity;
+
+import jakarta.persistence.CollectionTable;
+import jakarta.persistence.Column;
+import jakarta.persistence.ElementCollection;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * One row per city the service has stored data for. Observations, alerts and daily summaries point at it
+ * through {@code cityId}; {@code name} is the spelling responses show. Aliases are extra lookup keys
+ * (already normalized, see {@code CityRegistry}) that resolve to the same city, such as the provider's own
+ * spelling of it.
+ */
+@Entity
+@Table(
+        name = "city",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_city_name", columnNames = {"name"})
+        }
+)
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class City {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 128)
+    private String name;
+
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(
+            name = "city_alias",
+            joinColumns = @JoinColumn(name = "city_id"),
+            uniqueConstraints = @UniqueConstraint(name = "uk_city_alias", columnNames = {"alias"})
+    )
+    @Column(name = "alias", nullable = false, length = 128)
+    private Set<String> aliases = new HashSet<>();
+
+    @Column
+    private Double latitude;
+
+    @Column
+    private Double longitude;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -5,8 +5,9 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
-import jakarta.persistence.Index;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -15,11 +16,15 @@ import lombok.Setter;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
+/**
+ * One row per city and day. The ingest writer and the rebuild path both write it, so the unique key stops a
+ * second row for the same day and the version stops one writer from overwriting the other's counts.
+ */
 @Entity
 @Table(
         name = "daily_weather_summary",
-        indexes = {
-                @Index(name = "idx_daily_summary_city_date", columnList = "city, summaryDate")
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_daily_summary_city_date", columnNames = {"city_id", "summaryDate"})
         }
 )
 @NoArgsConstructor
@@ -32,6 +37,9 @@ public class DailyWeatherSummaryEntity {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @Column(name = "city_id")
+    private Long cityId;
+
     @Column(nullable = false)
     private String city;
 
@@ -62,6 +70,25 @@ public class DailyWeatherSummaryEntity {
     @Column(nullable = false)
     private int totalSamples;
 
+    // Running aggregates so each new sample updates the row in O(1).
+    // Null on rows written before these columns existed; those get rebuilt on first touch.
+    @Column
+    private Double temperatureSum;
+
+    @Column
+    private Double humiditySum;
+
+    @Column
+    private Double windSpeedSum;
+
+    @Column(length = 1024)
+    private String conditionHistogram;
+
     @Column(nullable = false)
     private LocalDateTime updatedAt;
+
+    // Defaulted so the column can be added to a table that already has rows.
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private long version;
 }
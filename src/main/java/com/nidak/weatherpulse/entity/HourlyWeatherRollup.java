@@ -0,0 +1,69 @@
+package com.nidak.weatherpulse.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Running aggregates for one city and clock hour, kept up to date during ingest.
+ * The unique key doubles as the index range queries walk.
+ */
+@Entity
+@Table(
+        name = "hourly_weather_rollup",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_hourly_rollup_city_hour", columnNames = {"city", "hourStart"})
+        }
+)
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class HourlyWeatherRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "hourly_weather_rollup_seq")
+    @SequenceGenerator(name = "hourly_weather_rollup_seq", sequenceName = "hourly_weather_rollup_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private String city;
+
+    @Column(nullable = false)
+    private LocalDateTime hourStart;
+
+    @Column(nullable = false)
+    private int sampleCount;
+
+    @Column(nullable = false)
+    private double temperatureSum;
+
+    @Column(nullable = false)
+    private double maxTemperature;
+
+    @Column(nullable = false)
+    private double minTemperature;
+
+    @Column(nullable = false)
+    private double humiditySum;
+
+    @Column(nullable = false)
+    private double windSpeedSum;
+
+    @Column(length = 1024)
+    private String conditionHistogram;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,47 @@
+package com.nidak.weatherpulse.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(
+        name = "threshold_breach_state",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_breach_state_threshold_city", columnNames = {"thresholdId", "city"})
+        }
+)
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class ThresholdBreachState {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "threshold_breach_state_seq")
+    @SequenceGenerator(name = "threshold_breach_state_seq", sequenceName = "threshold_breach_state_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long thresholdId;
+
+    @Column(nullable = false)
+    private String city;
+
+    @Column(nullable = false)
+    private int breachCount;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -9,7 +9,12 @@ import lombok.Setter;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "weather_data")
+@Table(
+        name = "weather_data",
+        indexes = {
+                @Index(name = "idx_weather_city_id_timestamp", columnList = "cityId, timestamp")
+        }
+)
 @NoArgsConstructor
 @AllArgsConstructor
 @Getter
@@ -17,9 +22,14 @@ import java.time.LocalDateTime;
 public class Weather {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "weather_data_seq")
+    @SequenceGenerator(name = "weather_data_seq", sequenceName = "weather_data_seq", allocationSize = 50)
     private Long id;
 
+    // The city's registry row; queries and indexes go through this rather than the name.
+    @Column(name = "city_id")
+    private Long cityId;
+
     @Column(nullable = false)
     private String city;
 
@@ -6,6 +6,7 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -18,7 +19,7 @@ import java.time.LocalDateTime;
 @Table(
         name = "weather_alert",
         indexes = {
-                @Index(name = "idx_weather_alert_city_timestamp", columnList = "city, createdAt")
+                @Index(name = "idx_weather_alert_city_id_created", columnList = "cityId, createdAt")
         }
 )
 @NoArgsConstructor
@@ -28,9 +29,13 @@ import java.time.LocalDateTime;
 public class WeatherAlert {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "weather_alert_seq")
+    @SequenceGenerator(name = "weather_alert_seq", sequenceName = "weather_alert_seq", allocationSize = 50)
     private Long id;
 
+    @Column(name = "city_id")
+    private Long cityId;
+
     @Column(nullable = false)
     private String city;
 
@@ -0,0 +1,46 @@
+package com.nidak.weatherpulse.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "weather_threshold")
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class WeatherThresholdEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // "condition" is a reserved word in MySQL.
+    @Column(name = "threshold_condition", nullable = false)
+    private String condition;
+
+    @Column(nullable = false)
+    private double thresholdValue;
+
+    @Column
+    private String weatherCondition;
+
+    @Column(nullable = false)
+    private int consecutiveUpdates;
+
+    @Column
+    private String alertMessage;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,16 @@
+package com.nidak.weatherpulse.repository;
+
+import com.nidak.weatherpulse.entity.City;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface CityRepository extends JpaRepository<City, Long> {
+
+    @Query("select distinct c from City c left join fetch c.aliases")
+    List<City> findAllWithAliases();
+
+    Optional<City> findByName(String name);
+}
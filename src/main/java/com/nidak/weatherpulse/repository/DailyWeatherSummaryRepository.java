@@ -1,15 +1,31 @@
 package com.nidak.weatherpulse.repository;
 
 import com.nidak.weatherpulse.entity.DailyWeatherSummaryEntity;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface DailyWeatherSummaryRepository extends JpaRepository<DailyWeatherSummaryEntity, Long> {
 
-    Optional<DailyWeatherSummaryEntity> findByCityAndSummaryDate(String city, LocalDate summaryDate);
+    Optional<DailyWeatherSummaryEntity> findByCityIdAndSummaryDate(Long cityId, LocalDate summaryDate);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<DailyWeatherSummaryEntity> findForUpdateByCityIdAndSummaryDate(Long cityId, LocalDate summaryDate);
 
     List<DailyWeatherSummaryEntity> findBySummaryDate(LocalDate summaryDate);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<DailyWeatherSummaryEntity> findForUpdateByCityIdInAndSummaryDateIn(Collection<Long> cityIds, Collection<LocalDate> summaryDates);
+
+    List<DailyWeatherSummaryEntity> findByCityIdAndSummaryDateBetweenOrderBySummaryDateAsc(Long cityId, LocalDate from, LocalDate to);
+
+    List<DailyWeatherSummaryEntity> findByCityIdOrderBySummaryDateAscIdAsc(Long cityId);
+
+    List<DailyWeatherSummaryEntity> findByCityIdIsNullOrderByIdAsc(Pageable pageable);
 }
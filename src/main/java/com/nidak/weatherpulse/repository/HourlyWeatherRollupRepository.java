@@ -0,0 +1,26 @@
+package com.nidak.weatherpulse.repository;
+
+import com.nidak.weatherpulse.entity.HourlyWeatherRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface HourlyWeatherRollupRepository extends JpaRepository<HourlyWeatherRollup, Long> {
+
+    Optional<HourlyWeatherRollup> findByCityAndHourStart(String city, LocalDateTime hourStart);
+
+    List<HourlyWeatherRollup> findByCityInAndHourStartIn(Collection<String> cities, Collection<LocalDateTime> hourStarts);
+
+    List<HourlyWeatherRollup> findByCity(String city);
+
+    List<HourlyWeatherRollup> findByCityAndHourStartBetweenOrderByHourStartAsc(String city, LocalDateTime from, LocalDateTime to);
+
+    @Query("select cast(r.hourStart as LocalDate) as day, sum(r.sampleCount) as samples from HourlyWeatherRollup r "
+            + "where r.city = :city and r.hourStart < :until group by cast(r.hourStart as LocalDate)")
+    List<WeatherRepository.DayCount> countSamplesPerDay(@Param("city") String city, @Param("until") LocalDateTime until);
+}
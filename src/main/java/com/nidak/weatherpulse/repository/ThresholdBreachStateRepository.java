@@ -0,0 +1,14 @@
+package com.nidak.weatherpulse.repository;
+
+import com.nidak.weatherpulse.entity.ThresholdBreachState;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface ThresholdBreachStateRepository extends JpaRepository<ThresholdBreachState, Long> {
+
+    List<ThresholdBreachState> findByCity(String city);
+
+    Optional<ThresholdBreachState> findByThresholdIdAndCity(Long thresholdId, String city);
+}
@@ -3,13 +3,16 @@ package com.nidak.weatherpulse.repository;
 import com.nidak.weatherpulse.entity.WeatherAlert;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface WeatherAlertRepository extends JpaRepository<WeatherAlert, Long> {
 
     List<WeatherAlert> findTop50ByOrderByCreatedAtDesc();
 
-    List<WeatherAlert> findTop20ByCityOrderByCreatedAtDesc(String city);
+    List<WeatherAlert> findTop20ByCityIdOrderByCreatedAtDesc(Long cityId);
 
-    WeatherAlert findTopByCityAndAlertTypeOrderByCreatedAtDesc(String city, String alertType);
+    List<WeatherAlert> findByCreatedAtAfter(LocalDateTime createdAfter);
+
+    List<WeatherAlert> findByCityIdAndCreatedAtAfter(Long cityId, LocalDateTime createdAfter);
 }
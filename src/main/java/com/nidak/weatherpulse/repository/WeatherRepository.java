@@ -1,14 +1,69 @@
 package com.nidak.weatherpulse.repository;
 
+import com.nidak.weatherpulse.dto.WeatherExportRow;
 import com.nidak.weatherpulse.entity.Weather;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface WeatherRepository extends JpaRepository<Weather, Long> {
-    List<Weather> findByCityAndTimestampBetween(String city, LocalDateTime start, LocalDateTime end);
-    Weather findByCityAndTimestamp(String city, LocalDateTime timestamp);
-    Weather findTopByCityOrderByTimestampDesc(String city);
+    List<Weather> findByCityIdAndTimestampBetween(Long cityId, LocalDateTime start, LocalDateTime end);
+    List<Weather> findByCityIdInAndTimestampIn(Collection<Long> cityIds, Collection<LocalDateTime> timestamps);
+    Weather findTopByCityIdOrderByTimestampDesc(Long cityId);
+
+    @Query("select w from Weather w where w.cityId in :cityIds and w.timestamp = "
+            + "(select max(latest.timestamp) from Weather latest where latest.cityId = w.cityId)")
+    List<Weather> findLatestForCities(@Param("cityIds") Collection<Long> cityIds);
+
+    List<Weather> findByCityIdInAndTimestampBetween(Collection<Long> cityIds, LocalDateTime start, LocalDateTime end);
+
+    List<Weather> findByCityIdAndTimestampBetweenOrderByTimestampAsc(Long cityId, LocalDateTime start, LocalDateTime end);
+
+    @Query("select w.cityId as cityId, w.city as city, min(w.timestamp) as firstTimestamp from Weather w "
+            + "group by w.cityId, w.city")
+    List<CityTimespan> findFirstTimestampPerCity();
+
+    /**
+     * One keyset page of a city's observations up to {@code to}, strictly after ({@code afterTimestamp}, {@code afterId}).
+     */
+    @Query("select new com.nidak.weatherpulse.dto.WeatherExportRow(w.id, w.city, w.timestamp, w.temperature, w.feelsLike, "
+            + "w.humidity, w.windSpeed, w.weatherCondition, w.weatherDescription, w.weatherCode, w.weatherRisk) "
+            + "from Weather w where w.cityId = :cityId and w.timestamp <= :to "
+            + "and (w.timestamp > :afterTimestamp or (w.timestamp = :afterTimestamp and w.id > :afterId)) "
+            + "order by w.timestamp, w.id")
+    List<WeatherExportRow> findExportPage(
+            @Param("cityId") long cityId,
+            @Param("afterTimestamp") LocalDateTime afterTimestamp,
+            @Param("afterId") long afterId,
+            @Param("to") LocalDateTime to,
+            Pageable page
+    );
+
+    @Query("select w.id from Weather w where w.cityId = :cityId and w.timestamp < :cutoff order by w.timestamp")
+    List<Long> findIdsOlderThan(@Param("cityId") long cityId, @Param("cutoff") LocalDateTime cutoff, Pageable page);
+
+    @Query("select cast(w.timestamp as LocalDate) as day, count(w) as samples from Weather w "
+            + "where w.cityId = :cityId and w.timestamp < :until group by cast(w.timestamp as LocalDate)")
+    List<DayCount> countSamplesPerDay(@Param("cityId") long cityId, @Param("until") LocalDateTime until);
+
+    interface DayCount {
+        LocalDate getDay();
+
+        Long getSamples();
+    }
+
+    interface CityTimespan {
+        Long getCityId();
+
+        String getCity();
+
+        LocalDateTime getFirstTimestamp();
+    }
 
 }
@@ -0,0 +1,11 @@
+package com.nidak.weatherpulse.repository;
+
+import com.nidak.weatherpulse.entity.WeatherThresholdEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface WeatherThresholdRepository extends JpaRepository<WeatherThresholdEntity, Long> {
+
+    List<WeatherThresholdEntity> findAllByOrderByIdAsc();
+}
@@ -0,0 +1,389 @@
+package com.nidak.weatherpulse.service;
+
+import com.nidak.weatherpulse.dto.PollCycleReport;
+import com.nidak.weatherpulse.dto.PollSchedule;
+import com.nidak.weatherpulse.entity.Weather;
+import com.nidak.weatherpulse.entity.WeatherAlert;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides when each tracked city is polled next. Every city has its own interval, re-planned from each reading
+ * its poll brings back: a severe risk label drops it to {@code weather.polling.min-interval-ms}, and an elevated
+ * risk, an alert raised in the last {@code weather.polling.alert-active-minutes} or a sharp change since the
+ * previous reading each halve it. A city with none of those grows its interval by half again per calm reading,
+ * up to {@code weather.polling.max-interval-ms}. {@code weather.polling.fixed-rate-ms} is where every city starts.
+ * Readings fetched for anyone else (a user's {@code /current}) do not move the schedule.
+ *
+ * <p>The intervals together must fit {@code weather.polling.budget-per-minute} provider calls. What one city poll
+ * costs is measured from the calls each cycle actually made, so a group call that carried only one due city is
+ * charged as a whole call; when the plan does not fit, every interval is stretched by the same factor, past the
+ * max interval if need be. With group fetch on, a tick that has due cities also takes cities already past half
+ * their interval to fill its group calls, so cities share calls instead of each paying for one.
+ *
+ * <p>Due times sit in a priority queue, so a tick only looks at the cities that are due. With
+ * {@code weather.polling.adaptive=false} every city stays on the fixed rate.
+ */
+@Component
+public class AdaptivePollScheduler {
+
+    private static final Set<String> SEVERE_RISKS = Set.of(
+            WeatherRiskClassifier.SEVERE_STORM,
+            WeatherRiskClassifier.TORNADO,
+            WeatherRiskClassifier.CYCLONE,
+            WeatherRiskClassifier.CYCLONE_WIND,
+            WeatherRiskClassifier.SQUALL
+    );
+
+    private static final double SHRINK_FACTOR = 0.5;
+    private static final double STABLE_GROWTH = 1.5;
+    private static final double VOLATILE_TEMPERATURE_DELTA = 2.0;
+    private static final double VOLATILE_WIND_SPEED_DELTA = 5.0;
+    // Weight each earlier cycle keeps in the measured cost of a city poll.
+    private static final double COST_DECAY = 0.9;
+    private static final long CALL_WINDOW_MS = TimeUnit.MINUTES.toMillis(5);
+
+    private final boolean adaptive;
+    private final boolean groupFetch;
+    private final long baseIntervalMs;
+    private final long minIntervalMs;
+    private final long maxIntervalMs;
+    private final double budgetCallsPerMinute;
+    private final long alertActiveMs;
+
+    // All guarded by this.
+    private final Map<String, CityState> cities = new HashMap<>();
+    private final PriorityQueue<Due> queue = new PriorityQueue<>(Comparator.comparingLong(Due::at));
+    private final Deque<long[]> recentCalls = new ArrayDeque<>();
+    private double plannedPollsPerMinute;
+    // Decayed totals of provider calls and city polls; their ratio is what one city poll costs.
+    private double measuredCalls;
+    private double measuredPolls;
+
+    public AdaptivePollScheduler(
+            @Value("${weather.polling.adaptive:true}") boolean adaptive,
+            @Value("${weather.polling.fixed-rate-ms:300000}") long baseIntervalMs,
+            @Value("${weather.polling.min-interval-ms:60000}") long minIntervalMs,
+            @Value("${weather.polling.max-interval-ms:1800000}") long maxIntervalMs,
+            @Value("${weather.polling.budget-per-minute:30}") double budgetCallsPerMinute,
+            @Value("${weather.polling.alert-active-minutes:60}") long alertActiveMinutes,
+            @Value("${weather.polling.group-fetch:true}") boolean groupFetch
+    ) {
+        this.adaptive = adaptive;
+        this.groupFetch = groupFetch;
+        this.baseIntervalMs = Math.max(1000, baseIntervalMs);
+        this.minIntervalMs = Math.min(this.baseIntervalMs, Math.max(1000, minIntervalMs));
+        this.maxIntervalMs = Math.max(this.baseIntervalMs, maxIntervalMs);
+        this.budgetCallsPerMinute = budgetCallsPerMinute > 0 ? budgetCallsPerMinute : Double.MAX_VALUE;
+        this.alertActiveMs = TimeUnit.MINUTES.toMillis(Math.max(0, alertActiveMinutes));
+    }
+
+    /**
+     * Brings the scheduled set in line with {@code trackedCities}: new cities are due straight away, dropped ones
+     * are forgotten.
+     */
+    public synchronized void track(Collection<String> trackedCities) {
+        long now = System.currentTimeMillis();
+        Set<String> wanted = new HashSet<>(trackedCities);
+        if (wanted.size() == cities.size() && cities.keySet().containsAll(wanted)) {
+            return;
+        }
+        cities.keySet().removeIf(city -> {
+            if (wanted.contains(city)) {
+                return false;
+            }
+            plannedPollsPerMinute -= pollsPerMinute(cities.get(city).intervalMs);
+            return true;
+        });
+        for (String city : wanted) {
+            if (!cities.containsKey(city)) {
+                CityState state = new CityState(city, baseIntervalMs, adaptive ? "not polled yet" : "fixed rate");
+                cities.put(city, state);
+                plannedPollsPerMinute += pollsPerMinute(state.intervalMs);
+                schedule(state, now);
+            }
+        }
+    }
+
+    /**
+     * Takes every city that is due, in due order, topped up with early cities to fill group calls. Each stays
+     * out of the queue until its poll is {@link #recordCycle recorded}.
+     */
+    public List<String> takeDue() {
+        return takeDue(System.currentTimeMillis());
+    }
+
+    /**
+     * Called by the ingest writer after each commit. Alerts shorten the next interval their city is planned with,
+     * whoever fetched the reading that raised them.
+     */
+    public synchronized void recordAlerts(List<WeatherAlert> alerts) {
+        long now = System.currentTimeMillis();
+        for (WeatherAlert alert : alerts) {
+            CityState state = cities.get(alert.getCity());
+            if (state != null) {
+                state.alertActiveUntil = now + alertActiveMs;
+                state.activeAlert = alert.getAlertType();
+            }
+        }
+    }
+
+    /**
+     * Re-plans the cities a poll cycle fetched from their new readings and puts back the rest: failed ones are
+     * retried on the normal interval at the latest, skipped ones are due again on the next tick.
+     *
+     * @param readings what the cycle stored, by city
+     */
+    public void recordCycle(PollCycleReport report, Map<String, Weather> readings) {
+        recordCycle(report, readings, System.currentTimeMillis());
+    }
+
+    public synchronized PollSchedule getSchedule() {
+        long now = System.currentTimeMillis();
+        List<PollSchedule.CitySchedule> schedules = new ArrayList<>(cities.size());
+        for (CityState state : cities.values()) {
+            schedules.add(new PollSchedule.CitySchedule(
+                    state.city,
+                    effectiveInterval(state),
+                    state.reason,
+                    state.inFlight ? null : toLocalDateTime(state.dueAt),
+                    state.lastObservedAt
+            ));
+        }
+        schedules.sort(Comparator.comparing(PollSchedule.CitySchedule::city));
+        double budget = budgetCallsPerMinute == Double.MAX_VALUE ? 0 : budgetCallsPerMinute;
+        return new PollSchedule(adaptive, budget, plannedCallsPerMinute() / budgetScale(),
+                actualCallsPerMinute(now), budgetScale(), schedules);
+    }
+
+    synchronized List<String> takeDue(long now) {
+        List<String> due = new ArrayList<>();
+        while (!queue.isEmpty() && queue.peek().at() <= now) {
+            CityState state = live(queue.poll());
+            if (state != null) {
+                state.inFlight = true;
+                due.add(state.city);
+            }
+        }
+        if (!groupFetch || due.isEmpty()) {
+            return due;
+        }
+        int groupSize = WeatherProviderClient.MAX_GROUP_SIZE;
+        int spare = (groupSize - due.size() % groupSize) % groupSize;
+        while (spare > 0 && !queue.isEmpty()) {
+            Due next = queue.peek();
+            CityState state = live(next);
+            if (state == null) {
+                queue.poll();
+                continue;
+            }
+            if (next.at() - now > effectiveInterval(state) / 2) {
+                break;
+            }
+            queue.poll();
+            state.inFlight = true;
+            due.add(state.city);
+            spare--;
+        }
+        return due;
+    }
+
+    synchronized void recordCycle(PollCycleReport report, Map<String, Weather> readings, long now) {
+        int polled = report.succeeded() + report.failed();
+        if (report.providerCalls() > 0 && polled > 0) {
+            measuredCalls = measuredCalls * COST_DECAY + report.providerCalls();
+            measuredPolls = measuredPolls * COST_DECAY + polled;
+            recentCalls.addLast(new long[]{now, report.providerCalls()});
+        }
+        for (String city : report.failedCities().keySet()) {
+            CityState state = cities.get(city);
+            if (state != null) {
+                state.inFlight = false;
+                state.reason = "retrying after a failed poll";
+                schedule(state, now + Math.min(effectiveInterval(state), baseIntervalMs));
+            }
+        }
+        for (String city : report.skippedCities()) {
+            CityState state = cities.get(city);
+            if (state != null) {
+                state.inFlight = false;
+                schedule(state, now);
+            }
+        }
+        for (String city : report.succeededCities()) {
+            CityState state = cities.get(city);
+            if (state == null) {
+                continue;
+            }
+            state.inFlight = false;
+            Weather reading = readings.get(city);
+            if (reading != null) {
+                plan(state, reading, now);
+            } else {
+                schedule(state, now + effectiveInterval(state));
+            }
+        }
+    }
+
+    private void plan(CityState state, Weather observation, long now) {
+        long interval = baseIntervalMs;
+        String reason = "fixed rate";
+        if (adaptive) {
+            List<String> reasons = new ArrayList<>(3);
+            String risk = observation.getWeatherRisk();
+            double factor = 1;
+            if (risk != null && SEVERE_RISKS.contains(risk)) {
+                factor = 0;
+                reasons.add("severe risk (" + risk + ")");
+            } else if (risk != null && !WeatherRiskClassifier.LOW.equals(risk)) {
+                factor *= SHRINK_FACTOR;
+                reasons.add("elevated risk (" + risk + ")");
+            }
+            if (now < state.alertActiveUntil) {
+                factor *= SHRINK_FACTOR;
+                reasons.add("active alert (" + state.activeAlert + ")");
+            }
+            String change = state.lastObservedAt == null ? null : describeChange(state, observation);
+            if (change != null) {
+                factor *= SHRINK_FACTOR;
+                reasons.add("volatile readings (" + change + ")");
+            }
+
+            if (!reasons.isEmpty()) {
+                state.stableReadings = 0;
+                interval = (long) (baseIntervalMs * factor);
+                reason = String.join(", ", reasons);
+            } else if (state.lastObservedAt == null) {
+                reason = "first reading";
+            } else {
+                state.stableReadings++;
+                interval = (long) Math.min(maxIntervalMs, baseIntervalMs * Math.pow(STABLE_GROWTH, state.stableReadings));
+                reason = "stable for " + state.stableReadings + (state.stableReadings == 1 ? " reading" : " readings");
+            }
+            interval = Math.max(minIntervalMs, Math.min(maxIntervalMs, interval));
+        }
+
+        plannedPollsPerMinute += pollsPerMinute(interval) - pollsPerMinute(state.intervalMs);
+        state.intervalMs = interval;
+        state.reason = reason;
+        state.lastTemperature = observation.getTemperature();
+        state.lastWindSpeed = observation.getWindSpeed();
+        state.lastCondition = observation.getWeatherCondition();
+        state.lastObservedAt = observation.getTimestamp();
+        schedule(state, now + effectiveInterval(state));
+    }
+
+    /**
+     * @return what moved sharply since the city's previous reading, or null if nothing did
+     */
+    private static String describeChange(CityState state, Weather observation) {
+        double temperatureDelta = Math.abs(observation.getTemperature() - state.lastTemperature);
+        if (temperatureDelta >= VOLATILE_TEMPERATURE_DELTA) {
+            return String.format(Locale.ROOT, "temperature moved %.1f C", temperatureDelta);
+        }
+        double windDelta = Math.abs(observation.getWindSpeed() - state.lastWindSpeed);
+        if (windDelta >= VOLATILE_WIND_SPEED_DELTA) {
+            return String.format(Locale.ROOT, "wind moved %.1f m/s", windDelta);
+        }
+        String condition = observation.getWeatherCondition();
+        if (condition != null && state.lastCondition != null && !condition.equals(state.lastCondition)) {
+            return state.lastCondition + " to " + condition;
+        }
+        return null;
+    }
+
+    /**
+     * @return the city the entry is for, or null if the entry was superseded or the city is already being polled
+     */
+    private CityState live(Due due) {
+        CityState state = due.state();
+        boolean current = cities.get(state.city) == state && state.generation == due.generation() && !state.inFlight;
+        return current ? state : null;
+    }
+
+    private void schedule(CityState state, long dueAt) {
+        state.generation++;
+        state.dueAt = dueAt;
+        // The entry it replaces stays in the queue and is dropped when it surfaces, since its generation is behind.
+        queue.add(new Due(dueAt, state, state.generation));
+    }
+
+    private long effectiveInterval(CityState state) {
+        return adaptive ? Math.round(state.intervalMs * budgetScale()) : state.intervalMs;
+    }
+
+    private double budgetScale() {
+        double planned = plannedCallsPerMinute();
+        return adaptive && planned > budgetCallsPerMinute ? planned / budgetCallsPerMinute : 1;
+    }
+
+    /**
+     * Until a cycle has been measured, every city poll is assumed to cost a whole call.
+     */
+    private double plannedCallsPerMinute() {
+        double callsPerPoll = measuredPolls == 0 ? 1 : measuredCalls / measuredPolls;
+        return plannedPollsPerMinute * callsPerPoll;
+    }
+
+    private double actualCallsPerMinute(long now) {
+        while (!recentCalls.isEmpty() && recentCalls.peekFirst()[0] < now - CALL_WINDOW_MS) {
+            recentCalls.removeFirst();
+        }
+        long calls = 0;
+        for (long[] cycle : recentCalls) {
+            calls += cycle[1];
+        }
+        return calls / (double) TimeUnit.MILLISECONDS.toMinutes(CALL_WINDOW_MS);
+    }
+
+    private static double pollsPerMinute(long intervalMs) {
+        return TimeUnit.MINUTES.toMillis(1) / (double) intervalMs;
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    private record Due(long at, CityState state, long generation) {
+    }
+
+    private static final class CityState {
+
+        private final String city;
+        private long intervalMs;
+        private String reason;
+        private long dueAt;
+        private long generation;
+        private boolean inFlight;
+        private int stableReadings;
+        private long alertActiveUntil;
+        private String activeAlert;
+        private double lastTemperature;
+        private double lastWindSpeed;
+        private String lastCondition;
+        private LocalDateTime lastObservedAt;
+
+        private CityState(String city, long intervalMs, String reason) {
+            this.city = city;
+            this.intervalMs = intervalMs;
+            this.reason = reason;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.nidak.weatherpulse.service;
+
+import com.nidak.weatherpulse.entity.WeatherAlert;
+import com.nidak.weatherpulse.repository.WeatherAlertRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Last emitted time per (city, alert type), used to drop repeats inside the dedup window.
+ * Repeats are rejected from memory. Only alerts that look new are checked against
+ * {@code weather_alert}, so rows written by another instance still suppress them.
+ */
+@Component
+public class AlertDedupIndex {
+
+    private final WeatherAlertRepository weatherAlertRepository;
+    private final Map<String, LocalDateTime> lastEmitted = new ConcurrentHashMap<>();
+    private final long dedupMinutes;
+    private final int maxEntries;
+
+    public AlertDedupIndex(
+            WeatherAlertRepository weatherAlertRepository,
+            @Value("${weather.alerts.dedup-minutes:30}") long dedupMinutes,
+            @Value("${weather.alerts.dedup-max-entries:10000}") int maxEntries
+    ) {
+        this.weatherAlertRepository = weatherAlertRepository;
+        this.dedupMinutes = dedupMinutes;
+        this.maxEntries = Math.max(1, maxEntries);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void warmUp() {
+        for (WeatherAlert alert : weatherAlertRepository.findByCreatedAtAfter(windowStart())) {
+            record(alert);
+        }
+    }
+
+    /**
+     * @return the candidates that are not repeats of an alert emitted inside the dedup window
+     */
+    public List<WeatherAlert> filterRecentDuplicates(List<WeatherAlert> candidates) {
+        List<WeatherAlert> claimed = new ArrayList<>(candidates.size());
+        for (WeatherAlert alert : candidates) {
+            if (claim(alert)) {
+                claimed.add(alert);
+            }
+        }
+        if (claimed.isEmpty()) {
+            return claimed;
+        }
+        if (lastEmitted.size() > maxEntries) {
+            evictExpired();
+        }
+        return confirmAgainstStore(claimed);
+    }
+
+    /**
+     * Drops the claims {@link #filterRecentDuplicates} made for alerts that were never committed. A claim another
+     * writer has since replaced is left alone.
+     */
+    public void release(List<WeatherAlert> claimed) {
+        for (WeatherAlert alert : claimed) {
+            lastEmitted.remove(key(alert.getCity(), alert.getAlertType()), alert.getCreatedAt());
+        }
+    }
+
+    private boolean claim(WeatherAlert alert) {
+        LocalDateTime cutoff = alert.getCreatedAt().minusMinutes(dedupMinutes);
+        boolean[] claimed = {false};
+        lastEmitted.compute(key(alert.getCity(), alert.getAlertType()), (key, last) -> {
+            if (last != null && last.isAfter(cutoff)) {
+                return last;
+            }
+            claimed[0] = true;
+            return alert.getCreatedAt();
+        });
+        return claimed[0];
+    }
+
+    private List<WeatherAlert> confirmAgainstStore(List<WeatherAlert> claimed) {
+        Map<Long, List<WeatherAlert>> claimedByCity = new LinkedHashMap<>();
+        for (WeatherAlert alert : claimed) {
+            claimedByCity.computeIfAbsent(alert.getCityId(), cityId -> new ArrayList<>()).add(alert);
+        }
+
+        List<WeatherAlert> confirmed = new ArrayList<>(claimed.size());
+        LocalDateTime windowStart = windowStart();
+        for (Map.Entry<Long, List<WeatherAlert>> entry : claimedByCity.entrySet()) {
+            Map<String, LocalDateTime> storedByType = new HashMap<>();
+            for (WeatherAlert stored : weatherAlertRepository.findByCityIdAndCreatedAtAfter(entry.getKey(), windowStart)) {
+                storedByType.merge(stored.getAlertType(), stored.getCreatedAt(), this::later);
+            }
+            for (WeatherAlert alert : entry.getValue()) {
+                LocalDateTime stored = storedByType.get(alert.getAlertType());
+                if (stored == null) {
+                    confirmed.add(alert);
+                } else {
+                    // Another writer got there first; remember its time instead of ours.
+                    lastEmitted.replace(key(alert.getCity(), alert.getAlertType()), alert.getCreatedAt(), stored);
+                }
+            }
+        }
+        return confirmed;
+    }
+
+    private void record(WeatherAlert alert) {
+        if (alert.getCity() == null || alert.getAlertType() == null || alert.getCreatedAt() == null) {
+            return;
+        }
+        lastEmitted.merge(key(alert.getCity(), alert.getAlertType()), alert.getCreatedAt(), this::later);
+    }
+
+    private void evictExpired() {
+        LocalDateTime windowStart = windowStart();
+        lastEmitted.values().removeIf(emittedAt -> !emittedAt.isAfter(windowStart));
+        if (lastEmitted.size() > maxEntries) {
+            // Safe to drop: anything accepted from an empty slot is still checked against the table.
+            lastEmitted.clear();
+        }
+    }
+
+    private LocalDateTime windowStart() {
+        return LocalDateTime.now().minusMinutes(dedupMinutes);
+    }
+
+    private LocalDateTime later(LocalDateTime first, LocalDateTime second) {
+        return first.isAfter(second) ? first : second;
+    }
+
+    private static String key(String city, String alertType) {
+        return city + "|" + alertType;
+    }
+}
@@ -0,0 +1,93 @@
+package com.nidak.weatherpulse.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Resolves a list of cities on a shared bounded worker pool for the multi-city read endpoints.
+ * Every city gets a result in input order: either its value or the error it failed with. A whole
+ * batch shares one deadline, so one slow provider call cannot hold the response past it.
+ */
+@Component
+public class CityBatchResolver {
+
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMs;
+
+    public CityBatchResolver(
+            @Value("${weather.batch.max-parallel:8}") int maxParallel,
+            @Value("${weather.batch.timeout-ms:10000}") long timeoutMs
+    ) {
+        int workers = Math.max(1, maxParallel);
+        this.timeoutMs = Math.max(100, timeoutMs);
+        this.executor = new ThreadPoolExecutor(
+                workers,
+                workers,
+                60,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                WorkerThreads.namedDaemonThreads("weather-batch-")
+        );
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    public <T> List<Result<T>> resolveAll(List<String> cities, Function<String, T> resolver) {
+        long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        List<Future<T>> tasks = new ArrayList<>(cities.size());
+        for (String city : cities) {
+            tasks.add(executor.submit(() -> resolver.apply(city)));
+        }
+
+        List<Result<T>> results = new ArrayList<>(cities.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            results.add(await(cities.get(i), tasks.get(i), deadlineNanos));
+        }
+        return results;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> Result<T> await(String city, Future<T> task, long deadlineNanos) {
+        try {
+            return Result.ok(city, task.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS));
+        } catch (TimeoutException exception) {
+            task.cancel(true);
+            return Result.failed(city, "Timed out after " + timeoutMs + " ms");
+        } catch (ExecutionException exception) {
+            return Result.failed(city, WorkerThreads.describe(exception.getCause()));
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            task.cancel(true);
+            return Result.failed(city, "Interrupted");
+        }
+    }
+
+    public record Result<T>(String city, T value, String error) {
+
+        static <T> Result<T> ok(String city, T value) {
+            return new Result<>(city, value, null);
+        }
+
+        static <T> Result<T> failed(String city, String error) {
+            return new Result<>(city, null, error);
+        }
+
+        public boolean succeeded() {
+            return error == null;
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.nidak.weatherpulse.service;
+
+import com.nidak.weatherpulse.entity.DailyWeatherSummaryEntity;
+import com.nidak.weatherpulse.entity.HourlyWeatherRollup;
+import com.nidak.weatherpulse.entity.ThresholdBreachState;
+import com.nidak.weatherpulse.repository.DailyWeatherSummaryRepository;
+import com.nidak.weatherpulse.repository.HourlyWeatherRollupRepository;
+import com.nidak.weatherpulse.repository.ThresholdBreachStateRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Moves rows stored before the city registry existed onto it: each distinct spelling in {@code weather_data},
+ * {@code weather_alert} and {@code daily_weather_summary} without a {@code city_id} is registered (so variants
+ * such as "new delhi" and "New Delhi" land on one city) and its rows get the id and the registered spelling.
+ * A spelling's daily summary is merged into the city's row for that day when there already is one, since the
+ * unique key allows only one. Hourly rollups, still keyed by name, are relabelled too, and rollups that now
+ * collide on the same city and hour are merged. Two spellings polled in the same minute leave two observations
+ * with the same city and timestamp; all but the first are deleted, and the hours and days they fell in are
+ * rebuilt so the merged aggregates do not count them twice.
+ *
+ * <p>Threshold breach streaks are keyed by the spelling the engine evaluates under, which is the registered one.
+ * A streak stored under any other spelling is relabelled, or, when the city already has a streak for that threshold,
+ * dropped in favour of whichever of the two was updated last.
+ *
+ * <p>Days that ended up with two summary rows before the unique key existed are cut back to one and rebuilt;
+ * the key itself is added on the next start, once no duplicates are left.
+ *
+ * <p>Rows are updated in id ranges of {@code weather.migration.batch-size}, so no single statement locks a whole
+ * table. Runs before anything is ingested or any streak is loaded. Once every row has an id, a restart only checks
+ * the three {@code city_id is null} lookups, the duplicate-day query and the distinct breach-state cities.
+ */
+@Component
+public class CityKeyMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(CityKeyMigration.class);
+
+    private static final String[] KEYED_TABLES = {"weather_data", "weather_alert"};
+
+    private final CityRegistry cityRegistry;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final HourlyWeatherRollupRepository hourlyWeatherRollupRepository;
+    private final DailyWeatherSummaryRepository dailyWeatherSummaryRepository;
+    private final ThresholdBreachStateRepository thresholdBreachStateRepository;
+    private final HourlyRollupAggregator hourlyRollupAggregator;
+    private final DailySummaryAggregator dailySummaryAggregator;
+    private final int batchSize;
+
+    public CityKeyMigration(
+            CityRegistry cityRegistry,
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            HourlyWeatherRollupRepository hourlyWeatherRollupRepository,
+            DailyWeatherSummaryRepository dailyWeatherSummaryRepository,
+            ThresholdBreachStateRepository thresholdBreachStateRepository,
+            HourlyRollupAggregator hourlyRollupAggregator,
+            DailySummaryAggregator dailySummaryAggregator,
+            @Value("${weather.migration.batch-size:5000}") int batchSize
+    ) {
+        this.cityRegistry = cityRegistry;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.hourlyWeatherRollupRepository = hourlyWeatherRollupRepository;
+        this.dailyWeatherSummaryRepository = dailyWeatherSummaryRepository;
+        this.thresholdBreachStateRepository = thresholdBreachStateRepository;
+        this.hourlyRollupAggregator = hourlyRollupAggregator;
+        this.dailySummaryAggregator = dailySummaryAggregator;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @PostConstruct
+    public void migrate() {
+        Map<String, CityRegistry.CityRef> resolved = new LinkedHashMap<>();
+        long rows = 0;
+        for (String table : KEYED_TABLES) {
+            rows += assignCityIds(table, resolved);
+        }
+        rows += assignSummaryCityIds(resolved);
+        rows += relabelBreachStates(resolved);
+        int duplicateDays = dropDuplicateSummaries();
+        if (duplicateDays > 0) {
+            log.info("Rebuilt {} daily summaries that had more than one row", duplicateDays);
+        }
+        if (resolved.isEmpty()) {
+            return;
+        }
+
+        Map<CityRegistry.CityRef, List<String>> renamed = new LinkedHashMap<>();
+        for (Map.Entry<String, CityRegistry.CityRef> entry : resolved.entrySet()) {
+            if (!entry.getKey().equals(entry.getValue().name())) {
+                renamed.computeIfAbsent(entry.getValue(), city -> new ArrayList<>()).add(entry.getKey());
+            }
+        }
+        int duplicates = 0;
+        for (Map.Entry<CityRegistry.CityRef, List<String>> entry : renamed.entrySet()) {
+            CityRegistry.CityRef city = entry.getKey();
+            transactionTemplate.executeWithoutResult(status -> mergeHourlyRollups(city, entry.getValue()));
+            List<LocalDateTime> timestamps = jdbcTemplate.queryForList(
+                    "select timestamp from weather_data where city_id = ? group by timestamp having count(*) > 1",
+                    LocalDateTime.class, city.id());
+            duplicates += timestamps.size();
+            for (int from = 0; from < timestamps.size(); from += batchSize) {
+                List<LocalDateTime> batch = timestamps.subList(from, Math.min(timestamps.size(), from + batchSize));
+                transactionTemplate.executeWithoutResult(status -> dropDuplicateSamples(city, batch));
+            }
+        }
+        log.info("Moved {} rows for {} city spellings onto {} registered cities, dropping {} duplicated observations",
+                rows, resolved.size(), resolved.values().stream().distinct().count(), duplicates);
+    }
+
+    /**
+     * Gives every row of {@code table} without an id its registered city, one id range at a time; gaps in the
+     * ids are skipped rather than scanned.
+     */
+    private long assignCityIds(String table, Map<String, CityRegistry.CityRef> resolved) {
+        long rows = 0;
+        Long from = jdbcTemplate.queryForObject("select min(id) from " + table + " where city_id is null", Long.class);
+        while (from != null) {
+            long to = from + batchSize - 1;
+            List<String> spellings = jdbcTemplate.queryForList(
+                    "select distinct city from " + table + " where city_id is null and id between ? and ?",
+                    String.class, from, to);
+            for (String spelling : spellings) {
+                CityRegistry.CityRef city = resolved.computeIfAbsent(spelling, cityRegistry::register);
+                rows += jdbcTemplate.update("update " + table + " set city_id = ?, city = ? "
+                                + "where city = ? and city_id is null and id between ? and ?",
+                        city.id(), city.name(), spelling, from, to);
+            }
+            from = jdbcTemplate.queryForObject(
+                    "select min(id) from " + table + " where city_id is null and id > ?", Long.class, to);
+        }
+        return rows;
+    }
+
+    /**
+     * Gives every daily summary without an id its registered city, a page of {@code weather.migration.batch-size}
+     * rows at a time. A row whose city already has one for that day is folded into it and deleted.
+     */
+    private long assignSummaryCityIds(Map<String, CityRegistry.CityRef> resolved) {
+        long rows = 0;
+        while (true) {
+            List<DailyWeatherSummaryEntity> page = transactionTemplate.execute(status -> {
+                List<DailyWeatherSummaryEntity> legacy =
+                        dailyWeatherSummaryRepository.findByCityIdIsNullOrderByIdAsc(PageRequest.of(0, batchSize));
+                for (DailyWeatherSummaryEntity summary : legacy) {
+                    CityRegistry.CityRef city = resolved.computeIfAbsent(summary.getCity(), cityRegistry::register);
+                    DailyWeatherSummaryEntity existing = dailyWeatherSummaryRepository
+                            .findByCityIdAndSummaryDate(city.id(), summary.getSummaryDate())
+                            .orElse(null);
+                    if (existing == null) {
+                        summary.setCityId(city.id());
+                        summary.setCity(city.name());
+                    } else {
+                        dailySummaryAggregator.merge(existing, summary);
+                        dailyWeatherSummaryRepository.delete(summary);
+                    }
+                }
+                return legacy;
+            });
+            if (page.isEmpty()) {
+                return rows;
+            }
+            rows += page.size();
+        }
+    }
+
+    /**
+     * Moves every breach streak stored under a spelling other than its city's registered one onto that spelling.
+     */
+    private long relabelBreachStates(Map<String, CityRegistry.CityRef> resolved) {
+        long rows = 0;
+        for (String spelling : jdbcTemplate.queryForList("select distinct city from threshold_breach_state", String.class)) {
+            if (spelling.equals(cityRegistry.canonicalName(spelling))) {
+                continue;
+            }
+            CityRegistry.CityRef city = resolved.computeIfAbsent(spelling, cityRegistry::register);
+            rows += transactionTemplate.execute(status -> relabelBreachStates(spelling, city));
+        }
+        return rows;
+    }
+
+    private int relabelBreachStates(String spelling, CityRegistry.CityRef city) {
+        List<ThresholdBreachState> legacy = thresholdBreachStateRepository.findByCity(spelling);
+        for (ThresholdBreachState state : legacy) {
+            ThresholdBreachState existing = thresholdBreachStateRepository
+                    .findByThresholdIdAndCity(state.getThresholdId(), city.name())
+                    .orElse(null);
+            if (existing == null) {
+                state.setCity(city.name());
+                continue;
+            }
+            // A streak counts consecutive samples, so the one that saw the latest sample is the one to keep.
+            if (state.getUpdatedAt().isAfter(existing.getUpdatedAt())) {
+                existing.setBreachCount(state.getBreachCount());
+                existing.setUpdatedAt(state.getUpdatedAt());
+            }
+            thresholdBreachStateRepository.delete(state);
+        }
+        return legacy.size();
+    }
+
+    /**
+     * @return how many city days had more than one row
+     */
+    private int dropDuplicateSummaries() {
+        List<Long> kept = jdbcTemplate.queryForList("select min(id) from daily_weather_summary where city_id is not null "
+                + "group by city_id, summary_date having count(*) > 1", Long.class);
+        for (Long id : kept) {
+            DailyWeatherSummaryEntity summary = dailyWeatherSummaryRepository.findById(id).orElseThrow();
+            jdbcTemplate.update("delete from daily_weather_summary where city_id = ? and summary_date = ? and id <> ?",
+                    summary.getCityId(), summary.getSummaryDate(), id);
+            dailySummaryAggregator.rebuild(summary.getCity(), summary.getSummaryDate());
+        }
+        return kept.size();
+    }
+
+    /**
+     * Keeps the first observation at each timestamp and rebuilds the hours and days that counted the others.
+     */
+    private void dropDuplicateSamples(CityRegistry.CityRef city, List<LocalDateTime> timestamps) {
+        List<Object[]> arguments = new ArrayList<>(timestamps.size());
+        Set<LocalDateTime> hours = new TreeSet<>();
+        Set<LocalDate> days = new TreeSet<>();
+        for (LocalDateTime timestamp : timestamps) {
+            arguments.add(new Object[]{city.id(), timestamp, city.id(), timestamp});
+            hours.add(HourlyRollupAggregator.hourOf(timestamp));
+            days.add(timestamp.toLocalDate());
+        }
+        jdbcTemplate.batchUpdate("delete from weather_data where city_id = ? and timestamp = ? and id > "
+                + "(select min(id) from weather_data where city_id = ? and timestamp = ?)", arguments);
+        // Days past retention are rebuilt from the hours, so those go first.
+        for (LocalDateTime hour : hours) {
+            hourlyRollupAggregator.rebuild(city.name(), hour);
+        }
+        for (LocalDate day : days) {
+            dailySummaryAggregator.rebuild(city.name(), day);
+        }
+    }
+
+    private void mergeHourlyRollups(CityRegistry.CityRef city, List<String> spellings) {
+        Map<LocalDateTime, HourlyWeatherRollup> byHour = new HashMap<>();
+        for (HourlyWeatherRollup rollup : hourlyWeatherRollupRepository.findByCity(city.name())) {
+            byHour.put(rollup.getHourStart(), rollup);
+        }
+        List<HourlyWeatherRollup> changed = new ArrayList<>();
+        List<HourlyWeatherRollup> merged = new ArrayList<>();
+        for (String spelling : spellings) {
+            for (HourlyWeatherRollup rollup : hourlyWeatherRollupRepository.findByCity(spelling)) {
+                HourlyWeatherRollup existing = byHour.get(rollup.getHourStart());
+                if (existing == null) {
+                    rollup.setCity(city.name());
+                    byHour.put(rollup.getHourStart(), rollup);
+                    changed.add(rollup);
+                } else {
+                    hourlyRollupAggregator.merge(existing, rollup);
+                    changed.add(existing);
+                    merged.add(rollup);
+                }
+            }
+        }
+        hourlyWeatherRollupRepository.saveAll(changed);
+        hourlyWeatherRollupRepository.deleteAll(merged);
+    }
+}
@@ -0,0 +1,275 @@
+package com.nidak.weatherpulse.service;
+
+import com.nidak.weatherpulse.dto.PollCycleReport;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Runs one poll cycle over a list of cities on a bounded worker pool.
+ * Every group reserves a token from {@link ProviderRateLimiter} first; cities that
+ * cannot get a token before the cycle deadline are reported as skipped instead of
+ * spilling into the next cycle. A cycle can also run over groups of cities that share one
+ * provider call, and so one token; the report still lists every city on its own.
+ *
+ * <p>A group still running at the deadline is reported as failed, but cancelling it does not stop a provider call
+ * that ignores interrupts. The cycle stays marked as running until the last such call returns, so later cycles
+ * are skipped rather than stacking more calls on a stuck provider.
+ */
+@Component
+public class CityPollingEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(CityPollingEngine.class);
+
+    private final ProviderRateLimiter rateLimiter;
+    private final WeatherMetrics weatherMetrics;
+    private final ThreadPoolExecutor executor;
+    private final long cycleTimeoutMs;
+    private final AtomicBoolean cycleRunning = new AtomicBoolean(false);
+
+    private volatile PollCycleReport lastReport;
+
+    public CityPollingEngine(
+            ProviderRateLimiter rateLimiter,
+            WeatherMetrics weatherMetrics,
+            @Value("${weather.polling.max-in-flight:8}") int maxInFlight,
+            @Value("${weather.polling.cycle-timeout-ms:${weather.polling.fixed-rate-ms:300000}}") long cycleTimeoutMs
+    ) {
+        int workers = Math.max(1, maxInFlight);
+        this.rateLimiter = rateLimiter;
+        this.weatherMetrics = weatherMetrics;
+        this.cycleTimeoutMs = Math.max(1000, cycleTimeoutMs);
+        this.executor = new ThreadPoolExecutor(
+                workers,
+                workers,
+                60,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                WorkerThreads.namedDaemonThreads("weather-poll-")
+        );
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    public PollCycleReport runCycle(List<String> cities, Consumer<String> fetcher) {
+        List<List<String>> singles = new ArrayList<>(cities.size());
+        for (String city : cities) {
+            singles.add(List.of(city));
+        }
+        return runGroupedCycle(singles, group -> {
+            fetcher.accept(group.get(0));
+            return Map.of();
+        });
+    }
+
+    /**
+     * @param groups  cities fetched together; each group costs one rate-limiter token
+     * @param fetcher fetches one group and returns the cities in it that failed, with the reason.
+     *                Throwing fails the whole group.
+     */
+    public PollCycleReport runGroupedCycle(List<List<String>> groups, Function<List<String>, Map<String, String>> fetcher) {
+        List<String> cities = new ArrayList<>();
+        for (List<String> group : groups) {
+            cities.addAll(group);
+        }
+        LocalDateTime startedAt = LocalDateTime.now();
+        if (!cycleRunning.compareAndSet(false, true)) {
+            // The previous cycle is still going; do not stack a second one on top of it.
+            return PollCycleReport.of(startedAt, 0, cities.size(), List.of(), Map.of(), List.copyOf(cities), 0);
+        }
+
+        long startNanos = System.nanoTime();
+        long deadlineNanos = startNanos + TimeUnit.MILLISECONDS.toNanos(cycleTimeoutMs);
+        Queue<String> succeeded = new ConcurrentLinkedQueue<>();
+        Map<String, String> failed = new ConcurrentHashMap<>();
+        Queue<String> skipped = new ConcurrentLinkedQueue<>();
+        AtomicInteger providerCalls = new AtomicInteger();
+
+        // One share for this thread and one per submitted group; whoever finishes last ends the cycle.
+        AtomicInteger unfinished = new AtomicInteger(1);
+        try {
+            List<GroupTask> tasks = new ArrayList<>(groups.size());
+            for (List<String> group : groups) {
+                tasks.add(submit(group, unfinished,
+                        () -> pollGroup(group, fetcher, deadlineNanos, succeeded, failed, skipped, providerCalls)));
+            }
+
+            for (GroupTask task : tasks) {
+                awaitTask(task, deadlineNanos, unfinished, failed);
+            }
+
+            PollCycleReport report = PollCycleReport.of(
+                    startedAt,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos),
+                    cities.size(),
+                    sorted(succeeded),
+                    new TreeMap<>(failed),
+                    sorted(skipped),
+                    providerCalls.get()
+            );
+            lastReport = report;
+            weatherMetrics.recordPollCycle(report.durationMs());
+            failed.keySet().forEach(weatherMetrics::recordPollFailure);
+            if (report.failed() > 0 || report.skipped() > 0) {
+                log.warn("Poll cycle finished in {} ms: {} ok, {} failed, {} skipped. Failures: {}",
+                        report.durationMs(), report.succeeded(), report.failed(), report.skipped(), report.failedCities());
+            }
+            if (unfinished.get() > 1) {
+                log.warn("{} provider calls are still running past the poll cycle deadline; "
+                        + "cycles are skipped until they return", unfinished.get() - 1);
+            }
+            return report;
+        } finally {
+            finishShare(unfinished);
+        }
+    }
+
+    /**
+     * True while a cycle, or a provider call left over from one, is still running.
+     */
+    public boolean isCycleRunning() {
+        return cycleRunning.get();
+    }
+
+    public PollCycleReport getLastReport() {
+        return lastReport;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void pollGroup(
+            List<String> group,
+            Function<List<String>, Map<String, String>> fetcher,
+            long deadlineNanos,
+            Queue<String> succeeded,
+            Map<String, String> failed,
+            Queue<String> skipped,
+            AtomicInteger providerCalls
+    ) {
+        try {
+            if (!rateLimiter.tryReserve(deadlineNanos - System.nanoTime())) {
+                skipped.addAll(group);
+                return;
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            skipped.addAll(group);
+            return;
+        }
+
+        try {
+            Map<String, String> groupFailures = fetcher.apply(group);
+            for (String city : group) {
+                String failure = groupFailures.get(city);
+                if (failure == null) {
+                    succeeded.add(city);
+                } else {
+                    failed.put(city, failure);
+                }
+            }
+        } catch (RuntimeException exception) {
+            String failure = WorkerThreads.describe(exception);
+            for (String city : group) {
+                failed.put(city, failure);
+            }
+        } finally {
+            // Counts the group call and any city the fetcher had to fetch on its own; a fetch that joined one
+            // already running made no call.
+            providerCalls.addAndGet(rateLimiter.releaseReservation());
+        }
+    }
+
+    private GroupTask submit(List<String> group, AtomicInteger unfinished, Runnable poll) {
+        AtomicBoolean started = new AtomicBoolean(false);
+        unfinished.incrementAndGet();
+        try {
+            Future<?> future = executor.submit(() -> {
+                if (!started.compareAndSet(false, true)) {
+                    // Abandoned at the deadline before it got a worker; the cycle already gave up its share.
+                    return;
+                }
+                try {
+                    poll.run();
+                } finally {
+                    finishShare(unfinished);
+                }
+            });
+            return new GroupTask(group, future, started);
+        } catch (RuntimeException exception) {
+            finishShare(unfinished);
+            throw exception;
+        }
+    }
+
+    private void awaitTask(GroupTask task, long deadlineNanos, AtomicInteger unfinished, Map<String, String> failed) {
+        String failure = null;
+        try {
+            // Give in-flight calls a short grace period past the deadline before abandoning them.
+            long remaining = Math.max(deadlineNanos - System.nanoTime(), TimeUnit.SECONDS.toNanos(1));
+            task.future().get(remaining, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException exception) {
+            abandon(task, unfinished);
+            failure = "Timed out after poll cycle deadline";
+        } catch (ExecutionException exception) {
+            failure = WorkerThreads.describe(exception.getCause());
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            abandon(task, unfinished);
+            failure = "Interrupted";
+        }
+        if (failure != null) {
+            for (String city : task.group()) {
+                failed.putIfAbsent(city, failure);
+            }
+        }
+    }
+
+    /**
+     * Cancels a task. One that never started gives up its share here; one already running keeps it until its
+     * provider call returns, since the interrupt may not reach it.
+     */
+    private void abandon(GroupTask task, AtomicInteger unfinished) {
+        task.future().cancel(true);
+        if (task.started().compareAndSet(false, true)) {
+            finishShare(unfinished);
+        }
+    }
+
+    private void finishShare(AtomicInteger unfinished) {
+        if (unfinished.decrementAndGet() == 0) {
+            cycleRunning.set(false);
+        }
+    }
+
+    private static List<String> sorted(Queue<String> cities) {
+        List<String> list = new ArrayList<>(cities);
+        list.sort(String::compareTo);
+        return list;
+    }
+
+    private record GroupTask(List<String> group, Future<?> future, AtomicBoolean started) {
+    }
+}
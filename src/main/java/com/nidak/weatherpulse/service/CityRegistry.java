@@ -0,0 +1,229 @@
+package com.nidak.weatherpulse.service;
+
+import com.nidak.weatherpulse.entity.City;
+import com.nidak.weatherpulse.repository.CityRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves free-text city names to their {@link City} row. A name's lookup key is the name trimmed, with runs
+ * of whitespace collapsed and lower-cased, so "new delhi", "New Delhi " and "NEW DELHI" are one city; aliases
+ * add further keys, such as the provider's "Bengaluru" for "Bangalore".
+ *
+ * <p>Every city is held in memory from startup, so resolving a name is a hash lookup, and one
+ * {@link CityRef} per city is shared by everything that refers to it. Only a name seen for the first time
+ * costs an insert.
+ */
+@Component
+public class CityRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(CityRegistry.class);
+
+    /** Id that matches no stored row, used for cities nothing has been stored for yet. */
+    public static final long UNKNOWN = -1;
+
+    private final CityRepository cityRepository;
+    private final Map<Long, CityRef> byId = new ConcurrentHashMap<>();
+    // Canonical spellings, so the common case skips building a key.
+    private final Map<String, Long> byName = new ConcurrentHashMap<>();
+    private final Map<String, Long> byKey = new ConcurrentHashMap<>();
+
+    public CityRegistry(CityRepository cityRepository) {
+        this.cityRepository = cityRepository;
+    }
+
+    @PostConstruct
+    public void load() {
+        for (City city : cityRepository.findAllWithAliases()) {
+            index(city);
+        }
+        if (!byId.isEmpty()) {
+            log.info("Loaded {} cities ({} lookup keys)", byId.size(), byKey.size());
+        }
+    }
+
+    /**
+     * @return the registered city, or null if nothing has been stored for it
+     */
+    public CityRef find(String name) {
+        Long id = byName.get(name);
+        if (id == null) {
+            id = byKey.get(keyOf(name));
+        }
+        return id == null ? null : byId.get(id);
+    }
+
+    public long idOf(String name) {
+        CityRef city = find(name);
+        return city == null ? UNKNOWN : city.id();
+    }
+
+    /**
+     * Ids of the registered cities among {@code names}; unknown names are left out.
+     */
+    public List<Long> idsOf(Collection<String> names) {
+        List<Long> ids = new ArrayList<>(names.size());
+        for (String name : names) {
+            CityRef city = find(name);
+            if (city != null) {
+                ids.add(city.id());
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * The registered spelling of {@code name}, or how it would be spelled if it were registered now.
+     */
+    public String canonicalName(String name) {
+        CityRef city = find(name);
+        return city == null ? displayName(name) : city.name();
+    }
+
+    /**
+     * Finds the city, registering it first if it is new.
+     */
+    public CityRef register(String name) {
+        CityRef known = find(name);
+        if (known != null) {
+            return known;
+        }
+        synchronized (this) {
+            known = find(name);
+            if (known != null) {
+                return known;
+            }
+            City city = new City();
+            city.setName(displayName(name));
+            city.setCreatedAt(LocalDateTime.now());
+            try {
+                return index(cityRepository.save(city));
+            } catch (DataIntegrityViolationException exception) {
+                // Another instance registered it first.
+                return index(cityRepository.findByName(city.getName()).orElseThrow(() -> exception));
+            }
+        }
+    }
+
+    /**
+     * Stores what the provider says about a city: its own spelling becomes an alias (unless that name already
+     * belongs to another city) and its coordinates are kept. Writes only when something is new.
+     */
+    public void recordProviderDetails(long cityId, String providerName, Double latitude, Double longitude) {
+        CityRef city = byId.get(cityId);
+        if (city == null) {
+            return;
+        }
+        String alias = providerName == null || providerName.isBlank() ? null : keyOf(providerName);
+        boolean newAlias = alias != null && !byKey.containsKey(alias);
+        boolean newCoordinates = latitude != null && longitude != null
+                && !(latitude.equals(city.latitude()) && longitude.equals(city.longitude()));
+        if (!newAlias && !newCoordinates) {
+            return;
+        }
+        synchronized (this) {
+            City entity = cityRepository.findById(cityId).orElse(null);
+            if (entity == null) {
+                return;
+            }
+            if (newAlias && !byKey.containsKey(alias)) {
+                entity.getAliases().add(alias);
+            }
+            if (newCoordinates) {
+                entity.setLatitude(latitude);
+                entity.setLongitude(longitude);
+            }
+            try {
+                index(cityRepository.save(entity));
+            } catch (DataIntegrityViolationException exception) {
+                log.debug("Could not record provider details for {}: {}", city.name(), exception.getMessage());
+            }
+        }
+    }
+
+    public List<CityRef> getCities() {
+        return List.copyOf(byId.values());
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    /**
+     * Lookup key for a name: trimmed, whitespace runs collapsed to one space, lower-cased.
+     */
+    static String keyOf(String name) {
+        return collapseWhitespace(name).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Spelling for a new city. All-lower or all-upper input is title-cased ("NEW DELHI" becomes "New Delhi");
+     * anything with mixed case is kept as typed apart from its first letter, so "McAllen" survives.
+     */
+    static String displayName(String name) {
+        String collapsed = collapseWhitespace(name);
+        if (collapsed.isEmpty()) {
+            return collapsed;
+        }
+        boolean mixedCase = !collapsed.equals(collapsed.toLowerCase(Locale.ROOT))
+                && !collapsed.equals(collapsed.toUpperCase(Locale.ROOT));
+        if (mixedCase) {
+            return collapsed.substring(0, 1).toUpperCase(Locale.ROOT) + collapsed.substring(1);
+        }
+        StringBuilder display = new StringBuilder(collapsed.length());
+        boolean wordStart = true;
+        for (int i = 0; i < collapsed.length(); i++) {
+            char c = collapsed.charAt(i);
+            display.append(wordStart ? Character.toUpperCase(c) : Character.toLowerCase(c));
+            wordStart = c == ' ' || c == '-';
+        }
+        return display.toString();
+    }
+
+    private static String collapseWhitespace(String name) {
+        String stripped = name.strip();
+        StringBuilder collapsed = new StringBuilder(stripped.length());
+        boolean previousSpace = false;
+        for (int i = 0; i < stripped.length(); i++) {
+            char c = stripped.charAt(i);
+            boolean space = Character.isWhitespace(c);
+            if (!space) {
+                collapsed.append(c);
+            } else if (!previousSpace) {
+                collapsed.append(' ');
+            }
+            previousSpace = space;
+        }
+        return collapsed.toString();
+    }
+
+    private CityRef index(City city) {
+        CityRef previous = byId.get(city.getId());
+        String name = previous != null && previous.name().equals(city.getName()) ? previous.name() : city.getName();
+        CityRef ref = new CityRef(city.getId(), name, city.getLatitude(), city.getLongitude());
+        byId.put(ref.id(), ref);
+        byName.put(name, ref.id());
+        byKey.putIfAbsent(keyOf(name), ref.id());
+        for (String alias : city.getAliases()) {
+            byKey.putIfAbsent(alias, ref.id());
+        }
+        return ref;
+    }
+
+    /**
+     * @param name the one String instance every row for this city is labelled with
+     */
+    public record CityRef(long id, String name, Double latitude, Double longitude) {
+    }
+}
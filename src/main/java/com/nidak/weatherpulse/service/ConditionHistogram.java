@@ -0,0 +1,105 @@
+package com.nidak.weatherpulse.service;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Per-day weather condition counts, kept in first-seen order.
+ * Stored on the daily summary row as {@code Clear=3;Rain=2}.
+ * Counts are mutable cells, so incrementing an existing condition allocates nothing.
+ */
+public final class ConditionHistogram {
+
+    private static final String NOT_AVAILABLE = "N/A";
+
+    private final LinkedHashMap<String, long[]> counts = new LinkedHashMap<>();
+
+    public static ConditionHistogram decode(String encoded) {
+        ConditionHistogram histogram = new ConditionHistogram();
+        if (encoded == null || encoded.isBlank()) {
+            return histogram;
+        }
+        for (String entry : encoded.split(";")) {
+            int separator = entry.lastIndexOf('=');
+            if (separator <= 0) {
+                continue;
+            }
+            histogram.add(entry.substring(0, separator), Long.parseLong(entry.substring(separator + 1)));
+        }
+        return histogram;
+    }
+
+    public String encode() {
+        StringBuilder encoded = new StringBuilder();
+        for (Map.Entry<String, long[]> entry : counts.entrySet()) {
+            if (!encoded.isEmpty()) {
+                encoded.append(';');
+            }
+            encoded.append(sanitize(entry.getKey())).append('=').append(entry.getValue()[0]);
+        }
+        return encoded.toString();
+    }
+
+    public void increment(String condition) {
+        // Same failure as groupingBy on a null key.
+        add(Objects.requireNonNull(condition, "element cannot be mapped to a null key"), 1);
+    }
+
+    /**
+     * Adds another histogram's counts; conditions new to this one are appended in the other's first-seen order,
+     * so merging partitions left to right gives the same histogram as one pass over all samples.
+     */
+    public void merge(ConditionHistogram other) {
+        for (Map.Entry<String, long[]> entry : other.counts.entrySet()) {
+            add(entry.getKey(), entry.getValue()[0]);
+        }
+    }
+
+    public long countOf(String condition) {
+        long[] count = counts.get(condition);
+        return count == null ? 0 : count[0];
+    }
+
+    /**
+     * Picks the most frequent condition with the same tie-break as
+     * {@code groupingBy(..., counting())} followed by {@code max(comparingByValue())}:
+     * on equal counts the first key in {@link HashMap} iteration order wins.
+     * Replaying the keys through {@code computeIfAbsent} in first-seen order, as groupingBy does,
+     * reproduces that order exactly ({@code put} would chain colliding keys differently).
+     */
+    public String dominantCondition() {
+        if (counts.isEmpty()) {
+            return NOT_AVAILABLE;
+        }
+        Map<String, long[]> hashOrdered = new HashMap<>();
+        for (Map.Entry<String, long[]> entry : counts.entrySet()) {
+            hashOrdered.computeIfAbsent(entry.getKey(), key -> entry.getValue());
+        }
+
+        String dominant = NOT_AVAILABLE;
+        long dominantCount = Long.MIN_VALUE;
+        for (Map.Entry<String, long[]> entry : hashOrdered.entrySet()) {
+            if (entry.getValue()[0] > dominantCount) {
+                dominant = entry.getKey();
+                dominantCount = entry.getValue()[0];
+            }
+        }
+        return dominant;
+    }
+
+    private void add(String condition, long count) {
+        long[] cell = counts.get(condition);
+        if (cell == null) {
+            counts.put(condition, new long[]{count});
+        } else {
+            cell[0] += count;
+        }
+    }
+
+    private static String sanitize(String condition) {
+        // ';' and '=' are the storage separators; OpenWeather condition names never contain them.
+        return condition.replace(';', ' ').replace('=', ' ');
+    }
+}
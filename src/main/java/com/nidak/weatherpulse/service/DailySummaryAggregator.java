@@ -0,0 +1,348 @@
+package com.nidak.weatherpulse.service;
+
+import com.nidak.weatherpulse.entity.DailyWeatherSummaryEntity;
+import com.nidak.weatherpulse.entity.HourlyWeatherRollup;
+import com.nidak.weatherpulse.entity.Weather;
+import com.nidak.weatherpulse.repository.DailyWeatherSummaryRepository;
+import com.nidak.weatherpulse.repository.HourlyWeatherRollupRepository;
+import com.nidak.weatherpulse.repository.WeatherRepository;
+import org.hibernate.StaleStateException;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps the daily summary row up to date from running aggregates.
+ * New samples cost one row read and one row write per day touched, no matter how many samples the day already has.
+ * {@link #rebuild(String, LocalDate)} is the full-recompute repair path. For a day that reaches back past
+ * {@code weather.retention.raw-days}, raw samples may already be purged, so it recomputes from the day's hourly
+ * rollups instead.
+ *
+ * <p>Both paths read the row {@code for update}, so the lock is held until their transaction commits and a
+ * rebuild waits for the ingest writer (or the other way round) instead of overwriting its counts. Two writers
+ * can still both insert a day's first row; the unique key rejects the second, which reads the row again: a
+ * rebuild retries here, an ingest batch is retried by {@link WeatherIngestPipeline}.
+ */
+@Component
+public class DailySummaryAggregator {
+
+    /**
+     * How often a write that lost to a concurrent one is repeated before the error is passed on.
+     */
+    static final int MAX_WRITE_ATTEMPTS = 3;
+
+    private static final String UNIQUE_KEY = "uk_daily_summary_city_date";
+
+    private final WeatherRepository weatherRepository;
+    private final DailyWeatherSummaryRepository dailyWeatherSummaryRepository;
+    private final HourlyWeatherRollupRepository hourlyWeatherRollupRepository;
+    private final CityRegistry cityRegistry;
+    private final WeatherMetrics weatherMetrics;
+    private final TransactionTemplate transactionTemplate;
+    private final int retentionRawDays;
+
+    public DailySummaryAggregator(
+            WeatherRepository weatherRepository,
+            DailyWeatherSummaryRepository dailyWeatherSummaryRepository,
+            HourlyWeatherRollupRepository hourlyWeatherRollupRepository,
+            CityRegistry cityRegistry,
+            WeatherMetrics weatherMetrics,
+            TransactionTemplate transactionTemplate,
+            @Value("${weather.retention.raw-days:90}") int retentionRawDays
+    ) {
+        this.weatherRepository = weatherRepository;
+        this.dailyWeatherSummaryRepository = dailyWeatherSummaryRepository;
+        this.hourlyWeatherRollupRepository = hourlyWeatherRollupRepository;
+        this.cityRegistry = cityRegistry;
+        this.weatherMetrics = weatherMetrics;
+        this.transactionTemplate = transactionTemplate;
+        this.retentionRawDays = retentionRawDays;
+    }
+
+    /**
+     * Folds new samples into their daily rows: one query loads and locks every affected row and one
+     * {@code saveAll} writes them back, however many cities and days the samples span. Runs in the caller's
+     * transaction, which holds the row locks until it commits.
+     */
+    public void applySamples(List<Weather> samples) {
+        Map<SummaryKey, List<Weather>> samplesByDay = new LinkedHashMap<>();
+        for (Weather sample : samples) {
+            samplesByDay.computeIfAbsent(SummaryKey.of(sample), key -> new ArrayList<>()).add(sample);
+        }
+        if (samplesByDay.isEmpty()) {
+            return;
+        }
+        long startNanos = System.nanoTime();
+
+        Set<Long> cityIds = new HashSet<>();
+        Set<LocalDate> summaryDates = new HashSet<>();
+        for (SummaryKey key : samplesByDay.keySet()) {
+            cityIds.add(key.cityId());
+            summaryDates.add(key.summaryDate());
+        }
+        Map<SummaryKey, DailyWeatherSummaryEntity> existing = new HashMap<>();
+        for (DailyWeatherSummaryEntity entity : dailyWeatherSummaryRepository.findForUpdateByCityIdInAndSummaryDateIn(cityIds, summaryDates)) {
+            existing.putIfAbsent(new SummaryKey(entity.getCityId(), entity.getCity(), entity.getSummaryDate()), entity);
+        }
+
+        List<DailyWeatherSummaryEntity> changed = new ArrayList<>(samplesByDay.size());
+        for (Map.Entry<SummaryKey, List<Weather>> day : samplesByDay.entrySet()) {
+            SummaryKey key = day.getKey();
+            DailyWeatherSummaryEntity entity = existing.get(key);
+            if (entity != null && entity.getTemperatureSum() == null && entity.getTotalSamples() > 0) {
+                // Row predates the running aggregates; rebuild once, which already includes these samples.
+                rebuildLocked(key.cityId(), key.city(), key.summaryDate(), entity);
+                continue;
+            }
+            if (entity == null) {
+                entity = new DailyWeatherSummaryEntity();
+                entity.setCityId(key.cityId());
+                entity.setCity(key.city());
+                entity.setSummaryDate(key.summaryDate());
+                reset(entity);
+            }
+
+            ConditionHistogram histogram = ConditionHistogram.decode(entity.getConditionHistogram());
+            for (Weather sample : day.getValue()) {
+                accumulate(entity, histogram, sample);
+            }
+            finish(entity, histogram);
+            changed.add(entity);
+        }
+        dailyWeatherSummaryRepository.saveAll(changed);
+        weatherMetrics.recordSummaryUpdate(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * A city nothing has been stored for gets an empty summary that is not saved.
+     */
+    public DailyWeatherSummaryEntity rebuild(String city, LocalDate summaryDate) {
+        CityRegistry.CityRef registered = cityRegistry.find(city);
+        if (registered == null) {
+            return summarize(city, summaryDate);
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            // Part of the caller's transaction, which is retried as a whole if it loses to another writer.
+            return rebuildStored(registered, summaryDate);
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> rebuildStored(registered, summaryDate));
+            } catch (RuntimeException exception) {
+                if (attempt == MAX_WRITE_ATTEMPTS || !isConcurrentWrite(exception)) {
+                    throw exception;
+                }
+                // The ingest writer inserted the day's row first; recompute on top of what it stored.
+            }
+        }
+    }
+
+    /**
+     * True when a daily row was written by someone else between this writer's read and its save, so reading
+     * the row again and repeating the write fixes it.
+     */
+    static boolean isConcurrentWrite(Throwable exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof OptimisticLockingFailureException || cause instanceof StaleStateException) {
+                return true;
+            }
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null
+                    && violation.getConstraintName().toLowerCase(Locale.ROOT).contains(UNIQUE_KEY)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Computes a day's summary without storing it; the read path for days that have no row.
+     */
+    public DailyWeatherSummaryEntity summarize(String city, LocalDate summaryDate) {
+        CityRegistry.CityRef registered = cityRegistry.find(city);
+        DailyWeatherSummaryEntity entity = new DailyWeatherSummaryEntity();
+        if (registered == null) {
+            recompute(null, city, summaryDate, entity);
+        } else {
+            recompute(registered.id(), registered.name(), summaryDate, entity);
+        }
+        return entity;
+    }
+
+    /**
+     * Folds {@code from} into {@code into}, for two rows of the same city and day.
+     */
+    public void merge(DailyWeatherSummaryEntity into, DailyWeatherSummaryEntity from) {
+        if (from.getTotalSamples() == 0) {
+            return;
+        }
+        int intoSamples = into.getTotalSamples();
+        int fromSamples = from.getTotalSamples();
+        if (intoSamples == 0) {
+            into.setMaxTemperature(from.getMaxTemperature());
+            into.setMinTemperature(from.getMinTemperature());
+        } else {
+            into.setMaxTemperature(Math.max(into.getMaxTemperature(), from.getMaxTemperature()));
+            into.setMinTemperature(Math.min(into.getMinTemperature(), from.getMinTemperature()));
+        }
+        into.setTemperatureSum(sumOf(into.getTemperatureSum(), into.getAverageTemperature(), intoSamples)
+                + sumOf(from.getTemperatureSum(), from.getAverageTemperature(), fromSamples));
+        into.setHumiditySum(sumOf(into.getHumiditySum(), into.getAverageHumidity(), intoSamples)
+                + sumOf(from.getHumiditySum(), from.getAverageHumidity(), fromSamples));
+        into.setWindSpeedSum(sumOf(into.getWindSpeedSum(), into.getAverageWindSpeed(), intoSamples)
+                + sumOf(from.getWindSpeedSum(), from.getAverageWindSpeed(), fromSamples));
+        into.setTotalSamples(intoSamples + fromSamples);
+        ConditionHistogram histogram = ConditionHistogram.decode(into.getConditionHistogram());
+        histogram.merge(ConditionHistogram.decode(from.getConditionHistogram()));
+        finish(into, histogram);
+    }
+
+    private DailyWeatherSummaryEntity rebuildStored(CityRegistry.CityRef city, LocalDate summaryDate) {
+        DailyWeatherSummaryEntity entity = dailyWeatherSummaryRepository
+                .findForUpdateByCityIdAndSummaryDate(city.id(), summaryDate)
+                .orElseGet(DailyWeatherSummaryEntity::new);
+        return rebuildLocked(city.id(), city.name(), summaryDate, entity);
+    }
+
+    private DailyWeatherSummaryEntity rebuildLocked(
+            long cityId,
+            String city,
+            LocalDate summaryDate,
+            DailyWeatherSummaryEntity entity
+    ) {
+        long startNanos = System.nanoTime();
+        recompute(cityId, city, summaryDate, entity);
+        DailyWeatherSummaryEntity saved = dailyWeatherSummaryRepository.save(entity);
+        weatherMetrics.recordSummaryRebuild(System.nanoTime() - startNanos);
+        return saved;
+    }
+
+    /**
+     * @param cityId null for a city that has no stored samples to read
+     */
+    private void recompute(Long cityId, String city, LocalDate summaryDate, DailyWeatherSummaryEntity entity) {
+        LocalDateTime start = LocalDateTime.of(summaryDate, LocalTime.MIN);
+        LocalDateTime end = LocalDateTime.of(summaryDate, LocalTime.MAX);
+        entity.setCityId(cityId);
+        entity.setCity(city);
+        entity.setSummaryDate(summaryDate);
+        reset(entity);
+        ConditionHistogram histogram = new ConditionHistogram();
+        if (cityId != null && reachesPastRetention(start)) {
+            List<HourlyWeatherRollup> rollups =
+                    hourlyWeatherRollupRepository.findByCityAndHourStartBetweenOrderByHourStartAsc(city, start, end);
+            if (!rollups.isEmpty()) {
+                for (HourlyWeatherRollup rollup : rollups) {
+                    accumulate(entity, histogram, rollup);
+                }
+                finish(entity, histogram);
+                return;
+            }
+        }
+
+        List<Weather> weatherData = cityId == null
+                ? List.of()
+                : weatherRepository.findByCityIdAndTimestampBetween(cityId, start, end);
+        for (Weather sample : weatherData) {
+            accumulate(entity, histogram, sample);
+        }
+        finish(entity, histogram);
+    }
+
+    /**
+     * True when retention may have purged raw samples from {@code start} on; the rollups are the full record then.
+     */
+    private boolean reachesPastRetention(LocalDateTime start) {
+        return retentionRawDays > 0 && start.isBefore(LocalDateTime.now().minusDays(retentionRawDays));
+    }
+
+    private void reset(DailyWeatherSummaryEntity entity) {
+        entity.setTotalSamples(0);
+        entity.setTemperatureSum(0.0);
+        entity.setHumiditySum(0.0);
+        entity.setWindSpeedSum(0.0);
+        entity.setMaxTemperature(0);
+        entity.setMinTemperature(0);
+        entity.setConditionHistogram("");
+    }
+
+    private void accumulate(DailyWeatherSummaryEntity entity, ConditionHistogram histogram, Weather sample) {
+        double temperature = sample.getTemperature();
+        if (entity.getTotalSamples() == 0) {
+            entity.setMaxTemperature(WeatherMath.roundToTwoDecimalPlaces(temperature));
+            entity.setMinTemperature(WeatherMath.roundToTwoDecimalPlaces(temperature));
+        } else {
+            // Rounding is monotonic, so comparing against the stored rounded extremes gives the same result.
+            entity.setMaxTemperature(WeatherMath.roundToTwoDecimalPlaces(Math.max(entity.getMaxTemperature(), temperature)));
+            entity.setMinTemperature(WeatherMath.roundToTwoDecimalPlaces(Math.min(entity.getMinTemperature(), temperature)));
+        }
+        entity.setTotalSamples(entity.getTotalSamples() + 1);
+        entity.setTemperatureSum(entity.getTemperatureSum() + temperature);
+        entity.setHumiditySum(entity.getHumiditySum() + sample.getHumidity());
+        entity.setWindSpeedSum(entity.getWindSpeedSum() + sample.getWindSpeed());
+        histogram.increment(sample.getWeatherCondition());
+    }
+
+    private void accumulate(DailyWeatherSummaryEntity entity, ConditionHistogram histogram, HourlyWeatherRollup rollup) {
+        if (rollup.getSampleCount() == 0) {
+            return;
+        }
+        if (entity.getTotalSamples() == 0) {
+            entity.setMaxTemperature(rollup.getMaxTemperature());
+            entity.setMinTemperature(rollup.getMinTemperature());
+        } else {
+            entity.setMaxTemperature(Math.max(entity.getMaxTemperature(), rollup.getMaxTemperature()));
+            entity.setMinTemperature(Math.min(entity.getMinTemperature(), rollup.getMinTemperature()));
+        }
+        entity.setTotalSamples(entity.getTotalSamples() + rollup.getSampleCount());
+        entity.setTemperatureSum(entity.getTemperatureSum() + rollup.getTemperatureSum());
+        entity.setHumiditySum(entity.getHumiditySum() + rollup.getHumiditySum());
+        entity.setWindSpeedSum(entity.getWindSpeedSum() + rollup.getWindSpeedSum());
+        histogram.merge(ConditionHistogram.decode(rollup.getConditionHistogram()));
+    }
+
+    private void finish(DailyWeatherSummaryEntity entity, ConditionHistogram histogram) {
+        int samples = entity.getTotalSamples();
+        String dominantCondition = histogram.dominantCondition();
+        entity.setAverageTemperature(average(entity.getTemperatureSum(), samples));
+        entity.setAverageHumidity(average(entity.getHumiditySum(), samples));
+        entity.setAverageWindSpeed(average(entity.getWindSpeedSum(), samples));
+        entity.setDominantWeatherCondition(dominantCondition);
+        entity.setDominantWeatherConditionReason("Most frequent condition based on "
+                + histogram.countOf(dominantCondition) + " of " + samples + " samples");
+        entity.setConditionHistogram(histogram.encode());
+        entity.setUpdatedAt(LocalDateTime.now());
+    }
+
+    /**
+     * Rows written before the running sums existed only have averages; those multiply back out.
+     */
+    private static double sumOf(Double sum, double average, int samples) {
+        return sum != null ? sum : average * samples;
+    }
+
+    private double average(double sum, int samples) {
+        return samples == 0 ? 0 : WeatherMath.roundToTwoDecimalPlaces(sum / samples);
+    }
+
+    private record SummaryKey(Long cityId, String city, LocalDate summaryDate) {
+
+        static SummaryKey of(Weather sample) {
+            return new SummaryKey(sample.getCityId(), sample.getCity(), sample.getTimestamp().toLocalDate());
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.nidak.weatherpulse.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nidak.weatherpulse.dto.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Serialized JSON responses for days that can no longer change, keyed by endpoint, city and date.
+ * A day counts as finalized once {@code weather.http.finalize-after-minutes} have passed since its midnight,
+ * which leaves room for a sample fetched just before midnight to land. Entries are dropped when a write does
+ * touch the day anyway (late ingest, a summary rebuild, a retention purge), so a cached body never goes stale
+ * on the server; clients keep it for {@code weather.http.finalized-max-age-seconds}.
+ */
+@Component
+public class FinalizedDayResponseCache {
+
+    /** City used for keys that cover every tracked city. */
+    public static final String ALL_CITIES = "*";
+
+    private final ObjectMapper objectMapper;
+    private final Map<Key, CachedResponse> responses;
+    private final Duration finalizeGrace;
+    private final long maxAgeSeconds;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+    private long evictions;
+
+    public FinalizedDayResponseCache(
+            ObjectMapper objectMapper,
+            @Value("${weather.http.finalized-cache-max-size:2000}") int maxSize,
+            @Value("${weather.http.finalize-after-minutes:10}") long finalizeAfterMinutes,
+            @Value("${weather.http.finalized-max-age-seconds:604800}") long maxAgeSeconds
+    ) {
+        this.objectMapper = objectMapper;
+        this.finalizeGrace = Duration.ofMinutes(Math.max(0, finalizeAfterMinutes));
+        this.maxAgeSeconds = Math.max(0, maxAgeSeconds);
+        int capacity = Math.max(1, maxSize);
+        this.responses = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, CachedResponse> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    public boolean isFinalized(LocalDate date) {
+        return date.isBefore(LocalDateTime.now().minus(finalizeGrace).toLocalDate());
+    }
+
+    public CachedResponse get(String kind, String city, LocalDate date, Supplier<?> body) {
+        Key key = new Key(kind, city, date);
+        long evictionsBefore;
+        synchronized (responses) {
+            CachedResponse cached = responses.get(key);
+            if (cached != null) {
+                hits.increment();
+                return cached;
+            }
+            evictionsBefore = evictions;
+        }
+        misses.increment();
+        byte[] bytes = serialize(body.get());
+        CachedResponse response = new CachedResponse(
+                bytes, tagOf(bytes), Instant.now().truncatedTo(ChronoUnit.SECONDS), maxAgeSeconds);
+        synchronized (responses) {
+            if (evictions != evictionsBefore) {
+                // A write touched some day while this body was built; serve it once but do not keep it.
+                return response;
+            }
+            // Two concurrent misses build the same bytes; keep whichever landed first.
+            CachedResponse raced = responses.putIfAbsent(key, response);
+            return raced != null ? raced : response;
+        }
+    }
+
+    /**
+     * Entity tag for a response that is not cached, taken over its data so the envelope timestamp does not change it.
+     */
+    public String tagOf(Object data) {
+        return tagOf(serialize(data));
+    }
+
+    public void evict(String city, LocalDate date) {
+        synchronized (responses) {
+            remove(key -> key.date().equals(date) && (key.city().equals(city) || key.city().equals(ALL_CITIES)));
+        }
+    }
+
+    public void evictThrough(LocalDate date) {
+        synchronized (responses) {
+            remove(key -> !key.date().isAfter(date));
+        }
+    }
+
+    public CacheStats getStats() {
+        int size;
+        synchronized (responses) {
+            size = responses.size();
+        }
+        return new CacheStats(size, hits.sum(), misses.sum(), evicted.sum());
+    }
+
+    private void remove(Predicate<Key> matches) {
+        evictions++;
+        int before = responses.size();
+        responses.keySet().removeIf(matches);
+        evicted.add(before - responses.size());
+    }
+
+    private byte[] serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException exception) {
+            throw new IllegalStateException("Could not serialize response", exception);
+        }
+    }
+
+    private static String tagOf(byte[] bytes) {
+        return "\"" + DigestUtils.md5DigestAsHex(bytes) + "\"";
+    }
+
+    public record CachedResponse(byte[] body, String etag, Instant lastModified, long maxAgeSeconds) {
+    }
+
+    private record Key(String kind, String city, LocalDate date) {
+    }
+}
@@ -0,0 +1,150 @@
+package com.nidak.weatherpulse.service;
+
+import com.nidak.weatherpulse.dto.CacheStats;
+import com.nidak.weatherpulse.entity.Weather;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Bounded LRU cache of 5-day forecasts keyed by city.
+ * Entries older than the refresh-ahead point are still served while a background reload runs,
+ * so a cache hit never waits on the provider.
+ */
+@Component
+public class ForecastCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ForecastCache.class);
+
+    private final Map<String, CachedForecast> forecasts;
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    private final ExecutorService refreshExecutor;
+    private final long ttlMillis;
+    private final long refreshAheadMillis;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private final LongSupplier clock;
+
+    @Autowired
+    public ForecastCache(
+            @Value("${weather.forecast.cache-ttl-minutes:60}") long ttlMinutes,
+            @Value("${weather.forecast.cache-max-size:500}") int maxSize,
+            @Value("${weather.forecast.refresh-ahead-ratio:0.8}") double refreshAheadRatio
+    ) {
+        this(ttlMinutes, maxSize, refreshAheadRatio, System::currentTimeMillis);
+    }
+
+    /**
+     * @param clock current time in milliseconds; tests pass their own to move past the TTL without waiting
+     */
+    ForecastCache(long ttlMinutes, int maxSize, double refreshAheadRatio, LongSupplier clock) {
+        this.clock = clock;
+        this.ttlMillis = TimeUnit.MINUTES.toMillis(Math.max(1, ttlMinutes));
+        this.refreshAheadMillis = (long) (ttlMillis * Math.min(1, Math.max(0, refreshAheadRatio)));
+        int capacity = Math.max(1, maxSize);
+        this.forecasts = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedForecast> eldest) {
+                return size() > capacity;
+            }
+        };
+        this.refreshExecutor = Executors.newSingleThreadExecutor(WorkerThreads.namedDaemonThreads("forecast-refresh-"));
+    }
+
+    public List<Weather> get(String city, Supplier<List<Weather>> loader) {
+        CachedForecast cached = lookup(city);
+        long now = clock.getAsLong();
+        if (cached != null && now - cached.loadedAtMillis() < ttlMillis) {
+            hits.increment();
+            if (now - cached.loadedAtMillis() >= refreshAheadMillis) {
+                refreshInBackground(city, loader);
+            }
+            return cached.forecast();
+        }
+
+        if (cached == null) {
+            misses.increment();
+        } else {
+            expired.increment();
+        }
+        return load(city, loader);
+    }
+
+    /**
+     * @return true when the city has no entry or has passed the refresh-ahead point
+     */
+    public boolean isRefreshDue(String city) {
+        CachedForecast cached = lookup(city);
+        return cached == null || clock.getAsLong() - cached.loadedAtMillis() >= refreshAheadMillis;
+    }
+
+    public void refresh(String city, Supplier<List<Weather>> loader) {
+        load(city, loader);
+    }
+
+    public CacheStats getStats() {
+        int size;
+        synchronized (forecasts) {
+            size = forecasts.size();
+        }
+        return new CacheStats(size, hits.sum(), misses.sum(), expired.sum());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    private CachedForecast lookup(String city) {
+        synchronized (forecasts) {
+            return forecasts.get(city);
+        }
+    }
+
+    private List<Weather> load(String city, Supplier<List<Weather>> loader) {
+        List<Weather> forecast = List.copyOf(loader.get());
+        synchronized (forecasts) {
+            forecasts.put(city, new CachedForecast(forecast, clock.getAsLong()));
+        }
+        return forecast;
+    }
+
+    private void refreshInBackground(String city, Supplier<List<Weather>> loader) {
+        if (!refreshing.add(city)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    load(city, loader);
+                } catch (RuntimeException exception) {
+                    log.warn("Background forecast refresh failed for {}: {}", city, exception.getMessage());
+                } finally {
+                    refreshing.remove(city);
+                }
+            });
+        } catch (RejectedExecutionException exception) {
+            refreshing.remove(city);
+        }
+    }
+
+    private record CachedForecast(List<Weather> forecast, long loadedAtMillis) {
+    }
+}
@@ -0,0 +1,233 @@
+package com.nidak.weatherpulse.service;
+
+import com.nidak.weatherpulse.entity.HourlyWeatherRollup;
+import com.nidak.weatherpulse.entity.Weather;
+import com.nidak.weatherpulse.repository.HourlyWeatherRollupRepository;
+import com.nidak.weatherpulse.repository.WeatherRepository;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps one rollup row per city and clock hour, the hourly counterpart of {@link DailySummaryAggregator}.
+ * The ingest writer thread and the startup backfill both create rows and take no lock, so they can race for
+ * an hour: the backfill only writes hours it found empty, but a late sample can create one before the
+ * backfill commits. The unique key on city and hour rejects the second row, and {@link RollupBackfill}
+ * retries that day.
+ */
+@Component
+public class HourlyRollupAggregator {
+
+    private final WeatherRepository weatherRepository;
+    private final HourlyWeatherRollupRepository hourlyWeatherRollupRepository;
+    private final CityRegistry cityRegistry;
+    private final WeatherMetrics weatherMetrics;
+
+    public HourlyRollupAggregator(
+            WeatherRepository weatherRepository,
+            HourlyWeatherRollupRepository hourlyWeatherRollupRepository,
+            CityRegistry cityRegistry,
+            WeatherMetrics weatherMetrics
+    ) {
+        this.weatherRepository = weatherRepository;
+        this.hourlyWeatherRollupRepository = hourlyWeatherRollupRepository;
+        this.cityRegistry = cityRegistry;
+        this.weatherMetrics = weatherMetrics;
+    }
+
+    public static LocalDateTime hourOf(LocalDateTime timestamp) {
+        return timestamp.truncatedTo(ChronoUnit.HOURS);
+    }
+
+    /**
+     * Folds new, already saved samples into their hourly rows with one read and one {@code saveAll}.
+     * An hour without a row yet is built from its stored observations instead of from zero: rows saved
+     * before rollups existed (or before a restart's backfill cutoff) would otherwise be left out.
+     */
+    public void applySamples(List<Weather> samples) {
+        Map<HourKey, List<Weather>> samplesByHour = new LinkedHashMap<>();
+        for (Weather sample : samples) {
+            samplesByHour.computeIfAbsent(HourKey.of(sample), key -> new ArrayList<>()).add(sample);
+        }
+        if (samplesByHour.isEmpty()) {
+            return;
+        }
+        long startNanos = System.nanoTime();
+
+        Set<String> cities = new HashSet<>();
+        Set<LocalDateTime> hourStarts = new HashSet<>();
+        for (HourKey key : samplesByHour.keySet()) {
+            cities.add(key.city());
+            hourStarts.add(key.hourStart());
+        }
+        Map<HourKey, HourlyWeatherRollup> existing = new HashMap<>();
+        for (HourlyWeatherRollup rollup : hourlyWeatherRollupRepository.findByCityInAndHourStartIn(cities, hourStarts)) {
+            existing.putIfAbsent(new HourKey(rollup.getCity(), rollup.getHourStart()), rollup);
+        }
+
+        List<HourlyWeatherRollup> changed = new ArrayList<>(samplesByHour.size());
+        Map<LocalDateTime, Map<String, List<Weather>>> firstSeen = new LinkedHashMap<>();
+        for (Map.Entry<HourKey, List<Weather>> hour : samplesByHour.entrySet()) {
+            HourKey key = hour.getKey();
+            HourlyWeatherRollup rollup = existing.get(key);
+            if (rollup == null) {
+                firstSeen.computeIfAbsent(key.hourStart(), ignored -> new HashMap<>()).put(key.city(), hour.getValue());
+                continue;
+            }
+            ConditionHistogram histogram = ConditionHistogram.decode(rollup.getConditionHistogram());
+            for (Weather sample : hour.getValue()) {
+                accumulate(rollup, histogram, sample);
+            }
+            finish(rollup, histogram);
+            changed.add(rollup);
+        }
+
+        // Usually every city shares the current hour, so this is one query per batch.
+        for (Map.Entry<LocalDateTime, Map<String, List<Weather>>> hour : firstSeen.entrySet()) {
+            LocalDateTime hourStart = hour.getKey();
+            List<Long> cityIds = new ArrayList<>(hour.getValue().size());
+            for (List<Weather> citySamples : hour.getValue().values()) {
+                cityIds.add(citySamples.get(0).getCityId());
+            }
+            Map<String, List<Weather>> stored = groupByCity(weatherRepository.findByCityIdInAndTimestampBetween(
+                    cityIds, hourStart, endOf(hourStart)));
+            for (Map.Entry<String, List<Weather>> city : hour.getValue().entrySet()) {
+                List<Weather> hourSamples = stored.getOrDefault(city.getKey(), city.getValue());
+                changed.add(fill(new HourlyWeatherRollup(), city.getKey(), hourStart, hourSamples));
+            }
+        }
+        hourlyWeatherRollupRepository.saveAll(changed);
+        weatherMetrics.recordHourlyRollupUpdate(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Recomputes one hour from its stored observations; used when a sample in it was overwritten.
+     */
+    public HourlyWeatherRollup rebuild(String city, LocalDateTime hourStart) {
+        LocalDateTime start = hourOf(hourStart);
+        HourlyWeatherRollup rollup = hourlyWeatherRollupRepository.findByCityAndHourStart(city, start)
+                .orElseGet(HourlyWeatherRollup::new);
+        List<Weather> samples = weatherRepository.findByCityIdAndTimestampBetween(cityRegistry.idOf(city), start, endOf(start));
+        return hourlyWeatherRollupRepository.save(fill(rollup, city, start, samples));
+    }
+
+    /**
+     * Folds {@code from} into {@code into}, for two rows of the same city and hour.
+     */
+    public void merge(HourlyWeatherRollup into, HourlyWeatherRollup from) {
+        if (from.getSampleCount() == 0) {
+            return;
+        }
+        if (into.getSampleCount() == 0) {
+            into.setMaxTemperature(from.getMaxTemperature());
+            into.setMinTemperature(from.getMinTemperature());
+        } else {
+            into.setMaxTemperature(Math.max(into.getMaxTemperature(), from.getMaxTemperature()));
+            into.setMinTemperature(Math.min(into.getMinTemperature(), from.getMinTemperature()));
+        }
+        into.setSampleCount(into.getSampleCount() + from.getSampleCount());
+        into.setTemperatureSum(into.getTemperatureSum() + from.getTemperatureSum());
+        into.setHumiditySum(into.getHumiditySum() + from.getHumiditySum());
+        into.setWindSpeedSum(into.getWindSpeedSum() + from.getWindSpeedSum());
+        ConditionHistogram histogram = ConditionHistogram.decode(into.getConditionHistogram());
+        histogram.merge(ConditionHistogram.decode(from.getConditionHistogram()));
+        finish(into, histogram);
+    }
+
+    /**
+     * Writes rollups for the hours in {@code [from, until)} that have observations but no row yet.
+     *
+     * @return rows written
+     */
+    public int backfill(String city, LocalDateTime from, LocalDateTime until) {
+        List<Weather> samples = weatherRepository.findByCityIdAndTimestampBetween(
+                cityRegistry.idOf(city), from, until.minusNanos(1));
+        if (samples.isEmpty()) {
+            return 0;
+        }
+        Set<LocalDateTime> covered = new HashSet<>();
+        for (HourlyWeatherRollup rollup : hourlyWeatherRollupRepository
+                .findByCityAndHourStartBetweenOrderByHourStartAsc(city, hourOf(from), until.minusNanos(1))) {
+            covered.add(rollup.getHourStart());
+        }
+
+        Map<LocalDateTime, List<Weather>> samplesByHour = new LinkedHashMap<>();
+        for (Weather sample : samples) {
+            LocalDateTime hourStart = hourOf(sample.getTimestamp());
+            if (!covered.contains(hourStart)) {
+                samplesByHour.computeIfAbsent(hourStart, key -> new ArrayList<>()).add(sample);
+            }
+        }
+        List<HourlyWeatherRollup> created = new ArrayList<>(samplesByHour.size());
+        for (Map.Entry<LocalDateTime, List<Weather>> hour : samplesByHour.entrySet()) {
+            created.add(fill(new HourlyWeatherRollup(), city, hour.getKey(), hour.getValue()));
+        }
+        hourlyWeatherRollupRepository.saveAll(created);
+        return created.size();
+    }
+
+    private HourlyWeatherRollup fill(HourlyWeatherRollup rollup, String city, LocalDateTime hourStart, List<Weather> samples) {
+        rollup.setCity(city);
+        rollup.setHourStart(hourStart);
+        rollup.setSampleCount(0);
+        rollup.setTemperatureSum(0);
+        rollup.setHumiditySum(0);
+        rollup.setWindSpeedSum(0);
+        rollup.setMaxTemperature(0);
+        rollup.setMinTemperature(0);
+        ConditionHistogram histogram = new ConditionHistogram();
+        for (Weather sample : samples) {
+            accumulate(rollup, histogram, sample);
+        }
+        finish(rollup, histogram);
+        return rollup;
+    }
+
+    private void accumulate(HourlyWeatherRollup rollup, ConditionHistogram histogram, Weather sample) {
+        double temperature = sample.getTemperature();
+        if (rollup.getSampleCount() == 0) {
+            rollup.setMaxTemperature(WeatherMath.roundToTwoDecimalPlaces(temperature));
+            rollup.setMinTemperature(WeatherMath.roundToTwoDecimalPlaces(temperature));
+        } else {
+            rollup.setMaxTemperature(WeatherMath.roundToTwoDecimalPlaces(Math.max(rollup.getMaxTemperature(), temperature)));
+            rollup.setMinTemperature(WeatherMath.roundToTwoDecimalPlaces(Math.min(rollup.getMinTemperature(), temperature)));
+        }
+        rollup.setSampleCount(rollup.getSampleCount() + 1);
+        rollup.setTemperatureSum(rollup.getTemperatureSum() + temperature);
+        rollup.setHumiditySum(rollup.getHumiditySum() + sample.getHumidity());
+        rollup.setWindSpeedSum(rollup.getWindSpeedSum() + sample.getWindSpeed());
+        histogram.increment(sample.getWeatherCondition());
+    }
+
+    private void finish(HourlyWeatherRollup rollup, ConditionHistogram histogram) {
+        rollup.setConditionHistogram(histogram.encode());
+        rollup.setUpdatedAt(LocalDateTime.now());
+    }
+
+    private static Map<String, List<Weather>> groupByCity(List<Weather> samples) {
+        Map<String, List<Weather>> byCity = new HashMap<>();
+        for (Weather sample : samples) {
+            byCity.computeIfAbsent(sample.getCity(), key -> new ArrayList<>()).add(sample);
+        }
+        return byCity;
+    }
+
+    private static LocalDateTime endOf(LocalDateTime hourStart) {
+        return hourStart.plusHours(1).minusNanos(1);
+    }
+
+    private record HourKey(String city, LocalDateTime hourStart) {
+
+        static HourKey of(Weather sample) {
+            return new HourKey(sample.getCity(), hourOf(sample.getTimestamp()));
+        }
+    }
+}
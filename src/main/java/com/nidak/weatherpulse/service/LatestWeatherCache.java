@@ -0,0 +1,78 @@
+package com.nidak.weatherpulse.service;
+
+import com.nidak.weatherpulse.dto.CacheStats;
+import com.nidak.weatherpulse.entity.Weather;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Newest stored observation per city, filled by the ingest path.
+ * Reads that hit a fresh entry never touch the database.
+ */
+@Component
+public class LatestWeatherCache {
+
+    private final Map<String, Weather> latestByCity = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder stale = new LongAdder();
+    private final long staleMinutes;
+
+    public LatestWeatherCache(@Value("${weather.data-stale-minutes:3}") long staleMinutes) {
+        this.staleMinutes = staleMinutes;
+    }
+
+    /**
+     * @return the cached observation, or null when it is missing or older than {@code weather.data-stale-minutes}
+     */
+    public Weather getFresh(String city) {
+        Weather weather = latestByCity.get(city);
+        if (weather == null) {
+            misses.increment();
+            return null;
+        }
+        if (isStale(weather)) {
+            stale.increment();
+            return null;
+        }
+        hits.increment();
+        return weather;
+    }
+
+    /**
+     * @return timestamp of the newest stored observation seen for the city, or null when unknown; does not count as a read
+     */
+    public LocalDateTime latestTimestamp(String city) {
+        Weather weather = latestByCity.get(city);
+        return weather == null ? null : weather.getTimestamp();
+    }
+
+    public void put(Weather weather) {
+        if (weather == null || weather.getCity() == null || weather.getTimestamp() == null) {
+            return;
+        }
+        latestByCity.merge(weather.getCity(), weather, (current, candidate) ->
+                candidate.getTimestamp().isBefore(current.getTimestamp()) ? current : candidate);
+    }
+
+    public void putAll(Collection<Weather> weatherList) {
+        for (Weather weather : weatherList) {
+            put(weather);
+        }
+    }
+
+    public boolean isStale(Weather weather) {
+        return weather.getTimestamp() == null
+                || weather.getTimestamp().isBefore(LocalDateTime.now().minusMinutes(staleMinutes));
+    }
+
+    public CacheStats getStats() {
+        return new CacheStats(latestByCity.size(), hits.sum(), misses.sum(), stale.sum());
+    }
+}
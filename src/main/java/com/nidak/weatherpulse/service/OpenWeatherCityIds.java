@@ -0,0 +1,45 @@
+package com.nidak.weatherpulse.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * OpenWeather city ids, learned from single-city responses, so polling can fetch resolved cities through
+ * {@code /group}. Bounded LRU, since any city someone searches for is learned too.
+ */
+@Component
+public class OpenWeatherCityIds {
+
+    private final Map<String, Long> idsByCity;
+
+    public OpenWeatherCityIds(@Value("${weather.polling.city-id-cache-size:10000}") int maxSize) {
+        int capacity = Math.max(1, maxSize);
+        this.idsByCity = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    public synchronized Long idOf(String city) {
+        return idsByCity.get(city);
+    }
+
+    public synchronized void remember(String city, long cityId) {
+        if (cityId > 0) {
+            idsByCity.put(city, cityId);
+        }
+    }
+
+    public synchronized void forget(String city) {
+        idsByCity.remove(city);
+    }
+
+    public synchronized int size() {
+        return idsByCity.size();
+    }
+}
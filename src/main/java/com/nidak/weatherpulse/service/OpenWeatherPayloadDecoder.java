@@ -0,0 +1,330 @@
+package com.nidak.weatherpulse.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.nidak.weatherpulse.exception.WeatherServiceException;
+import org.springframework.http.HttpStatus;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pull-parses OpenWeather current-weather, group and forecast payloads straight from the response stream.
+ * Only the fields we map are read; everything else is skipped without building a tree.
+ * Defaults match the old {@code org.json} {@code opt*} lookups: missing or null optional fields fall back,
+ * while a missing {@code main.temp}, {@code weather[0].main} or {@code dt_txt} is a malformed payload.
+ */
+public final class OpenWeatherPayloadDecoder {
+
+    private static final JsonFactory JSON_FACTORY = JsonFactory.builder().build();
+
+    private OpenWeatherPayloadDecoder() {
+    }
+
+    public static Observation decodeCurrent(InputStream body) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            expect(parser.nextToken(), JsonToken.START_OBJECT);
+            return readObservation(parser, false, null);
+        } catch (JsonProcessingException exception) {
+            throw malformed("invalid JSON");
+        }
+    }
+
+    /**
+     * Like {@link #decodeCurrent(InputStream)}, also keeping the provider's city id and name.
+     */
+    public static CityObservation decodeCurrentCity(InputStream body) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            expect(parser.nextToken(), JsonToken.START_OBJECT);
+            return readCityObservation(parser);
+        } catch (JsonProcessingException exception) {
+            throw malformed("invalid JSON");
+        }
+    }
+
+    /**
+     * Decodes a {@code /group} response: a {@code list} of current-weather objects.
+     */
+    public static List<CityObservation> decodeGroup(InputStream body) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            expect(parser.nextToken(), JsonToken.START_OBJECT);
+            List<CityObservation> observations = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("list".equals(field) && value == JsonToken.START_ARRAY) {
+                    observations = new ArrayList<>(20);
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        CityObservation observation = readCityObservation(parser);
+                        if (observation.cityId() <= 0) {
+                            // Group results are matched back to cities by id alone.
+                            throw malformed("list[].id");
+                        }
+                        observations.add(observation);
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            if (observations == null) {
+                throw malformed("group list");
+            }
+            return observations;
+        } catch (JsonProcessingException exception) {
+            throw malformed("invalid JSON");
+        }
+    }
+
+    public static List<Observation> decodeForecast(InputStream body) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            return readForecast(parser);
+        } catch (JsonProcessingException exception) {
+            throw malformed("invalid JSON");
+        }
+    }
+
+    private static List<Observation> readForecast(JsonParser parser) throws IOException {
+        expect(parser.nextToken(), JsonToken.START_OBJECT);
+        List<Observation> forecast = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("list".equals(field) && value == JsonToken.START_ARRAY) {
+                forecast = new ArrayList<>(40);
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    forecast.add(readObservation(parser, true, null));
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        if (forecast == null) {
+            throw malformed("forecast list");
+        }
+        return forecast;
+    }
+
+    private static CityObservation readCityObservation(JsonParser parser) throws IOException {
+        CityIdentity identity = new CityIdentity();
+        Observation observation = readObservation(parser, false, identity);
+        return new CityObservation(identity.id, identity.name, identity.latitude, identity.longitude, observation);
+    }
+
+    /**
+     * Reads one observation object; the parser is positioned on its START_OBJECT and is left on its END_OBJECT.
+     *
+     * @param identity receives the top-level {@code id}, {@code name} and {@code coord} when not null
+     */
+    private static Observation readObservation(JsonParser parser, boolean forecastEntry, CityIdentity identity) throws IOException {
+        double temperature = Double.NaN;
+        double feelsLike = 0;
+        double humidity = 0;
+        double windSpeed = 0;
+        int weatherCode = 0;
+        String weatherCondition = null;
+        String weatherDescription = null;
+        String forecastTime = null;
+        boolean sawMain = false;
+        boolean sawWeather = false;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "main" -> {
+                    if (value != JsonToken.START_OBJECT) {
+                        throw malformed("main");
+                    }
+                    sawMain = true;
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String mainField = parser.currentName();
+                        parser.nextToken();
+                        switch (mainField) {
+                            case "temp" -> temperature = readDouble(parser, Double.NaN);
+                            case "feels_like" -> feelsLike = readDouble(parser, 0);
+                            case "humidity" -> humidity = readDouble(parser, 0);
+                            default -> parser.skipChildren();
+                        }
+                    }
+                }
+                case "wind" -> {
+                    if (value != JsonToken.START_OBJECT) {
+                        parser.skipChildren();
+                        break;
+                    }
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String windField = parser.currentName();
+                        parser.nextToken();
+                        if ("speed".equals(windField)) {
+                            windSpeed = readDouble(parser, 0);
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                }
+                case "weather" -> {
+                    if (value != JsonToken.START_ARRAY || parser.nextToken() != JsonToken.START_OBJECT) {
+                        throw malformed("weather");
+                    }
+                    sawWeather = true;
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String weatherField = parser.currentName();
+                        JsonToken weatherValue = parser.nextToken();
+                        switch (weatherField) {
+                            case "id" -> weatherCode = readInt(parser, 0);
+                            case "main" -> weatherCondition = weatherValue == JsonToken.VALUE_STRING ? parser.getText() : null;
+                            case "description" -> weatherDescription = readString(parser);
+                            default -> parser.skipChildren();
+                        }
+                    }
+                    // Only the first condition is used; skip the rest of the array.
+                    while (parser.nextToken() != JsonToken.END_ARRAY) {
+                        parser.skipChildren();
+                    }
+                }
+                case "dt_txt" -> forecastTime = value == JsonToken.VALUE_STRING ? parser.getText() : null;
+                case "id" -> {
+                    if (identity != null) {
+                        identity.id = readInt(parser, 0);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                case "name" -> {
+                    if (identity != null) {
+                        identity.name = readString(parser);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                case "coord" -> {
+                    if (identity == null || value != JsonToken.START_OBJECT) {
+                        parser.skipChildren();
+                        break;
+                    }
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String coordField = parser.currentName();
+                        parser.nextToken();
+                        switch (coordField) {
+                            case "lat" -> identity.latitude = readCoordinate(parser);
+                            case "lon" -> identity.longitude = readCoordinate(parser);
+                            default -> parser.skipChildren();
+                        }
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+
+        if (!sawMain || Double.isNaN(temperature)) {
+            throw malformed("main.temp");
+        }
+        if (!sawWeather || weatherCondition == null) {
+            throw malformed("weather[0].main");
+        }
+        if (forecastEntry && forecastTime == null) {
+            throw malformed("dt_txt");
+        }
+        return new Observation(
+                temperature,
+                feelsLike,
+                humidity,
+                windSpeed,
+                weatherCode,
+                weatherCondition,
+                weatherDescription == null ? weatherCondition : weatherDescription,
+                forecastTime
+        );
+    }
+
+    private static double readDouble(JsonParser parser, double defaultValue) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+            return parser.getDoubleValue();
+        }
+        if (token == JsonToken.VALUE_STRING) {
+            try {
+                return Double.parseDouble(parser.getText().trim());
+            } catch (NumberFormatException exception) {
+                return defaultValue;
+            }
+        }
+        parser.skipChildren();
+        return defaultValue;
+    }
+
+    private static Double readCoordinate(JsonParser parser) throws IOException {
+        double value = readDouble(parser, Double.NaN);
+        return Double.isNaN(value) ? null : value;
+    }
+
+    private static int readInt(JsonParser parser, int defaultValue) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT || token == JsonToken.VALUE_STRING) {
+            double value = readDouble(parser, Double.NaN);
+            return Double.isNaN(value) ? defaultValue : (int) value;
+        }
+        parser.skipChildren();
+        return defaultValue;
+    }
+
+    private static String readString(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (token.isScalarValue()) {
+            return parser.getText();
+        }
+        parser.skipChildren();
+        return null;
+    }
+
+    private static void expect(JsonToken actual, JsonToken expected) {
+        if (actual != expected) {
+            throw malformed("payload");
+        }
+    }
+
+    private static WeatherServiceException malformed(String field) {
+        return new WeatherServiceException(HttpStatus.BAD_GATEWAY, "Malformed weather provider response: " + field);
+    }
+
+    /**
+     * Raw provider values; temperatures are still in Kelvin.
+     *
+     * @param forecastTime the {@code dt_txt} of a forecast entry, null for current weather
+     */
+    public record Observation(
+            double temperatureKelvin,
+            double feelsLikeKelvin,
+            double humidity,
+            double windSpeed,
+            int weatherCode,
+            String weatherCondition,
+            String weatherDescription,
+            String forecastTime
+    ) {
+    }
+
+    /**
+     * A current-weather observation with the provider's city id, which {@code /group} requests are keyed by.
+     *
+     * @param cityId   0 when a single-city response did not carry one
+     * @param name     the provider's spelling of the city
+     * @param latitude null (as is {@code longitude}) when the response had no {@code coord}
+     */
+    public record CityObservation(long cityId, String name, Double latitude, Double longitude, Observation observation) {
+    }
+
+    private static final class CityIdentity {
+        private long id;
+        private String name;
+        private Double latitude;
+        private Double longitude;
+    }
+}
@@ -0,0 +1,135 @@
+package com.nidak.weatherpulse.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket sized to the OpenWeather per-minute quota.
+ * The bucket starts full and refills continuously, so short bursts are allowed
+ * but the long-run call rate never goes above the configured limit.
+ *
+ * <p>{@link WeatherProviderClient} takes a token for every call it makes. Callers that want to decide up front
+ * whether a call fits (a poll cycle, refresh-ahead) reserve the token instead; the next call on the same thread
+ * uses the reservation rather than taking a second token, and later calls on that thread take their own.
+ */
+@Component
+public class ProviderRateLimiter {
+
+    private final double capacity;
+    private final double tokensPerNano;
+
+    private final ThreadLocal<Reservation> reservations = new ThreadLocal<>();
+
+    private double availableTokens;
+    private long lastRefillNanos;
+
+    public ProviderRateLimiter(@Value("${openweather.rate-limit.per-minute:60}") int permitsPerMinute) {
+        int permits = Math.max(1, permitsPerMinute);
+        this.capacity = permits;
+        this.tokensPerNano = permits / (double) TimeUnit.MINUTES.toNanos(1);
+        this.availableTokens = permits;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * Takes one token, waiting at most {@code timeoutNanos} for the bucket to refill.
+     *
+     * @return false when no token became available in time
+     */
+    public boolean tryAcquire(long timeoutNanos) throws InterruptedException {
+        long deadline = System.nanoTime() + Math.max(0, timeoutNanos);
+        while (true) {
+            long waitNanos;
+            synchronized (this) {
+                refill();
+                if (availableTokens >= 1) {
+                    availableTokens -= 1;
+                    return true;
+                }
+                waitNanos = (long) Math.ceil((1 - availableTokens) / tokensPerNano);
+            }
+
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0 || waitNanos > remaining) {
+                return false;
+            }
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    /**
+     * Takes one token for the next provider call made on this thread, waiting at most {@code timeoutNanos}.
+     * Pair with {@link #releaseReservation()} once the work is done.
+     *
+     * @return false when no token became available in time
+     */
+    public boolean tryReserve(long timeoutNanos) throws InterruptedException {
+        if (!tryAcquire(timeoutNanos)) {
+            return false;
+        }
+        reservations.set(new Reservation());
+        return true;
+    }
+
+    /**
+     * Takes the token for a provider call: this thread's reservation if it holds one, otherwise a fresh token.
+     */
+    public boolean acquireForCall(long timeoutNanos) throws InterruptedException {
+        Reservation reservation = reservations.get();
+        if (reservation != null && !reservation.spent) {
+            reservation.spent = true;
+            reservation.calls++;
+            return true;
+        }
+        if (!tryAcquire(timeoutNanos)) {
+            return false;
+        }
+        if (reservation != null) {
+            reservation.calls++;
+        }
+        return true;
+    }
+
+    /**
+     * Ends this thread's reservation and hands its token back if no provider call used it, e.g. because
+     * the fetch joined one already in flight.
+     *
+     * @return the provider calls made on this thread since the reservation; 0 when it was unused
+     */
+    public int releaseReservation() {
+        Reservation reservation = reservations.get();
+        if (reservation == null) {
+            return 0;
+        }
+        reservations.remove();
+        if (!reservation.spent) {
+            synchronized (this) {
+                refill();
+                availableTokens = Math.min(capacity, availableTokens + 1);
+            }
+        }
+        return reservation.calls;
+    }
+
+    public synchronized int getAvailablePermits() {
+        refill();
+        return (int) availableTokens;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        long elapsed = now - lastRefillNanos;
+        if (elapsed > 0) {
+            availableTokens = Math.min(capacity, availableTokens + elapsed * tokensPerNano);
+            lastRefillNanos = now;
+        }
+    }
+
+    private static final class Reservation {
+
+        private boolean spent;
+        private int calls;
+    }
+}
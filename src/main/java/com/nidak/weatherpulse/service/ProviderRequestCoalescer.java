@@ -0,0 +1,143 @@
+package com.nidak.weatherpulse.service;
+
+import com.nidak.weatherpulse.dto.CoalescingStats;
+import com.nidak.weatherpulse.exception.WeatherServiceException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight guard for provider fetches.
+ * The first caller for a key runs the fetch; callers that arrive while it is running
+ * wait on the same future instead of making their own provider call.
+ */
+@Component
+public class ProviderRequestCoalescer {
+
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final long waitTimeoutMs;
+
+    public ProviderRequestCoalescer(@Value("${weather.provider.coalesce-wait-timeout-ms:15000}") long waitTimeoutMs) {
+        this.waitTimeoutMs = waitTimeoutMs;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Supplier<T> fetch) {
+        CompletableFuture<Object> ownFuture = new CompletableFuture<>();
+        CompletableFuture<Object> runningFuture = inFlight.putIfAbsent(key, ownFuture);
+        if (runningFuture == null) {
+            return runAsLeader(key, ownFuture, fetch);
+        }
+
+        coalesced.increment();
+        try {
+            return (T) runningFuture.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException exception) {
+            timedOut.increment();
+            throw new WeatherServiceException(
+                    HttpStatus.GATEWAY_TIMEOUT,
+                    "Timed out waiting for weather provider response."
+            );
+        } catch (ExecutionException exception) {
+            if (exception.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new WeatherServiceException(HttpStatus.BAD_GATEWAY, "Weather provider request failed.");
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new WeatherServiceException(HttpStatus.SERVICE_UNAVAILABLE, "Weather request was interrupted.");
+        }
+    }
+
+    /**
+     * Claims every key that has no fetch running, for a caller that fetches them together in one provider call.
+     * Callers that arrive for a claimed key wait on it as on any other fetch; keys still open when the claim is
+     * closed fail their waiters.
+     */
+    public GroupClaim claim(Collection<String> keys) {
+        Map<String, CompletableFuture<Object>> claimed = new LinkedHashMap<>();
+        for (String key : keys) {
+            CompletableFuture<Object> ownFuture = new CompletableFuture<>();
+            if (inFlight.putIfAbsent(key, ownFuture) == null) {
+                executed.increment();
+                claimed.put(key, ownFuture);
+            }
+        }
+        return new GroupClaim(claimed);
+    }
+
+    public CoalescingStats getStats() {
+        return new CoalescingStats(inFlight.size(), executed.sum(), coalesced.sum(), timedOut.sum());
+    }
+
+    private <T> T runAsLeader(String key, CompletableFuture<Object> ownFuture, Supplier<T> fetch) {
+        executed.increment();
+        try {
+            T result = fetch.get();
+            ownFuture.complete(result);
+            return result;
+        } catch (RuntimeException exception) {
+            ownFuture.completeExceptionally(exception);
+            throw exception;
+        } catch (Error error) {
+            ownFuture.completeExceptionally(error);
+            throw error;
+        } finally {
+            inFlight.remove(key, ownFuture);
+        }
+    }
+
+    /**
+     * Keys held by one group fetch. Used by the thread that made the claim only.
+     */
+    public final class GroupClaim implements AutoCloseable {
+
+        private final Map<String, CompletableFuture<Object>> claimed;
+
+        private GroupClaim(Map<String, CompletableFuture<Object>> claimed) {
+            this.claimed = claimed;
+        }
+
+        public boolean holds(String key) {
+            return claimed.containsKey(key);
+        }
+
+        public void complete(String key, Object result) {
+            CompletableFuture<Object> ownFuture = claimed.remove(key);
+            if (ownFuture != null) {
+                ownFuture.complete(result);
+                inFlight.remove(key, ownFuture);
+            }
+        }
+
+        public void fail(String key, RuntimeException exception) {
+            CompletableFuture<Object> ownFuture = claimed.remove(key);
+            if (ownFuture != null) {
+                ownFuture.completeExceptionally(exception);
+                inFlight.remove(key, ownFuture);
+            }
+        }
+
+        @Override
+        public void close() {
+            for (String key : List.copyOf(claimed.keySet())) {
+                fail(key, new WeatherServiceException(HttpStatus.BAD_GATEWAY, "Weather provider request failed."));
+            }
+        }
+    }
+}
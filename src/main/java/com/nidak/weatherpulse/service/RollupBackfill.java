@@ -0,0 +1,145 @@
+package com.nidak.weatherpulse.service;
+
+import com.nidak.weatherpulse.repository.DailyWeatherSummaryRepository;
+import com.nidak.weatherpulse.repository.HourlyWeatherRollupRepository;
+import com.nidak.weatherpulse.repository.WeatherRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Fills hourly rollups (and any missing daily summaries) for observations stored before rollups were
+ * maintained during ingest. Runs once per start on a background thread, one city-day per transaction.
+ * The work list is every day whose raw rows outnumber the samples its rollups cover, found with one grouped
+ * count per table and city, so a run that stopped partway is picked up where it left off and a restart after
+ * a complete run only reads the counts.
+ *
+ * <p>Ingest keeps writing while this runs, so a late sample can create an hour (or the day's summary) between
+ * the backfill's read and its commit. The unique key rejects that day's transaction; the day is read again,
+ * now finding the ingest's row, and a day that keeps conflicting is left to the next start instead of
+ * stopping the run.
+ */
+@Component
+public class RollupBackfill {
+
+    private static final Logger log = LoggerFactory.getLogger(RollupBackfill.class);
+    private static final int DAY_ATTEMPTS = 3;
+
+    private final WeatherRepository weatherRepository;
+    private final HourlyWeatherRollupRepository hourlyWeatherRollupRepository;
+    private final DailyWeatherSummaryRepository dailyWeatherSummaryRepository;
+    private final HourlyRollupAggregator hourlyRollupAggregator;
+    private final DailySummaryAggregator dailySummaryAggregator;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private volatile boolean complete;
+
+    public RollupBackfill(
+            WeatherRepository weatherRepository,
+            HourlyWeatherRollupRepository hourlyWeatherRollupRepository,
+            DailyWeatherSummaryRepository dailyWeatherSummaryRepository,
+            HourlyRollupAggregator hourlyRollupAggregator,
+            DailySummaryAggregator dailySummaryAggregator,
+            TransactionTemplate transactionTemplate,
+            @Value("${weather.history.backfill-enabled:true}") boolean enabled
+    ) {
+        this.weatherRepository = weatherRepository;
+        this.hourlyWeatherRollupRepository = hourlyWeatherRollupRepository;
+        this.dailyWeatherSummaryRepository = dailyWeatherSummaryRepository;
+        this.hourlyRollupAggregator = hourlyRollupAggregator;
+        this.dailySummaryAggregator = dailySummaryAggregator;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startBackfill() {
+        if (!enabled) {
+            complete = true;
+            return;
+        }
+        Thread backfill = new Thread(this::backfillAll, "weather-rollup-backfill");
+        backfill.setDaemon(true);
+        backfill.start();
+    }
+
+    /**
+     * One pass over every city on the calling thread.
+     */
+    public void backfillAll() {
+        // Ingest builds any hour it opens from the stored rows, so the current hour is never backfilled.
+        LocalDateTime startupHour = HourlyRollupAggregator.hourOf(LocalDateTime.now());
+        int rows = 0;
+        try {
+            for (WeatherRepository.CityTimespan span : weatherRepository.findFirstTimestampPerCity()) {
+                rows += backfillCity(span.getCityId(), span.getCity(), startupHour);
+            }
+        } catch (RuntimeException exception) {
+            log.warn("Rollup backfill stopped after {} rows: {}", rows, exception.getMessage());
+            return;
+        }
+        if (rows > 0) {
+            log.info("Backfilled {} hourly rollup rows", rows);
+        }
+        complete = true;
+    }
+
+    /**
+     * True once every stored observation is covered by a rollup, so raw rows can be purged without losing history.
+     * A day skipped after repeated conflicts does not hold this back; it is retried on the next start.
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    private int backfillCity(Long cityId, String city, LocalDateTime startupHour) {
+        Map<LocalDate, Long> covered = new HashMap<>();
+        for (WeatherRepository.DayCount day : hourlyWeatherRollupRepository.countSamplesPerDay(city, startupHour)) {
+            covered.put(day.getDay(), day.getSamples());
+        }
+        int rows = 0;
+        for (WeatherRepository.DayCount day : weatherRepository.countSamplesPerDay(cityId, startupHour)) {
+            // Ingest folds every row it writes into its hour, so only rows stored without a rollup make the counts differ.
+            if (day.getSamples() <= covered.getOrDefault(day.getDay(), 0L)) {
+                continue;
+            }
+            rows += backfillDay(cityId, city, day.getDay(), startupHour);
+        }
+        return rows;
+    }
+
+    private int backfillDay(Long cityId, String city, LocalDate current, LocalDateTime startupHour) {
+        LocalDateTime until = current.plusDays(1).atStartOfDay().isBefore(startupHour) ? current.plusDays(1).atStartOfDay() : startupHour;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Integer created = transactionTemplate.execute(status -> {
+                    int written = hourlyRollupAggregator.backfill(city, current.atStartOfDay(), until);
+                    // Days that end before the cutoff are complete, so their summary can be built once here.
+                    if (written > 0 && until.toLocalDate().isAfter(current)
+                            && dailyWeatherSummaryRepository.findByCityIdAndSummaryDate(cityId, current).isEmpty()) {
+                        dailySummaryAggregator.rebuild(city, current);
+                    }
+                    return written;
+                });
+                return created == null ? 0 : created;
+            } catch (DataIntegrityViolationException | ConcurrencyFailureException exception) {
+                if (attempt == DAY_ATTEMPTS) {
+                    log.warn("Skipped rollup backfill of {} on {} after {} conflicting writes", city, current, attempt);
+                    return 0;
+                }
+                // Ingest wrote one of the day's rows first; the next attempt reads it and fills the rest.
+            }
+        }
+    }
+}
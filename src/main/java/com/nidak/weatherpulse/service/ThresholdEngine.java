@@ -0,0 +1,466 @@
+package com.nidak.weatherpulse.service;
+
+import com.nidak.weatherpulse.entity.Weather;
+import com.nidak.weatherpulse.entity.WeatherThreshold;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiled threshold rules indexed by metric, with per-city breach streaks.
+ *
+ * <p>Numeric rules are kept sorted by threshold, so the rules a sample breaches are a prefix
+ * found by binary search. Condition rules are grouped by lower-cased condition. Each city keeps
+ * its streak counters in an int array indexed by rule id and guarded by the city's own lock, so
+ * different cities never contend and no string keys are built per sample.
+ *
+ * <p>Only {@code temperature} and {@code weatherCondition} rules are evaluated. A rule with any other
+ * condition is accepted and kept, but never matches, as the list-based evaluation treated it.
+ */
+@Component
+public class ThresholdEngine {
+
+    private final Map<String, CityBreachState> cityStates = new ConcurrentHashMap<>();
+    private volatile RuleIndex index = RuleIndex.EMPTY;
+
+    public CompiledThreshold register(WeatherThreshold threshold) {
+        return register(threshold, 0);
+    }
+
+    /**
+     * @param externalId id of the persisted threshold row, or 0 for a rule that is not stored
+     */
+    public synchronized CompiledThreshold register(WeatherThreshold threshold, long externalId) {
+        CompiledThreshold rule = compile(index.size(), externalId, threshold);
+        index = index.with(rule);
+        return rule;
+    }
+
+    /**
+     * Seeds a city's streak for a rule, used when loading persisted state at startup.
+     */
+    public void restoreStreak(String city, int ruleId, int count) {
+        if (count <= 0 || ruleId < 0 || ruleId >= index.size()) {
+            return;
+        }
+        CityBreachState state = cityStates.computeIfAbsent(city, key -> new CityBreachState());
+        synchronized (state) {
+            state.ensureCapacity(index.size());
+            state.restore(ruleId, count);
+        }
+    }
+
+    /**
+     * Returns and clears every streak that changed since the last call, for write-behind persistence.
+     * Streaks of rules without an external id are dropped.
+     */
+    public List<StreakUpdate> drainChangedStreaks() {
+        RuleIndex rules = index;
+        List<StreakUpdate> updates = new ArrayList<>();
+        for (Map.Entry<String, CityBreachState> entry : cityStates.entrySet()) {
+            CityBreachState state = entry.getValue();
+            synchronized (state) {
+                for (int i = 0; i < state.changedCount; i++) {
+                    int ruleId = state.changedRuleIds[i];
+                    state.changed[ruleId] = false;
+                    long externalId = rules.byId[ruleId].externalId();
+                    if (externalId != 0) {
+                        updates.add(new StreakUpdate(entry.getKey(), ruleId, externalId, state.counts[ruleId]));
+                    }
+                }
+                state.changedCount = 0;
+            }
+        }
+        return updates;
+    }
+
+    /**
+     * Marks drained streaks as changed again after their write failed, so the next drain returns them with
+     * whatever count they have by then.
+     */
+    public void requeueChangedStreaks(List<StreakUpdate> updates) {
+        for (StreakUpdate update : updates) {
+            CityBreachState state = cityStates.get(update.city());
+            if (state == null) {
+                continue;
+            }
+            synchronized (state) {
+                state.ensureCapacity(index.size());
+                state.markChanged(update.ruleId());
+            }
+        }
+    }
+
+    public boolean isEmpty() {
+        return index.size() == 0;
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * Advances every rule for the sample's city and returns the rules whose streak
+     * reached {@code consecutiveUpdates} on this sample, in the order they were registered.
+     * Rules that do not match are reset.
+     */
+    public List<ThresholdBreach> evaluate(String city, Weather weather) {
+        RuleIndex rules = index;
+        if (rules.size() == 0) {
+            return List.of();
+        }
+
+        String conditionKey = weather.getWeatherCondition() == null
+                ? ""
+                : weather.getWeatherCondition().toLowerCase(Locale.ROOT);
+        int[] conditionRuleIds = rules.conditionRules.getOrDefault(conditionKey, RuleIndex.NO_RULES);
+        int[] breachedByMetric = new int[Metric.NUMERIC_COUNT];
+        for (Metric metric : Metric.NUMERIC) {
+            breachedByMetric[metric.ordinal()] = rules.numeric[metric.ordinal()].countBelow(metric.valueOf(weather));
+        }
+
+        CityBreachState state = cityStates.computeIfAbsent(city, key -> new CityBreachState());
+        List<ThresholdBreach> breaches = null;
+        synchronized (state) {
+            state.ensureCapacity(rules.size());
+            state.resetNonMatching(rules, conditionKey, breachedByMetric);
+
+            for (Metric metric : Metric.NUMERIC) {
+                NumericRules numericRules = rules.numeric[metric.ordinal()];
+                for (int position = 0; position < breachedByMetric[metric.ordinal()]; position++) {
+                    breaches = advance(state, rules.byId[numericRules.ruleIds[position]], city, weather, breaches);
+                }
+            }
+            for (int ruleId : conditionRuleIds) {
+                breaches = advance(state, rules.byId[ruleId], city, weather, breaches);
+            }
+        }
+        if (breaches == null) {
+            return List.of();
+        }
+        if (breaches.size() > 1) {
+            breaches.sort(Comparator.comparingInt(breach -> breach.rule().id()));
+        }
+        return breaches;
+    }
+
+    private List<ThresholdBreach> advance(
+            CityBreachState state,
+            CompiledThreshold rule,
+            String city,
+            Weather weather,
+            List<ThresholdBreach> breaches
+    ) {
+        int count = state.increment(rule.id());
+        if (count != rule.consecutiveUpdates()) {
+            return breaches;
+        }
+        List<ThresholdBreach> result = breaches == null ? new ArrayList<>(2) : breaches;
+        result.add(rule.breach(city, weather));
+        return result;
+    }
+
+    private static CompiledThreshold compile(int id, long externalId, WeatherThreshold threshold) {
+        Metric metric = Metric.fromCondition(threshold.getCondition());
+        String expectedCondition = threshold.getWeatherCondition();
+        if (metric == Metric.WEATHER_CONDITION && (expectedCondition == null || expectedCondition.isBlank())) {
+            metric = null;
+        }
+        String conditionKey = metric == Metric.WEATHER_CONDITION
+                ? expectedCondition.trim().toLowerCase(Locale.ROOT)
+                : null;
+        int consecutiveUpdates = threshold.getConsecutiveUpdates() <= 0 ? 2 : threshold.getConsecutiveUpdates();
+        String alertMessage = threshold.getAlertMessage() == null || threshold.getAlertMessage().isBlank()
+                ? null
+                : threshold.getAlertMessage();
+        return new CompiledThreshold(
+                id,
+                externalId,
+                metric,
+                threshold.getThreshold(),
+                conditionKey,
+                expectedCondition,
+                consecutiveUpdates,
+                alertMessage
+        );
+    }
+
+    public enum Metric {
+        TEMPERATURE("temperature"),
+        WEATHER_CONDITION("weatherCondition");
+
+        static final Metric[] NUMERIC = {TEMPERATURE};
+        static final int NUMERIC_COUNT = NUMERIC.length;
+
+        private final String key;
+
+        Metric(String key) {
+            this.key = key;
+        }
+
+        public String key() {
+            return key;
+        }
+
+        /**
+         * @return the metric, or null for a condition the engine does not evaluate
+         */
+        static Metric fromCondition(String condition) {
+            String trimmed = condition == null ? "" : condition.trim();
+            for (Metric metric : values()) {
+                if (metric.key.equalsIgnoreCase(trimmed)) {
+                    return metric;
+                }
+            }
+            return null;
+        }
+
+        double valueOf(Weather weather) {
+            return switch (this) {
+                case TEMPERATURE -> weather.getTemperature();
+                case WEATHER_CONDITION -> Double.NaN;
+            };
+        }
+    }
+
+    public record CompiledThreshold(
+            int id,
+            long externalId,
+            Metric metric,
+            double threshold,
+            String conditionKey,
+            String expectedCondition,
+            int consecutiveUpdates,
+            String alertMessage
+    ) {
+
+        ThresholdBreach breach(String city, Weather weather) {
+            if (metric == Metric.WEATHER_CONDITION) {
+                String message = alertMessage != null ? alertMessage
+                        : "Weather condition threshold breached for " + weather.getCity()
+                        + ": condition=" + weather.getWeatherCondition();
+                return new ThresholdBreach(this, city, message, weather.getWeatherCondition(), expectedCondition);
+            }
+
+            double observed = metric.valueOf(weather);
+            String message = alertMessage != null ? alertMessage
+                    : "Temperature threshold breached for " + weather.getCity()
+                    + ": current=" + observed
+                    + " C, threshold=" + threshold + " C";
+            return new ThresholdBreach(this, city, message, String.valueOf(observed), String.valueOf(threshold));
+        }
+    }
+
+    public record StreakUpdate(String city, int ruleId, long thresholdId, int count) {
+    }
+
+    public record ThresholdBreach(
+            CompiledThreshold rule,
+            String city,
+            String alertMessage,
+            String observedValue,
+            String thresholdValue
+    ) {
+    }
+
+    /**
+     * Numeric rules of one metric sorted by threshold value, so "value > threshold"
+     * holds exactly for the first {@link #countBelow(double)} entries.
+     */
+    private static final class NumericRules {
+
+        private static final NumericRules EMPTY = new NumericRules(new double[0], new int[0]);
+
+        private final double[] thresholds;
+        private final int[] ruleIds;
+
+        private NumericRules(double[] thresholds, int[] ruleIds) {
+            this.thresholds = thresholds;
+            this.ruleIds = ruleIds;
+        }
+
+        int countBelow(double value) {
+            int low = 0;
+            int high = thresholds.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (thresholds[middle] < value) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        NumericRules with(CompiledThreshold rule) {
+            int insertAt = countBelow(rule.threshold());
+            // Keep registration order among equal thresholds.
+            while (insertAt < thresholds.length && thresholds[insertAt] == rule.threshold()) {
+                insertAt++;
+            }
+            double[] newThresholds = new double[thresholds.length + 1];
+            int[] newRuleIds = new int[ruleIds.length + 1];
+            System.arraycopy(thresholds, 0, newThresholds, 0, insertAt);
+            System.arraycopy(ruleIds, 0, newRuleIds, 0, insertAt);
+            newThresholds[insertAt] = rule.threshold();
+            newRuleIds[insertAt] = rule.id();
+            System.arraycopy(thresholds, insertAt, newThresholds, insertAt + 1, thresholds.length - insertAt);
+            System.arraycopy(ruleIds, insertAt, newRuleIds, insertAt + 1, ruleIds.length - insertAt);
+            return new NumericRules(newThresholds, newRuleIds);
+        }
+    }
+
+    /**
+     * Immutable snapshot of all compiled rules. Registration swaps in a new snapshot,
+     * so evaluation never takes a global lock.
+     */
+    private static final class RuleIndex {
+
+        private static final int[] NO_RULES = new int[0];
+        private static final RuleIndex EMPTY = new RuleIndex(
+                new CompiledThreshold[0],
+                emptyNumericRules(),
+                new int[0],
+                Collections.emptyMap()
+        );
+
+        private final CompiledThreshold[] byId;
+        private final NumericRules[] numeric;
+        // Position of each numeric rule within its metric's sorted array; -1 for condition rules.
+        private final int[] sortedPosition;
+        private final Map<String, int[]> conditionRules;
+
+        private RuleIndex(
+                CompiledThreshold[] byId,
+                NumericRules[] numeric,
+                int[] sortedPosition,
+                Map<String, int[]> conditionRules
+        ) {
+            this.byId = byId;
+            this.numeric = numeric;
+            this.sortedPosition = sortedPosition;
+            this.conditionRules = conditionRules;
+        }
+
+        int size() {
+            return byId.length;
+        }
+
+        RuleIndex with(CompiledThreshold rule) {
+            CompiledThreshold[] newById = Arrays.copyOf(byId, byId.length + 1);
+            newById[rule.id()] = rule;
+
+            NumericRules[] newNumeric = numeric.clone();
+            Map<String, int[]> newConditionRules = conditionRules;
+            // A rule without a metric never matches, so it is only kept by id.
+            if (rule.metric() == Metric.WEATHER_CONDITION) {
+                newConditionRules = new HashMap<>(conditionRules);
+                int[] existing = newConditionRules.getOrDefault(rule.conditionKey(), NO_RULES);
+                int[] extended = Arrays.copyOf(existing, existing.length + 1);
+                extended[existing.length] = rule.id();
+                newConditionRules.put(rule.conditionKey(), extended);
+            } else if (rule.metric() != null) {
+                newNumeric[rule.metric().ordinal()] = numeric[rule.metric().ordinal()].with(rule);
+            }
+
+            int[] newSortedPosition = new int[newById.length];
+            Arrays.fill(newSortedPosition, -1);
+            for (NumericRules rules : newNumeric) {
+                for (int position = 0; position < rules.ruleIds.length; position++) {
+                    newSortedPosition[rules.ruleIds[position]] = position;
+                }
+            }
+            return new RuleIndex(newById, newNumeric, newSortedPosition, newConditionRules);
+        }
+
+        private static NumericRules[] emptyNumericRules() {
+            NumericRules[] rules = new NumericRules[Metric.NUMERIC_COUNT];
+            Arrays.fill(rules, NumericRules.EMPTY);
+            return rules;
+        }
+    }
+
+    /**
+     * Streak counters for one city, indexed by rule id, plus the list of rule ids with a
+     * non-zero streak so resets only visit rules that are actually counting.
+     * Rule ids whose streak changed since the last drain are tracked for write-behind.
+     */
+    private static final class CityBreachState {
+
+        private int[] counts = new int[0];
+        private int[] activeRuleIds = new int[4];
+        private int activeCount;
+        private boolean[] changed = new boolean[0];
+        private int[] changedRuleIds = new int[4];
+        private int changedCount;
+
+        void ensureCapacity(int ruleCount) {
+            if (counts.length < ruleCount) {
+                int capacity = Math.max(ruleCount, counts.length * 2);
+                counts = Arrays.copyOf(counts, capacity);
+                changed = Arrays.copyOf(changed, capacity);
+            }
+        }
+
+        int increment(int ruleId) {
+            int count = counts[ruleId];
+            if (count == 0) {
+                activate(ruleId);
+            }
+            if (count < Integer.MAX_VALUE) {
+                counts[ruleId] = count + 1;
+                markChanged(ruleId);
+            }
+            return counts[ruleId];
+        }
+
+        void restore(int ruleId, int count) {
+            if (counts[ruleId] == 0) {
+                activate(ruleId);
+            }
+            counts[ruleId] = count;
+        }
+
+        private void activate(int ruleId) {
+            if (activeCount == activeRuleIds.length) {
+                activeRuleIds = Arrays.copyOf(activeRuleIds, activeCount * 2);
+            }
+            activeRuleIds[activeCount++] = ruleId;
+        }
+
+        private void markChanged(int ruleId) {
+            if (changed[ruleId]) {
+                return;
+            }
+            changed[ruleId] = true;
+            if (changedCount == changedRuleIds.length) {
+                changedRuleIds = Arrays.copyOf(changedRuleIds, changedCount * 2);
+            }
+            changedRuleIds[changedCount++] = ruleId;
+        }
+
+        void resetNonMatching(RuleIndex rules, String conditionKey, int[] breachedByMetric) {
+            for (int i = activeCount - 1; i >= 0; i--) {
+                int ruleId = activeRuleIds[i];
+                CompiledThreshold rule = rules.byId[ruleId];
+                boolean stillMatching = rule.metric() == Metric.WEATHER_CONDITION
+                        ? rule.conditionKey().equals(conditionKey)
+                        : rules.sortedPosition[ruleId] < breachedByMetric[rule.metric().ordinal()];
+                if (!stillMatching) {
+                    counts[ruleId] = 0;
+                    markChanged(ruleId);
+                    activeRuleIds[i] = activeRuleIds[--activeCount];
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.nidak.weatherpulse.service;
+
+import com.nidak.weatherpulse.entity.ThresholdBreachState;
+import com.nidak.weatherpulse.entity.WeatherThreshold;
+import com.nidak.weatherpulse.entity.WeatherThresholdEntity;
+import com.nidak.weatherpulse.repository.ThresholdBreachStateRepository;
+import com.nidak.weatherpulse.repository.WeatherThresholdRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Persists thresholds and their per-city breach streaks.
+ * Everything is bulk-loaded into {@link ThresholdEngine} once at startup, before the web server takes
+ * requests, so a threshold posted during startup cannot be registered a second time by the load.
+ * After that the engine is the source of truth and changed streaks are written behind in batches on a timer.
+ */
+@Service
+public class ThresholdStore implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(ThresholdStore.class);
+
+    private final WeatherThresholdRepository weatherThresholdRepository;
+    private final ThresholdBreachStateRepository thresholdBreachStateRepository;
+    private final ThresholdEngine thresholdEngine;
+    private final TransactionTemplate transactionTemplate;
+    private final int flushBatchSize;
+    private final Map<String, Long> stateIdsByKey = new ConcurrentHashMap<>();
+
+    public ThresholdStore(
+            WeatherThresholdRepository weatherThresholdRepository,
+            ThresholdBreachStateRepository thresholdBreachStateRepository,
+            ThresholdEngine thresholdEngine,
+            TransactionTemplate transactionTemplate,
+            @Value("${weather.thresholds.state-flush-batch-size:500}") int flushBatchSize
+    ) {
+        this.weatherThresholdRepository = weatherThresholdRepository;
+        this.thresholdBreachStateRepository = thresholdBreachStateRepository;
+        this.thresholdEngine = thresholdEngine;
+        this.transactionTemplate = transactionTemplate;
+        this.flushBatchSize = Math.max(1, flushBatchSize);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        Map<Long, Integer> ruleIdsByThresholdId = new HashMap<>();
+        for (WeatherThresholdEntity entity : weatherThresholdRepository.findAllByOrderByIdAsc()) {
+            ruleIdsByThresholdId.put(entity.getId(), thresholdEngine.register(toThreshold(entity), entity.getId()).id());
+        }
+
+        int restoredStreaks = 0;
+        for (ThresholdBreachState state : thresholdBreachStateRepository.findAll()) {
+            stateIdsByKey.put(stateKey(state.getThresholdId(), state.getCity()), state.getId());
+            Integer ruleId = ruleIdsByThresholdId.get(state.getThresholdId());
+            if (ruleId != null && state.getBreachCount() > 0) {
+                thresholdEngine.restoreStreak(state.getCity(), ruleId, state.getBreachCount());
+                restoredStreaks++;
+            }
+        }
+        log.info("Loaded {} thresholds and {} active breach streaks", ruleIdsByThresholdId.size(), restoredStreaks);
+    }
+
+    public void save(WeatherThreshold threshold) {
+        WeatherThresholdEntity saved = weatherThresholdRepository.save(toEntity(threshold));
+        thresholdEngine.register(threshold, saved.getId());
+    }
+
+    @Scheduled(
+            initialDelayString = "${weather.thresholds.state-flush-ms:10000}",
+            fixedDelayString = "${weather.thresholds.state-flush-ms:10000}"
+    )
+    public void flushChangedStreaks() {
+        List<ThresholdEngine.StreakUpdate> updates = thresholdEngine.drainChangedStreaks();
+        for (int from = 0; from < updates.size(); from += flushBatchSize) {
+            List<ThresholdEngine.StreakUpdate> batch = updates.subList(from, Math.min(updates.size(), from + flushBatchSize));
+            try {
+                persistBatch(batch);
+            } catch (RuntimeException exception) {
+                // The engine keeps the live counts; marking them changed again gets them written on the next flush.
+                thresholdEngine.requeueChangedStreaks(batch);
+                log.warn("Failed to persist {} breach streaks: {}", batch.size(), exception.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flushChangedStreaks();
+    }
+
+    private void persistBatch(List<ThresholdEngine.StreakUpdate> batch) {
+        LocalDateTime now = LocalDateTime.now();
+        List<ThresholdBreachState> created = new ArrayList<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            Map<Long, ThresholdEngine.StreakUpdate> updatesByStateId = new HashMap<>();
+            for (ThresholdEngine.StreakUpdate update : batch) {
+                Long stateId = stateIdsByKey.get(stateKey(update.thresholdId(), update.city()));
+                if (stateId != null) {
+                    updatesByStateId.put(stateId, update);
+                } else {
+                    created.add(new ThresholdBreachState(null, update.thresholdId(), update.city(), update.count(), now));
+                }
+            }
+
+            // Managed rows are flushed as batched UPDATEs on commit (hibernate.jdbc.batch_size).
+            for (ThresholdBreachState state : thresholdBreachStateRepository.findAllById(updatesByStateId.keySet())) {
+                state.setBreachCount(updatesByStateId.get(state.getId()).count());
+                state.setUpdatedAt(now);
+            }
+            thresholdBreachStateRepository.saveAll(created);
+        });
+        for (ThresholdBreachState state : created) {
+            stateIdsByKey.put(stateKey(state.getThresholdId(), state.getCity()), state.getId());
+        }
+    }
+
+    private static String stateKey(long thresholdId, String city) {
+        return thresholdId + "|" + city;
+    }
+
+    private static WeatherThreshold toThreshold(WeatherThresholdEntity entity) {
+        return new WeatherThreshold(
+                entity.getCondition(),
+                entity.getThresholdValue(),
+                entity.getWeatherCondition(),
+                entity.getConsecutiveUpdates(),
+                entity.getAlertMessage()
+        );
+    }
+
+    private static WeatherThresholdEntity toEntity(WeatherThreshold threshold) {
+        WeatherThresholdEntity entity = new WeatherThresholdEntity();
+        entity.setCondition(threshold.getCondition().trim());
+        entity.setThresholdValue(threshold.getThreshold());
+        entity.setWeatherCondition(threshold.getWeatherCondition());
+        entity.setConsecutiveUpdates(threshold.getConsecutiveUpdates());
+        entity.setAlertMessage(threshold.getAlertMessage());
+        entity.setCreatedAt(LocalDateTime.now());
+        return entity;
+    }
+}
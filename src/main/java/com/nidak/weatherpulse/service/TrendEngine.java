@@ -0,0 +1,383 @@
+package com.nidak.weatherpulse.service;
+
+import com.nidak.weatherpulse.dto.CityTrends;
+import com.nidak.weatherpulse.entity.HourlyWeatherRollup;
+import com.nidak.weatherpulse.entity.Weather;
+import com.nidak.weatherpulse.repository.HourlyWeatherRollupRepository;
+import com.nidak.weatherpulse.repository.WeatherRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-city moving average, EWMA and least-squares slope of temperature, humidity and wind over the last
+ * 24 hours, 7 days and 30 days, updated from each committed ingest batch.
+ *
+ * <p>Each city keeps a ring of 720 hourly buckets holding the sums a regression needs, plus running window
+ * totals. A sample updates its bucket and the totals in O(1); the totals are re-summed from the buckets only
+ * when the clock hour rolls over (at most once per hour per city), which also drops expired buckets and keeps
+ * floating-point drift from building up. Reads are O(1) after that.
+ *
+ * <p>State is in memory. A city is seeded from its hourly rollups the first time it is touched after a start,
+ * assuming each hour's samples sat at mid-hour. Only new observations are recorded: an overwritten one keeps
+ * its first values here until its bucket leaves the window.
+ */
+@Component
+public class TrendEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(TrendEngine.class);
+
+    private static final int SLOTS = 720;
+    private static final int[] WINDOW_HOURS = {24, 7 * 24, 30 * 24};
+    private static final String[] WINDOW_NAMES = {"24h", "7d", "30d"};
+    private static final int WINDOWS = WINDOW_HOURS.length;
+    // Temperature, humidity, wind speed.
+    private static final int METRICS = 3;
+
+    private final WeatherRepository weatherRepository;
+    private final HourlyWeatherRollupRepository hourlyWeatherRollupRepository;
+    private final CityRegistry cityRegistry;
+    private final int maxCities;
+    private final Map<String, CityTrend> trends = new ConcurrentHashMap<>();
+
+    public TrendEngine(
+            WeatherRepository weatherRepository,
+            HourlyWeatherRollupRepository hourlyWeatherRollupRepository,
+            CityRegistry cityRegistry,
+            @Value("${weather.trends.max-cities:1000}") int maxCities
+    ) {
+        this.weatherRepository = weatherRepository;
+        this.hourlyWeatherRollupRepository = hourlyWeatherRollupRepository;
+        this.cityRegistry = cityRegistry;
+        this.maxCities = Math.max(1, maxCities);
+    }
+
+    /**
+     * Folds newly committed observations into their cities' trends. Never throws, so a trend problem cannot fail ingest.
+     */
+    public void record(List<Weather> samples) {
+        for (Weather sample : samples) {
+            try {
+                CityTrend trend = warmed(sample.getCity());
+                synchronized (trend) {
+                    if (trend.seededThrough == null || sample.getTimestamp().isAfter(trend.seededThrough)) {
+                        trend.add(epochHours(sample.getTimestamp()),
+                                sample.getTemperature(), sample.getHumidity(), sample.getWindSpeed());
+                    }
+                }
+            } catch (RuntimeException exception) {
+                log.warn("Could not update trends for {}: {}", sample.getCity(), exception.getMessage());
+            }
+        }
+    }
+
+    public CityTrends trends(String city) {
+        LocalDateTime now = LocalDateTime.now();
+        if (cityRegistry.find(city) == null) {
+            // Nothing was ever stored for it; answering without an entry keeps made-up names out of the cache.
+            return emptyTrends(city, now);
+        }
+        CityTrend trend = warmed(city);
+        synchronized (trend) {
+            trend.advanceTo(Math.max(trend.currentHour, (long) Math.floor(epochHours(now))));
+            List<CityTrends.Window> windows = new ArrayList<>(WINDOWS);
+            for (int window = 0; window < WINDOWS; window++) {
+                windows.add(trend.window(window));
+            }
+            return new CityTrends(city, now, windows);
+        }
+    }
+
+    private static CityTrends emptyTrends(String city, LocalDateTime now) {
+        CityTrends.Metric none = new CityTrends.Metric(null, null, null);
+        List<CityTrends.Window> windows = new ArrayList<>(WINDOWS);
+        for (int window = 0; window < WINDOWS; window++) {
+            windows.add(new CityTrends.Window(WINDOW_NAMES[window], 0, none, none, none));
+        }
+        return new CityTrends(city, now, windows);
+    }
+
+    private CityTrend warmed(String city) {
+        CityTrend trend = trends.get(city);
+        if (trend == null) {
+            if (trends.size() >= maxCities) {
+                evictLeastRecentlyUsed();
+            }
+            trend = trends.computeIfAbsent(city, key -> new CityTrend());
+        }
+        synchronized (trend) {
+            trend.lastUsedNanos = System.nanoTime();
+            if (!trend.seeded) {
+                seed(city, trend);
+            }
+        }
+        return trend;
+    }
+
+    /**
+     * Loads the last 30 days of hourly rollups. Samples up to the latest stored observation are already in
+     * those rollups, so {@link #record} skips them; one committed between the two reads is missed rather
+     * than counted twice.
+     */
+    private void seed(String city, CityTrend trend) {
+        LocalDateTime now = LocalDateTime.now();
+        long nowHour = (long) Math.floor(epochHours(now));
+        LocalDateTime from = HourlyRollupAggregator.hourOf(now).minusHours(SLOTS - 1);
+        List<HourlyWeatherRollup> rollups =
+                hourlyWeatherRollupRepository.findByCityAndHourStartBetweenOrderByHourStartAsc(city, from, now);
+        Weather latest = weatherRepository.findTopByCityIdOrderByTimestampDesc(cityRegistry.idOf(city));
+
+        trend.reset(nowHour);
+        for (HourlyWeatherRollup rollup : rollups) {
+            trend.addHour((long) epochHours(rollup.getHourStart()), rollup.getSampleCount(),
+                    rollup.getTemperatureSum(), rollup.getHumiditySum(), rollup.getWindSpeedSum());
+        }
+        trend.recomputeTotals();
+        trend.seededThrough = latest == null ? null : latest.getTimestamp();
+        trend.seeded = true;
+    }
+
+    private void evictLeastRecentlyUsed() {
+        String oldest = null;
+        long oldestUse = Long.MAX_VALUE;
+        for (Map.Entry<String, CityTrend> entry : trends.entrySet()) {
+            long lastUsed = entry.getValue().lastUsedNanos;
+            if (oldest == null || lastUsed - oldestUse < 0) {
+                oldest = entry.getKey();
+                oldestUse = lastUsed;
+            }
+        }
+        if (oldest != null) {
+            // An evicted city is seeded again from its rollups if it comes back.
+            trends.remove(oldest);
+        }
+    }
+
+    private static double epochHours(LocalDateTime timestamp) {
+        return (timestamp.toEpochSecond(ZoneOffset.UTC) + timestamp.getNano() / 1e9) / 3600.0;
+    }
+
+    /**
+     * Bucket stats per slot: sums of the in-hour offset tau (hours) and tau squared, then per metric the sum
+     * of values and of tau times value. Window totals use t = (bucket hour - current hour) + tau.
+     */
+    private static final class CityTrend {
+
+        private static final int TAU = 0;
+        private static final int TAU_SQUARED = 1;
+        private static final int VALUE = 2;
+        private static final int TAU_VALUE = VALUE + METRICS;
+        private static final int FIELDS = TAU_VALUE + METRICS;
+
+        private final long[] slotHour = new long[SLOTS];
+        private final int[] slotCount = new int[SLOTS];
+        private final double[] slotStats = new double[SLOTS * FIELDS];
+
+        private final long[] count = new long[WINDOWS];
+        private final double[] sumT = new double[WINDOWS];
+        private final double[] sumTSquared = new double[WINDOWS];
+        private final double[] sumValue = new double[WINDOWS * METRICS];
+        private final double[] sumTValue = new double[WINDOWS * METRICS];
+
+        private final double[] ewma = new double[WINDOWS * METRICS];
+        private boolean ewmaStarted;
+        private double ewmaHours;
+
+        private long currentHour = Long.MIN_VALUE;
+        private boolean seeded;
+        private LocalDateTime seededThrough;
+        private volatile long lastUsedNanos;
+
+        void reset(long hour) {
+            Arrays.fill(slotHour, Long.MIN_VALUE);
+            Arrays.fill(slotCount, 0);
+            Arrays.fill(slotStats, 0);
+            ewmaStarted = false;
+            currentHour = hour;
+        }
+
+        /**
+         * Seeds one hour from its rollup, taking every sample to be at mid-hour.
+         */
+        void addHour(long hour, int samples, double temperatureSum, double humiditySum, double windSpeedSum) {
+            if (samples <= 0 || hour > currentHour || hour <= currentHour - SLOTS) {
+                return;
+            }
+            int slot = slotFor(hour);
+            slotHour[slot] = hour;
+            slotCount[slot] = samples;
+            int base = slot * FIELDS;
+            slotStats[base + TAU] = 0.5 * samples;
+            slotStats[base + TAU_SQUARED] = 0.25 * samples;
+            double[] sums = {temperatureSum, humiditySum, windSpeedSum};
+            for (int metric = 0; metric < METRICS; metric++) {
+                slotStats[base + VALUE + metric] = sums[metric];
+                slotStats[base + TAU_VALUE + metric] = 0.5 * sums[metric];
+            }
+            updateEwma(hour + 0.5, temperatureSum / samples, humiditySum / samples, windSpeedSum / samples);
+        }
+
+        void add(double hours, double temperature, double humidity, double windSpeed) {
+            long hour = (long) Math.floor(hours);
+            if (hour > currentHour) {
+                advanceTo(hour);
+            }
+            if (hour <= currentHour - SLOTS) {
+                return;
+            }
+            int slot = slotFor(hour);
+            slotHour[slot] = hour;
+            double tau = hours - hour;
+            double t = (hour - currentHour) + tau;
+            slotCount[slot]++;
+            int base = slot * FIELDS;
+            slotStats[base + TAU] += tau;
+            slotStats[base + TAU_SQUARED] += tau * tau;
+            double[] values = {temperature, humidity, windSpeed};
+            for (int metric = 0; metric < METRICS; metric++) {
+                slotStats[base + VALUE + metric] += values[metric];
+                slotStats[base + TAU_VALUE + metric] += tau * values[metric];
+            }
+
+            for (int window = 0; window < WINDOWS; window++) {
+                if (hour <= currentHour - WINDOW_HOURS[window]) {
+                    continue;
+                }
+                count[window]++;
+                sumT[window] += t;
+                sumTSquared[window] += t * t;
+                for (int metric = 0; metric < METRICS; metric++) {
+                    sumValue[window * METRICS + metric] += values[metric];
+                    sumTValue[window * METRICS + metric] += t * values[metric];
+                }
+            }
+            updateEwma(hours, temperature, humidity, windSpeed);
+        }
+
+        /**
+         * Moves the current hour forward, clearing the slots that now hold expired hours, and re-sums the totals.
+         */
+        void advanceTo(long hour) {
+            if (hour <= currentHour) {
+                return;
+            }
+            if (currentHour == Long.MIN_VALUE || hour - currentHour >= SLOTS) {
+                Arrays.fill(slotHour, Long.MIN_VALUE);
+                Arrays.fill(slotCount, 0);
+                Arrays.fill(slotStats, 0);
+            } else {
+                for (long expired = currentHour + 1; expired <= hour; expired++) {
+                    int slot = slotFor(expired);
+                    slotHour[slot] = Long.MIN_VALUE;
+                    slotCount[slot] = 0;
+                    Arrays.fill(slotStats, slot * FIELDS, (slot + 1) * FIELDS, 0);
+                }
+            }
+            currentHour = hour;
+            recomputeTotals();
+        }
+
+        void recomputeTotals() {
+            Arrays.fill(count, 0);
+            Arrays.fill(sumT, 0);
+            Arrays.fill(sumTSquared, 0);
+            Arrays.fill(sumValue, 0);
+            Arrays.fill(sumTValue, 0);
+            for (int slot = 0; slot < SLOTS; slot++) {
+                long hour = slotHour[slot];
+                int samples = slotCount[slot];
+                if (samples == 0 || hour > currentHour || hour <= currentHour - SLOTS) {
+                    continue;
+                }
+                double offset = hour - currentHour;
+                int base = slot * FIELDS;
+                double tau = slotStats[base + TAU];
+                double t = samples * offset + tau;
+                double tSquared = samples * offset * offset + 2 * offset * tau + slotStats[base + TAU_SQUARED];
+                for (int window = 0; window < WINDOWS; window++) {
+                    if (hour <= currentHour - WINDOW_HOURS[window]) {
+                        continue;
+                    }
+                    count[window] += samples;
+                    sumT[window] += t;
+                    sumTSquared[window] += tSquared;
+                    for (int metric = 0; metric < METRICS; metric++) {
+                        double value = slotStats[base + VALUE + metric];
+                        sumValue[window * METRICS + metric] += value;
+                        sumTValue[window * METRICS + metric] += offset * value + slotStats[base + TAU_VALUE + metric];
+                    }
+                }
+            }
+        }
+
+        CityTrends.Window window(int window) {
+            CityTrends.Metric[] metrics = new CityTrends.Metric[METRICS];
+            long samples = count[window];
+            for (int metric = 0; metric < METRICS; metric++) {
+                metrics[metric] = metric(window, metric, samples);
+            }
+            return new CityTrends.Window(WINDOW_NAMES[window], samples, metrics[0], metrics[1], metrics[2]);
+        }
+
+        private CityTrends.Metric metric(int window, int metric, long samples) {
+            if (samples == 0) {
+                return new CityTrends.Metric(null, null, null);
+            }
+            int index = window * METRICS + metric;
+            double average = sumValue[index] / samples;
+            Double slopePerDay = null;
+            double spread = samples * sumTSquared[window] - sumT[window] * sumT[window];
+            // Relative cut-off: below it the sample times are effectively identical and the slope is noise.
+            if (samples > 1 && spread > 1e-9 * samples * sumTSquared[window]) {
+                double slopePerHour = (samples * sumTValue[index] - sumT[window] * sumValue[index]) / spread;
+                slopePerDay = WeatherMath.roundToTwoDecimalPlaces(slopePerHour * 24);
+            }
+            return new CityTrends.Metric(
+                    WeatherMath.roundToTwoDecimalPlaces(average),
+                    ewmaStarted ? WeatherMath.roundToTwoDecimalPlaces(ewma[index]) : null,
+                    slopePerDay
+            );
+        }
+
+        /**
+         * Time-aware EWMA: a sample arriving {@code dt} hours after the previous one gets weight
+         * {@code 1 - exp(-dt / windowHours)}, so uneven polling does not skew it. Late samples are left out.
+         */
+        private void updateEwma(double hours, double temperature, double humidity, double windSpeed) {
+            double[] values = {temperature, humidity, windSpeed};
+            if (!ewmaStarted) {
+                for (int window = 0; window < WINDOWS; window++) {
+                    System.arraycopy(values, 0, ewma, window * METRICS, METRICS);
+                }
+                ewmaStarted = true;
+                ewmaHours = hours;
+                return;
+            }
+            double elapsed = hours - ewmaHours;
+            if (elapsed < 0) {
+                return;
+            }
+            for (int window = 0; window < WINDOWS; window++) {
+                double weight = 1 - Math.exp(-elapsed / WINDOW_HOURS[window]);
+                for (int metric = 0; metric < METRICS; metric++) {
+                    int index = window * METRICS + metric;
+                    ewma[index] += weight * (values[metric] - ewma[index]);
+                }
+            }
+            ewmaHours = hours;
+        }
+
+        private static int slotFor(long hour) {
+            return (int) Math.floorMod(hour, (long) SLOTS);
+        }
+    }
+}
@@ -0,0 +1,320 @@
+package com.nidak.weatherpulse.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nidak.weatherpulse.entity.Weather;
+import com.nidak.weatherpulse.entity.WeatherAlert;
+import com.nidak.weatherpulse.exception.WeatherServiceException;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pushes committed observations and alerts to open {@code text/event-stream} connections.
+ *
+ * <p>Each event is serialized once and shared by every subscriber, so an extra dashboard costs a queue slot per
+ * event and no database work. Subscribers get a bounded buffer drained by a dispatcher pool; one that falls
+ * {@code weather.events.subscriber-buffer} events behind is disconnected and resumes through {@code Last-Event-ID}
+ * from the last {@code weather.events.replay-size} events. A resume from further back gets a {@code resync} event,
+ * telling the client to reload over plain HTTP. Heartbeat comments keep idle connections open through proxies
+ * and flush out dead ones.
+ *
+ * <p>A send blocks while the client's socket is full, until the container's write timeout, and the emitter cannot
+ * be completed from another thread while it does. So the pool hands each draining subscriber its own thread
+ * rather than queueing behind a few shared ones, and a subscriber stuck in one send for a heartbeat interval is
+ * dropped straight away instead of holding its slot until the write fails.
+ */
+@Component
+public class WeatherEventBroadcaster {
+
+    private static final Logger log = LoggerFactory.getLogger(WeatherEventBroadcaster.class);
+
+    public static final String OBSERVATION = "observation";
+    public static final String ALERT = "alert";
+    public static final String RESYNC = "resync";
+
+    private static final Event HEARTBEAT = new Event(-1, null, null, null);
+
+    private final ObjectMapper objectMapper;
+    private final WeatherMetrics weatherMetrics;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Event[] replay;
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final long emitterTimeoutMs;
+    private final ThreadPoolExecutor dispatcher;
+    private final ScheduledExecutorService heartbeats;
+    private final long stalledSendNanos;
+
+    // Guarded by this. Ids start from the wall clock so they keep growing across restarts.
+    private long nextId = System.currentTimeMillis() * 1000;
+    private int replayCount;
+
+    public WeatherEventBroadcaster(
+            ObjectMapper objectMapper,
+            WeatherMetrics weatherMetrics,
+            @Value("${weather.events.subscriber-buffer:256}") int bufferSize,
+            @Value("${weather.events.replay-size:1000}") int replaySize,
+            @Value("${weather.events.max-subscribers:5000}") int maxSubscribers,
+            @Value("${weather.events.dispatch-threads:4}") int dispatchThreads,
+            @Value("${weather.events.heartbeat-ms:15000}") long heartbeatMs,
+            @Value("${weather.events.emitter-timeout-ms:1800000}") long emitterTimeoutMs
+    ) {
+        this.objectMapper = objectMapper;
+        this.weatherMetrics = weatherMetrics;
+        this.bufferSize = Math.max(1, bufferSize);
+        this.replay = new Event[Math.max(1, replaySize)];
+        this.maxSubscribers = Math.max(1, maxSubscribers);
+        this.emitterTimeoutMs = Math.max(1000, emitterTimeoutMs);
+        int workers = Math.max(1, dispatchThreads);
+        // Drains run one at a time per subscriber, so the pool only grows past the idle workers while sends are slow.
+        this.dispatcher = new ThreadPoolExecutor(workers, workers + this.maxSubscribers, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), WorkerThreads.namedDaemonThreads("weather-events-"));
+        this.dispatcher.allowCoreThreadTimeOut(true);
+        this.heartbeats = Executors.newSingleThreadScheduledExecutor(WorkerThreads.namedDaemonThreads("weather-events-heartbeat-"));
+        long interval = Math.max(1000, heartbeatMs);
+        this.stalledSendNanos = TimeUnit.MILLISECONDS.toNanos(interval);
+        this.heartbeats.scheduleAtFixedRate(this::heartbeat, interval, interval, TimeUnit.MILLISECONDS);
+        weatherMetrics.registerStreamSubscribers(subscribers::size);
+    }
+
+    /**
+     * @param cities      normalized city names to receive, or null for every city
+     * @param lastEventId the {@code Last-Event-ID} the client reconnected with, if any
+     */
+    public SseEmitter subscribe(Set<String> cities, String lastEventId) {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new WeatherServiceException(HttpStatus.SERVICE_UNAVAILABLE, "Too many open event streams, try again later.");
+        }
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, cities);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(() -> {
+            subscriber.close();
+            // Ends the response cleanly; the client reconnects with its Last-Event-ID.
+            emitter.complete();
+        });
+        emitter.onError(error -> subscriber.close());
+
+        // The first write commits the response headers, so the client sees the stream open straight away.
+        subscriber.offer(HEARTBEAT);
+        synchronized (this) {
+            replayTo(subscriber, parseEventId(lastEventId));
+            subscribers.add(subscriber);
+        }
+        return emitter;
+    }
+
+    /**
+     * Called by the ingest writer after each commit. Never throws, so a broken stream cannot fail an ingest.
+     */
+    public void publish(List<Weather> observations, List<WeatherAlert> alerts) {
+        try {
+            for (Weather observation : observations) {
+                publish(OBSERVATION, observation.getCity(), serialize(observation));
+            }
+            for (WeatherAlert alert : alerts) {
+                publish(ALERT, alert.getCity(), serialize(alert));
+            }
+        } catch (RuntimeException exception) {
+            log.warn("Could not publish weather events: {}", exception.getMessage());
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeats.shutdownNow();
+        dispatcher.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+        subscribers.clear();
+    }
+
+    private void publish(String name, String city, String data) {
+        // Offers never block, so holding the lock keeps replay and live delivery in one order without stalling ingest.
+        synchronized (this) {
+            Event event = new Event(nextId++, name, city, data);
+            replay[(int) (event.id() % replay.length)] = event;
+            replayCount = Math.min(replayCount + 1, replay.length);
+            for (Subscriber subscriber : subscribers) {
+                if (subscriber.wants(event)) {
+                    subscriber.offer(event);
+                }
+            }
+        }
+    }
+
+    private void replayTo(Subscriber subscriber, long lastEventId) {
+        if (lastEventId < 0) {
+            return;
+        }
+        long oldest = nextId - replayCount;
+        if (lastEventId < oldest - 1 || lastEventId >= nextId) {
+            // Either too far behind or an id from before a clock change; the client has to start over.
+            subscriber.offer(new Event(nextId - 1, RESYNC, null, "{}"));
+            return;
+        }
+        for (long id = lastEventId + 1; id < nextId; id++) {
+            Event event = replay[(int) (id % replay.length)];
+            if (subscriber.wants(event)) {
+                subscriber.offer(event);
+            }
+        }
+    }
+
+    private void heartbeat() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.isStalled(now)) {
+                weatherMetrics.recordStreamEviction();
+                log.debug("Dropping event stream subscriber whose client stopped reading");
+                subscriber.close();
+            } else {
+                subscriber.offer(HEARTBEAT);
+            }
+        }
+    }
+
+    private String serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException exception) {
+            throw new IllegalStateException("Could not serialize event", exception);
+        }
+    }
+
+    private static long parseEventId(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException exception) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private record Event(long id, String name, String city, String data) {
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Set<String> cities;
+        private final BlockingQueue<Event> buffer;
+        private final AtomicBoolean draining = new AtomicBoolean(false);
+        private final AtomicBoolean finished = new AtomicBoolean(false);
+        private volatile boolean closed;
+        // When the send in progress started, or 0 between sends.
+        private volatile long sendStartedNanos;
+
+        private Subscriber(SseEmitter emitter, Set<String> cities) {
+            this.emitter = emitter;
+            this.cities = cities;
+            this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        boolean wants(Event event) {
+            return cities == null || cities.contains(event.city());
+        }
+
+        void offer(Event event) {
+            if (closed) {
+                return;
+            }
+            if (!buffer.offer(event)) {
+                weatherMetrics.recordStreamEviction();
+                log.debug("Dropping event stream subscriber that fell {} events behind", bufferSize);
+                close();
+            }
+            schedule();
+        }
+
+        void close() {
+            closed = true;
+            subscribers.remove(this);
+        }
+
+        boolean isStalled(long now) {
+            long startedNanos = sendStartedNanos;
+            return startedNanos != 0 && now - startedNanos > stalledSendNanos;
+        }
+
+        private void schedule() {
+            if (!draining.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                dispatcher.execute(this::drain);
+            } catch (RejectedExecutionException exception) {
+                close();
+            }
+        }
+
+        /**
+         * Runs on one dispatcher thread at a time. Completing the emitter happens here too, never on the publishing
+         * thread, because a send blocked on a slow socket holds the emitter's lock.
+         */
+        private void drain() {
+            try {
+                Event event;
+                while (!closed && (event = buffer.poll()) != null) {
+                    send(event);
+                }
+            } catch (IOException | RuntimeException exception) {
+                close();
+            }
+            if (closed) {
+                buffer.clear();
+                if (finished.compareAndSet(false, true)) {
+                    try {
+                        emitter.complete();
+                    } catch (RuntimeException ignored) {
+                        // Already completed by the container.
+                    }
+                }
+                return;
+            }
+            draining.set(false);
+            if (closed || !buffer.isEmpty()) {
+                schedule();
+            }
+        }
+
+        private void send(Event event) throws IOException {
+            sendStartedNanos = System.nanoTime();
+            try {
+                if (event == HEARTBEAT) {
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                    return;
+                }
+                emitter.send(SseEmitter.event().id(Long.toString(event.id())).name(event.name()).data(event.data()));
+            } finally {
+                sendStartedNanos = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.nidak.weatherpulse.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.nidak.weatherpulse.dto.WeatherExportRow;
+import com.nidak.weatherpulse.repository.WeatherRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Streams stored observations out as NDJSON or CSV.
+ * Rows are read per city in keyset pages of {@code weather.export.page-size} (ordered by timestamp, then id)
+ * and written straight to the output, so memory use depends on the page size, not on the range exported.
+ */
+@Component
+public class WeatherExporter {
+
+    private static final JsonFactory JSON_FACTORY = JsonFactory.builder()
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .build();
+    private static final String CSV_HEADER = "city,timestamp,temperature,feelsLike,humidity,windSpeed,"
+            + "weatherCondition,weatherDescription,weatherCode,weatherRisk";
+
+    private final WeatherRepository weatherRepository;
+    private final CityRegistry cityRegistry;
+    private final int pageSize;
+
+    public WeatherExporter(
+            WeatherRepository weatherRepository,
+            CityRegistry cityRegistry,
+            @Value("${weather.export.page-size:1000}") int pageSize
+    ) {
+        this.weatherRepository = weatherRepository;
+        this.cityRegistry = cityRegistry;
+        this.pageSize = Math.max(1, pageSize);
+    }
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String contentType() {
+            return contentType;
+        }
+
+        public String extension() {
+            return extension;
+        }
+    }
+
+    /**
+     * Writes every observation of {@code cities} in {@code [from, to]}, city by city in the given order.
+     *
+     * @return rows written
+     */
+    public long export(List<String> cities, LocalDateTime from, LocalDateTime to, Format format, OutputStream output)
+            throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), 64 * 1024);
+        RowWriter rows = format == Format.CSV ? new CsvRowWriter(writer) : new NdjsonRowWriter(writer);
+        long written = 0;
+        Pageable page = PageRequest.ofSize(pageSize);
+        for (String city : cities) {
+            long cityId = cityRegistry.idOf(city);
+            if (cityId == CityRegistry.UNKNOWN) {
+                continue;
+            }
+            // Keyset paging: each page starts after the last row of the previous one, so deep pages cost the same.
+            LocalDateTime afterTimestamp = from.minusNanos(1);
+            long afterId = Long.MIN_VALUE;
+            List<WeatherExportRow> batch;
+            do {
+                batch = weatherRepository.findExportPage(cityId, afterTimestamp, afterId, to, page);
+                for (WeatherExportRow row : batch) {
+                    rows.write(row);
+                }
+                written += batch.size();
+                if (!batch.isEmpty()) {
+                    WeatherExportRow last = batch.get(batch.size() - 1);
+                    afterTimestamp = last.timestamp();
+                    afterId = last.id();
+                }
+            } while (batch.size() == pageSize);
+        }
+        rows.finish();
+        return written;
+    }
+
+    private interface RowWriter {
+
+        void write(WeatherExportRow row) throws IOException;
+
+        void finish() throws IOException;
+    }
+
+    private static final class NdjsonRowWriter implements RowWriter {
+
+        private final Writer writer;
+        private final JsonGenerator generator;
+
+        NdjsonRowWriter(Writer writer) throws IOException {
+            this.writer = writer;
+            this.generator = JSON_FACTORY.createGenerator(writer);
+            // Lines are separated by hand; Jackson would otherwise put a space before each root value.
+            this.generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void write(WeatherExportRow row) throws IOException {
+            generator.writeStartObject();
+            generator.writeStringField("city", row.city());
+            generator.writeStringField("timestamp", DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(row.timestamp()));
+            generator.writeNumberField("temperature", row.temperature());
+            generator.writeNumberField("feelsLike", row.feelsLike());
+            generator.writeNumberField("humidity", row.humidity());
+            generator.writeNumberField("windSpeed", row.windSpeed());
+            generator.writeStringField("weatherCondition", row.weatherCondition());
+            generator.writeStringField("weatherDescription", row.weatherDescription());
+            if (row.weatherCode() == null) {
+                generator.writeNullField("weatherCode");
+            } else {
+                generator.writeNumberField("weatherCode", row.weatherCode());
+            }
+            generator.writeStringField("weatherRisk", row.weatherRisk());
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            generator.flush();
+            writer.flush();
+        }
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+
+        private final Writer writer;
+
+        CsvRowWriter(Writer writer) throws IOException {
+            this.writer = writer;
+            writer.write(CSV_HEADER);
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void write(WeatherExportRow row) throws IOException {
+            text(row.city());
+            field(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(row.timestamp()));
+            field(Double.toString(row.temperature()));
+            field(Double.toString(row.feelsLike()));
+            field(Double.toString(row.humidity()));
+            field(Double.toString(row.windSpeed()));
+            writer.write(',');
+            text(row.weatherCondition());
+            writer.write(',');
+            text(row.weatherDescription());
+            field(row.weatherCode() == null ? "" : row.weatherCode().toString());
+            writer.write(',');
+            text(row.weatherRisk());
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+
+        /**
+         * RFC 4180 quoting: only fields with a comma, quote or line break are quoted.
+         */
+        private void text(String value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            boolean quote = false;
+            for (int i = 0; i < value.length() && !quote; i++) {
+                char c = value.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quote) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+
+        private void field(String value) throws IOException {
+            writer.write(',');
+            writer.write(value);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.nidak.weatherpulse.service;
+
+import com.nidak.weatherpulse.dto.HistoryPoint;
+import com.nidak.weatherpulse.dto.WeatherHistory;
+import com.nidak.weatherpulse.entity.DailyWeatherSummaryEntity;
+import com.nidak.weatherpulse.entity.HourlyWeatherRollup;
+import com.nidak.weatherpulse.entity.Weather;
+import com.nidak.weatherpulse.exception.WeatherServiceException;
+import com.nidak.weatherpulse.repository.DailyWeatherSummaryRepository;
+import com.nidak.weatherpulse.repository.HourlyWeatherRollupRepository;
+import com.nidak.weatherpulse.repository.WeatherRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Answers history ranges from the cheapest table that still resolves them: raw observations for short
+ * spans, hourly rollups up to {@code weather.history.hourly-max-days}, daily summaries beyond that.
+ * With the defaults an hourly range reads at most 1,440 rows (60 days of hours) and a daily one at most
+ * {@code weather.history.max-days} rows (3,660). A raw range is bounded only by the poll rate: 48 hours at
+ * a 2-minute poll is about 1,440 rows, but a faster poll or repeated manual fetches store more.
+ */
+@Component
+public class WeatherHistoryReader {
+
+    private final WeatherRepository weatherRepository;
+    private final HourlyWeatherRollupRepository hourlyWeatherRollupRepository;
+    private final DailyWeatherSummaryRepository dailyWeatherSummaryRepository;
+    private final CityRegistry cityRegistry;
+    private final Duration rawMaxSpan;
+    private final Duration hourlyMaxSpan;
+    private final Duration maxSpan;
+    private final long maxDays;
+
+    public WeatherHistoryReader(
+            WeatherRepository weatherRepository,
+            HourlyWeatherRollupRepository hourlyWeatherRollupRepository,
+            DailyWeatherSummaryRepository dailyWeatherSummaryRepository,
+            CityRegistry cityRegistry,
+            @Value("${weather.history.raw-max-hours:48}") long rawMaxHours,
+            @Value("${weather.history.hourly-max-days:60}") long hourlyMaxDays,
+            @Value("${weather.history.max-days:3660}") long maxDays
+    ) {
+        this.weatherRepository = weatherRepository;
+        this.hourlyWeatherRollupRepository = hourlyWeatherRollupRepository;
+        this.dailyWeatherSummaryRepository = dailyWeatherSummaryRepository;
+        this.cityRegistry = cityRegistry;
+        this.rawMaxSpan = Duration.ofHours(Math.max(0, rawMaxHours));
+        this.hourlyMaxSpan = Duration.ofDays(Math.max(0, hourlyMaxDays));
+        this.maxDays = Math.max(1, maxDays);
+        this.maxSpan = Duration.ofDays(this.maxDays);
+    }
+
+    public WeatherHistory read(String city, LocalDateTime from, LocalDateTime to) {
+        if (from.isAfter(to)) {
+            throw new WeatherServiceException(HttpStatus.BAD_REQUEST, "History 'from' must not be after 'to'.");
+        }
+        Duration span = Duration.between(from, to);
+        if (span.compareTo(maxSpan) > 0) {
+            throw new WeatherServiceException(HttpStatus.BAD_REQUEST, "History range cannot exceed " + maxDays + " days.");
+        }
+
+        WeatherHistory.Resolution resolution = resolutionFor(span);
+        List<HistoryPoint> points = switch (resolution) {
+            case RAW -> raw(city, from, to);
+            case HOURLY -> hourly(city, from, to);
+            case DAILY -> daily(city, from, to);
+        };
+        return new WeatherHistory(city, from, to, resolution, points);
+    }
+
+    WeatherHistory.Resolution resolutionFor(Duration span) {
+        if (span.compareTo(rawMaxSpan) <= 0) {
+            return WeatherHistory.Resolution.RAW;
+        }
+        return span.compareTo(hourlyMaxSpan) <= 0 ? WeatherHistory.Resolution.HOURLY : WeatherHistory.Resolution.DAILY;
+    }
+
+    /**
+     * Hourly points for every hour that starts inside {@code [from, to]}, plus the hour {@code from} falls in.
+     */
+    private List<HistoryPoint> hourly(String city, LocalDateTime from, LocalDateTime to) {
+        List<HourlyWeatherRollup> rollups = hourlyWeatherRollupRepository
+                .findByCityAndHourStartBetweenOrderByHourStartAsc(city, HourlyRollupAggregator.hourOf(from), to);
+        List<HistoryPoint> points = new ArrayList<>(rollups.size());
+        for (HourlyWeatherRollup rollup : rollups) {
+            int samples = rollup.getSampleCount();
+            points.add(new HistoryPoint(
+                    rollup.getHourStart(),
+                    samples,
+                    average(rollup.getTemperatureSum(), samples),
+                    rollup.getMinTemperature(),
+                    rollup.getMaxTemperature(),
+                    average(rollup.getHumiditySum(), samples),
+                    average(rollup.getWindSpeedSum(), samples),
+                    ConditionHistogram.decode(rollup.getConditionHistogram()).dominantCondition()
+            ));
+        }
+        return points;
+    }
+
+    private List<HistoryPoint> raw(String city, LocalDateTime from, LocalDateTime to) {
+        List<Weather> samples = weatherRepository.findByCityIdAndTimestampBetweenOrderByTimestampAsc(cityRegistry.idOf(city), from, to);
+        List<HistoryPoint> points = new ArrayList<>(samples.size());
+        for (Weather sample : samples) {
+            points.add(new HistoryPoint(
+                    sample.getTimestamp(),
+                    1,
+                    sample.getTemperature(),
+                    sample.getTemperature(),
+                    sample.getTemperature(),
+                    sample.getHumidity(),
+                    sample.getWindSpeed(),
+                    sample.getWeatherCondition()
+            ));
+        }
+        return points;
+    }
+
+    private List<HistoryPoint> daily(String city, LocalDateTime from, LocalDateTime to) {
+        List<DailyWeatherSummaryEntity> summaries = dailyWeatherSummaryRepository
+                .findByCityIdAndSummaryDateBetweenOrderBySummaryDateAsc(cityRegistry.idOf(city), from.toLocalDate(), to.toLocalDate());
+        List<HistoryPoint> points = new ArrayList<>(summaries.size());
+        for (DailyWeatherSummaryEntity summary : summaries) {
+            points.add(new HistoryPoint(
+                    summary.getSummaryDate().atStartOfDay(),
+                    summary.getTotalSamples(),
+                    summary.getAverageTemperature(),
+                    summary.getMinTemperature(),
+                    summary.getMaxTemperature(),
+                    summary.getAverageHumidity(),
+                    summary.getAverageWindSpeed(),
+                    summary.getDominantWeatherCondition()
+            ));
+        }
+        return points;
+    }
+
+    private static double average(double sum, int samples) {
+        return samples == 0 ? 0 : WeatherMath.roundToTwoDecimalPlaces(sum / samples);
+    }
+}
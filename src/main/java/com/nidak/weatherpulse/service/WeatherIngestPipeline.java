@@ -0,0 +1,462 @@
+package com.nidak.weatherpulse.service;
+
+import com.nidak.weatherpulse.dto.IngestPipelineStats;
+import com.nidak.weatherpulse.entity.Weather;
+import com.nidak.weatherpulse.entity.WeatherAlert;
+import com.nidak.weatherpulse.exception.WeatherServiceException;
+import com.nidak.weatherpulse.repository.WeatherAlertRepository;
+import com.nidak.weatherpulse.repository.WeatherRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind stage for ingested observations.
+ * Callers queue a mapped sample with its alerts; a single writer thread drains the bounded queue and
+ * writes each batch (observations, hourly rollups, daily summaries, alerts) in one transaction, so Hibernate can send
+ * the statements as JDBC batches instead of one round trip per row.
+ */
+@Component
+public class WeatherIngestPipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(WeatherIngestPipeline.class);
+
+    private final WeatherRepository weatherRepository;
+    private final WeatherAlertRepository weatherAlertRepository;
+    private final DailySummaryAggregator dailySummaryAggregator;
+    private final HourlyRollupAggregator hourlyRollupAggregator;
+    private final TrendEngine trendEngine;
+    private final FinalizedDayResponseCache finalizedDayResponseCache;
+    private final WeatherEventBroadcaster weatherEventBroadcaster;
+    private final AlertDedupIndex alertDedupIndex;
+    private final LatestWeatherCache latestWeatherCache;
+    private final CityRegistry cityRegistry;
+    private final AdaptivePollScheduler adaptivePollScheduler;
+    private final TransactionTemplate transactionTemplate;
+    private final WeatherMetrics weatherMetrics;
+
+    private final BlockingQueue<PendingWrite> queue;
+    private final int queueCapacity;
+    private final int flushSize;
+    private final long flushLatencyNanos;
+    private final long offerTimeoutMs;
+    private final long writeTimeoutMs;
+    private final long shutdownTimeoutMs;
+    private final Thread writer;
+    private volatile boolean accepting = true;
+
+    private final LongAdder written = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public WeatherIngestPipeline(
+            WeatherRepository weatherRepository,
+            WeatherAlertRepository weatherAlertRepository,
+            DailySummaryAggregator dailySummaryAggregator,
+            HourlyRollupAggregator hourlyRollupAggregator,
+            TrendEngine trendEngine,
+            FinalizedDayResponseCache finalizedDayResponseCache,
+            WeatherEventBroadcaster weatherEventBroadcaster,
+            AlertDedupIndex alertDedupIndex,
+            LatestWeatherCache latestWeatherCache,
+            CityRegistry cityRegistry,
+            AdaptivePollScheduler adaptivePollScheduler,
+            TransactionTemplate transactionTemplate,
+            WeatherMetrics weatherMetrics,
+            @Value("${weather.ingest.queue-capacity:1000}") int queueCapacity,
+            @Value("${weather.ingest.flush-size:100}") int flushSize,
+            @Value("${weather.ingest.flush-latency-ms:10}") long flushLatencyMs,
+            @Value("${weather.ingest.offer-timeout-ms:5000}") long offerTimeoutMs,
+            @Value("${weather.ingest.write-timeout-ms:30000}") long writeTimeoutMs,
+            @Value("${weather.ingest.shutdown-timeout-ms:10000}") long shutdownTimeoutMs
+    ) {
+        this.weatherRepository = weatherRepository;
+        this.weatherAlertRepository = weatherAlertRepository;
+        this.dailySummaryAggregator = dailySummaryAggregator;
+        this.hourlyRollupAggregator = hourlyRollupAggregator;
+        this.trendEngine = trendEngine;
+        this.finalizedDayResponseCache = finalizedDayResponseCache;
+        this.weatherEventBroadcaster = weatherEventBroadcaster;
+        this.alertDedupIndex = alertDedupIndex;
+        this.latestWeatherCache = latestWeatherCache;
+        this.cityRegistry = cityRegistry;
+        this.adaptivePollScheduler = adaptivePollScheduler;
+        this.transactionTemplate = transactionTemplate;
+        this.weatherMetrics = weatherMetrics;
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.queue = new ArrayBlockingQueue<>(this.queueCapacity);
+        this.flushSize = Math.max(1, flushSize);
+        this.flushLatencyNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, flushLatencyMs));
+        this.offerTimeoutMs = Math.max(0, offerTimeoutMs);
+        this.writeTimeoutMs = Math.max(1, writeTimeoutMs);
+        this.shutdownTimeoutMs = Math.max(0, shutdownTimeoutMs);
+        this.writer = new Thread(this::runWriter, "weather-ingest-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Queues a sample and blocks until its batch is committed.
+     *
+     * @param thresholdAlerts alerts saved as-is
+     * @param systemAlerts    alerts that go through {@link AlertDedupIndex} first
+     * @return the stored observation
+     */
+    public Weather write(Weather sample, List<WeatherAlert> thresholdAlerts, List<WeatherAlert> systemAlerts) {
+        return await(submit(sample, thresholdAlerts, systemAlerts));
+    }
+
+    /**
+     * Waits for a {@link #submit submitted} sample to be committed, failing the same way {@link #write} does.
+     */
+    public Weather await(CompletableFuture<Weather> result) {
+        try {
+            return result.get(writeTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException exception) {
+            if (exception.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new WeatherServiceException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to store weather data.");
+        } catch (TimeoutException exception) {
+            throw new WeatherServiceException(HttpStatus.SERVICE_UNAVAILABLE, "Timed out storing weather data.");
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new WeatherServiceException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted while storing weather data.");
+        }
+    }
+
+    /**
+     * Queues a sample without waiting. Blocks up to {@code weather.ingest.offer-timeout-ms} while the
+     * queue is full, then fails with 503 so producers slow down instead of piling up memory.
+     * The sample and its alerts are labelled with the city's registry id and spelling first, registering
+     * the city if it is new.
+     */
+    public CompletableFuture<Weather> submit(Weather sample, List<WeatherAlert> thresholdAlerts, List<WeatherAlert> systemAlerts) {
+        if (!accepting) {
+            throw new WeatherServiceException(HttpStatus.SERVICE_UNAVAILABLE, "Weather ingest is shutting down.");
+        }
+        CityRegistry.CityRef city = cityRegistry.register(sample.getCity());
+        sample.setCityId(city.id());
+        sample.setCity(city.name());
+        labelAlerts(thresholdAlerts, city);
+        labelAlerts(systemAlerts, city);
+        PendingWrite write = new PendingWrite(sample, thresholdAlerts, systemAlerts, new CompletableFuture<>());
+        try {
+            if (!queue.offer(write, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                rejected.increment();
+                throw new WeatherServiceException(HttpStatus.SERVICE_UNAVAILABLE, "Weather ingest queue is full.");
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new WeatherServiceException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted while queueing weather data.");
+        }
+        return write.result();
+    }
+
+    public IngestPipelineStats getStats() {
+        return new IngestPipelineStats(queue.size(), queueCapacity, written.sum(), batches.sum(), rejected.sum(), failed.sum());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        accepting = false;
+        try {
+            writer.join(shutdownTimeoutMs);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) {
+            writer.interrupt();
+        }
+
+        List<PendingWrite> abandoned = new ArrayList<>();
+        queue.drainTo(abandoned);
+        if (!abandoned.isEmpty()) {
+            log.warn("Dropping {} queued weather writes at shutdown", abandoned.size());
+            WeatherServiceException exception =
+                    new WeatherServiceException(HttpStatus.SERVICE_UNAVAILABLE, "Weather ingest is shutting down.");
+            for (PendingWrite write : abandoned) {
+                write.result().completeExceptionally(exception);
+            }
+        }
+    }
+
+    private void runWriter() {
+        List<PendingWrite> batch = new ArrayList<>(flushSize);
+        boolean interrupted = false;
+        while (!interrupted && (accepting || !queue.isEmpty())) {
+            try {
+                PendingWrite first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                fillBatch(batch);
+            } catch (InterruptedException exception) {
+                interrupted = true;
+            }
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void fillBatch(List<PendingWrite> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + flushLatencyNanos;
+        queue.drainTo(batch, flushSize - batch.size());
+        while (batch.size() < flushSize) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return;
+            }
+            PendingWrite next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+            queue.drainTo(batch, flushSize - batch.size());
+        }
+    }
+
+    private void flush(List<PendingWrite> batch) {
+        BatchOutcome outcome;
+        long startNanos = System.nanoTime();
+        List<WeatherAlert> claimedAlerts = new ArrayList<>();
+        try {
+            outcome = writeInTransaction(batch, claimedAlerts);
+        } catch (RuntimeException exception) {
+            // The claims were made for rows that are gone now; a retry has to be able to save them.
+            alertDedupIndex.release(claimedAlerts);
+            if (batch.size() == 1) {
+                failed.increment();
+                log.warn("Failed to store weather for {}: {}", batch.get(0).sample().getCity(), exception.getMessage());
+                batch.get(0).result().completeExceptionally(exception);
+                return;
+            }
+            // One bad row should not sink the rest of the batch.
+            log.warn("Weather batch of {} failed, retrying one by one: {}", batch.size(), exception.getMessage());
+            for (PendingWrite write : batch) {
+                flush(List.of(write));
+            }
+            return;
+        }
+
+        // Only committed batches count; a failed batch is retried row by row and counted there.
+        weatherMetrics.recordIngestBatch(batch.size(), System.nanoTime() - startNanos);
+        weatherMetrics.recordAlerts(outcome.thresholdAlerts(), outcome.systemAlerts(), outcome.dedupedAlerts());
+        List<Weather> stored = outcome.stored();
+        batches.increment();
+        written.add(batch.size());
+        // Before completing the callers, so a trend read right after a write already includes it.
+        trendEngine.record(outcome.appended());
+        evictPastDays(stored);
+        weatherEventBroadcaster.publish(stored, outcome.savedAlerts());
+        adaptivePollScheduler.recordAlerts(outcome.savedAlerts());
+        for (int i = 0; i < batch.size(); i++) {
+            latestWeatherCache.put(stored.get(i));
+            batch.get(i).result().complete(stored.get(i));
+        }
+    }
+
+    private BatchOutcome writeInTransaction(List<PendingWrite> batch, List<WeatherAlert> claimedAlerts) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> writeBatch(batch, claimedAlerts));
+            } catch (RuntimeException exception) {
+                if (attempt == DailySummaryAggregator.MAX_WRITE_ATTEMPTS || !DailySummaryAggregator.isConcurrentWrite(exception)) {
+                    throw exception;
+                }
+                // A rebuild inserted one of the batch's daily rows first; the retry reads that row and adds to it.
+                alertDedupIndex.release(claimedAlerts);
+                claimedAlerts.clear();
+            }
+        }
+    }
+
+    private void evictPastDays(List<Weather> stored) {
+        LocalDate today = LocalDate.now();
+        Set<String> evicted = null;
+        for (Weather sample : stored) {
+            LocalDate date = sample.getTimestamp().toLocalDate();
+            if (!date.isBefore(today)) {
+                continue;
+            }
+            if (evicted == null) {
+                evicted = new HashSet<>();
+            }
+            if (evicted.add(sample.getCity() + '|' + date)) {
+                finalizedDayResponseCache.evict(sample.getCity(), date);
+            }
+        }
+    }
+
+    /**
+     * @param claimedAlerts filled with the system alerts {@link AlertDedupIndex} accepted, so a rollback can release them
+     */
+    private BatchOutcome writeBatch(List<PendingWrite> batch, List<WeatherAlert> claimedAlerts) {
+        Set<Long> cityIds = new HashSet<>();
+        Set<LocalDateTime> timestamps = new HashSet<>();
+        for (PendingWrite write : batch) {
+            Weather sample = write.sample();
+            LocalDateTime latest = latestWeatherCache.latestTimestamp(sample.getCity());
+            // Anything newer than the latest stored row for the city cannot be an overwrite.
+            if (latest == null || !sample.getTimestamp().isAfter(latest)) {
+                cityIds.add(sample.getCityId());
+                timestamps.add(sample.getTimestamp());
+            }
+        }
+        Map<String, Weather> existingByKey = new HashMap<>();
+        if (!cityIds.isEmpty()) {
+            for (Weather existing : weatherRepository.findByCityIdInAndTimestampIn(cityIds, timestamps)) {
+                existingByKey.putIfAbsent(observationKey(existing.getCity(), existing.getTimestamp()), existing);
+            }
+        }
+
+        Map<String, Weather> recordsByKey = new LinkedHashMap<>();
+        List<Weather> appended = new ArrayList<>();
+        Set<DayKey> overwrittenDays = new LinkedHashSet<>();
+        Set<HourKey> overwrittenHours = new LinkedHashSet<>();
+        List<Weather> stored = new ArrayList<>(batch.size());
+        for (PendingWrite write : batch) {
+            Weather sample = write.sample();
+            String key = observationKey(sample.getCity(), sample.getTimestamp());
+            Weather record = recordsByKey.get(key);
+            if (record == null) {
+                record = existingByKey.get(key);
+                if (record == null) {
+                    record = new Weather();
+                    appended.add(record);
+                } else {
+                    overwrittenDays.add(DayKey.of(sample));
+                    overwrittenHours.add(HourKey.of(sample));
+                }
+                recordsByKey.put(key, record);
+            } else {
+                // Same city and minute twice in one batch: the later sample overwrites the earlier one.
+                overwrittenDays.add(DayKey.of(sample));
+                overwrittenHours.add(HourKey.of(sample));
+            }
+            copyObservation(sample, record);
+            stored.add(record);
+        }
+        weatherRepository.saveAll(recordsByKey.values());
+        List<Weather> newObservations = List.copyOf(appended);
+
+        // A sample was overwritten, so running min/max can no longer be trusted for that hour or day.
+        List<Weather> appendedToHours = new ArrayList<>(appended);
+        appendedToHours.removeIf(record -> overwrittenHours.contains(HourKey.of(record)));
+        hourlyRollupAggregator.applySamples(appendedToHours);
+        for (HourKey hour : overwrittenHours) {
+            hourlyRollupAggregator.rebuild(hour.city(), hour.hourStart());
+        }
+        appended.removeIf(record -> overwrittenDays.contains(DayKey.of(record)));
+        dailySummaryAggregator.applySamples(appended);
+        for (DayKey day : overwrittenDays) {
+            dailySummaryAggregator.rebuild(day.city(), day.date());
+        }
+
+        List<WeatherAlert> alerts = new ArrayList<>();
+        List<WeatherAlert> systemAlerts = new ArrayList<>();
+        for (PendingWrite write : batch) {
+            alerts.addAll(write.thresholdAlerts());
+            systemAlerts.addAll(write.systemAlerts());
+        }
+        int thresholdAlerts = alerts.size();
+        if (!systemAlerts.isEmpty()) {
+            claimedAlerts.addAll(alertDedupIndex.filterRecentDuplicates(systemAlerts));
+            alerts.addAll(claimedAlerts);
+        }
+        if (!alerts.isEmpty()) {
+            weatherAlertRepository.saveAll(alerts);
+        }
+        int savedSystemAlerts = alerts.size() - thresholdAlerts;
+        return new BatchOutcome(stored, newObservations, alerts, thresholdAlerts, savedSystemAlerts,
+                systemAlerts.size() - savedSystemAlerts);
+    }
+
+    private static void labelAlerts(List<WeatherAlert> alerts, CityRegistry.CityRef city) {
+        for (WeatherAlert alert : alerts) {
+            alert.setCityId(city.id());
+            alert.setCity(city.name());
+        }
+    }
+
+    private static void copyObservation(Weather source, Weather target) {
+        target.setCityId(source.getCityId());
+        target.setCity(source.getCity());
+        target.setTemperature(source.getTemperature());
+        target.setFeelsLike(source.getFeelsLike());
+        target.setWeatherCondition(source.getWeatherCondition());
+        target.setWeatherDescription(source.getWeatherDescription());
+        target.setWeatherCode(source.getWeatherCode());
+        target.setWeatherRisk(source.getWeatherRisk());
+        target.setHumidity(source.getHumidity());
+        target.setWindSpeed(source.getWindSpeed());
+        target.setTimestamp(source.getTimestamp());
+    }
+
+    private static String observationKey(String city, LocalDateTime timestamp) {
+        return city + "|" + timestamp;
+    }
+
+    private record PendingWrite(
+            Weather sample,
+            List<WeatherAlert> thresholdAlerts,
+            List<WeatherAlert> systemAlerts,
+            CompletableFuture<Weather> result
+    ) {
+    }
+
+    /**
+     * @param appended      rows inserted by the batch, as opposed to overwritten
+     * @param savedAlerts   every alert the batch stored
+     * @param dedupedAlerts system alerts dropped by {@link AlertDedupIndex}
+     */
+    private record BatchOutcome(
+            List<Weather> stored,
+            List<Weather> appended,
+            List<WeatherAlert> savedAlerts,
+            int thresholdAlerts,
+            int systemAlerts,
+            int dedupedAlerts
+    ) {
+    }
+
+    private record DayKey(String city, LocalDate date) {
+
+        static DayKey of(Weather weather) {
+            return new DayKey(weather.getCity(), weather.getTimestamp().toLocalDate());
+        }
+    }
+
+    private record HourKey(String city, LocalDateTime hourStart) {
+
+        static HourKey of(Weather weather) {
+            return new HourKey(weather.getCity(), HourlyRollupAggregator.hourOf(weather.getTimestamp()));
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.nidak.weatherpulse.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+final class WeatherMath {
+
+    // Below this magnitude value * 100 is off by far less than ROUNDING_TIE_MARGIN.
+    private static final double FAST_ROUNDING_LIMIT = 1e7;
+    private static final double ROUNDING_TIE_MARGIN = 1e-6;
+
+    private WeatherMath() {
+    }
+
+    static double kelvinToCelsius(double kelvin) {
+        return kelvin - 273.15;
+    }
+
+    /**
+     * HALF_UP to two places on the value's shortest decimal form, as {@code BigDecimal.valueOf(value)} sees it.
+     * Scaling by 100 is exact enough to decide the rounding unless the value sits next to a .5 tie
+     * (1.005 scales to 100.49999...), so only those, NaN/infinities and huge values take the BigDecimal path.
+     */
+    static double roundToTwoDecimalPlaces(double value) {
+        if (Math.abs(value) < FAST_ROUNDING_LIMIT) {
+            double scaled = value * 100;
+            double fraction = Math.abs(scaled - (long) scaled);
+            if (Math.abs(fraction - 0.5) > ROUNDING_TIE_MARGIN) {
+                // + 0.0 turns -0.0 into 0.0; BigDecimal has no negative zero.
+                return Math.rint(scaled) / 100 + 0.0;
+            }
+        }
+        return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP).doubleValue();
+    }
+}
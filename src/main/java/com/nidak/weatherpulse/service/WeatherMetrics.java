@@ -0,0 +1,155 @@
+package com.nidak.weatherpulse.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * All application meters in one place, so names and tags stay consistent and low-cardinality.
+ * Tags only ever take values from small fixed sets (endpoint, HTTP status, source, mode);
+ * the one exception is {@code city} on poll failures, which is limited to the configured tracked cities.
+ * Histograms for every {@code weather.*} timer are switched on in {@code application.properties}.
+ */
+@Component
+public class WeatherMetrics {
+
+    public static final String ENDPOINT_WEATHER = "weather";
+    public static final String ENDPOINT_FORECAST = "forecast";
+    public static final String ENDPOINT_GROUP = "group";
+
+    private final MeterRegistry registry;
+    private final Timer ingestBatchWrite;
+    private final DistributionSummary ingestBatchSize;
+    private final Timer summaryIncremental;
+    private final Timer summaryRebuild;
+    private final Timer hourlyRollupUpdate;
+    private final Timer thresholdEvaluation;
+    private final Timer pollCycle;
+    private final Counter thresholdAlertsEmitted;
+    private final Counter systemAlertsEmitted;
+    private final Counter alertsDeduped;
+    private final Timer retentionRun;
+    private final Counter retentionPurged;
+    private final Counter streamEvicted;
+
+    public WeatherMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.ingestBatchWrite = Timer.builder("weather.ingest.batch.write")
+                .description("Time to upsert one ingest batch, including summaries and alerts")
+                .register(registry);
+        this.ingestBatchSize = DistributionSummary.builder("weather.ingest.batch.size")
+                .description("Samples per ingest batch")
+                .register(registry);
+        this.summaryIncremental = summaryTimer("incremental");
+        this.summaryRebuild = summaryTimer("rebuild");
+        this.hourlyRollupUpdate = Timer.builder("weather.rollup.hourly.update")
+                .description("Time to fold one ingest batch into the hourly rollup rows")
+                .register(registry);
+        this.thresholdEvaluation = Timer.builder("weather.thresholds.evaluation")
+                .description("Time to evaluate every threshold against one sample")
+                .register(registry);
+        this.pollCycle = Timer.builder("weather.poll.cycle")
+                .description("Duration of one tracked-city poll cycle")
+                .register(registry);
+        this.thresholdAlertsEmitted = alertsEmitted("threshold");
+        this.systemAlertsEmitted = alertsEmitted("system");
+        this.alertsDeduped = Counter.builder("weather.alerts.deduped")
+                .description("System alerts dropped because the same alert fired recently")
+                .register(registry);
+        this.retentionRun = Timer.builder("weather.retention.run")
+                .description("Duration of one raw-sample retention run")
+                .register(registry);
+        this.retentionPurged = Counter.builder("weather.retention.purged")
+                .description("Raw weather samples deleted by retention")
+                .register(registry);
+        this.streamEvicted = Counter.builder("weather.stream.evicted")
+                .description("Event stream subscribers dropped because their buffer filled up")
+                .register(registry);
+    }
+
+    /**
+     * @param status HTTP status of the provider response, or 0 when no response arrived
+     */
+    public void recordProviderCall(String endpoint, int status, long durationNanos) {
+        Timer.builder("weather.provider.requests")
+                .description("OpenWeather call latency")
+                .tag("endpoint", endpoint)
+                .tag("status", status == 0 ? "IO_ERROR" : Integer.toString(status))
+                .register(registry)
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordIngestBatch(int samples, long durationNanos) {
+        ingestBatchWrite.record(durationNanos, TimeUnit.NANOSECONDS);
+        ingestBatchSize.record(samples);
+    }
+
+    public void recordSummaryUpdate(long durationNanos) {
+        summaryIncremental.record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordSummaryRebuild(long durationNanos) {
+        summaryRebuild.record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordHourlyRollupUpdate(long durationNanos) {
+        hourlyRollupUpdate.record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public <T> T timeThresholdEvaluation(Supplier<T> evaluation) {
+        return thresholdEvaluation.record(evaluation);
+    }
+
+    public void recordPollCycle(long durationMs) {
+        pollCycle.record(durationMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void recordPollFailure(String city) {
+        Counter.builder("weather.poll.failures")
+                .description("Tracked-city fetches that failed during a poll cycle")
+                .tag("city", city)
+                .register(registry)
+                .increment();
+    }
+
+    public void recordAlerts(int thresholdAlerts, int systemAlerts, int deduped) {
+        thresholdAlertsEmitted.increment(thresholdAlerts);
+        systemAlertsEmitted.increment(systemAlerts);
+        alertsDeduped.increment(deduped);
+    }
+
+    public void recordRetentionRun(long purged, long durationNanos) {
+        retentionRun.record(durationNanos, TimeUnit.NANOSECONDS);
+        retentionPurged.increment(purged);
+    }
+
+    public void registerStreamSubscribers(Supplier<Number> subscribers) {
+        Gauge.builder("weather.stream.subscribers", subscribers)
+                .description("Open event stream connections")
+                .register(registry);
+    }
+
+    public void recordStreamEviction() {
+        streamEvicted.increment();
+    }
+
+    private Timer summaryTimer(String mode) {
+        return Timer.builder("weather.summary.update")
+                .description("Time to update daily summary rows")
+                .tag("mode", mode)
+                .register(registry);
+    }
+
+    private Counter alertsEmitted(String source) {
+        return Counter.builder("weather.alerts.emitted")
+                .description("Alerts saved, by what raised them")
+                .tag("source", source)
+                .register(registry);
+    }
+}
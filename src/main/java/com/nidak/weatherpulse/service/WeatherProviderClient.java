@@ -0,0 +1,173 @@
+package com.nidak.weatherpulse.service;
+
+import com.nidak.weatherpulse.exception.WeatherServiceException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Thin wrapper around the shared, pooled provider {@link RestTemplate}.
+ * Builds OpenWeather URLs and turns transport and status errors into {@link WeatherServiceException}.
+ * Every call takes a {@link ProviderRateLimiter} token first, whichever path it comes from.
+ */
+@Component
+public class WeatherProviderClient {
+
+    /** OpenWeather rejects {@code /group} calls with more ids than this. */
+    public static final int MAX_GROUP_SIZE = 20;
+
+    private final RestTemplate restTemplate;
+    private final WeatherMetrics weatherMetrics;
+    private final ProviderRateLimiter rateLimiter;
+    private final String baseUrl;
+    private final String apiKey;
+    private final long rateLimitWaitNanos;
+
+    public WeatherProviderClient(
+            @Qualifier("weatherProviderRestTemplate") RestTemplate restTemplate,
+            WeatherMetrics weatherMetrics,
+            ProviderRateLimiter rateLimiter,
+            @Value("${openweather.api.base-url:https://api.openweathermap.org/data/2.5}") String baseUrl,
+            @Value("${openweather.api.key:}") String apiKey,
+            @Value("${openweather.rate-limit.wait-ms:5000}") long rateLimitWaitMs
+    ) {
+        this.restTemplate = restTemplate;
+        this.weatherMetrics = weatherMetrics;
+        this.rateLimiter = rateLimiter;
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.apiKey = apiKey;
+        this.rateLimitWaitNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, rateLimitWaitMs));
+    }
+
+    public boolean isConfigured() {
+        return apiKey != null && !apiKey.isBlank();
+    }
+
+    public OpenWeatherPayloadDecoder.Observation fetchCurrentWeather(String city) {
+        return get(WeatherMetrics.ENDPOINT_WEATHER, buildCityUrl("/weather", city), city, OpenWeatherPayloadDecoder::decodeCurrent);
+    }
+
+    public OpenWeatherPayloadDecoder.CityObservation fetchCurrentWeatherWithId(String city) {
+        return get(WeatherMetrics.ENDPOINT_WEATHER, buildCityUrl("/weather", city), city, OpenWeatherPayloadDecoder::decodeCurrentCity);
+    }
+
+    /**
+     * Current weather for up to {@link #MAX_GROUP_SIZE} provider city ids in one {@code /group} call.
+     */
+    public List<OpenWeatherPayloadDecoder.CityObservation> fetchCurrentWeatherGroup(Collection<Long> cityIds) {
+        if (cityIds.isEmpty() || cityIds.size() > MAX_GROUP_SIZE) {
+            throw new IllegalArgumentException("A group request takes 1 to " + MAX_GROUP_SIZE + " city ids, got " + cityIds.size());
+        }
+        StringJoiner ids = new StringJoiner(",");
+        for (Long cityId : cityIds) {
+            ids.add(Long.toString(cityId));
+        }
+        URI url = UriComponentsBuilder.fromHttpUrl(baseUrl + "/group")
+                .queryParam("id", ids.toString())
+                .queryParam("appid", apiKey)
+                .encode(StandardCharsets.UTF_8)
+                .build()
+                .toUri();
+        return get(WeatherMetrics.ENDPOINT_GROUP, url, "a group of " + cityIds.size() + " cities", OpenWeatherPayloadDecoder::decodeGroup);
+    }
+
+    public List<OpenWeatherPayloadDecoder.Observation> fetchForecast(String city) {
+        return get(WeatherMetrics.ENDPOINT_FORECAST, buildCityUrl("/forecast", city), city, OpenWeatherPayloadDecoder::decodeForecast);
+    }
+
+    private <T> T get(String endpoint, URI url, String city, PayloadReader<T> reader) {
+        ensureApiKey();
+        acquireToken();
+
+        long startNanos = System.nanoTime();
+        int[] status = {0};
+        try {
+            // Decode from the body stream as it arrives instead of buffering the payload into a String first.
+            return restTemplate.execute(url, HttpMethod.GET, null, response -> {
+                status[0] = response.getStatusCode().value();
+                if (!response.getStatusCode().is2xxSuccessful()) {
+                    throw mapErrorStatus(response.getStatusCode(), city);
+                }
+                return reader.read(response.getBody());
+            });
+        } catch (HttpStatusCodeException exception) {
+            status[0] = exception.getStatusCode().value();
+            throw mapErrorStatus(exception.getStatusCode(), city);
+        } catch (RestClientException exception) {
+            throw new WeatherServiceException(
+                    HttpStatus.BAD_GATEWAY,
+                    "Unable to connect to weather provider for " + city + "."
+            );
+        } finally {
+            weatherMetrics.recordProviderCall(endpoint, status[0], System.nanoTime() - startNanos);
+        }
+    }
+
+    private WeatherServiceException mapErrorStatus(HttpStatusCode status, String city) {
+        if (status.value() == HttpStatus.NOT_FOUND.value()) {
+            return new WeatherServiceException(HttpStatus.NOT_FOUND, "City not found: " + city);
+        }
+        if (status.value() == HttpStatus.TOO_MANY_REQUESTS.value()) {
+            return new WeatherServiceException(HttpStatus.TOO_MANY_REQUESTS, "OpenWeather API rate limit reached.");
+        }
+        return new WeatherServiceException(
+                HttpStatus.BAD_GATEWAY,
+                "Weather provider error: " + status
+        );
+    }
+
+    private void acquireToken() {
+        try {
+            if (rateLimiter.acquireForCall(rateLimitWaitNanos)) {
+                return;
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new WeatherServiceException(HttpStatus.SERVICE_UNAVAILABLE, "Weather request was interrupted.");
+        }
+        throw new WeatherServiceException(
+                HttpStatus.TOO_MANY_REQUESTS,
+                "Provider call limit reached; try again shortly."
+        );
+    }
+
+    private void ensureApiKey() {
+        if (!isConfigured()) {
+            throw new WeatherServiceException(
+                    HttpStatus.BAD_REQUEST,
+                    "OpenWeather API key is missing. Set OPENWEATHER_API_KEY."
+            );
+        }
+    }
+
+    private URI buildCityUrl(String path, String city) {
+        // Pass a URI, not a String, so RestTemplate does not run its template encoding a second time.
+        return UriComponentsBuilder.fromHttpUrl(baseUrl + path)
+                .queryParam("q", city)
+                .queryParam("appid", apiKey)
+                .encode(StandardCharsets.UTF_8)
+                .build()
+                .toUri();
+    }
+
+    @FunctionalInterface
+    private interface PayloadReader<T> {
+        T read(InputStream body) throws IOException;
+    }
+}
@@ -0,0 +1,151 @@
+package com.nidak.weatherpulse.service;
+
+import com.nidak.weatherpulse.dto.RetentionReport;
+import com.nidak.weatherpulse.repository.WeatherRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deletes raw samples older than {@code weather.retention.raw-days}. Hourly rollups and daily summaries
+ * are kept, so history past the window is still served, just not at raw resolution.
+ *
+ * <p>Rows go in small batches, each in its own short transaction, walking the (city_id, timestamp) index,
+ * with a pause in between so ingest writes are never queued behind a long delete. A run also stops at
+ * {@code weather.retention.max-run-ms} because it shares the scheduler thread with polling; whatever is
+ * left is picked up by the next run.
+ */
+@Component
+public class WeatherRetentionManager {
+
+    private static final Logger log = LoggerFactory.getLogger(WeatherRetentionManager.class);
+
+    private final WeatherRepository weatherRepository;
+    private final RollupBackfill rollupBackfill;
+    private final TransactionTemplate transactionTemplate;
+    private final WeatherMetrics weatherMetrics;
+    private final FinalizedDayResponseCache finalizedDayResponseCache;
+    private final int rawDays;
+    private final int batchSize;
+    private final long batchPauseMs;
+    private final long maxRunNanos;
+    private volatile RetentionReport lastReport;
+
+    public WeatherRetentionManager(
+            WeatherRepository weatherRepository,
+            RollupBackfill rollupBackfill,
+            TransactionTemplate transactionTemplate,
+            WeatherMetrics weatherMetrics,
+            FinalizedDayResponseCache finalizedDayResponseCache,
+            @Value("${weather.retention.raw-days:90}") int rawDays,
+            @Value("${weather.retention.batch-size:500}") int batchSize,
+            @Value("${weather.retention.batch-pause-ms:50}") long batchPauseMs,
+            @Value("${weather.retention.max-run-ms:20000}") long maxRunMs
+    ) {
+        this.weatherRepository = weatherRepository;
+        this.rollupBackfill = rollupBackfill;
+        this.transactionTemplate = transactionTemplate;
+        this.weatherMetrics = weatherMetrics;
+        this.finalizedDayResponseCache = finalizedDayResponseCache;
+        this.rawDays = rawDays;
+        this.batchSize = Math.max(1, batchSize);
+        this.batchPauseMs = Math.max(0, batchPauseMs);
+        this.maxRunNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, maxRunMs));
+    }
+
+    @Scheduled(
+            initialDelayString = "${weather.retention.run-interval-ms:600000}",
+            fixedDelayString = "${weather.retention.run-interval-ms:600000}"
+    )
+    public void purgeExpiredSamples() {
+        if (rawDays <= 0) {
+            return;
+        }
+        if (!rollupBackfill.isComplete()) {
+            // Raw rows are the only copy of their history until the backfill has rolled them up.
+            log.debug("Skipping retention until the rollup backfill has finished");
+            return;
+        }
+        purgeOlderThan(LocalDateTime.now().minusDays(rawDays));
+    }
+
+    public RetentionReport purgeOlderThan(LocalDateTime cutoff) {
+        LocalDateTime startedAt = LocalDateTime.now();
+        long startNanos = System.nanoTime();
+        Pageable page = PageRequest.ofSize(batchSize);
+        long purged = 0;
+        int batches = 0;
+        boolean caughtUp = true;
+
+        cities:
+        for (WeatherRepository.CityTimespan span : weatherRepository.findFirstTimestampPerCity()) {
+            if (!span.getFirstTimestamp().isBefore(cutoff)) {
+                continue;
+            }
+            long cityId = span.getCityId();
+            while (true) {
+                if (System.nanoTime() - startNanos > maxRunNanos) {
+                    caughtUp = false;
+                    break cities;
+                }
+                Integer deleted = transactionTemplate.execute(status -> {
+                    List<Long> ids = weatherRepository.findIdsOlderThan(cityId, cutoff, page);
+                    if (!ids.isEmpty()) {
+                        weatherRepository.deleteAllByIdInBatch(ids);
+                    }
+                    return ids.size();
+                });
+                int count = deleted == null ? 0 : deleted;
+                purged += count;
+                if (count > 0) {
+                    batches++;
+                }
+                if (count < batchSize) {
+                    break;
+                }
+                if (!pause()) {
+                    caughtUp = false;
+                    break cities;
+                }
+            }
+        }
+
+        long durationNanos = System.nanoTime() - startNanos;
+        weatherMetrics.recordRetentionRun(purged, durationNanos);
+        RetentionReport report = new RetentionReport(
+                startedAt, cutoff, TimeUnit.NANOSECONDS.toMillis(durationNanos), purged, batches, caughtUp);
+        lastReport = report;
+        if (purged > 0) {
+            finalizedDayResponseCache.evictThrough(cutoff.toLocalDate());
+            log.info("Purged {} weather samples older than {} in {} ms ({} batches{})", purged, cutoff,
+                    report.durationMs(), batches, caughtUp ? "" : ", more left for the next run");
+        }
+        return report;
+    }
+
+    public RetentionReport getLastReport() {
+        return lastReport;
+    }
+
+    private boolean pause() {
+        if (batchPauseMs == 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(batchPauseMs);
+            return true;
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.nidak.weatherpulse.service;
+
+import java.util.Locale;
+
+/**
+ * Maps an observation to its risk label without lower-casing or copying any strings.
+ * The OpenWeather condition code picks the rule group from a precomputed table, and one scan over the
+ * description finds every keyword the rules look at. Labels are shared constants, so callers can compare them by reference.
+ *
+ * <p>The rules and their order are unchanged from the original {@code determineWeatherRisk}; matching is
+ * case-insensitive exactly as {@code toLowerCase(Locale.ROOT).contains(...)} was, with non-ASCII text
+ * still going through that path.
+ */
+final class WeatherRiskClassifier {
+
+    static final String SEVERE_STORM = "Cyclone/Severe Storm Risk";
+    static final String THUNDERSTORM = "Thunderstorm Risk";
+    static final String SNOW = "Snow Risk";
+    static final String SANDSTORM = "Sandstorm/Dust Risk";
+    static final String TORNADO = "Cyclone/Tornado Risk";
+    static final String SQUALL = "High Wind Squall Risk";
+    static final String CYCLONE = "Cyclone Risk";
+    static final String CYCLONE_WIND = "Cyclone-like Wind Risk";
+    static final String STRONG_WIND = "Strong Wind Risk";
+    static final String RAIN = "Rain Risk";
+    static final String SUNNY_HEAT = "Sunny/Heat Risk";
+    static final String LOW = "Low Risk";
+
+    private static final double CYCLONE_WIND_SPEED = 28;
+    private static final double STRONG_WIND_SPEED = 17;
+    private static final double HEAT_TEMPERATURE = 35;
+
+    private static final byte GROUP_OTHER = 0;
+    private static final byte GROUP_THUNDERSTORM = 1;
+    private static final byte GROUP_SNOW = 2;
+    private static final byte GROUP_ATMOSPHERE = 3;
+    private static final byte GROUP_CLEAR = 4;
+    private static final byte[] GROUP_BY_CODE = new byte[1000];
+
+    static {
+        for (int code = 200; code < 300; code++) {
+            GROUP_BY_CODE[code] = GROUP_THUNDERSTORM;
+        }
+        for (int code = 600; code < 700; code++) {
+            GROUP_BY_CODE[code] = GROUP_SNOW;
+        }
+        for (int code = 700; code < 800; code++) {
+            GROUP_BY_CODE[code] = GROUP_ATMOSPHERE;
+        }
+        GROUP_BY_CODE[800] = GROUP_CLEAR;
+    }
+
+    // Keyword bits; KEYWORDS[i] sets bit 1 << i.
+    private static final int SAND = 1;
+    private static final int DUST = 1 << 1;
+    private static final int TORNADO_WORD = 1 << 2;
+    private static final int SQUALL_WORD = 1 << 3;
+    private static final int HURRICANE = 1 << 4;
+    private static final int CYCLONE_WORD = 1 << 5;
+    private static final int CLEAR = 1 << 6;
+    private static final int SUN = 1 << 7;
+    private static final String[] KEYWORDS = {"sand", "dust", "tornado", "squall", "hurricane", "cyclone", "clear", "sun"};
+
+    private WeatherRiskClassifier() {
+    }
+
+    static String classify(int weatherCode, String weatherCondition, String weatherDescription, double windSpeed,
+                           double temperature) {
+        byte group = weatherCode >= 0 && weatherCode < GROUP_BY_CODE.length ? GROUP_BY_CODE[weatherCode] : GROUP_OTHER;
+        if (group == GROUP_THUNDERSTORM) {
+            return windSpeed >= CYCLONE_WIND_SPEED ? SEVERE_STORM : THUNDERSTORM;
+        }
+        if (group == GROUP_SNOW) {
+            return SNOW;
+        }
+
+        int description = keywords(weatherDescription);
+        if (group == GROUP_ATMOSPHERE) {
+            if ((description & (SAND | DUST)) != 0) {
+                return SANDSTORM;
+            }
+            if ((description & TORNADO_WORD) != 0) {
+                return TORNADO;
+            }
+            if ((description & SQUALL_WORD) != 0) {
+                return SQUALL;
+            }
+        }
+        if ((description & (HURRICANE | CYCLONE_WORD)) != 0) {
+            return CYCLONE;
+        }
+
+        if (windSpeed >= CYCLONE_WIND_SPEED) {
+            return CYCLONE_WIND;
+        }
+        if (windSpeed >= STRONG_WIND_SPEED) {
+            return STRONG_WIND;
+        }
+
+        if (equalsIgnoreCase(weatherCondition, "rain") || equalsIgnoreCase(weatherCondition, "drizzle")) {
+            return RAIN;
+        }
+
+        if (group == GROUP_CLEAR && temperature >= HEAT_TEMPERATURE && isSunny(weatherCondition, description)) {
+            return SUNNY_HEAT;
+        }
+        return LOW;
+    }
+
+    /**
+     * The clear-sky test shared by the Sunny/Heat risk and the Heat Advisory alert.
+     */
+    static boolean isSunny(String weatherCondition, String weatherDescription) {
+        return isSunny(weatherCondition, keywords(weatherDescription));
+    }
+
+    /**
+     * {@code risk.toLowerCase(Locale.ROOT).contains(keyword)} for a lower-case keyword, without the copy.
+     */
+    static boolean riskMentions(String risk, String keyword) {
+        return containsIgnoreCase(risk, keyword);
+    }
+
+    private static boolean isSunny(String weatherCondition, int description) {
+        return (description & (CLEAR | SUN)) != 0 || containsIgnoreCase(weatherCondition, "clear");
+    }
+
+    /**
+     * Bit set of the {@link #KEYWORDS} found in {@code text}, in one pass.
+     */
+    private static int keywords(String text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        if (!isAscii(text)) {
+            String lower = text.toLowerCase(Locale.ROOT);
+            int found = 0;
+            for (int i = 0; i < KEYWORDS.length; i++) {
+                if (lower.contains(KEYWORDS[i])) {
+                    found |= 1 << i;
+                }
+            }
+            return found;
+        }
+
+        int found = 0;
+        int length = text.length();
+        for (int start = 0; start < length; start++) {
+            switch (toLowerAscii(text.charAt(start))) {
+                case 's' -> {
+                    if (matchesAt(text, start, "sand")) {
+                        found |= SAND;
+                    } else if (matchesAt(text, start, "sun")) {
+                        found |= SUN;
+                    } else if (matchesAt(text, start, "squall")) {
+                        found |= SQUALL_WORD;
+                    }
+                }
+                case 'd' -> found |= matchesAt(text, start, "dust") ? DUST : 0;
+                case 't' -> found |= matchesAt(text, start, "tornado") ? TORNADO_WORD : 0;
+                case 'h' -> found |= matchesAt(text, start, "hurricane") ? HURRICANE : 0;
+                case 'c' -> {
+                    if (matchesAt(text, start, "cyclone")) {
+                        found |= CYCLONE_WORD;
+                    } else if (matchesAt(text, start, "clear")) {
+                        found |= CLEAR;
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+        return found;
+    }
+
+    private static boolean containsIgnoreCase(String text, String keyword) {
+        if (text == null) {
+            return false;
+        }
+        if (!isAscii(text)) {
+            return text.toLowerCase(Locale.ROOT).contains(keyword);
+        }
+        for (int start = 0, last = text.length() - keyword.length(); start <= last; start++) {
+            if (matchesAt(text, start, keyword)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean equalsIgnoreCase(String text, String keyword) {
+        if (text == null || !isAscii(text)) {
+            return text != null && keyword.equals(text.toLowerCase(Locale.ROOT));
+        }
+        return text.length() == keyword.length() && matchesAt(text, 0, keyword);
+    }
+
+    /**
+     * ASCII text compared against a lower-case ASCII keyword.
+     */
+    private static boolean matchesAt(String text, int start, String keyword) {
+        if (start + keyword.length() > text.length()) {
+            return false;
+        }
+        for (int i = 0; i < keyword.length(); i++) {
+            if (toLowerAscii(text.charAt(start + i)) != keyword.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static char toLowerAscii(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    private static boolean isAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -1,5 +1,14 @@
 package com.nidak.weatherpulse.service;
 
+import com.nidak.weatherpulse.dto.CacheStats;
+import com.nidak.weatherpulse.dto.CityWeatherBatch;
+import com.nidak.weatherpulse.dto.CityTrends;
+import com.nidak.weatherpulse.dto.CoalescingStats;
+import com.nidak.weatherpulse.dto.IngestPipelineStats;
+import com.nidak.weatherpulse.dto.PollCycleReport;
+import com.nidak.weatherpulse.dto.PollSchedule;
+import com.nidak.weatherpulse.dto.RetentionReport;
+import com.nidak.weatherpulse.dto.WeatherHistory;
 import com.nidak.weatherpulse.entity.DailyWeatherSummaryEntity;
 import com.nidak.weatherpulse.entity.Weather;
 import com.nidak.weatherpulse.entity.WeatherAlert;
@@ -9,67 +18,128 @@ import com.nidak.weatherpulse.exception.WeatherServiceException;
 import com.nidak.weatherpulse.repository.DailyWeatherSummaryRepository;
 import com.nidak.weatherpulse.repository.WeatherAlertRepository;
 import com.nidak.weatherpulse.repository.WeatherRepository;
-import org.json.JSONArray;
-import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestClientException;
-import org.springframework.web.client.RestTemplate;
-import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.nio.charset.StandardCharsets;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 @Service
 public class WeatherService {
 
-    private static final String CURRENT_WEATHER_URL = "https://api.openweathermap.org/data/2.5/weather";
-    private static final String FORECAST_URL = "https://api.openweathermap.org/data/2.5/forecast";
+    private static final Logger log = LoggerFactory.getLogger(WeatherService.class);
+
     private static final DateTimeFormatter FORECAST_TIMESTAMP_FORMATTER =
             DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
-    @Value("${openweather.api.key:}")
-    private String apiKey;
-
     @Value("${weather.tracked-cities:Delhi,Mumbai,Chennai,Bangalore,Kolkata,Hyderabad}")
     private String trackedCitiesConfig;
 
-    @Value("${weather.data-stale-minutes:3}")
-    private long weatherDataStaleMinutes;
+    @Value("${weather.batch.max-cities:100}")
+    private int batchMaxCities;
+
+    @Value("${weather.polling.group-fetch:true}")
+    private boolean groupFetchEnabled;
 
     private final WeatherRepository weatherRepository;
     private final DailyWeatherSummaryRepository dailyWeatherSummaryRepository;
     private final WeatherAlertRepository weatherAlertRepository;
-
-    private final List<WeatherThreshold> thresholds = new ArrayList<>();
-    private final Map<String, Integer> consecutiveBreaches = new HashMap<>();
+    private final CityPollingEngine cityPollingEngine;
+    private final AdaptivePollScheduler adaptivePollScheduler;
+    private final WeatherProviderClient weatherProviderClient;
+    private final DailySummaryAggregator dailySummaryAggregator;
+    private final LatestWeatherCache latestWeatherCache;
+    private final ProviderRequestCoalescer providerRequestCoalescer;
+    private final ForecastCache forecastCache;
+    private final ProviderRateLimiter providerRateLimiter;
+    private final WeatherIngestPipeline weatherIngestPipeline;
+    private final WeatherHistoryReader weatherHistoryReader;
+    private final WeatherExporter weatherExporter;
+    private final WeatherRetentionManager weatherRetentionManager;
+    private final TrendEngine trendEngine;
+    private final CityBatchResolver cityBatchResolver;
+    private final FinalizedDayResponseCache finalizedDayResponseCache;
+    private final WeatherEventBroadcaster weatherEventBroadcaster;
+    private final OpenWeatherCityIds openWeatherCityIds;
+    private final CityRegistry cityRegistry;
+
+    private final ThresholdEngine thresholdEngine;
+    private final ThresholdStore thresholdStore;
+    private final WeatherMetrics weatherMetrics;
 
     public WeatherService(
             WeatherRepository weatherRepository,
             DailyWeatherSummaryRepository dailyWeatherSummaryRepository,
-            WeatherAlertRepository weatherAlertRepository
+            WeatherAlertRepository weatherAlertRepository,
+            CityPollingEngine cityPollingEngine,
+            AdaptivePollScheduler adaptivePollScheduler,
+            WeatherProviderClient weatherProviderClient,
+            DailySummaryAggregator dailySummaryAggregator,
+            LatestWeatherCache latestWeatherCache,
+            ProviderRequestCoalescer providerRequestCoalescer,
+            ForecastCache forecastCache,
+            ProviderRateLimiter providerRateLimiter,
+            WeatherIngestPipeline weatherIngestPipeline,
+            WeatherHistoryReader weatherHistoryReader,
+            WeatherExporter weatherExporter,
+            WeatherRetentionManager weatherRetentionManager,
+            TrendEngine trendEngine,
+            CityBatchResolver cityBatchResolver,
+            FinalizedDayResponseCache finalizedDayResponseCache,
+            WeatherEventBroadcaster weatherEventBroadcaster,
+            OpenWeatherCityIds openWeatherCityIds,
+            CityRegistry cityRegistry,
+            ThresholdEngine thresholdEngine,
+            ThresholdStore thresholdStore,
+            WeatherMetrics weatherMetrics
     ) {
         this.weatherRepository = weatherRepository;
         this.dailyWeatherSummaryRepository = dailyWeatherSummaryRepository;
         this.weatherAlertRepository = weatherAlertRepository;
+        this.cityPollingEngine = cityPollingEngine;
+        this.adaptivePollScheduler = adaptivePollScheduler;
+        this.weatherProviderClient = weatherProviderClient;
+        this.dailySummaryAggregator = dailySummaryAggregator;
+        this.latestWeatherCache = latestWeatherCache;
+        this.providerRequestCoalescer = providerRequestCoalescer;
+        this.forecastCache = forecastCache;
+        this.providerRateLimiter = providerRateLimiter;
+        this.weatherIngestPipeline = weatherIngestPipeline;
+        this.weatherHistoryReader = weatherHistoryReader;
+        this.weatherExporter = weatherExporter;
+        this.weatherRetentionManager = weatherRetentionManager;
+        this.trendEngine = trendEngine;
+        this.cityBatchResolver = cityBatchResolver;
+        this.finalizedDayResponseCache = finalizedDayResponseCache;
+        this.weatherEventBroadcaster = weatherEventBroadcaster;
+        this.openWeatherCityIds = openWeatherCityIds;
+        this.cityRegistry = cityRegistry;
+        this.thresholdEngine = thresholdEngine;
+        this.thresholdStore = thresholdStore;
+        this.weatherMetrics = weatherMetrics;
     }
 
     public List<String> getTrackedCities() {
@@ -81,6 +151,10 @@ public class WeatherService {
 
     @EventListener(ApplicationReadyEvent.class)
     public void warmUpTrackedCitiesOnStartup() {
+        List<Long> trackedCityIds = cityRegistry.idsOf(getTrackedCities());
+        if (!trackedCityIds.isEmpty()) {
+            latestWeatherCache.putAll(weatherRepository.findLatestForCities(trackedCityIds));
+        }
         fetchWeatherForAllCities();
     }
 
@@ -100,54 +174,101 @@ public class WeatherService {
         if (threshold.getConsecutiveUpdates() <= 0) {
             threshold.setConsecutiveUpdates(2);
         }
-        thresholds.add(threshold);
+        thresholdStore.save(threshold);
     }
 
     public String checkAlerts(Weather weather) {
         if (weather == null) {
             throw new WeatherServiceException(HttpStatus.BAD_REQUEST, "Weather payload is required.");
         }
-        return evaluateThresholds(weather, false);
+        return evaluateThresholds(weather);
     }
 
-    @Scheduled(fixedRateString = "${weather.polling.fixed-rate-ms:300000}")
+    /**
+     * Polls every tracked city at once, whether it is due or not.
+     */
     public void fetchWeatherForAllCities() {
-        if (apiKey == null || apiKey.isBlank()) {
+        if (!weatherProviderClient.isConfigured()) {
             return;
         }
-        for (String city : getTrackedCities()) {
-            try {
-                fetchWeatherData(city);
-            } catch (RuntimeException ignored) {
-                // Keep polling resilient even if one city fails.
-            }
+        pollCities(trackNormalizedCities());
+    }
+
+    /**
+     * Polls the tracked cities whose interval has run out; {@link AdaptivePollScheduler} decides each interval.
+     */
+    @Scheduled(
+            initialDelayString = "${weather.polling.tick-ms:10000}",
+            fixedDelayString = "${weather.polling.tick-ms:10000}"
+    )
+    public void pollDueCities() {
+        if (!weatherProviderClient.isConfigured()) {
+            return;
         }
+        trackNormalizedCities();
+        List<String> due = adaptivePollScheduler.takeDue();
+        if (!due.isEmpty()) {
+            pollCities(due);
+        }
+    }
+
+    public PollCycleReport getLastPollCycleReport() {
+        return cityPollingEngine.getLastReport();
+    }
+
+    public PollSchedule getPollSchedule() {
+        return adaptivePollScheduler.getSchedule();
+    }
+
+    public CacheStats getLatestWeatherCacheStats() {
+        return latestWeatherCache.getStats();
+    }
+
+    public CoalescingStats getProviderCoalescingStats() {
+        return providerRequestCoalescer.getStats();
+    }
+
+    public IngestPipelineStats getIngestPipelineStats() {
+        return weatherIngestPipeline.getStats();
+    }
+
+    public RetentionReport getLastRetentionReport() {
+        return weatherRetentionManager.getLastReport();
+    }
+
+    public CacheStats getForecastCacheStats() {
+        return forecastCache.getStats();
+    }
+
+    public CacheStats getFinalizedDayCacheStats() {
+        return finalizedDayResponseCache.getStats();
+    }
+
+    public boolean isFinalizedDay(LocalDate date) {
+        return finalizedDayResponseCache.isFinalized(date);
+    }
+
+    /**
+     * Serialized response for a finalized day, built by {@code body} on the first request only.
+     * A null {@code city} keys a response that covers every tracked city.
+     */
+    public FinalizedDayResponseCache.CachedResponse getFinalizedDayResponse(
+            String kind,
+            String city,
+            LocalDate date,
+            Supplier<?> body
+    ) {
+        String cacheCity = city == null ? FinalizedDayResponseCache.ALL_CITIES : normalizeCity(city);
+        return finalizedDayResponseCache.get(kind, cacheCity, date, body);
+    }
+
+    public String getResponseTag(Object data) {
+        return finalizedDayResponseCache.tagOf(data);
     }
 
     public Weather fetchWeatherData(String city) {
         String normalizedCity = normalizeCity(city);
-        JSONObject weatherJson = getApiResponse(buildCurrentWeatherUrl(normalizedCity), normalizedCity);
-        Weather mappedWeather = mapCurrentWeather(weatherJson, normalizedCity);
-        LocalDateTime timestamp = mappedWeather.getTimestamp();
-
-        Weather existingWeather = weatherRepository.findByCityAndTimestamp(normalizedCity, timestamp);
-        Weather weatherRecord = existingWeather == null ? new Weather() : existingWeather;
-        weatherRecord.setCity(mappedWeather.getCity());
-        weatherRecord.setTemperature(mappedWeather.getTemperature());
-        weatherRecord.setFeelsLike(mappedWeather.getFeelsLike());
-        weatherRecord.setWeatherCondition(mappedWeather.getWeatherCondition());
-        weatherRecord.setWeatherDescription(mappedWeather.getWeatherDescription());
-        weatherRecord.setWeatherCode(mappedWeather.getWeatherCode());
-        weatherRecord.setWeatherRisk(mappedWeather.getWeatherRisk());
-        weatherRecord.setHumidity(mappedWeather.getHumidity());
-        weatherRecord.setWindSpeed(mappedWeather.getWindSpeed());
-        weatherRecord.setTimestamp(mappedWeather.getTimestamp());
-
-        Weather saved = weatherRepository.save(weatherRecord);
-        upsertDailySummary(saved.getCity(), saved.getTimestamp().toLocalDate());
-        evaluateThresholds(saved, true);
-        saveSystemAlerts(saved);
-        return saved;
+        return providerRequestCoalescer.execute(currentWeatherKey(normalizedCity), () -> ingestCurrentWeather(normalizedCity));
     }
 
     public Weather fetchCurrentWeather(String city) {
@@ -156,102 +277,146 @@ public class WeatherService {
 
     public Weather getLatestWeatherForCity(String city) {
         String normalizedCity = normalizeCity(city);
-        Weather latestWeather = weatherRepository.findTopByCityOrderByTimestampDesc(normalizedCity);
-        if (latestWeather == null || isStale(latestWeather.getTimestamp())) {
-            return fetchWeatherData(normalizedCity);
+        Weather cachedWeather = latestWeatherCache.getFresh(normalizedCity);
+        if (cachedWeather != null) {
+            return cachedWeather;
+        }
+
+        Weather latestWeather = weatherRepository.findTopByCityIdOrderByTimestampDesc(cityRegistry.idOf(normalizedCity));
+        if (latestWeather == null || latestWeatherCache.isStale(latestWeather)) {
+            return providerRequestCoalescer.execute(currentWeatherKey(normalizedCity), () -> {
+                // Another request may have refreshed the city while this one was checking.
+                Weather refreshed = latestWeatherCache.getFresh(normalizedCity);
+                return refreshed != null ? refreshed : ingestCurrentWeather(normalizedCity);
+            });
         }
+        latestWeatherCache.put(latestWeather);
         return latestWeather;
     }
 
     public List<Weather> getLatestWeatherForTrackedCities() {
         List<Weather> latestWeatherList = new ArrayList<>();
-        for (String city : getTrackedCities()) {
-            try {
-                latestWeatherList.add(getLatestWeatherForCity(city));
-            } catch (RuntimeException ignored) {
+        for (CityBatchResolver.Result<Weather> result : cityBatchResolver.resolveAll(getTrackedCities(), this::getLatestWeatherForCity)) {
+            if (result.succeeded()) {
+                latestWeatherList.add(result.value());
+            } else {
                 // Keep endpoint available even if one city fails.
+                log.warn("Skipping {} in tracked-city weather: {}", result.city(), result.error());
             }
         }
         latestWeatherList.sort(Comparator.comparing(Weather::getCity));
         return latestWeatherList;
     }
 
+    /**
+     * Current weather, today's summary and recent alerts for each requested city, resolved in parallel.
+     * A city that fails is reported with its error instead of failing the whole batch.
+     */
+    public CityWeatherBatch getCityWeatherBatch(List<String> cities) {
+        List<String> batchCities = resolveBatchCities(cities);
+        LocalDate today = LocalDate.now();
+        List<CityWeatherBatch.CitySnapshot> snapshots = new ArrayList<>(batchCities.size());
+        for (CityBatchResolver.Result<CityWeatherBatch.CitySnapshot> result
+                : cityBatchResolver.resolveAll(batchCities, city -> loadCitySnapshot(city, today))) {
+            snapshots.add(result.succeeded()
+                    ? result.value()
+                    : CityWeatherBatch.CitySnapshot.failed(result.city(), result.error()));
+        }
+        return CityWeatherBatch.of(today, snapshots);
+    }
+
     public List<Weather> fetchWeatherForecast(String city) {
         String normalizedCity = normalizeCity(city);
-        JSONObject forecastJson = getApiResponse(buildForecastUrl(normalizedCity), normalizedCity);
-        JSONArray list = forecastJson.getJSONArray("list");
-        List<Weather> forecastList = new ArrayList<>();
-
-        for (int i = 0; i < list.length(); i++) {
-            JSONObject forecastData = list.getJSONObject(i);
-            JSONObject main = forecastData.getJSONObject("main");
-            JSONObject wind = forecastData.optJSONObject("wind");
-            JSONObject weatherObject = forecastData.getJSONArray("weather").getJSONObject(0);
-            String weatherCondition = weatherObject.getString("main");
-            String weatherDescription = weatherObject.optString("description", weatherCondition);
-            int weatherCode = weatherObject.optInt("id", 0);
-            double windSpeed = wind == null ? 0 : wind.optDouble("speed", 0);
-
-            Weather forecast = new Weather();
-            forecast.setCity(normalizedCity);
-            forecast.setTemperature(roundToTwoDecimalPlaces(kelvinToCelsius(main.getDouble("temp"))));
-            forecast.setFeelsLike(roundToTwoDecimalPlaces(kelvinToCelsius(main.optDouble("feels_like", 0))));
-            forecast.setHumidity(main.optDouble("humidity", 0));
-            forecast.setWindSpeed(windSpeed);
-            forecast.setWeatherCondition(weatherCondition);
-            forecast.setWeatherDescription(weatherDescription);
-            forecast.setWeatherCode(weatherCode);
-            forecast.setWeatherRisk(
-                    determineWeatherRisk(
-                            weatherCode,
-                            weatherCondition,
-                            weatherDescription,
-                            windSpeed,
-                            forecast.getTemperature()
-                    )
-            );
-            forecast.setTimestamp(LocalDateTime.parse(forecastData.getString("dt_txt"), FORECAST_TIMESTAMP_FORMATTER));
-            forecastList.add(forecast);
+        return forecastCache.get(normalizedCity, () -> loadCoalescedForecast(normalizedCity));
+    }
+
+    @Scheduled(
+            initialDelayString = "${weather.forecast.refresh-check-ms:300000}",
+            fixedDelayString = "${weather.forecast.refresh-check-ms:300000}"
+    )
+    public void refreshTrackedCityForecasts() {
+        if (!weatherProviderClient.isConfigured()) {
+            return;
+        }
+        for (String city : getTrackedCities()) {
+            String normalizedCity = normalizeCity(city);
+            if (!forecastCache.isRefreshDue(normalizedCity)) {
+                continue;
+            }
+            try {
+                // Refresh-ahead is optional work; leave the quota to polling and user requests when it is tight.
+                if (!providerRateLimiter.tryReserve(0)) {
+                    return;
+                }
+                forecastCache.refresh(normalizedCity, () -> loadCoalescedForecast(normalizedCity));
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException ignored) {
+                // The next check retries; user requests still load on demand.
+            } finally {
+                providerRateLimiter.releaseReservation();
+            }
         }
-        return forecastList;
     }
 
     public List<Weather> getWeatherDataForCity(String city, LocalDateTime startOfDay, LocalDateTime endOfDay) {
-        return weatherRepository.findByCityAndTimestampBetween(normalizeCity(city), startOfDay, endOfDay);
+        return weatherRepository.findByCityIdAndTimestampBetween(cityRegistry.idOf(normalizeCity(city)), startOfDay, endOfDay);
+    }
+
+    public WeatherHistory getWeatherHistory(String city, LocalDateTime from, LocalDateTime to) {
+        return weatherHistoryReader.read(normalizeCity(city), from, to);
+    }
+
+    /**
+     * Resolves the export's city list up front, so a bad request fails before anything is written.
+     *
+     * @param cities requested cities, or empty for every tracked city
+     */
+    public List<String> resolveExportCities(List<String> cities) {
+        if (cities == null || cities.isEmpty()) {
+            return getTrackedCities();
+        }
+        List<String> normalized = new ArrayList<>(cities.size());
+        for (String city : cities) {
+            if (!city.isBlank()) {
+                normalized.add(normalizeCity(city));
+            }
+        }
+        return normalized.isEmpty() ? getTrackedCities() : normalized;
+    }
+
+    public long exportObservations(
+            List<String> cities,
+            LocalDateTime from,
+            LocalDateTime to,
+            WeatherExporter.Format format,
+            OutputStream output
+    ) throws IOException {
+        return weatherExporter.export(cities, from, to, format, output);
     }
 
     public WeatherSummary calculateSummary(List<Weather> weatherData) {
         if (weatherData == null || weatherData.isEmpty()) {
             return new WeatherSummary(0, 0, 0, "N/A", 0, 0);
         }
-
-        double averageTemp = weatherData.stream().mapToDouble(Weather::getTemperature).average().orElse(0);
-        double maxTemp = weatherData.stream().mapToDouble(Weather::getTemperature).max().orElse(0);
-        double minTemp = weatherData.stream().mapToDouble(Weather::getTemperature).min().orElse(0);
-        Map<String, Long> conditionCount = weatherData.stream()
-                .collect(Collectors.groupingBy(Weather::getWeatherCondition, Collectors.counting()));
-        String dominantCondition = conditionCount.entrySet().stream()
-                .max(Map.Entry.comparingByValue())
-                .map(Map.Entry::getKey)
-                .orElse("N/A");
-
-        double averageHumidity = weatherData.stream().mapToDouble(Weather::getHumidity).average().orElse(0);
-        double averageWindSpeed = weatherData.stream().mapToDouble(Weather::getWindSpeed).average().orElse(0);
-
-        return new WeatherSummary(
-                roundToTwoDecimalPlaces(averageTemp),
-                roundToTwoDecimalPlaces(maxTemp),
-                roundToTwoDecimalPlaces(minTemp),
-                dominantCondition,
-                roundToTwoDecimalPlaces(averageHumidity),
-                roundToTwoDecimalPlaces(averageWindSpeed)
-        );
+        return WeatherSummaryAccumulator.summarize(weatherData);
     }
 
     public DailyWeatherSummaryEntity getDailySummary(String city, LocalDate date) {
         String normalizedCity = normalizeCity(city);
-        return dailyWeatherSummaryRepository.findByCityAndSummaryDate(normalizedCity, date)
-                .orElseGet(() -> upsertDailySummary(normalizedCity, date));
+        return dailyWeatherSummaryRepository.findByCityIdAndSummaryDate(cityRegistry.idOf(normalizedCity), date)
+                .orElseGet(() -> finalizedDayResponseCache.isFinalized(date)
+                        // Reads of finalized days never write; a missing row is computed on the fly.
+                        ? dailySummaryAggregator.summarize(normalizedCity, date)
+                        : dailySummaryAggregator.rebuild(normalizedCity, date));
+    }
+
+    public DailyWeatherSummaryEntity rebuildDailySummary(String city, LocalDate date) {
+        String normalizedCity = normalizeCity(city);
+        DailyWeatherSummaryEntity summary = dailySummaryAggregator.rebuild(normalizedCity, date);
+        finalizedDayResponseCache.evict(normalizedCity, date);
+        return summary;
     }
 
     public List<DailyWeatherSummaryEntity> getTrackedCityDailySummaries(LocalDate date) {
@@ -268,316 +433,342 @@ public class WeatherService {
     }
 
     public List<WeatherAlert> getRecentAlertsForCity(String city) {
-        return weatherAlertRepository.findTop20ByCityOrderByCreatedAtDesc(normalizeCity(city));
+        return weatherAlertRepository.findTop20ByCityIdOrderByCreatedAtDesc(cityRegistry.idOf(normalizeCity(city)));
     }
 
     public Weather simulateCurrentWeatherData(String city) {
         return fetchWeatherData(city);
     }
 
-    public String generateWeatherTrends(String city) {
-        String normalizedCity = normalizeCity(city);
-        LocalDateTime end = LocalDateTime.now();
-        LocalDateTime start = end.minusDays(7);
-        List<Weather> weatherHistory = weatherRepository.findByCityAndTimestampBetween(normalizedCity, start, end);
-
-        StringBuilder trends = new StringBuilder();
-        trends.append("Weather trends for ").append(normalizedCity).append(":\n");
-        trends.append("Date\tTemperature\tCondition\n");
-        for (Weather weather : weatherHistory) {
-            trends.append(weather.getTimestamp().toLocalDate()).append("\t")
-                    .append(weather.getTemperature()).append(" C\t")
-                    .append(weather.getWeatherCondition()).append("\n");
-        }
-        return trends.toString();
-    }
-
-    private Weather mapCurrentWeather(JSONObject weatherJson, String city) {
-        JSONObject main = weatherJson.getJSONObject("main");
-        JSONObject wind = weatherJson.optJSONObject("wind");
-        JSONObject weatherObject = weatherJson.getJSONArray("weather").getJSONObject(0);
-        String weatherCondition = weatherObject.getString("main");
-        String weatherDescription = weatherObject.optString("description", weatherCondition);
-        int weatherCode = weatherObject.optInt("id", 0);
-        double windSpeed = wind == null ? 0 : wind.optDouble("speed", 0);
-
-        Weather currentWeather = new Weather();
-        currentWeather.setCity(city);
-        currentWeather.setTemperature(roundToTwoDecimalPlaces(kelvinToCelsius(main.getDouble("temp"))));
-        currentWeather.setFeelsLike(roundToTwoDecimalPlaces(kelvinToCelsius(main.optDouble("feels_like", 0))));
-        currentWeather.setWeatherCondition(weatherCondition);
-        currentWeather.setWeatherDescription(weatherDescription);
-        currentWeather.setWeatherCode(weatherCode);
-        currentWeather.setWeatherRisk(
-                determineWeatherRisk(
-                        weatherCode,
-                        weatherCondition,
-                        weatherDescription,
-                        windSpeed,
-                        currentWeather.getTemperature()
-                )
-        );
-        currentWeather.setHumidity(main.optDouble("humidity", 0));
-        currentWeather.setWindSpeed(windSpeed);
-        currentWeather.setTimestamp(LocalDateTime.now().withSecond(0).withNano(0));
-        return currentWeather;
-    }
-
-    private String evaluateThresholds(Weather weather, boolean persistAlert) {
-        if (thresholds.isEmpty()) {
-            return "No thresholds configured.";
-        }
-
-        String city = normalizeCity(weather.getCity());
-        for (WeatherThreshold threshold : thresholds) {
-            String thresholdCondition = threshold.getCondition() == null
-                    ? ""
-                    : threshold.getCondition().trim();
-
-            if ("temperature".equalsIgnoreCase(thresholdCondition)) {
-                String key = city + ":temperature:" + threshold.getThreshold();
-                if (weather.getTemperature() > threshold.getThreshold()) {
-                    int count = consecutiveBreaches.getOrDefault(key, 0) + 1;
-                    consecutiveBreaches.put(key, count);
-                    if (count == threshold.getConsecutiveUpdates()) {
-                        String alertMessage = buildTemperatureAlertMessage(weather, threshold);
-                        if (persistAlert) {
-                            saveAlert(city, "temperature", alertMessage, String.valueOf(weather.getTemperature()),
-                                    String.valueOf(threshold.getThreshold()));
-                        }
-                        return alertMessage;
-                    }
-                } else {
-                    consecutiveBreaches.put(key, 0);
+    /**
+     * Opens an event stream of committed observations and alerts, limited to {@code cities} when given.
+     */
+    public SseEmitter subscribeToWeatherEvents(List<String> cities, String lastEventId) {
+        Set<String> filter = null;
+        if (cities != null && cities.stream().anyMatch(city -> city != null && !city.isBlank())) {
+            filter = new HashSet<>();
+            for (String city : cities) {
+                if (city != null && !city.isBlank()) {
+                    filter.add(normalizeCity(city));
                 }
             }
+        }
+        return weatherEventBroadcaster.subscribe(filter, lastEventId);
+    }
 
-            if ("weatherCondition".equalsIgnoreCase(thresholdCondition)) {
-                String expectedCondition = threshold.getWeatherCondition();
-                if (expectedCondition == null || expectedCondition.isBlank()) {
-                    continue;
-                }
+    public int getWeatherEventSubscriberCount() {
+        return weatherEventBroadcaster.getSubscriberCount();
+    }
 
-                String key = city + ":weatherCondition:" + expectedCondition.toLowerCase(Locale.ROOT);
-                boolean matches = expectedCondition.equalsIgnoreCase(weather.getWeatherCondition());
-                if (matches) {
-                    int count = consecutiveBreaches.getOrDefault(key, 0) + 1;
-                    consecutiveBreaches.put(key, count);
-                    if (count == threshold.getConsecutiveUpdates()) {
-                        String alertMessage = buildConditionAlertMessage(weather, threshold);
-                        if (persistAlert) {
-                            saveAlert(city, "weatherCondition", alertMessage, weather.getWeatherCondition(), expectedCondition);
-                        }
-                        return alertMessage;
-                    }
-                } else {
-                    consecutiveBreaches.put(key, 0);
+    public CityTrends getWeatherTrends(String city) {
+        return trendEngine.trends(normalizeCity(city));
+    }
+
+    private List<String> resolveBatchCities(List<String> cities) {
+        Set<String> normalizedCities = new LinkedHashSet<>();
+        if (cities != null) {
+            for (String city : cities) {
+                if (city != null && !city.isBlank()) {
+                    normalizedCities.add(normalizeCity(city));
                 }
             }
         }
+        if (normalizedCities.isEmpty()) {
+            throw new WeatherServiceException(HttpStatus.BAD_REQUEST, "At least one city is required.");
+        }
+        if (normalizedCities.size() > batchMaxCities) {
+            throw new WeatherServiceException(HttpStatus.BAD_REQUEST, "A batch can cover at most " + batchMaxCities + " cities.");
+        }
+        return List.copyOf(normalizedCities);
+    }
 
-        return "No alerts triggered.";
+    private CityWeatherBatch.CitySnapshot loadCitySnapshot(String normalizedCity, LocalDate date) {
+        return new CityWeatherBatch.CitySnapshot(
+                normalizedCity,
+                getLatestWeatherForCity(normalizedCity),
+                getDailySummary(normalizedCity, date),
+                getRecentAlertsForCity(normalizedCity),
+                null
+        );
     }
 
-    private String buildTemperatureAlertMessage(Weather weather, WeatherThreshold threshold) {
-        if (threshold.getAlertMessage() != null && !threshold.getAlertMessage().isBlank()) {
-            return threshold.getAlertMessage();
+    private List<String> trackNormalizedCities() {
+        List<String> cities = new ArrayList<>();
+        for (String city : getTrackedCities()) {
+            cities.add(normalizeCity(city));
         }
-        return "Temperature threshold breached for " + weather.getCity()
-                + ": current=" + weather.getTemperature()
-                + " C, threshold=" + threshold.getThreshold() + " C";
+        adaptivePollScheduler.track(cities);
+        return cities;
     }
 
-    private String buildConditionAlertMessage(Weather weather, WeatherThreshold threshold) {
-        if (threshold.getAlertMessage() != null && !threshold.getAlertMessage().isBlank()) {
-            return threshold.getAlertMessage();
+    private void pollCities(List<String> normalizedCities) {
+        // Failures are collected per city in the cycle report, so one bad city never stops the rest.
+        Map<String, Weather> readings = new ConcurrentHashMap<>();
+        PollCycleReport report = null;
+        try {
+            report = groupFetchEnabled
+                    ? cityPollingEngine.runGroupedCycle(groupByProviderId(normalizedCities), group -> fetchWeatherGroup(group, readings))
+                    : cityPollingEngine.runCycle(normalizedCities, city -> readings.put(city, fetchWeatherData(city)));
+        } finally {
+            if (report == null) {
+                // The cycle never got going (a rejected task, a failure while grouping). The scheduler took these
+                // cities out of its queue, so hand them back as skipped, due again on the next tick.
+                report = PollCycleReport.of(LocalDateTime.now(), 0, normalizedCities.size(), List.of(), Map.of(),
+                        List.copyOf(normalizedCities), 0);
+            }
+            // Only the cycle's own readings re-plan a city; a user's fetch in between leaves its schedule alone.
+            adaptivePollScheduler.recordCycle(report, readings);
+        }
+    }
+
+    private Weather ingestCurrentWeather(String normalizedCity) {
+        OpenWeatherPayloadDecoder.CityObservation observation = weatherProviderClient.fetchCurrentWeatherWithId(normalizedCity);
+        // Remembered so the next poll cycle can fetch this city through a group call.
+        openWeatherCityIds.remember(normalizedCity, observation.cityId());
+        Weather mappedWeather = mapCurrentWeather(observation.observation(), normalizedCity);
+        Weather stored = weatherIngestPipeline.write(mappedWeather, buildThresholdAlerts(mappedWeather), buildSystemAlerts(mappedWeather));
+        cityRegistry.recordProviderDetails(stored.getCityId(), observation.name(), observation.latitude(), observation.longitude());
+        return stored;
+    }
+
+    /**
+     * Cities with a known provider id go into groups of up to {@link WeatherProviderClient#MAX_GROUP_SIZE};
+     * the rest are fetched on their own, which also learns their id for the next cycle.
+     */
+    private List<List<String>> groupByProviderId(List<String> cities) {
+        List<List<String>> groups = new ArrayList<>();
+        List<String> group = new ArrayList<>(WeatherProviderClient.MAX_GROUP_SIZE);
+        for (String city : cities) {
+            String normalizedCity = normalizeCity(city);
+            if (openWeatherCityIds.idOf(normalizedCity) == null) {
+                groups.add(List.of(normalizedCity));
+                continue;
+            }
+            group.add(normalizedCity);
+            if (group.size() == WeatherProviderClient.MAX_GROUP_SIZE) {
+                groups.add(group);
+                group = new ArrayList<>(WeatherProviderClient.MAX_GROUP_SIZE);
+            }
+        }
+        if (!group.isEmpty()) {
+            groups.add(group);
+        }
+        return groups;
+    }
+
+    /**
+     * One provider call for the whole group; every returned observation goes through the normal ingest path.
+     * The group holds each city's current-weather key while it runs, so a user fetching one of its cities
+     * waits for the group's reading instead of making a second call.
+     *
+     * @param readings receives each city's stored reading
+     * @return cities that failed, with the reason
+     */
+    private Map<String, String> fetchWeatherGroup(List<String> cities, Map<String, Weather> readings) {
+        Map<String, String> failures = new HashMap<>();
+        Map<Long, String> citiesById = new LinkedHashMap<>();
+        List<String> fetchedAlone = new ArrayList<>();
+        for (String city : cities) {
+            Long cityId = openWeatherCityIds.idOf(city);
+            if (cityId == null) {
+                // Not resolved yet (or dropped from the id cache since grouping): fetch it on its own.
+                fetchedAlone.add(city);
+                continue;
+            }
+            String sameId = citiesById.putIfAbsent(cityId, city);
+            if (sameId != null) {
+                // The group response has one entry per id, so this city would never get a reading.
+                log.warn("{} and {} resolve to the same provider city id {}", sameId, city, cityId);
+                failures.put(city, "Resolves to the same provider city id (" + cityId + ") as " + sameId);
+            }
         }
-        return "Weather condition threshold breached for " + weather.getCity()
-                + ": condition=" + weather.getWeatherCondition();
-    }
 
-    private void saveAlert(String city, String alertType, String alertMessage, String observedValue, String thresholdValue) {
-        WeatherAlert alert = new WeatherAlert();
-        alert.setCity(city);
-        alert.setAlertType(alertType);
-        alert.setAlertMessage(alertMessage);
-        alert.setObservedValue(observedValue);
-        alert.setThresholdValue(thresholdValue);
-        alert.setCreatedAt(LocalDateTime.now());
-        weatherAlertRepository.save(alert);
-    }
-
-    private DailyWeatherSummaryEntity upsertDailySummary(String city, LocalDate summaryDate) {
-        LocalDateTime start = LocalDateTime.of(summaryDate, LocalTime.MIN);
-        LocalDateTime end = LocalDateTime.of(summaryDate, LocalTime.MAX);
-        List<Weather> weatherData = weatherRepository.findByCityAndTimestampBetween(city, start, end);
-        WeatherSummary summary = calculateSummary(weatherData);
-
-        Map<String, Long> conditionCount = weatherData.stream()
-                .collect(Collectors.groupingBy(Weather::getWeatherCondition, Collectors.counting()));
-        String dominantCondition = summary.getDominantWeatherCondition();
-        long dominantCount = conditionCount.getOrDefault(dominantCondition, 0L);
-        String dominantReason = "Most frequent condition based on " + dominantCount
-                + " of " + weatherData.size() + " samples";
-
-        DailyWeatherSummaryEntity entity = dailyWeatherSummaryRepository
-                .findByCityAndSummaryDate(city, summaryDate)
-                .orElseGet(DailyWeatherSummaryEntity::new);
-        entity.setCity(city);
-        entity.setSummaryDate(summaryDate);
-        entity.setAverageTemperature(summary.getAverageTemperature());
-        entity.setMaxTemperature(summary.getMaxTemperature());
-        entity.setMinTemperature(summary.getMinTemperature());
-        entity.setDominantWeatherCondition(summary.getDominantWeatherCondition());
-        entity.setDominantWeatherConditionReason(dominantReason);
-        entity.setAverageHumidity(summary.getAverageHumidity());
-        entity.setAverageWindSpeed(summary.getAverageWindSpeed());
-        entity.setTotalSamples(weatherData.size());
-        entity.setUpdatedAt(LocalDateTime.now());
-        return dailyWeatherSummaryRepository.save(entity);
-    }
-
-    private JSONObject getApiResponse(String url, String city) {
-        ensureApiKey();
-        RestTemplate restTemplate = new RestTemplate();
-        ResponseEntity<String> response;
+        List<String> keys = new ArrayList<>(citiesById.size());
+        for (String city : citiesById.values()) {
+            keys.add(currentWeatherKey(city));
+        }
+        try (ProviderRequestCoalescer.GroupClaim claim = providerRequestCoalescer.claim(keys)) {
+            // A city someone else is already fetching is read from that fetch instead.
+            citiesById.values().removeIf(city -> {
+                if (claim.holds(currentWeatherKey(city))) {
+                    return false;
+                }
+                fetchedAlone.add(city);
+                return true;
+            });
+            if (!citiesById.isEmpty()) {
+                try {
+                    fetchClaimedGroup(citiesById, claim, failures, readings);
+                } catch (RuntimeException exception) {
+                    // The group call failed; only the cities in it share that failure.
+                    for (String city : citiesById.values()) {
+                        claim.fail(currentWeatherKey(city), exception);
+                        failures.put(city, exception.getMessage());
+                    }
+                }
+            }
+        }
 
-        try {
-            response = restTemplate.getForEntity(url, String.class);
-        } catch (RestClientException exception) {
-            throw new WeatherServiceException(
-                    HttpStatus.BAD_GATEWAY,
-                    "Unable to connect to weather provider for " + city + "."
-            );
+        for (String city : fetchedAlone) {
+            try {
+                readings.put(city, fetchWeatherData(city));
+            } catch (RuntimeException exception) {
+                failures.put(city, exception.getMessage());
+            }
         }
+        return failures;
+    }
 
-        if (response.getStatusCode().is2xxSuccessful()) {
-            return new JSONObject(response.getBody());
+    private void fetchClaimedGroup(
+            Map<Long, String> citiesById,
+            ProviderRequestCoalescer.GroupClaim claim,
+            Map<String, String> failures,
+            Map<String, Weather> readings
+    ) {
+        Map<String, CompletableFuture<Weather>> pending = new LinkedHashMap<>();
+        for (OpenWeatherPayloadDecoder.CityObservation observation : weatherProviderClient.fetchCurrentWeatherGroup(citiesById.keySet())) {
+            String city = citiesById.remove(observation.cityId());
+            if (city == null) {
+                continue;
+            }
+            try {
+                Weather mappedWeather = mapCurrentWeather(observation.observation(), city);
+                pending.put(city, weatherIngestPipeline.submit(
+                        mappedWeather, buildThresholdAlerts(mappedWeather), buildSystemAlerts(mappedWeather)));
+                cityRegistry.recordProviderDetails(
+                        mappedWeather.getCityId(), observation.name(), observation.latitude(), observation.longitude());
+            } catch (RuntimeException exception) {
+                claim.fail(currentWeatherKey(city), exception);
+                failures.put(city, exception.getMessage());
+            }
         }
-        if (response.getStatusCode() == HttpStatus.NOT_FOUND) {
-            throw new WeatherServiceException(HttpStatus.NOT_FOUND, "City not found: " + city);
+        for (String city : citiesById.values()) {
+            // The id no longer resolves; look the city up by name again next cycle.
+            openWeatherCityIds.forget(city);
+            failures.put(city, "Missing from the provider's group response");
         }
-        if (response.getStatusCode() == HttpStatus.TOO_MANY_REQUESTS) {
-            throw new WeatherServiceException(HttpStatus.TOO_MANY_REQUESTS, "OpenWeather API rate limit reached.");
+        for (Map.Entry<String, CompletableFuture<Weather>> write : pending.entrySet()) {
+            String key = currentWeatherKey(write.getKey());
+            try {
+                Weather stored = weatherIngestPipeline.await(write.getValue());
+                claim.complete(key, stored);
+                readings.put(write.getKey(), stored);
+            } catch (RuntimeException exception) {
+                claim.fail(key, exception);
+                failures.put(write.getKey(), exception.getMessage());
+            }
         }
-        throw new WeatherServiceException(
-                HttpStatus.BAD_GATEWAY,
-                "Weather provider error: " + response.getStatusCode()
-        );
     }
 
-    private void ensureApiKey() {
-        if (apiKey == null || apiKey.isBlank()) {
-            throw new WeatherServiceException(
-                    HttpStatus.BAD_REQUEST,
-                    "OpenWeather API key is missing. Set OPENWEATHER_API_KEY."
-            );
+    private List<Weather> loadCoalescedForecast(String normalizedCity) {
+        return providerRequestCoalescer.execute(forecastKey(normalizedCity), () -> loadWeatherForecast(normalizedCity));
+    }
+
+    // The package-private mapping and classification helpers are driven directly by WeatherServiceHotPathBenchmark.
+    List<Weather> loadWeatherForecast(String normalizedCity) {
+        List<OpenWeatherPayloadDecoder.Observation> observations = weatherProviderClient.fetchForecast(normalizedCity);
+        List<Weather> forecastList = new ArrayList<>(observations.size());
+        for (OpenWeatherPayloadDecoder.Observation observation : observations) {
+            Weather forecast = toWeather(observation, normalizedCity);
+            forecast.setTimestamp(LocalDateTime.parse(observation.forecastTime(), FORECAST_TIMESTAMP_FORMATTER));
+            forecastList.add(forecast);
         }
+        return forecastList;
     }
 
-    private String buildCurrentWeatherUrl(String city) {
-        return UriComponentsBuilder.fromHttpUrl(CURRENT_WEATHER_URL)
-                .queryParam("q", city)
-                .queryParam("appid", apiKey)
-                .encode(StandardCharsets.UTF_8)
-                .toUriString();
+    Weather mapCurrentWeather(OpenWeatherPayloadDecoder.Observation observation, String city) {
+        Weather currentWeather = toWeather(observation, city);
+        currentWeather.setTimestamp(LocalDateTime.now().withSecond(0).withNano(0));
+        return currentWeather;
     }
 
-    private String buildForecastUrl(String city) {
-        return UriComponentsBuilder.fromHttpUrl(FORECAST_URL)
-                .queryParam("q", city)
-                .queryParam("appid", apiKey)
-                .encode(StandardCharsets.UTF_8)
-                .toUriString();
+    private Weather toWeather(OpenWeatherPayloadDecoder.Observation observation, String city) {
+        Weather weather = new Weather();
+        weather.setCity(city);
+        weather.setTemperature(WeatherMath.roundToTwoDecimalPlaces(WeatherMath.kelvinToCelsius(observation.temperatureKelvin())));
+        weather.setFeelsLike(WeatherMath.roundToTwoDecimalPlaces(WeatherMath.kelvinToCelsius(observation.feelsLikeKelvin())));
+        weather.setWeatherCondition(observation.weatherCondition());
+        weather.setWeatherDescription(observation.weatherDescription());
+        weather.setWeatherCode(observation.weatherCode());
+        weather.setWeatherRisk(
+                determineWeatherRisk(
+                        observation.weatherCode(),
+                        observation.weatherCondition(),
+                        observation.weatherDescription(),
+                        observation.windSpeed(),
+                        weather.getTemperature()
+                )
+        );
+        weather.setHumidity(observation.humidity());
+        weather.setWindSpeed(observation.windSpeed());
+        return weather;
     }
 
-    private String normalizeCity(String city) {
-        if (city == null || city.isBlank()) {
-            throw new WeatherServiceException(HttpStatus.BAD_REQUEST, "City is required.");
+    private String evaluateThresholds(Weather weather) {
+        if (thresholdEngine.isEmpty()) {
+            return "No thresholds configured.";
         }
-        String normalized = city.trim();
-        return normalized.substring(0, 1).toUpperCase(Locale.ROOT) + normalized.substring(1);
+
+        String city = normalizeCity(weather.getCity());
+        List<ThresholdEngine.ThresholdBreach> breaches =
+                weatherMetrics.timeThresholdEvaluation(() -> thresholdEngine.evaluate(city, weather));
+        // Every rule advances its streak, but the check still answers with one alert: the first rule added.
+        return breaches.isEmpty() ? "No alerts triggered." : breaches.get(0).alertMessage();
     }
 
-    private double kelvinToCelsius(double kelvin) {
-        return kelvin - 273.15;
+    private List<WeatherAlert> buildThresholdAlerts(Weather weather) {
+        if (thresholdEngine.isEmpty()) {
+            return List.of();
+        }
+
+        String city = normalizeCity(weather.getCity());
+        List<WeatherAlert> alerts = new ArrayList<>();
+        List<ThresholdEngine.ThresholdBreach> breaches =
+                weatherMetrics.timeThresholdEvaluation(() -> thresholdEngine.evaluate(city, weather));
+        for (ThresholdEngine.ThresholdBreach breach : breaches) {
+            alerts.add(buildAlert(city, breach.rule().metric().key(), breach.alertMessage(), breach.observedValue(),
+                    breach.thresholdValue()));
+        }
+        return alerts;
     }
 
-    private double roundToTwoDecimalPlaces(double value) {
-        BigDecimal decimal = BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP);
-        return decimal.doubleValue();
+    private String currentWeatherKey(String city) {
+        return "current:" + city;
     }
 
-    private boolean isStale(LocalDateTime timestamp) {
-        if (timestamp == null) {
-            return true;
+    private String forecastKey(String city) {
+        return "forecast:" + city;
+    }
+
+    /**
+     * The city's registered spelling, so every casing and spacing of a name (and its aliases) maps to one
+     * cache key, one set of rows and one set of threshold counters.
+     */
+    String normalizeCity(String city) {
+        if (city == null || city.isBlank()) {
+            throw new WeatherServiceException(HttpStatus.BAD_REQUEST, "City is required.");
         }
-        return timestamp.isBefore(LocalDateTime.now().minusMinutes(weatherDataStaleMinutes));
+        return cityRegistry.canonicalName(city);
     }
 
-    private String determineWeatherRisk(
+    String determineWeatherRisk(
             int weatherCode,
             String weatherCondition,
             String weatherDescription,
             double windSpeed,
             double temperature
     ) {
-        String condition = weatherCondition == null ? "" : weatherCondition.toLowerCase(Locale.ROOT);
-        String description = weatherDescription == null ? "" : weatherDescription.toLowerCase(Locale.ROOT);
-
-        if (weatherCode >= 200 && weatherCode < 300) {
-            if (windSpeed >= 28) {
-                return "Cyclone/Severe Storm Risk";
-            }
-            return "Thunderstorm Risk";
-        }
-
-        if (weatherCode >= 600 && weatherCode < 700) {
-            return "Snow Risk";
-        }
-
-        if (weatherCode >= 700 && weatherCode < 800) {
-            if (description.contains("sand") || description.contains("dust")) {
-                return "Sandstorm/Dust Risk";
-            }
-            if (description.contains("tornado")) {
-                return "Cyclone/Tornado Risk";
-            }
-            if (description.contains("squall")) {
-                return "High Wind Squall Risk";
-            }
-        }
-
-        if (description.contains("hurricane") || description.contains("cyclone")) {
-            return "Cyclone Risk";
-        }
-
-        if (windSpeed >= 28) {
-            return "Cyclone-like Wind Risk";
-        }
-        if (windSpeed >= 17) {
-            return "Strong Wind Risk";
-        }
-
-        if ("rain".equals(condition) || "drizzle".equals(condition)) {
-            return "Rain Risk";
-        }
-
-        if ((condition.contains("clear") || description.contains("clear") || description.contains("sun"))
-                && weatherCode == 800
-                && temperature >= 35) {
-            return "Sunny/Heat Risk";
-        }
-
-        return "Low Risk";
+        return WeatherRiskClassifier.classify(weatherCode, weatherCondition, weatherDescription, windSpeed, temperature);
     }
 
-    private void saveSystemAlerts(Weather weather) {
+    List<WeatherAlert> buildSystemAlerts(Weather weather) {
         String city = normalizeCity(weather.getCity());
-        List<WeatherAlert> systemAlerts = new ArrayList<>();
+        String risk = weather.getWeatherRisk();
+        // Most samples raise nothing; only allocate the list once something fires.
+        List<WeatherAlert> systemAlerts = null;
 
         if (isSunnyAndHot(weather)) {
-            systemAlerts.add(buildSystemAlert(
+            systemAlerts = addAlert(systemAlerts, buildAlert(
                     city,
                     "Heat Advisory",
                     "Sunny and hot conditions detected",
@@ -587,7 +778,7 @@ public class WeatherService {
         }
 
         if (weather.getTemperature() >= 40) {
-            systemAlerts.add(buildSystemAlert(
+            systemAlerts = addAlert(systemAlerts, buildAlert(
                     city,
                     "Extreme Heat Warning",
                     "Extreme heat warning",
@@ -596,8 +787,8 @@ public class WeatherService {
             ));
         }
 
-        if (weather.getWeatherRisk() != null && weather.getWeatherRisk().toLowerCase(Locale.ROOT).contains("cyclone")) {
-            systemAlerts.add(buildSystemAlert(
+        if (WeatherRiskClassifier.riskMentions(risk, "cyclone")) {
+            systemAlerts = addAlert(systemAlerts, buildAlert(
                     city,
                     "Wind Risk Advisory",
                     "Cyclone-like weather pattern detected",
@@ -606,8 +797,8 @@ public class WeatherService {
             ));
         }
 
-        if (weather.getWeatherRisk() != null && weather.getWeatherRisk().toLowerCase(Locale.ROOT).contains("sandstorm")) {
-            systemAlerts.add(buildSystemAlert(
+        if (WeatherRiskClassifier.riskMentions(risk, "sandstorm")) {
+            systemAlerts = addAlert(systemAlerts, buildAlert(
                     city,
                     "Dust Risk Advisory",
                     "Sandstorm or dust-storm risk detected",
@@ -616,8 +807,8 @@ public class WeatherService {
             ));
         }
 
-        if (weather.getWeatherRisk() != null && weather.getWeatherRisk().toLowerCase(Locale.ROOT).contains("snow")) {
-            systemAlerts.add(buildSystemAlert(
+        if (WeatherRiskClassifier.riskMentions(risk, "snow")) {
+            systemAlerts = addAlert(systemAlerts, buildAlert(
                     city,
                     "Snow Risk Advisory",
                     "Snowfall risk detected",
@@ -626,12 +817,16 @@ public class WeatherService {
             ));
         }
 
-        for (WeatherAlert alert : systemAlerts) {
-            saveAlertIfNotRecentDuplicate(alert, 30);
-        }
+        return systemAlerts == null ? List.of() : systemAlerts;
+    }
+
+    private static List<WeatherAlert> addAlert(List<WeatherAlert> alerts, WeatherAlert alert) {
+        List<WeatherAlert> target = alerts == null ? new ArrayList<>(2) : alerts;
+        target.add(alert);
+        return target;
     }
 
-    private WeatherAlert buildSystemAlert(
+    private WeatherAlert buildAlert(
             String city,
             String alertType,
             String alertMessage,
@@ -648,24 +843,8 @@ public class WeatherService {
         return alert;
     }
 
-    private void saveAlertIfNotRecentDuplicate(WeatherAlert alert, long dedupMinutes) {
-        WeatherAlert previous = weatherAlertRepository.findTopByCityAndAlertTypeOrderByCreatedAtDesc(
-                alert.getCity(),
-                alert.getAlertType()
-        );
-
-        if (previous != null && previous.getCreatedAt() != null
-                && previous.getCreatedAt().isAfter(LocalDateTime.now().minusMinutes(dedupMinutes))) {
-            return;
-        }
-
-        weatherAlertRepository.save(alert);
-    }
-
     private boolean isSunnyAndHot(Weather weather) {
-        String condition = weather.getWeatherCondition() == null ? "" : weather.getWeatherCondition().toLowerCase(Locale.ROOT);
-        String description = weather.getWeatherDescription() == null ? "" : weather.getWeatherDescription().toLowerCase(Locale.ROOT);
-        boolean sunny = condition.contains("clear") || description.contains("clear") || description.contains("sun");
-        return sunny && weather.getTemperature() >= 35;
+        return weather.getTemperature() >= 35
+                && WeatherRiskClassifier.isSunny(weather.getWeatherCondition(), weather.getWeatherDescription());
     }
 }
@@ -0,0 +1,133 @@
+package com.nidak.weatherpulse.service;
+
+import com.nidak.weatherpulse.entity.Weather;
+import com.nidak.weatherpulse.entity.WeatherSummary;
+
+/**
+ * One-pass replacement for the six stream sweeps {@code calculateSummary} used to make.
+ * Produces bit-for-bit the same {@link WeatherSummary}: averages use the compensated (Kahan)
+ * summation of {@code DoubleStream.average()}, extremes fold through {@link Math#max}/{@link Math#min}
+ * like {@code DoubleStream.max()/min()}, and the dominant condition uses the groupingBy tie-break
+ * kept by {@link ConditionHistogram}.
+ *
+ * <p>Accumulators built over consecutive partitions can be {@link #merge merged} left to right.
+ * Counts, extremes and the dominant condition come out exactly as from one pass; the sums are combined
+ * the way a parallel {@code DoubleStream} combines them, so an average can differ from the one-pass value
+ * in the last bit, which can occasionally move it to the adjacent hundredth after rounding.
+ * Not thread-safe; give each partition its own.
+ */
+public final class WeatherSummaryAccumulator {
+
+    private long count;
+    private double maxTemperature;
+    private double minTemperature;
+    private final CompensatedSum temperature = new CompensatedSum();
+    private final CompensatedSum humidity = new CompensatedSum();
+    private final CompensatedSum windSpeed = new CompensatedSum();
+    private final ConditionHistogram conditions = new ConditionHistogram();
+
+    public static WeatherSummary summarize(Iterable<Weather> samples) {
+        WeatherSummaryAccumulator accumulator = new WeatherSummaryAccumulator();
+        for (Weather sample : samples) {
+            accumulator.add(sample);
+        }
+        return accumulator.toSummary();
+    }
+
+    public void add(Weather sample) {
+        double sampleTemperature = sample.getTemperature();
+        if (count == 0) {
+            maxTemperature = sampleTemperature;
+            minTemperature = sampleTemperature;
+        } else {
+            maxTemperature = Math.max(maxTemperature, sampleTemperature);
+            minTemperature = Math.min(minTemperature, sampleTemperature);
+        }
+        count++;
+        temperature.add(sampleTemperature);
+        humidity.add(sample.getHumidity());
+        windSpeed.add(sample.getWindSpeed());
+        conditions.increment(sample.getWeatherCondition());
+    }
+
+    /**
+     * Folds in an accumulator that covered the samples right after this one's.
+     */
+    public WeatherSummaryAccumulator merge(WeatherSummaryAccumulator other) {
+        if (other.count == 0) {
+            return this;
+        }
+        if (count == 0) {
+            maxTemperature = other.maxTemperature;
+            minTemperature = other.minTemperature;
+        } else {
+            maxTemperature = Math.max(maxTemperature, other.maxTemperature);
+            minTemperature = Math.min(minTemperature, other.minTemperature);
+        }
+        count += other.count;
+        temperature.merge(other.temperature);
+        humidity.merge(other.humidity);
+        windSpeed.merge(other.windSpeed);
+        conditions.merge(other.conditions);
+        return this;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public long dominantConditionCount() {
+        return conditions.countOf(conditions.dominantCondition());
+    }
+
+    public WeatherSummary toSummary() {
+        if (count == 0) {
+            return new WeatherSummary(0, 0, 0, "N/A", 0, 0);
+        }
+        return new WeatherSummary(
+                WeatherMath.roundToTwoDecimalPlaces(temperature.sum() / count),
+                WeatherMath.roundToTwoDecimalPlaces(maxTemperature),
+                WeatherMath.roundToTwoDecimalPlaces(minTemperature),
+                conditions.dominantCondition(),
+                WeatherMath.roundToTwoDecimalPlaces(humidity.sum() / count),
+                WeatherMath.roundToTwoDecimalPlaces(windSpeed.sum() / count)
+        );
+    }
+
+    /**
+     * The summation {@code DoubleStream.sum()/average()} performs (see {@code Collectors.sumWithCompensation}
+     * and {@code computeFinalSum}), including the plain sum it falls back to when the compensated one is NaN.
+     */
+    private static final class CompensatedSum {
+
+        private double sum;
+        private double compensation;
+        private double simpleSum;
+
+        void add(double value) {
+            addCompensated(value);
+            simpleSum += value;
+        }
+
+        void merge(CompensatedSum other) {
+            addCompensated(other.sum);
+            addCompensated(-other.compensation);
+            simpleSum += other.simpleSum;
+        }
+
+        double sum() {
+            double total = sum - compensation;
+            if (Double.isNaN(total) && Double.isInfinite(simpleSum)) {
+                return simpleSum;
+            }
+            return total;
+        }
+
+        private void addCompensated(double value) {
+            double corrected = value - compensation;
+            double next = sum + corrected;
+            compensation = (next - sum) - corrected;
+            sum = next;
+        }
+    }
+}
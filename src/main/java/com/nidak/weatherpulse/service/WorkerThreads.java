@@ -0,0 +1,35 @@
+package com.nidak.weatherpulse.service;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread factory and failure text shared by the service's background executors.
+ */
+final class WorkerThreads {
+
+    private WorkerThreads() {
+    }
+
+    /**
+     * Daemon threads named {@code prefix1}, {@code prefix2}, ..., so none of them holds up shutdown.
+     */
+    static ThreadFactory namedDaemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * What a failed task reports for its cities: the exception's message, or its type when it has none.
+     */
+    static String describe(Throwable throwable) {
+        if (throwable == null) {
+            return "Unknown error";
+        }
+        return throwable.getMessage() == null ? throwable.getClass().getSimpleName() : throwable.getMessage();
+    }
+}
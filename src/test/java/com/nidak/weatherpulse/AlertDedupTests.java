@@ -0,0 +1,108 @@
+package com.nidak.weatherpulse;
+
+import com.nidak.weatherpulse.entity.WeatherAlert;
+import com.nidak.weatherpulse.repository.WeatherAlertRepository;
+import com.nidak.weatherpulse.service.AlertDedupIndex;
+import com.nidak.weatherpulse.service.CityRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class AlertDedupTests {
+
+    private static final int DEDUP_MINUTES = 30;
+
+    @Autowired
+    private AlertDedupIndex alertDedupIndex;
+
+    @Autowired
+    private WeatherAlertRepository weatherAlertRepository;
+
+    @Autowired
+    private CityRegistry cityRegistry;
+
+    @Test
+    void dropsARepeatInsideTheWindow() {
+        LocalDateTime now = LocalDateTime.now();
+        WeatherAlert first = alert("Dupham", "HIGH_TEMPERATURE", now.minusMinutes(10));
+
+        assertThat(alertDedupIndex.filterRecentDuplicates(List.of(first))).containsExactly(first);
+        assertThat(alertDedupIndex.filterRecentDuplicates(List.of(alert("Dupham", "HIGH_TEMPERATURE", now)))).isEmpty();
+        // Another alert type for the same city is not a repeat.
+        WeatherAlert wind = alert("Dupham", "HIGH_WIND", now);
+        assertThat(alertDedupIndex.filterRecentDuplicates(List.of(wind))).containsExactly(wind);
+    }
+
+    @Test
+    void acceptsARepeatOnceTheWindowHasPassed() {
+        LocalDateTime now = LocalDateTime.now();
+        WeatherAlert first = weatherAlertRepository.save(alert("Laterby", "HIGH_TEMPERATURE", now.minusMinutes(DEDUP_MINUTES + 15)));
+        assertThat(alertDedupIndex.filterRecentDuplicates(List.of(first))).containsExactly(first);
+
+        WeatherAlert repeat = alert("Laterby", "HIGH_TEMPERATURE", now);
+        assertThat(alertDedupIndex.filterRecentDuplicates(List.of(repeat))).containsExactly(repeat);
+    }
+
+    @Test
+    void honoursAnAlertAnotherInstanceStored() {
+        LocalDateTime now = LocalDateTime.now();
+        // Written straight to the table, so this instance's memory has never seen it.
+        weatherAlertRepository.save(alert("Otherton", "HIGH_TEMPERATURE", now.minusMinutes(5)));
+
+        assertThat(alertDedupIndex.filterRecentDuplicates(List.of(alert("Otherton", "HIGH_TEMPERATURE", now)))).isEmpty();
+        assertThat(alertDedupIndex.filterRecentDuplicates(
+                List.of(alert("Otherton", "HIGH_TEMPERATURE", now.plusMinutes(1))))).isEmpty();
+    }
+
+    @Test
+    void warmUpLoadsTheWindowFromTheTable() {
+        LocalDateTime now = LocalDateTime.now();
+        WeatherAlert stored = weatherAlertRepository.save(alert("Warmton", "HIGH_TEMPERATURE", now.minusMinutes(5)));
+        AlertDedupIndex warmed = new AlertDedupIndex(weatherAlertRepository, DEDUP_MINUTES, 10_000);
+        warmed.warmUp();
+        // Gone from the table, so only the warmed-up memory can still reject the repeat.
+        weatherAlertRepository.delete(stored);
+
+        assertThat(warmed.filterRecentDuplicates(List.of(alert("Warmton", "HIGH_TEMPERATURE", now)))).isEmpty();
+        WeatherAlert cold = alert("Warmton", "HIGH_TEMPERATURE", now);
+        assertThat(new AlertDedupIndex(weatherAlertRepository, DEDUP_MINUTES, 10_000).filterRecentDuplicates(List.of(cold)))
+                .containsExactly(cold);
+    }
+
+    @Test
+    void anOverflowingIndexIsClearedAndFallsBackToTheTable() {
+        LocalDateTime now = LocalDateTime.now();
+        AlertDedupIndex small = new AlertDedupIndex(weatherAlertRepository, DEDUP_MINUTES, 1);
+        assertThat(small.filterRecentDuplicates(List.of(
+                alert("Spillby", "HIGH_TEMPERATURE", now.minusMinutes(2)),
+                alert("Spillby", "HIGH_WIND", now.minusMinutes(2))
+        ))).hasSize(2);
+        // Both entries are inside the window, so the overflow cleared them; nothing was stored, so this is new again.
+        WeatherAlert forgotten = alert("Spillby", "HIGH_WIND", now);
+        assertThat(small.filterRecentDuplicates(List.of(forgotten))).containsExactly(forgotten);
+
+        List<WeatherAlert> accepted = small.filterRecentDuplicates(List.of(
+                alert("Fullham", "HIGH_TEMPERATURE", now.minusMinutes(2)),
+                alert("Fullham", "HIGH_WIND", now.minusMinutes(2))
+        ));
+        assertThat(accepted).hasSize(2);
+        weatherAlertRepository.saveAll(accepted);
+
+        // Cleared again, but the stored rows still reject the repeats.
+        assertThat(small.filterRecentDuplicates(List.of(
+                alert("Fullham", "HIGH_TEMPERATURE", now),
+                alert("Fullham", "HIGH_WIND", now)
+        ))).isEmpty();
+    }
+
+    private WeatherAlert alert(String city, String alertType, LocalDateTime createdAt) {
+        long cityId = cityRegistry.register(city).id();
+        return new WeatherAlert(null, cityId, city, alertType, alertType + " in " + city, "40.0", "35.0", createdAt);
+    }
+}
@@ -0,0 +1,188 @@
+package com.nidak.weatherpulse;
+
+import com.nidak.weatherpulse.dto.HistoryPoint;
+import com.nidak.weatherpulse.entity.DailyWeatherSummaryEntity;
+import com.nidak.weatherpulse.entity.ThresholdBreachState;
+import com.nidak.weatherpulse.entity.Weather;
+import com.nidak.weatherpulse.repository.DailyWeatherSummaryRepository;
+import com.nidak.weatherpulse.repository.ThresholdBreachStateRepository;
+import com.nidak.weatherpulse.service.CityKeyMigration;
+import com.nidak.weatherpulse.service.CityRegistry;
+import com.nidak.weatherpulse.service.WeatherIngestPipeline;
+import com.nidak.weatherpulse.service.WeatherService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A tiny migration batch makes the legacy rows below span several id ranges.
+ */
+@SpringBootTest(properties = "weather.migration.batch-size=2")
+class CityRegistryTests {
+
+    private static final LocalDateTime HOUR = LocalDateTime.of(2024, 5, 2, 9, 0);
+
+    @Autowired
+    private WeatherIngestPipeline weatherIngestPipeline;
+
+    @Autowired
+    private WeatherService weatherService;
+
+    @Autowired
+    private CityRegistry cityRegistry;
+
+    @Autowired
+    private CityKeyMigration cityKeyMigration;
+
+    @Autowired
+    private DailyWeatherSummaryRepository dailyWeatherSummaryRepository;
+
+    @Autowired
+    private ThresholdBreachStateRepository thresholdBreachStateRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void spellingsOfOneNameShareACity() {
+        Weather first = write("port  blair", HOUR.plusMinutes(5), 28);
+        Weather second = write("PORT BLAIR ", HOUR.plusMinutes(10), 30);
+
+        assertThat(first.getCity()).isEqualTo("Port Blair");
+        assertThat(second.getCityId()).isEqualTo(first.getCityId());
+        assertThat(second.getCity()).isSameAs(first.getCity());
+
+        assertThat(weatherService.getWeatherDataForCity("Port Blair", HOUR, HOUR.plusHours(1))).hasSize(2);
+        DailyWeatherSummaryEntity summary = weatherService.getDailySummary(" port blair", HOUR.toLocalDate());
+        assertThat(summary.getCity()).isEqualTo("Port Blair");
+        assertThat(summary.getTotalSamples()).isEqualTo(2);
+        assertThat(summary.getAverageTemperature()).isEqualTo(29.0);
+    }
+
+    @Test
+    void movesLegacyRowsOntoOneCityAndMergesTheirAggregates() {
+        // Rows as the old name-keyed schema left them: two spellings of the same city, no city_id.
+        LocalDate day = HOUR.toLocalDate();
+        insertLegacySample(910_000_001L, "old harbour", HOUR.plusMinutes(5), 10);
+        insertLegacySample(910_000_002L, "Old harbour", HOUR.plusMinutes(20), 14);
+        insertLegacyRollup(910_000_001L, "old harbour", 1, 10);
+        insertLegacyRollup(910_000_002L, "Old harbour", 1, 14);
+        insertLegacySummary("old harbour", day, 1, 10);
+        insertLegacySummary("Old harbour", day, 1, 14);
+
+        cityKeyMigration.migrate();
+
+        CityRegistry.CityRef city = cityRegistry.find("OLD HARBOUR");
+        assertThat(city).isNotNull();
+        assertThat(jdbcTemplate.queryForList(
+                "select distinct city_id from weather_data where city in ('old harbour', 'Old harbour')", Long.class))
+                .containsExactly(city.id());
+        assertThat(weatherService.getWeatherDataForCity("old harbour", HOUR, HOUR.plusHours(1)))
+                .extracting(Weather::getCity)
+                .containsOnly(city.name())
+                .hasSize(2);
+
+        List<DailyWeatherSummaryEntity> summaries = dailyWeatherSummaryRepository.findByCityIdOrderBySummaryDateAscIdAsc(city.id());
+        assertThat(summaries).hasSize(1);
+        assertThat(summaries.get(0).getTotalSamples()).isEqualTo(2);
+        assertThat(summaries.get(0).getAverageTemperature()).isEqualTo(12.0);
+        assertThat(summaries.get(0).getMinTemperature()).isEqualTo(10.0);
+        assertThat(summaries.get(0).getMaxTemperature()).isEqualTo(14.0);
+
+        List<HistoryPoint> hourly = weatherService.getWeatherHistory("Old Harbour", HOUR.minusDays(3), HOUR.plusDays(3)).points();
+        assertThat(hourly).hasSize(1);
+        assertThat(hourly.get(0).samples()).isEqualTo(2);
+        assertThat(hourly.get(0).averageTemperature()).isEqualTo(12.0);
+    }
+
+    @Test
+    void dropsObservationsThatMergingSpellingsDuplicated() {
+        // Both spellings were polled in the same minute, and each counted its reading in its own aggregates.
+        LocalDateTime minute = HOUR.plusMinutes(15);
+        insertLegacySample(910_000_101L, "twin falls", minute, 20);
+        insertLegacySample(910_000_105L, "Twin falls", minute, 20);
+        insertLegacySample(910_000_109L, "Twin falls", HOUR.plusMinutes(45), 24);
+        insertLegacyRollup(910_000_101L, "twin falls", 1, 20);
+        insertLegacyRollup(910_000_105L, "Twin falls", 2, 22);
+        insertLegacySummary("twin falls", HOUR.toLocalDate(), 1, 20);
+        insertLegacySummary("Twin falls", HOUR.toLocalDate(), 2, 22);
+
+        cityKeyMigration.migrate();
+
+        CityRegistry.CityRef city = cityRegistry.find("Twin Falls");
+        assertThat(jdbcTemplate.queryForList("select id from weather_data where city_id = ? order by id", Long.class, city.id()))
+                .containsExactly(910_000_101L, 910_000_109L);
+        List<DailyWeatherSummaryEntity> summaries = dailyWeatherSummaryRepository.findByCityIdOrderBySummaryDateAscIdAsc(city.id());
+        assertThat(summaries).singleElement().satisfies(summary -> {
+            assertThat(summary.getTotalSamples()).isEqualTo(2);
+            assertThat(summary.getAverageTemperature()).isEqualTo(22.0);
+        });
+        assertThat(weatherService.getWeatherHistory("Twin Falls", HOUR.minusDays(3), HOUR.plusDays(3)).points())
+                .singleElement()
+                .satisfies(hour -> assertThat(hour.samples()).isEqualTo(2));
+    }
+
+    @Test
+    void movesLegacyBreachStreaksOntoTheRegisteredSpelling() {
+        // The same threshold's streak under two spellings, the second seen more recently, and one under a third.
+        insertLegacyBreachState(910_000_201L, 910_001L, "cedar point", 4, HOUR);
+        insertLegacyBreachState(910_000_202L, 910_001L, "CEDAR  POINT", 1, HOUR.plusMinutes(30));
+        insertLegacyBreachState(910_000_203L, 910_002L, "cedar Point ", 2, HOUR);
+
+        cityKeyMigration.migrate();
+
+        CityRegistry.CityRef city = cityRegistry.find("Cedar Point");
+        assertThat(city).isNotNull();
+        List<ThresholdBreachState> states = thresholdBreachStateRepository.findAllById(
+                List.of(910_000_201L, 910_000_202L, 910_000_203L));
+        assertThat(states).extracting(ThresholdBreachState::getCity).containsOnly(city.name());
+        assertThat(thresholdBreachStateRepository.findByThresholdIdAndCity(910_001L, city.name()))
+                .hasValueSatisfying(state -> {
+                    assertThat(state.getBreachCount()).isEqualTo(1);
+                    assertThat(state.getUpdatedAt()).isEqualTo(HOUR.plusMinutes(30));
+                });
+        assertThat(thresholdBreachStateRepository.findByThresholdIdAndCity(910_002L, city.name()))
+                .hasValueSatisfying(state -> assertThat(state.getBreachCount()).isEqualTo(2));
+        assertThat(states).hasSize(2);
+    }
+
+    private Weather write(String city, LocalDateTime timestamp, double temperature) {
+        return WeatherSamples.write(weatherIngestPipeline, city, timestamp, temperature);
+    }
+
+    private void insertLegacySample(long id, String city, LocalDateTime timestamp, double temperature) {
+        jdbcTemplate.update("insert into weather_data (id, city, temperature, feels_like, weather_condition, "
+                        + "weather_description, weather_code, weather_risk, humidity, wind_speed, timestamp) "
+                        + "values (?, ?, ?, ?, 'Clear', 'clear sky', 800, 'Low Risk', 50, 3, ?)",
+                id, city, temperature, temperature, timestamp);
+    }
+
+    private void insertLegacyRollup(long id, String city, int samples, double temperature) {
+        jdbcTemplate.update("insert into hourly_weather_rollup (id, city, hour_start, sample_count, temperature_sum, "
+                        + "max_temperature, min_temperature, humidity_sum, wind_speed_sum, condition_histogram, updated_at) "
+                        + "values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                id, city, HOUR, samples, temperature * samples, temperature, temperature, 50.0 * samples, 3.0 * samples,
+                "Clear=" + samples, LocalDateTime.now());
+    }
+
+    private void insertLegacyBreachState(long id, long thresholdId, String city, int count, LocalDateTime updatedAt) {
+        jdbcTemplate.update("insert into threshold_breach_state (id, threshold_id, city, breach_count, updated_at) "
+                + "values (?, ?, ?, ?, ?)", id, thresholdId, city, count, updatedAt);
+    }
+
+    private void insertLegacySummary(String city, LocalDate day, int samples, double temperature) {
+        jdbcTemplate.update("insert into daily_weather_summary (city, summary_date, average_temperature, max_temperature, "
+                        + "min_temperature, dominant_weather_condition, dominant_weather_condition_reason, average_humidity, "
+                        + "average_wind_speed, total_samples, temperature_sum, humidity_sum, wind_speed_sum, "
+                        + "condition_histogram, updated_at) values (?, ?, ?, ?, ?, 'Clear', 'legacy', 50, 3, ?, ?, ?, ?, ?, ?)",
+                city, day, temperature, temperature, temperature, samples, temperature * samples, 50.0 * samples,
+                3.0 * samples, "Clear=" + samples, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,128 @@
+package com.nidak.weatherpulse;
+
+import com.nidak.weatherpulse.entity.DailyWeatherSummaryEntity;
+import com.nidak.weatherpulse.entity.Weather;
+import com.nidak.weatherpulse.repository.DailyWeatherSummaryRepository;
+import com.nidak.weatherpulse.service.CityRegistry;
+import com.nidak.weatherpulse.service.DailySummaryAggregator;
+import com.nidak.weatherpulse.service.WeatherIngestPipeline;
+import com.nidak.weatherpulse.service.WeatherService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class DailySummaryTests {
+
+    // Inside raw retention, so a rebuild reads the raw samples.
+    private static final LocalDate DAY = LocalDate.now().minusDays(2);
+
+    @Autowired
+    private WeatherIngestPipeline weatherIngestPipeline;
+
+    @Autowired
+    private WeatherService weatherService;
+
+    @Autowired
+    private CityRegistry cityRegistry;
+
+    @Autowired
+    private DailySummaryAggregator dailySummaryAggregator;
+
+    @Autowired
+    private DailyWeatherSummaryRepository dailyWeatherSummaryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void foldsEachNewSampleIntoTheDayRow() {
+        write("Foldham", 9, 10);
+        write("Foldham", 12, 16);
+        write("Foldham", 15, 13);
+
+        DailyWeatherSummaryEntity summary = storedSummary("Foldham");
+        assertThat(summary.getTotalSamples()).isEqualTo(3);
+        assertThat(summary.getAverageTemperature()).isEqualTo(13.0);
+        assertThat(summary.getMinTemperature()).isEqualTo(10.0);
+        assertThat(summary.getMaxTemperature()).isEqualTo(16.0);
+    }
+
+    @Test
+    void rebuildRepairsADayRowFromItsSamples() {
+        write("Mendham", 9, 20);
+        write("Mendham", 10, 24);
+        jdbcTemplate.update("update daily_weather_summary set total_samples = 7, temperature_sum = 1, max_temperature = 99 "
+                + "where city_id = ? and summary_date = ?", cityRegistry.idOf("Mendham"), DAY);
+
+        DailyWeatherSummaryEntity rebuilt = weatherService.rebuildDailySummary("Mendham", DAY);
+
+        assertThat(rebuilt.getTotalSamples()).isEqualTo(2);
+        assertThat(rebuilt.getAverageTemperature()).isEqualTo(22.0);
+        assertThat(storedSummary("Mendham").getMaxTemperature()).isEqualTo(24.0);
+    }
+
+    @Test
+    void rebuildsRacingTheIngestWriterLeaveOneRowWithEverySample() throws Exception {
+        AtomicBoolean writing = new AtomicBoolean(true);
+        CompletableFuture<Integer> rebuilds = CompletableFuture.supplyAsync(() -> {
+            int count = 0;
+            while (writing.get()) {
+                weatherService.rebuildDailySummary("Racebury", DAY);
+                count++;
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(5));
+            }
+            return count;
+        });
+
+        List<CompletableFuture<Weather>> writes = new ArrayList<>();
+        for (int minute = 0; minute < 40; minute++) {
+            writes.add(weatherIngestPipeline.submit(
+                    WeatherSamples.sample("Racebury", DAY.atTime(8, minute), 10 + minute % 5), List.of(), List.of()));
+        }
+        for (CompletableFuture<Weather> write : writes) {
+            weatherIngestPipeline.await(write);
+        }
+        writing.set(false);
+        assertThat(rebuilds.get()).isPositive();
+
+        DailyWeatherSummaryEntity summary = storedSummary("Racebury");
+        assertThat(summary.getTotalSamples()).isEqualTo(40);
+        assertThat(summary.getAverageTemperature()).isEqualTo(12.0);
+    }
+
+    @Test
+    void aSecondRowForTheSameDayIsRejected() {
+        write("Keyport", 9, 18);
+        // Computed but not stored, so saving it inserts a second row.
+        DailyWeatherSummaryEntity duplicate = dailySummaryAggregator.summarize("Keyport", DAY);
+
+        assertThatThrownBy(() -> dailyWeatherSummaryRepository.save(duplicate))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    private void write(String city, int hour, double temperature) {
+        WeatherSamples.write(weatherIngestPipeline, city, DAY.atTime(hour, 0), temperature);
+    }
+
+    private DailyWeatherSummaryEntity storedSummary(String city) {
+        long cityId = cityRegistry.idOf(city);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from daily_weather_summary where city_id = ? "
+                + "and summary_date = ?", Integer.class, cityId, DAY)).isEqualTo(1);
+        return dailyWeatherSummaryRepository.findByCityIdAndSummaryDate(cityId, DAY).orElseThrow();
+    }
+}
@@ -0,0 +1,57 @@
+package com.nidak.weatherpulse;
+
+import com.nidak.weatherpulse.entity.Weather;
+import com.nidak.weatherpulse.repository.WeatherRepository;
+import com.nidak.weatherpulse.service.CityRegistry;
+import com.nidak.weatherpulse.service.LatestWeatherCache;
+import com.nidak.weatherpulse.service.WeatherService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {"weather.tracked-cities=Warmbury,Coldford", "weather.data-stale-minutes=60"})
+class LatestWeatherWarmUpTests {
+
+    @Autowired
+    private WeatherService weatherService;
+
+    @Autowired
+    private LatestWeatherCache latestWeatherCache;
+
+    @Autowired
+    private WeatherRepository weatherRepository;
+
+    @Autowired
+    private CityRegistry cityRegistry;
+
+    @Test
+    void startupWarmUpLoadsTheNewestStoredRowOfEachTrackedCity() {
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        // Saved around the ingest pipeline, so only the warm-up can put them in the cache.
+        store("Warmbury", now.minusMinutes(50), 18);
+        store("Warmbury", now.minusMinutes(30), 21);
+        store("Coldford", now.minusHours(2), 9);
+        assertThat(latestWeatherCache.latestTimestamp("Warmbury")).isNull();
+
+        weatherService.warmUpTrackedCitiesOnStartup();
+
+        // Thirty minutes old is fresh under weather.data-stale-minutes=60; two hours is not.
+        Weather warmbury = latestWeatherCache.getFresh("Warmbury");
+        assertThat(warmbury.getTemperature()).isEqualTo(21);
+        assertThat(warmbury.getTimestamp()).isEqualTo(now.minusMinutes(30));
+        assertThat(latestWeatherCache.latestTimestamp("Coldford")).isEqualTo(now.minusHours(2));
+        assertThat(latestWeatherCache.getFresh("Coldford")).isNull();
+        // A fresh cached row is answered without a provider call, which this context could not make.
+        assertThat(weatherService.getLatestWeatherForCity("warmbury").getTemperature()).isEqualTo(21);
+    }
+
+    private void store(String city, LocalDateTime timestamp, double temperature) {
+        Weather sample = WeatherSamples.sample(city, timestamp, temperature);
+        sample.setCityId(cityRegistry.register(city).id());
+        weatherRepository.save(sample);
+    }
+}
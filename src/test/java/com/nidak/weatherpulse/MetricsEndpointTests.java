@@ -0,0 +1,34 @@
+package com.nidak.weatherpulse;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Metric exporters are off in tests unless asked for.
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class MetricsEndpointTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void exposesApplicationMetersInPrometheusFormat() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("weather_ingest_batch_write_seconds_bucket")))
+                .andExpect(content().string(containsString("weather_thresholds_evaluation_seconds_count")))
+                .andExpect(content().string(containsString("weather_summary_update_seconds_count{application=\"weatherpulse-api\",mode=\"rebuild\"}")))
+                .andExpect(content().string(containsString("weather_alerts_emitted_total{application=\"weatherpulse-api\",source=\"system\"}")))
+                .andExpect(content().string(containsString("weather_alerts_deduped_total")));
+    }
+}
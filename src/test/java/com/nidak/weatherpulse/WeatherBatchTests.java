@@ -0,0 +1,49 @@
+package com.nidak.weatherpulse;
+
+import com.nidak.weatherpulse.service.WeatherIngestPipeline;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.nullValue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "weather.batch.max-cities=3")
+@AutoConfigureMockMvc
+class WeatherBatchTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private WeatherIngestPipeline weatherIngestPipeline;
+
+    @Test
+    void resolvesEachCityAndReportsFailuresInPlace() throws Exception {
+        WeatherSamples.write(weatherIngestPipeline, "Batchford", LocalDateTime.now().withNano(0), 21);
+
+        // No API key in tests, so the city without stored data cannot be fetched.
+        mockMvc.perform(get("/api/weather/batch").param("cities", "batchford,Nobatchville,Batchford"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.requested").value(2))
+                .andExpect(jsonPath("$.data.succeeded").value(1))
+                .andExpect(jsonPath("$.data.failed").value(1))
+                .andExpect(jsonPath("$.data.cities[0].city").value("Batchford"))
+                .andExpect(jsonPath("$.data.cities[0].current.temperature").value(21.0))
+                .andExpect(jsonPath("$.data.cities[0].dailySummary.totalSamples").value(1))
+                .andExpect(jsonPath("$.data.cities[0].error").value(nullValue()))
+                .andExpect(jsonPath("$.data.cities[1].city").value("Nobatchville"))
+                .andExpect(jsonPath("$.data.cities[1].current").value(nullValue()))
+                .andExpect(jsonPath("$.data.cities[1].error").value(containsString("API key")));
+
+        mockMvc.perform(get("/api/weather/batch").param("cities", "A,B,C,D"))
+                .andExpect(status().isBadRequest());
+    }
+}
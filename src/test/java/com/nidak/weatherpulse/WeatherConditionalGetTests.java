@@ -0,0 +1,84 @@
+package com.nidak.weatherpulse;
+
+import com.nidak.weatherpulse.repository.DailyWeatherSummaryRepository;
+import com.nidak.weatherpulse.service.WeatherIngestPipeline;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class WeatherConditionalGetTests {
+
+    private static final LocalDate PAST_DAY = LocalDate.of(2022, 3, 1);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private WeatherIngestPipeline weatherIngestPipeline;
+
+    @Autowired
+    private DailyWeatherSummaryRepository dailyWeatherSummaryRepository;
+
+    @Test
+    void servesFinalizedDaysFromCacheUntilTheDayIsWrittenAgain() throws Exception {
+        write(PAST_DAY.atTime(9, 0));
+
+        String etag = mockMvc.perform(get("/api/weather/daily-summary/Cachebury").param("date", PAST_DAY.toString()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("max-age=604800")))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andExpect(jsonPath("$.data.totalSamples").value(1))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/weather/daily-summary/Cachebury")
+                        .param("date", PAST_DAY.toString())
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        // A late sample for the day drops the cached body.
+        write(PAST_DAY.atTime(15, 0));
+        mockMvc.perform(get("/api/weather/daily-summary/Cachebury")
+                        .param("date", PAST_DAY.toString())
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.totalSamples").value(2));
+
+        // Reading a finalized day with no row computes it without storing one.
+        mockMvc.perform(get("/api/weather/daily-summary/Emptyville").param("date", PAST_DAY.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.totalSamples").value(0));
+        assertThat(dailyWeatherSummaryRepository.findAll())
+                .noneMatch(summary -> summary.getCity().equals("Emptyville"));
+    }
+
+    @Test
+    void revalidatesLiveDataByEtag() throws Exception {
+        String etag = mockMvc.perform(get("/api/weather/alerts").param("city", "Cachebury"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isNotBlank();
+
+        mockMvc.perform(get("/api/weather/alerts").param("city", "Cachebury").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+    }
+
+    private void write(LocalDateTime timestamp) {
+        WeatherSamples.write(weatherIngestPipeline, "Cachebury", timestamp, 18);
+    }
+}
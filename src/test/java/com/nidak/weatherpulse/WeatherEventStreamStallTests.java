@@ -0,0 +1,108 @@
+package com.nidak.weatherpulse;
+
+import com.nidak.weatherpulse.entity.Weather;
+import com.nidak.weatherpulse.service.WeatherEventBroadcaster;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "weather.events.dispatch-threads=1",
+                "weather.events.subscriber-buffer=100000",
+                "weather.events.heartbeat-ms=1000"
+        }
+)
+class WeatherEventStreamStallTests {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private WeatherEventBroadcaster weatherEventBroadcaster;
+
+    @Test
+    void aClientThatStopsReadingDoesNotHoldUpAHealthyOne() throws Exception {
+        try (Socket stalled = new Socket()) {
+            // A tiny receive window and no reads, so the server's writes to it soon block.
+            stalled.setReceiveBufferSize(1024);
+            stalled.connect(new InetSocketAddress("localhost", port));
+            OutputStream request = stalled.getOutputStream();
+            request.write(("GET /api/weather/stream HTTP/1.1\r\nHost: localhost:" + port + "\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII));
+            request.flush();
+            waitUntilSubscribers(1);
+
+            // Several megabytes, far more than the socket buffers between the two ends hold.
+            List<Weather> flood = new ArrayList<>();
+            for (int i = 0; i < 4000; i++) {
+                flood.add(observation("Floodham", i));
+            }
+            weatherEventBroadcaster.publish(flood, List.of());
+            Thread.sleep(300);
+
+            HttpResponse<InputStream> healthy = HttpClient.newHttpClient().send(
+                    HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/weather/stream?cities=Healthton")).build(),
+                    HttpResponse.BodyHandlers.ofInputStream());
+            try (BufferedReader events = new BufferedReader(new InputStreamReader(healthy.body(), StandardCharsets.UTF_8))) {
+                CompletableFuture<String> delivered = CompletableFuture.supplyAsync(() -> firstLineWith(events, "Healthton"));
+                waitUntilSubscribers(2);
+                weatherEventBroadcaster.publish(List.of(observation("Healthton", 21)), List.of());
+
+                assertThat(delivered.get(5, TimeUnit.SECONDS)).contains("\"temperature\":21.0");
+                // The stalled client is dropped by the heartbeat while its write is still blocked.
+                waitUntilSubscribers(1);
+            }
+        }
+    }
+
+    private void waitUntilSubscribers(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (weatherEventBroadcaster.getSubscriberCount() != expected) {
+            assertThat(System.nanoTime()).as("%d subscribers in time", expected).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private static String firstLineWith(BufferedReader events, String text) {
+        try {
+            String line;
+            while ((line = events.readLine()) != null) {
+                if (line.contains(text)) {
+                    return line;
+                }
+            }
+            throw new IllegalStateException("Stream ended before " + text);
+        } catch (IOException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    private static Weather observation(String city, double temperature) {
+        Weather observation = WeatherSamples.sample(city, LocalDateTime.now().withNano(0), temperature);
+        observation.setWeatherDescription("x".repeat(4000));
+        return observation;
+    }
+}
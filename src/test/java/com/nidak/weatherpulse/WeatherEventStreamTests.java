@@ -0,0 +1,74 @@
+package com.nidak.weatherpulse;
+
+import com.nidak.weatherpulse.service.WeatherIngestPipeline;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class WeatherEventStreamTests {
+
+    private static final Pattern OBSERVATION_ID = Pattern.compile("id:(\\d+)\\nevent:observation\\n");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private WeatherIngestPipeline weatherIngestPipeline;
+
+    @Test
+    void pushesMatchingObservationsAndReplaysAfterLastEventId() throws Exception {
+        MockHttpServletResponse live = mockMvc.perform(get("/api/weather/stream").param("cities", "streamton"))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+
+        write("Otherton", 5);
+        write("Streamton", 25);
+        String body = awaitContent(live, "\"temperature\":25.0");
+        assertThat(body).startsWith(":heartbeat");
+        assertThat(body).contains("\"city\":\"Streamton\"").doesNotContain("Otherton");
+
+        Matcher matcher = OBSERVATION_ID.matcher(body);
+        assertThat(matcher.find()).isTrue();
+        long eventId = Long.parseLong(matcher.group(1));
+
+        MockHttpServletResponse resumed = mockMvc.perform(get("/api/weather/stream")
+                        .param("cities", "Streamton")
+                        .header("Last-Event-ID", Long.toString(eventId - 1)))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+        assertThat(awaitContent(resumed, "id:" + eventId + "\n")).contains("\"temperature\":25.0");
+
+        MockHttpServletResponse tooOld = mockMvc.perform(get("/api/weather/stream").header("Last-Event-ID", "1"))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+        awaitContent(tooOld, "event:resync");
+    }
+
+    private static String awaitContent(MockHttpServletResponse response, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        String content = response.getContentAsString();
+        while (!content.contains(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            content = response.getContentAsString();
+        }
+        assertThat(content).contains(expected);
+        return content;
+    }
+
+    private void write(String city, double temperature) {
+        WeatherSamples.write(weatherIngestPipeline, city, LocalDateTime.now().withNano(0), temperature);
+    }
+}
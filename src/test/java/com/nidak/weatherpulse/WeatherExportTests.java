@@ -0,0 +1,88 @@
+package com.nidak.weatherpulse;
+
+import com.nidak.weatherpulse.entity.Weather;
+import com.nidak.weatherpulse.service.WeatherIngestPipeline;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// A tiny page size so the export has to walk several keyset pages.
+@SpringBootTest(properties = "weather.export.page-size=2")
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class WeatherExportTests {
+
+    private static final LocalDateTime START = LocalDateTime.of(2023, 5, 1, 0, 0);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private WeatherIngestPipeline weatherIngestPipeline;
+
+    @BeforeAll
+    void storeObservations() {
+        for (int i = 0; i < 5; i++) {
+            write("Exportburg", START.plusHours(i), 10 + i, i == 2 ? "rain, \"heavy\"" : "clear sky");
+        }
+        write("Exportham", START.plusMinutes(30), 5, "mist");
+        write("Exportham", START.plusDays(3), 6, "mist");
+    }
+
+    @Test
+    void streamsEveryRowInRangeAsCsv() throws Exception {
+        String body = mockMvc.perform(get("/api/weather/export")
+                        .param("cities", "exportburg,Exportham")
+                        .param("from", "2023-05-01")
+                        .param("to", "2023-05-02")
+                        .param("format", "csv"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andReturn().getResponse().getContentAsString();
+
+        List<String> lines = body.lines().toList();
+        assertThat(lines).hasSize(7);
+        assertThat(lines.get(0)).startsWith("city,timestamp,");
+        assertThat(lines.get(1)).startsWith("Exportburg,2023-05-01T00:00:00,10.0,");
+        assertThat(lines.get(3)).contains(",\"rain, \"\"heavy\"\"\",");
+        assertThat(lines.get(5)).startsWith("Exportburg,2023-05-01T04:00:00,14.0,");
+        assertThat(lines.get(6)).startsWith("Exportham,2023-05-01T00:30:00,5.0,");
+    }
+
+    @Test
+    void streamsNdjsonAndRejectsUnknownFormats() throws Exception {
+        String body = mockMvc.perform(get("/api/weather/export")
+                        .param("cities", "Exportburg")
+                        .param("from", "2023-05-01T01:00")
+                        .param("to", "2023-05-01T03:00"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(body.lines().toList())
+                .hasSize(3)
+                .allSatisfy(line -> assertThat(line).startsWith("{\"city\":\"Exportburg\""))
+                .first().asString().contains("\"timestamp\":\"2023-05-01T01:00:00\"");
+
+        mockMvc.perform(get("/api/weather/export").param("from", "2023-05-01").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private void write(String city, LocalDateTime timestamp, double temperature, String description) {
+        Weather sample = WeatherSamples.sample(city, timestamp, temperature);
+        sample.setWeatherDescription(description);
+        WeatherSamples.write(weatherIngestPipeline, sample);
+    }
+}
@@ -0,0 +1,193 @@
+package com.nidak.weatherpulse;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nidak.weatherpulse.dto.PollCycleReport;
+import com.nidak.weatherpulse.entity.Weather;
+import com.nidak.weatherpulse.service.WeatherService;
+import com.nidak.weatherpulse.support.ProviderFixtures;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Polls against a local stub that replays the recorded {@code /group} response, and serves single-city
+ * lookups from the same entries. Bombay is served Mumbai's entry, so both resolve to one provider id.
+ */
+@SpringBootTest(properties = {"weather.tracked-cities=Delhi,Mumbai,Bombay", "openweather.api.key=stub-key"})
+class WeatherGroupPollingTests {
+
+    private static final JsonNode GROUP = readGroupFixture();
+    private static final AtomicInteger SINGLE_CALLS = new AtomicInteger();
+    private static final AtomicInteger GROUP_CALLS = new AtomicInteger();
+    private static final AtomicReference<String> LAST_GROUP_QUERY = new AtomicReference<>();
+    private static final HttpServer STUB = startStub();
+
+    private static volatile boolean groupFails;
+    private static volatile CountDownLatch mumbaiRequested;
+    private static volatile CountDownLatch groupAnswered;
+
+    @Autowired
+    private WeatherService weatherService;
+
+    @DynamicPropertySource
+    static void providerBaseUrl(DynamicPropertyRegistry registry) {
+        registry.add("openweather.api.base-url", () -> "http://127.0.0.1:" + STUB.getAddress().getPort() + "/data/2.5");
+    }
+
+    @AfterAll
+    static void stopStub() {
+        STUB.stop(0);
+    }
+
+    @Test
+    void pollsCitiesWithKnownIdsThroughOneGroupCall() throws Exception {
+        // The startup poll fetched each city on its own, which is how their ids were learned.
+        PollCycleReport report = pollWhenNoCycleIsRunning();
+
+        assertThat(report.succeededCities()).containsExactly("Delhi", "Mumbai");
+        assertThat(GROUP_CALLS).hasValue(1);
+        assertThat(SINGLE_CALLS).hasValue(0);
+        assertThat(LAST_GROUP_QUERY.get()).contains("id=1273294,1275339");
+
+        Weather mumbai = weatherService.getLatestWeatherForCity("Mumbai");
+        assertThat(mumbai.getTemperature()).isEqualTo(29.99);
+        assertThat(mumbai.getWeatherCondition()).isEqualTo("Clouds");
+    }
+
+    @Test
+    void reportsACityWhoseProviderIdIsAlreadyInTheGroup() throws Exception {
+        PollCycleReport report = pollWhenNoCycleIsRunning();
+
+        assertThat(report.failedCities()).containsOnlyKeys("Bombay");
+        assertThat(report.failedCities().get("Bombay")).contains("1275339", "Mumbai");
+    }
+
+    @Test
+    void aFailedGroupCallFailsOnlyTheCitiesInIt() throws Exception {
+        mumbaiRequested = new CountDownLatch(1);
+        groupAnswered = new CountDownLatch(1);
+        groupFails = true;
+        try {
+            // A user fetch of Mumbai is still in flight, so the poll reads Mumbai from it instead of the group call.
+            CompletableFuture<Weather> userFetch = CompletableFuture.supplyAsync(() -> weatherService.fetchWeatherData("Mumbai"));
+            assertThat(mumbaiRequested.await(5, TimeUnit.SECONDS)).isTrue();
+
+            PollCycleReport report = pollWhenNoCycleIsRunning();
+
+            assertThat(report.failedCities()).containsOnlyKeys("Delhi", "Bombay");
+            assertThat(report.failedCities().get("Delhi")).contains("500");
+            assertThat(report.succeededCities()).containsExactly("Mumbai");
+            assertThat(userFetch.get(5, TimeUnit.SECONDS).getTemperature()).isEqualTo(29.99);
+        } finally {
+            groupFails = false;
+            mumbaiRequested = null;
+        }
+    }
+
+    private PollCycleReport pollWhenNoCycleIsRunning() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        PollCycleReport previous = weatherService.getLastPollCycleReport();
+        while (previous == null && System.currentTimeMillis() < deadline) {
+            // The startup poll has not finished yet.
+            Thread.sleep(50);
+            previous = weatherService.getLastPollCycleReport();
+        }
+        while (true) {
+            SINGLE_CALLS.set(0);
+            GROUP_CALLS.set(0);
+            weatherService.fetchWeatherForAllCities();
+            PollCycleReport report = weatherService.getLastPollCycleReport();
+            // A skipped cycle leaves the last report in place; that happens while another cycle is still running.
+            if (report != previous || System.currentTimeMillis() > deadline) {
+                return report;
+            }
+            Thread.sleep(50);
+        }
+    }
+
+    private static JsonNode readGroupFixture() {
+        try {
+            return new ObjectMapper().readTree(ProviderFixtures.read("/openweather/group.json"));
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private static HttpServer startStub() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 16);
+            server.createContext("/data/2.5/group", exchange -> {
+                GROUP_CALLS.incrementAndGet();
+                LAST_GROUP_QUERY.set(URLDecoder.decode(exchange.getRequestURI().getRawQuery(), StandardCharsets.UTF_8));
+                if (groupFails) {
+                    groupAnswered.countDown();
+                    respond(exchange, 500, "{\"cod\":\"500\",\"message\":\"internal error\"}");
+                    return;
+                }
+                respond(exchange, 200, GROUP.toString());
+            });
+            server.createContext("/data/2.5/weather", exchange -> {
+                SINGLE_CALLS.incrementAndGet();
+                String query = URLDecoder.decode(exchange.getRequestURI().getRawQuery(), StandardCharsets.UTF_8);
+                for (JsonNode entry : GROUP.get("list")) {
+                    String name = entry.get("name").asText();
+                    if (query.contains("q=" + name + "&") || name.equals("Mumbai") && query.contains("q=Bombay&")) {
+                        holdMumbai(query);
+                        respond(exchange, 200, entry.toString());
+                        return;
+                    }
+                }
+                respond(exchange, 404, "{\"cod\":\"404\",\"message\":\"city not found\"}");
+            });
+            // Requests are answered on their own threads, so a held response does not block the others.
+            server.setExecutor(Executors.newCachedThreadPool());
+            server.start();
+            return server;
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private static void holdMumbai(String query) {
+        CountDownLatch requested = mumbaiRequested;
+        if (requested == null || !query.contains("q=Mumbai&")) {
+            return;
+        }
+        requested.countDown();
+        try {
+            groupAnswered.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.nidak.weatherpulse;
+
+import com.nidak.weatherpulse.dto.HistoryPoint;
+import com.nidak.weatherpulse.dto.WeatherHistory;
+import com.nidak.weatherpulse.entity.HourlyWeatherRollup;
+import com.nidak.weatherpulse.entity.Weather;
+import com.nidak.weatherpulse.exception.WeatherServiceException;
+import com.nidak.weatherpulse.repository.DailyWeatherSummaryRepository;
+import com.nidak.weatherpulse.repository.HourlyWeatherRollupRepository;
+import com.nidak.weatherpulse.repository.WeatherRepository;
+import com.nidak.weatherpulse.service.CityRegistry;
+import com.nidak.weatherpulse.service.DailySummaryAggregator;
+import com.nidak.weatherpulse.service.HourlyRollupAggregator;
+import com.nidak.weatherpulse.service.RollupBackfill;
+import com.nidak.weatherpulse.service.WeatherIngestPipeline;
+import com.nidak.weatherpulse.service.WeatherMetrics;
+import com.nidak.weatherpulse.service.WeatherService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest
+class WeatherHistoryTests {
+
+    private static final String CITY = "Rollupville";
+    private static final LocalDateTime HOUR = LocalDateTime.of(2024, 3, 1, 10, 0);
+
+    @Autowired
+    private WeatherIngestPipeline weatherIngestPipeline;
+
+    @Autowired
+    private WeatherService weatherService;
+
+    @Autowired
+    private CityRegistry cityRegistry;
+
+    @Autowired
+    private RollupBackfill rollupBackfill;
+
+    @Autowired
+    private HourlyWeatherRollupRepository hourlyWeatherRollupRepository;
+
+    @Autowired
+    private WeatherRepository weatherRepository;
+
+    @Autowired
+    private DailyWeatherSummaryRepository dailyWeatherSummaryRepository;
+
+    @Autowired
+    private DailySummaryAggregator dailySummaryAggregator;
+
+    @Autowired
+    private WeatherMetrics weatherMetrics;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void picksResolutionFromSpanAndKeepsRollupsInStepWithRawRows() {
+        write(HOUR.plusMinutes(5), 20, "Clear");
+        write(HOUR.plusMinutes(35), 24, "Clouds");
+        write(HOUR.plusMinutes(50), 22, "Clouds");
+        write(HOUR.plusMinutes(70), 30, "Rain");
+        // Overwrites the 10:35 reading, so that hour is rebuilt from the stored rows.
+        write(HOUR.plusMinutes(35), 26, "Clear");
+
+        WeatherHistory raw = weatherService.getWeatherHistory(CITY, HOUR, HOUR.plusHours(2));
+        assertThat(raw.resolution()).isEqualTo(WeatherHistory.Resolution.RAW);
+        assertThat(raw.points()).extracting(HistoryPoint::averageTemperature).containsExactly(20.0, 26.0, 22.0, 30.0);
+
+        WeatherHistory hourly = weatherService.getWeatherHistory(CITY, HOUR.minusDays(3), HOUR.plusDays(3));
+        assertThat(hourly.resolution()).isEqualTo(WeatherHistory.Resolution.HOURLY);
+        assertThat(hourly.points()).hasSize(2);
+        HistoryPoint first = hourly.points().get(0);
+        assertThat(first.periodStart()).isEqualTo(HOUR);
+        assertThat(first.samples()).isEqualTo(3);
+        assertThat(first.averageTemperature()).isEqualTo(22.67);
+        assertThat(first.minTemperature()).isEqualTo(20.0);
+        assertThat(first.maxTemperature()).isEqualTo(26.0);
+        assertThat(first.dominantWeatherCondition()).isEqualTo("Clear");
+        assertThat(hourly.points().get(1).samples()).isEqualTo(1);
+
+        WeatherHistory daily = weatherService.getWeatherHistory(CITY, HOUR.minusDays(90), HOUR.plusDays(90));
+        assertThat(daily.resolution()).isEqualTo(WeatherHistory.Resolution.DAILY);
+        assertThat(daily.points()).singleElement().satisfies(day -> {
+            assertThat(day.samples()).isEqualTo(4);
+            assertThat(day.averageTemperature()).isEqualTo(24.5);
+        });
+    }
+
+    @Test
+    void backfillPicksUpDaysLeftBehindByAnInterruptedRun() {
+        // Three days of rows stored without rollups, of which an earlier run only got through the first.
+        long cityId = cityRegistry.register("Gapville").id();
+        LocalDateTime firstDay = LocalDateTime.of(2024, 2, 1, 10, 5);
+        for (int day = 0; day < 3; day++) {
+            jdbcTemplate.update("insert into weather_data (id, city_id, city, temperature, feels_like, weather_condition, "
+                            + "weather_description, weather_code, weather_risk, humidity, wind_speed, timestamp) "
+                            + "values (?, ?, 'Gapville', 20, 20, 'Clear', 'clear sky', 800, 'Low Risk', 50, 3, ?)",
+                    920_000_000L + day, cityId, firstDay.plusDays(day));
+        }
+        jdbcTemplate.update("insert into hourly_weather_rollup (id, city, hour_start, sample_count, temperature_sum, "
+                        + "max_temperature, min_temperature, humidity_sum, wind_speed_sum, condition_histogram, updated_at) "
+                        + "values (920000000, 'Gapville', ?, 1, 20, 20, 20, 50, 3, 'Clear=1', ?)",
+                firstDay.withMinute(0), LocalDateTime.now());
+
+        rollupBackfill.backfillAll();
+
+        assertThat(hourlyWeatherRollupRepository.findByCity("Gapville"))
+                .extracting(HourlyWeatherRollup::getHourStart)
+                .containsExactlyInAnyOrder(firstDay.withMinute(0), firstDay.withMinute(0).plusDays(1),
+                        firstDay.withMinute(0).plusDays(2));
+    }
+
+    @Test
+    void backfillCarriesOnWhenALateSampleCreatesAnHourFirst() {
+        long cityId = cityRegistry.register("Lateham").id();
+        LocalDate day = LocalDate.now().minusDays(3);
+        for (int hour = 9; hour <= 11; hour++) {
+            jdbcTemplate.update("insert into weather_data (id, city_id, city, temperature, feels_like, weather_condition, "
+                            + "weather_description, weather_code, weather_risk, humidity, wind_speed, timestamp) "
+                            + "values (?, ?, 'Lateham', 20, 20, 'Clear', 'clear sky', 800, 'Low Risk', 50, 3, ?)",
+                    930_000_000L + hour, cityId, day.atTime(hour, 5));
+        }
+        AtomicBoolean raced = new AtomicBoolean();
+        HourlyRollupAggregator racingAggregator = new HourlyRollupAggregator(
+                weatherRepository, hourlyWeatherRollupRepository, cityRegistry, weatherMetrics) {
+            @Override
+            public int backfill(String city, LocalDateTime from, LocalDateTime until) {
+                int written = super.backfill(city, from, until);
+                if ("Lateham".equals(city) && raced.compareAndSet(false, true)) {
+                    // Ingest opens the 10:00 hour and commits before the backfill's own row for it is flushed.
+                    WeatherSamples.write(weatherIngestPipeline, "Lateham", day.atTime(10, 40), 30);
+                }
+                return written;
+            }
+        };
+        RollupBackfill backfill = new RollupBackfill(weatherRepository, hourlyWeatherRollupRepository,
+                dailyWeatherSummaryRepository, racingAggregator, dailySummaryAggregator, transactionTemplate, true);
+
+        backfill.backfillAll();
+
+        assertThat(raced).isTrue();
+        assertThat(backfill.isComplete()).isTrue();
+        assertThat(hourlyWeatherRollupRepository.findByCity("Lateham"))
+                .extracting(HourlyWeatherRollup::getHourStart, HourlyWeatherRollup::getSampleCount)
+                .containsExactlyInAnyOrder(tuple(day.atTime(9, 0), 1), tuple(day.atTime(10, 0), 2), tuple(day.atTime(11, 0), 1));
+    }
+
+    @Test
+    void rejectsInvertedAndOversizedRanges() {
+        assertThatThrownBy(() -> weatherService.getWeatherHistory(CITY, HOUR, HOUR.minusHours(1)))
+                .isInstanceOf(WeatherServiceException.class);
+        assertThatThrownBy(() -> weatherService.getWeatherHistory(CITY, HOUR.minusYears(20), HOUR))
+                .isInstanceOf(WeatherServiceException.class);
+    }
+
+    private void write(LocalDateTime timestamp, double temperature, String condition) {
+        Weather sample = WeatherSamples.sample(CITY, timestamp, temperature);
+        sample.setWeatherCondition(condition);
+        sample.setWeatherDescription(condition.toLowerCase(Locale.ROOT));
+        WeatherSamples.write(weatherIngestPipeline, sample);
+    }
+}
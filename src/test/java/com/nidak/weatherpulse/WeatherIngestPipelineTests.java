@@ -0,0 +1,78 @@
+package com.nidak.weatherpulse;
+
+import com.nidak.weatherpulse.entity.Weather;
+import com.nidak.weatherpulse.entity.WeatherAlert;
+import com.nidak.weatherpulse.repository.WeatherAlertRepository;
+import com.nidak.weatherpulse.repository.WeatherRepository;
+import com.nidak.weatherpulse.service.WeatherIngestPipeline;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * A long flush latency makes samples submitted back to back share one batch.
+ */
+@SpringBootTest(properties = "weather.ingest.flush-latency-ms=500")
+class WeatherIngestPipelineTests {
+
+    @Autowired
+    private WeatherIngestPipeline weatherIngestPipeline;
+
+    @Autowired
+    private WeatherRepository weatherRepository;
+
+    @Autowired
+    private WeatherAlertRepository weatherAlertRepository;
+
+    @Test
+    void sameCityAndMinuteInOneBatchStoresOneRow() {
+        LocalDateTime minute = LocalDateTime.now().withSecond(0).withNano(0);
+        CompletableFuture<Weather> first =
+                weatherIngestPipeline.submit(WeatherSamples.sample("Batchley", minute, 18), List.of(), List.of());
+        CompletableFuture<Weather> second =
+                weatherIngestPipeline.submit(WeatherSamples.sample("Batchley", minute, 19), List.of(), List.of());
+
+        Long id = first.join().getId();
+        assertThat(second.join().getId()).isEqualTo(id);
+        assertThat(weatherRepository.findById(id)).get().extracting(Weather::getTemperature).isEqualTo(19.0);
+    }
+
+    @Test
+    void systemAlertSurvivesTheRetryOfAFailedBatch() {
+        LocalDateTime now = LocalDateTime.now().withSecond(0).withNano(0);
+        Weather hot = WeatherSamples.sample("Retryville", now, 41);
+        Weather broken = WeatherSamples.sample("Brokenville", now, 20);
+        // Longer than the column allows, so the batch fails when its alerts are written, after the dedup claim.
+        WeatherAlert unstorable = alert("Brokenville", "temperature", now);
+        unstorable.setAlertMessage("x".repeat(300));
+
+        CompletableFuture<Weather> hotResult =
+                weatherIngestPipeline.submit(hot, List.of(), List.of(alert("Retryville", "Extreme Heat Warning", now)));
+        CompletableFuture<Weather> brokenResult = weatherIngestPipeline.submit(broken, List.of(unstorable), List.of());
+
+        assertThat(weatherIngestPipeline.await(hotResult).getId()).isNotNull();
+        assertThatThrownBy(() -> weatherIngestPipeline.await(brokenResult)).isInstanceOf(RuntimeException.class);
+        assertThat(weatherAlertRepository.findTop20ByCityIdOrderByCreatedAtDesc(hot.getCityId()))
+                .extracting(WeatherAlert::getAlertType)
+                .containsExactly("Extreme Heat Warning");
+        assertThat(weatherIngestPipeline.getStats().failed()).isEqualTo(1);
+    }
+
+    private static WeatherAlert alert(String city, String alertType, LocalDateTime createdAt) {
+        WeatherAlert alert = new WeatherAlert();
+        alert.setCity(city);
+        alert.setAlertType(alertType);
+        alert.setAlertMessage("Extreme heat warning");
+        alert.setObservedValue("41.0 C");
+        alert.setThresholdValue(">= 40 C");
+        alert.setCreatedAt(createdAt);
+        return alert;
+    }
+}
@@ -0,0 +1,89 @@
+package com.nidak.weatherpulse;
+
+import com.nidak.weatherpulse.dto.RetentionReport;
+import com.nidak.weatherpulse.dto.WeatherHistory;
+import com.nidak.weatherpulse.entity.DailyWeatherSummaryEntity;
+import com.nidak.weatherpulse.entity.Weather;
+import com.nidak.weatherpulse.repository.WeatherRepository;
+import com.nidak.weatherpulse.service.CityRegistry;
+import com.nidak.weatherpulse.service.WeatherIngestPipeline;
+import com.nidak.weatherpulse.service.WeatherRetentionManager;
+import com.nidak.weatherpulse.service.WeatherService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {"weather.retention.batch-size=2", "weather.retention.batch-pause-ms=0"})
+class WeatherRetentionTests {
+
+    private static final String CITY = "Purgetown";
+    // Well before anything other tests store, so the purge only touches these rows.
+    private static final LocalDateTime CUTOFF = LocalDateTime.of(2000, 1, 1, 0, 0);
+
+    @Autowired
+    private WeatherIngestPipeline weatherIngestPipeline;
+
+    @Autowired
+    private WeatherRetentionManager weatherRetentionManager;
+
+    @Autowired
+    private WeatherRepository weatherRepository;
+
+    @Autowired
+    private WeatherService weatherService;
+
+    @Autowired
+    private CityRegistry cityRegistry;
+
+    @Test
+    void purgesExpiredRowsInBatchesAndKeepsRollups() {
+        for (int i = 1; i <= 5; i++) {
+            write(CUTOFF.minusHours(i));
+        }
+        write(CUTOFF.plusMinutes(10));
+
+        RetentionReport report = weatherRetentionManager.purgeOlderThan(CUTOFF);
+
+        assertThat(report.rowsPurged()).isEqualTo(5);
+        assertThat(report.batches()).isEqualTo(3);
+        assertThat(report.caughtUp()).isTrue();
+        assertThat(weatherRepository.findByCityIdAndTimestampBetween(
+                cityRegistry.idOf(CITY), CUTOFF.minusDays(1), CUTOFF.plusDays(1)))
+                .extracting(Weather::getTimestamp)
+                .containsExactly(CUTOFF.plusMinutes(10));
+        assertThat(weatherService.getLastRetentionReport()).isEqualTo(report);
+
+        WeatherHistory hourly = weatherService.getWeatherHistory(CITY, CUTOFF.minusDays(3), CUTOFF.plusDays(3));
+        assertThat(hourly.points()).hasSize(6);
+    }
+
+    @Test
+    void rebuildsAPurgedDayFromItsRollups() {
+        LocalDate day = CUTOFF.toLocalDate().minusDays(10);
+        write("Rebuildtown", day.atTime(9, 15), 12);
+        write("Rebuildtown", day.atTime(14, 40), 18);
+        weatherRetentionManager.purgeOlderThan(CUTOFF);
+        assertThat(weatherService.getWeatherDataForCity("Rebuildtown", day.atStartOfDay(), day.atTime(23, 59))).isEmpty();
+
+        DailyWeatherSummaryEntity rebuilt = weatherService.rebuildDailySummary("Rebuildtown", day);
+
+        assertThat(rebuilt.getTotalSamples()).isEqualTo(2);
+        assertThat(rebuilt.getAverageTemperature()).isEqualTo(15.0);
+        assertThat(rebuilt.getMinTemperature()).isEqualTo(12.0);
+        assertThat(rebuilt.getMaxTemperature()).isEqualTo(18.0);
+        assertThat(weatherService.getDailySummary("Rebuildtown", day).getTotalSamples()).isEqualTo(2);
+    }
+
+    private void write(LocalDateTime timestamp) {
+        write(CITY, timestamp, 15);
+    }
+
+    private void write(String city, LocalDateTime timestamp, double temperature) {
+        WeatherSamples.write(weatherIngestPipeline, city, timestamp, temperature);
+    }
+}
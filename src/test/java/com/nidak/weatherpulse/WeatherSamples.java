@@ -0,0 +1,42 @@
+package com.nidak.weatherpulse;
+
+import com.nidak.weatherpulse.entity.Weather;
+import com.nidak.weatherpulse.service.WeatherIngestPipeline;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * The observation the integration tests store: a clear, low-risk reading unless a test changes it.
+ */
+final class WeatherSamples {
+
+    private WeatherSamples() {
+    }
+
+    static Weather sample(String city, LocalDateTime timestamp, double temperature) {
+        Weather sample = new Weather();
+        sample.setCity(city);
+        sample.setTemperature(temperature);
+        sample.setFeelsLike(temperature);
+        sample.setWeatherCondition("Clear");
+        sample.setWeatherDescription("clear sky");
+        sample.setWeatherCode(800);
+        sample.setWeatherRisk("Low Risk");
+        sample.setHumidity(50);
+        sample.setWindSpeed(3);
+        sample.setTimestamp(timestamp);
+        return sample;
+    }
+
+    /**
+     * Stores the sample through the ingest pipeline, without alerts, and returns the stored row.
+     */
+    static Weather write(WeatherIngestPipeline pipeline, Weather sample) {
+        return pipeline.write(sample, List.of(), List.of());
+    }
+
+    static Weather write(WeatherIngestPipeline pipeline, String city, LocalDateTime timestamp, double temperature) {
+        return write(pipeline, sample(city, timestamp, temperature));
+    }
+}
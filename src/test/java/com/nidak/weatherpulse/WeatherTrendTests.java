@@ -0,0 +1,61 @@
+package com.nidak.weatherpulse;
+
+import com.nidak.weatherpulse.dto.CityTrends;
+import com.nidak.weatherpulse.entity.Weather;
+import com.nidak.weatherpulse.service.WeatherIngestPipeline;
+import com.nidak.weatherpulse.service.WeatherService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class WeatherTrendTests {
+
+    @Autowired
+    private WeatherIngestPipeline weatherIngestPipeline;
+
+    @Autowired
+    private WeatherService weatherService;
+
+    @Test
+    void tracksAveragesAndSlopeAcrossSeedAndLiveSamples() {
+        // Mid-hour samples, so the first one (seeded from its hourly rollup) lands where it was taken.
+        LocalDateTime base = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).minusHours(3).plusMinutes(30);
+        write(base, 10, 40);
+        write(base.plusHours(1), 12, 50);
+        write(base.plusHours(2), 14, 60);
+
+        CityTrends trends = weatherService.getWeatherTrends("trendville");
+
+        assertThat(trends.city()).isEqualTo("Trendville");
+        assertThat(trends.windows()).extracting(CityTrends.Window::window).containsExactly("24h", "7d", "30d");
+        assertThat(trends.windows()).allSatisfy(window -> {
+            assertThat(window.samples()).isEqualTo(3);
+            assertThat(window.temperature().movingAverage()).isEqualTo(12.0);
+            assertThat(window.temperature().slopePerDay()).isEqualTo(48.0);
+            assertThat(window.humidity().slopePerDay()).isEqualTo(240.0);
+            assertThat(window.temperature().ewma()).isBetween(10.0, 14.0);
+            assertThat(window.windSpeed().slopePerDay()).isZero();
+        });
+        // A shorter time constant follows the latest readings more closely.
+        assertThat(trends.windows().get(0).temperature().ewma())
+                .isGreaterThan(trends.windows().get(2).temperature().ewma());
+
+        CityTrends empty = weatherService.getWeatherTrends("Nowhereville");
+        assertThat(empty.windows()).allSatisfy(window -> {
+            assertThat(window.samples()).isZero();
+            assertThat(window.temperature().movingAverage()).isNull();
+        });
+    }
+
+    private void write(LocalDateTime timestamp, double temperature, double humidity) {
+        Weather sample = WeatherSamples.sample("Trendville", timestamp, temperature);
+        sample.setHumidity(humidity);
+        WeatherSamples.write(weatherIngestPipeline, sample);
+    }
+}
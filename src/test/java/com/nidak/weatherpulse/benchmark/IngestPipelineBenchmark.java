@@ -0,0 +1,191 @@
+package com.nidak.weatherpulse.benchmark;
+
+import com.nidak.weatherpulse.WeatherApplication;
+import com.nidak.weatherpulse.entity.Weather;
+import com.nidak.weatherpulse.entity.WeatherAlert;
+import com.nidak.weatherpulse.repository.WeatherAlertRepository;
+import com.nidak.weatherpulse.repository.WeatherRepository;
+import com.nidak.weatherpulse.service.CityRegistry;
+import com.nidak.weatherpulse.service.DailySummaryAggregator;
+import com.nidak.weatherpulse.service.WeatherIngestPipeline;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rows per second for the old one-round-trip-per-row ingest against the batched write-behind pipeline,
+ * with 16 producers writing at once. Boots the app against an in-memory H2 database (no provider key,
+ * so polling stays idle); each benchmark runs in its own fork, so each gets a fresh database.
+ * Pass {@code -p url=... -p user=... -p password=...} to run against another database.
+ *
+ * <p>{@code ./mvnw -Pbenchmarks -DskipTests verify -Djmh.include=IngestPipeline} runs it with the GC profiler.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(16)
+@Fork(1)
+public class IngestPipelineBenchmark {
+
+    private static final int CITIES_PER_PRODUCER = 12;
+    private static final int ROWS_PER_INVOCATION = 100;
+
+    @Param("jdbc:h2:mem:ingest-benchmark;DB_CLOSE_DELAY=-1")
+    public String url;
+
+    @Param("sa")
+    public String user;
+
+    @Param("")
+    public String password;
+
+    private ConfigurableApplicationContext context;
+    private WeatherRepository weatherRepository;
+    private WeatherAlertRepository weatherAlertRepository;
+    private DailySummaryAggregator dailySummaryAggregator;
+    private CityRegistry cityRegistry;
+    private TransactionTemplate transactionTemplate;
+    private WeatherIngestPipeline pipeline;
+
+    @Setup
+    public void startApplication() {
+        // DevTools would relaunch main in a restart classloader; not wanted for a timing run.
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        // Command-line arguments, so they win over any application.properties on the classpath.
+        context = new SpringApplicationBuilder(WeatherApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.datasource.url=" + url,
+                        "--spring.datasource.username=" + user,
+                        "--spring.datasource.password=" + password,
+                        "--openweather.api.key=",
+                        "--logging.level.root=WARN"
+                );
+        weatherRepository = context.getBean(WeatherRepository.class);
+        weatherAlertRepository = context.getBean(WeatherAlertRepository.class);
+        dailySummaryAggregator = context.getBean(DailySummaryAggregator.class);
+        cityRegistry = context.getBean(CityRegistry.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        pipeline = context.getBean(WeatherIngestPipeline.class);
+    }
+
+    @TearDown
+    public void stopApplication() {
+        context.close();
+    }
+
+    /**
+     * The pre-pipeline path: lookup, save, summary read/write and one save per alert, each in its own transaction.
+     */
+    @Benchmark
+    @OperationsPerInvocation(ROWS_PER_INVOCATION)
+    public Weather perRowSynchronous(Producer producer) {
+        Weather saved = null;
+        for (int i = 0; i < ROWS_PER_INVOCATION; i++) {
+            Weather sample = producer.next();
+            List<WeatherAlert> alerts = producer.alertsFor(sample);
+            long cityId = cityRegistry.register(sample.getCity()).id();
+            sample.setCityId(cityId);
+            for (WeatherAlert alert : alerts) {
+                alert.setCityId(cityId);
+            }
+            List<Weather> existing = weatherRepository.findByCityIdInAndTimestampIn(
+                    List.of(cityId), List.of(sample.getTimestamp()));
+            Weather row = weatherRepository.save(existing.isEmpty() ? sample : existing.get(0));
+            transactionTemplate.executeWithoutResult(status -> dailySummaryAggregator.applySamples(List.of(row)));
+            saved = row;
+            for (WeatherAlert alert : alerts) {
+                weatherAlertRepository.save(alert);
+            }
+        }
+        return saved;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS_PER_INVOCATION)
+    public Weather writeBehindPipeline(Producer producer) throws Exception {
+        List<CompletableFuture<Weather>> results = new ArrayList<>(ROWS_PER_INVOCATION);
+        for (int i = 0; i < ROWS_PER_INVOCATION; i++) {
+            Weather sample = producer.next();
+            results.add(pipeline.submit(sample, producer.alertsFor(sample), List.of()));
+        }
+        Weather saved = null;
+        for (CompletableFuture<Weather> result : results) {
+            saved = result.get(60, TimeUnit.SECONDS);
+        }
+        return saved;
+    }
+
+    /**
+     * One producer's cities, which no other producer writes, so each city's samples arrive in time order
+     * as they do from polling.
+     */
+    @State(Scope.Thread)
+    public static class Producer {
+
+        private int index;
+        private LocalDateTime base;
+        private long written;
+
+        @Setup
+        public void assignCities(ThreadParams threads) {
+            index = threads.getThreadIndex() * CITIES_PER_PRODUCER;
+            base = LocalDateTime.now().minusDays(10).withSecond(0).withNano(0);
+        }
+
+        Weather next() {
+            long row = written++;
+            int city = (int) (row % CITIES_PER_PRODUCER);
+            Weather weather = new Weather();
+            weather.setCity("City" + (index + city));
+            weather.setTemperature(20 + row % 17);
+            weather.setFeelsLike(21 + row % 17);
+            weather.setWeatherCondition(row % 3 == 0 ? "Rain" : "Clear");
+            weather.setWeatherDescription("benchmark");
+            weather.setWeatherCode(800);
+            weather.setWeatherRisk("Low Risk");
+            weather.setHumidity(40 + row % 50);
+            weather.setWindSpeed(row % 12);
+            weather.setTimestamp(base.plusSeconds(row / CITIES_PER_PRODUCER));
+            return weather;
+        }
+
+        List<WeatherAlert> alertsFor(Weather sample) {
+            if (written % 10 != 0) {
+                return List.of();
+            }
+            WeatherAlert alert = new WeatherAlert();
+            alert.setCity(sample.getCity());
+            alert.setAlertType("temperature");
+            alert.setAlertMessage("Benchmark alert");
+            alert.setObservedValue(sample.getTemperature() + " C");
+            alert.setThresholdValue("> 30 C");
+            alert.setCreatedAt(sample.getTimestamp());
+            return List.of(alert);
+        }
+    }
+}
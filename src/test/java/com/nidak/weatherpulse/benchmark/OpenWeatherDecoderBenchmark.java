@@ -0,0 +1,67 @@
+package com.nidak.weatherpulse.benchmark;
+
+import com.nidak.weatherpulse.service.OpenWeatherPayloadDecoder;
+import com.nidak.weatherpulse.support.LegacyOrgJsonMapping;
+import com.nidak.weatherpulse.support.ProviderFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Provider payload decoding: the old {@code org.json} tree walk against the streaming decoder,
+ * on the recorded fixtures under {@code src/test/resources/openweather}.
+ * The org.json side includes building the response String, as RestTemplate did for it.
+ *
+ * <p>Run after {@code ./mvnw test-compile} with the test classpath, for example:
+ * {@code java -cp target/test-classes:target/classes:$(cat cp.txt) org.openjdk.jmh.Main OpenWeatherDecoderBenchmark -prof gc}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OpenWeatherDecoderBenchmark {
+
+    private byte[] currentPayload;
+    private byte[] forecastPayload;
+
+    @Setup
+    public void loadFixtures() throws IOException {
+        currentPayload = ProviderFixtures.read("/openweather/current-weather.json");
+        forecastPayload = ProviderFixtures.read("/openweather/forecast.json");
+    }
+
+    @Benchmark
+    public OpenWeatherPayloadDecoder.Observation currentOrgJson() {
+        return LegacyOrgJsonMapping.decodeCurrent(new String(currentPayload, StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public OpenWeatherPayloadDecoder.Observation currentStreaming() throws IOException {
+        return OpenWeatherPayloadDecoder.decodeCurrent(new ByteArrayInputStream(currentPayload));
+    }
+
+    @Benchmark
+    public List<OpenWeatherPayloadDecoder.Observation> forecastOrgJson() {
+        return LegacyOrgJsonMapping.decodeForecast(new String(forecastPayload, StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public List<OpenWeatherPayloadDecoder.Observation> forecastStreaming() throws IOException {
+        return OpenWeatherPayloadDecoder.decodeForecast(new ByteArrayInputStream(forecastPayload));
+    }
+}
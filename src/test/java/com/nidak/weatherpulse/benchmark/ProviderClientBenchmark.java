@@ -0,0 +1,133 @@
+package com.nidak.weatherpulse.benchmark;
+
+import com.nidak.weatherpulse.config.WeatherProviderClientConfig;
+import com.nidak.weatherpulse.service.OpenWeatherPayloadDecoder;
+import com.nidak.weatherpulse.service.ProviderRateLimiter;
+import com.nidak.weatherpulse.service.WeatherMetrics;
+import com.nidak.weatherpulse.service.WeatherProviderClient;
+import com.nidak.weatherpulse.support.ProviderFixtures;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the old per-call {@code new RestTemplate()} against the shared pooled provider client.
+ * Both hit a local stub server that replays a recorded current-weather payload. The single-threaded pair
+ * samples call latency (p50/p99 in the percentile columns); the concurrent pair measures throughput with
+ * 16 callers at once.
+ *
+ * <p>{@code ./mvnw -Pbenchmarks -DskipTests verify -Djmh.include=ProviderClient} runs it with the GC profiler.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProviderClientBenchmark {
+
+    private static final int CONCURRENT_THREADS = 16;
+
+    private HttpServer server;
+    private CloseableHttpClient httpClient;
+    private WeatherProviderClient pooledClient;
+    private String perCallUrl;
+
+    @Setup
+    public void startStubProvider() throws IOException {
+        server = startStubServer(ProviderFixtures.read("/openweather/current-weather.json"));
+        String baseUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/data/2.5";
+        httpClient = WeatherProviderClientConfig.buildHttpClient(50, 20, 3000, 10000, 2000, true);
+        pooledClient = new WeatherProviderClient(
+                new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient)),
+                new WeatherMetrics(new SimpleMeterRegistry()),
+                new ProviderRateLimiter(Integer.MAX_VALUE),
+                baseUrl,
+                "benchmark-key",
+                0
+        );
+        perCallUrl = baseUrl + "/weather?q=Delhi&appid=benchmark-key";
+    }
+
+    @TearDown
+    public void stopStubProvider() throws IOException {
+        httpClient.close();
+        server.stop(0);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    public OpenWeatherPayloadDecoder.Observation perCallRestTemplate() {
+        return fetchWithNewRestTemplate();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    public OpenWeatherPayloadDecoder.Observation sharedPooledClient() {
+        return pooledClient.fetchCurrentWeather("Delhi");
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Threads(CONCURRENT_THREADS)
+    public OpenWeatherPayloadDecoder.Observation perCallRestTemplateConcurrent() {
+        return fetchWithNewRestTemplate();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Threads(CONCURRENT_THREADS)
+    public OpenWeatherPayloadDecoder.Observation sharedPooledClientConcurrent() {
+        return pooledClient.fetchCurrentWeather("Delhi");
+    }
+
+    private OpenWeatherPayloadDecoder.Observation fetchWithNewRestTemplate() {
+        return new RestTemplate().execute(perCallUrl, HttpMethod.GET, null,
+                response -> OpenWeatherPayloadDecoder.decodeCurrent(response.getBody()));
+    }
+
+    private static HttpServer startStubServer(byte[] payload) throws IOException {
+        // Without TCP_NODELAY the JDK server adds a ~40 ms delayed-ACK stall to every keep-alive response.
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 512);
+        server.createContext("/data/2.5/weather", exchange -> {
+            try (InputStream ignored = exchange.getRequestBody()) {
+                exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+                exchange.sendResponseHeaders(200, payload.length);
+                try (OutputStream body = exchange.getResponseBody()) {
+                    body.write(payload);
+                }
+            }
+        });
+        server.setExecutor(Executors.newFixedThreadPool(CONCURRENT_THREADS * 2, runnable -> {
+            Thread thread = new Thread(runnable, "stub-provider");
+            thread.setDaemon(true);
+            return thread;
+        }));
+        server.start();
+        return server;
+    }
+}
@@ -0,0 +1,173 @@
+package com.nidak.weatherpulse.service;
+
+import com.nidak.weatherpulse.dto.PollCycleReport;
+import com.nidak.weatherpulse.dto.PollSchedule;
+import com.nidak.weatherpulse.entity.Weather;
+import com.nidak.weatherpulse.entity.WeatherAlert;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptivePollSchedulerTest {
+
+    private static final long MINUTE = 60_000;
+
+    @Test
+    void shortensForRiskAndAlertsAndBacksOffWhenCalm() {
+        AdaptivePollScheduler scheduler = new AdaptivePollScheduler(true, 5 * MINUTE, MINUTE, 30 * MINUTE, 0, 60, false);
+        scheduler.track(List.of("Delhi", "Chennai"));
+        assertThat(scheduler.takeDue(System.currentTimeMillis())).containsExactlyInAnyOrder("Delhi", "Chennai");
+
+        long now = System.currentTimeMillis();
+        poll(scheduler, now,
+                sample("Delhi", 30, 3, WeatherRiskClassifier.LOW),
+                sample("Chennai", 28, 30, WeatherRiskClassifier.SEVERE_STORM));
+        assertThat(city(scheduler, "Delhi").intervalMs()).isEqualTo(5 * MINUTE);
+        assertThat(city(scheduler, "Delhi").reason()).isEqualTo("first reading");
+        assertThat(city(scheduler, "Chennai").intervalMs()).isEqualTo(MINUTE);
+        assertThat(city(scheduler, "Chennai").reason()).contains("severe risk");
+
+        for (int i = 0; i < 6; i++) {
+            poll(scheduler, now, sample("Delhi", 30, 3, WeatherRiskClassifier.LOW));
+        }
+        assertThat(city(scheduler, "Delhi").intervalMs()).isEqualTo(30 * MINUTE);
+        assertThat(city(scheduler, "Delhi").reason()).isEqualTo("stable for 6 readings");
+        assertThat(scheduler.takeDue(now + 29 * MINUTE)).containsExactly("Chennai");
+
+        // An alert, an elevated risk and a sharp temperature jump each halve the interval.
+        scheduler.recordAlerts(List.of(alert("Delhi")));
+        poll(scheduler, now, sample("Delhi", 36, 3, WeatherRiskClassifier.SUNNY_HEAT));
+        assertThat(city(scheduler, "Delhi").intervalMs()).isEqualTo(MINUTE);
+        assertThat(city(scheduler, "Delhi").reason())
+                .contains("elevated risk (Sunny/Heat Risk)", "active alert (Heat Advisory)", "temperature moved 6.0 C");
+
+        poll(scheduler, now, sample("Delhi", 36, 3, WeatherRiskClassifier.LOW));
+        assertThat(city(scheduler, "Delhi").intervalMs()).isEqualTo(150_000);
+        assertThat(city(scheduler, "Delhi").reason()).isEqualTo("active alert (Heat Advisory)");
+    }
+
+    @Test
+    void alertsAloneDoNotRescheduleACity() {
+        AdaptivePollScheduler scheduler = new AdaptivePollScheduler(true, 5 * MINUTE, MINUTE, 30 * MINUTE, 0, 60, false);
+        scheduler.track(List.of("Delhi"));
+        long now = System.currentTimeMillis();
+        scheduler.takeDue(now);
+        poll(scheduler, now, sample("Delhi", 30, 3, WeatherRiskClassifier.LOW));
+
+        // A user's fetch can raise an alert; the city keeps its slot until its own next poll.
+        scheduler.recordAlerts(List.of(alert("Delhi")));
+        assertThat(city(scheduler, "Delhi").intervalMs()).isEqualTo(5 * MINUTE);
+        assertThat(scheduler.takeDue(now + 4 * MINUTE)).isEmpty();
+        assertThat(scheduler.takeDue(now + 5 * MINUTE)).containsExactly("Delhi");
+    }
+
+    @Test
+    void stretchesEveryIntervalToFitTheBudgetAndRequeuesUnpolledCities() {
+        AdaptivePollScheduler scheduler = new AdaptivePollScheduler(true, MINUTE, MINUTE, 10 * MINUTE, 5, 60, false);
+        List<String> cities = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            cities.add("City " + i);
+        }
+        scheduler.track(cities);
+
+        PollSchedule schedule = scheduler.getSchedule();
+        assertThat(schedule.budgetScale()).isEqualTo(2.0);
+        assertThat(schedule.plannedCallsPerMinute()).isEqualTo(5.0);
+        assertThat(schedule.cities()).allMatch(city -> city.intervalMs() == 2 * MINUTE);
+
+        long now = System.currentTimeMillis();
+        assertThat(scheduler.takeDue(now)).hasSize(10);
+        assertThat(scheduler.takeDue(now)).isEmpty();
+        scheduler.recordCycle(PollCycleReport.of(LocalDateTime.now(), 0, 3,
+                List.of("City 0"), Map.of("City 1", "boom"), List.of("City 2"), 2), Map.of(), now);
+        assertThat(scheduler.takeDue(now)).containsExactly("City 2");
+        assertThat(scheduler.takeDue(now + MINUTE)).containsExactly("City 1");
+        assertThat(scheduler.takeDue(now + 2 * MINUTE)).containsExactly("City 0");
+    }
+
+    @Test
+    void groupedPollsStayWithinTheBudgetInProviderCalls() {
+        double budget = 0.5;
+        AdaptivePollScheduler scheduler = new AdaptivePollScheduler(true, 5 * MINUTE, MINUTE, 30 * MINUTE, budget, 60, true);
+        List<String> cities = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            cities.add("City " + i);
+        }
+        scheduler.track(cities);
+
+        Random random = new Random(42);
+        long start = System.currentTimeMillis();
+        long measureFrom = start + 3 * 60 * MINUTE;
+        long end = measureFrom + 3 * 60 * MINUTE;
+        int calls = 0;
+        int polls = 0;
+        for (long now = start; now < end; now += 10_000) {
+            List<String> due = scheduler.takeDue(now);
+            if (due.isEmpty()) {
+                continue;
+            }
+            // What the polling engine spends: one call per group of up to 20 cities.
+            int cycleCalls = (due.size() + WeatherProviderClient.MAX_GROUP_SIZE - 1) / WeatherProviderClient.MAX_GROUP_SIZE;
+            Map<String, Weather> readings = new HashMap<>();
+            for (String city : due) {
+                // A quarter of the readings jump, which keeps those cities on short intervals.
+                double temperature = random.nextInt(4) == 0 ? 20 + random.nextInt(10) : 20;
+                readings.put(city, sample(city, temperature, 3, WeatherRiskClassifier.LOW));
+            }
+            scheduler.recordCycle(PollCycleReport.of(LocalDateTime.now(), 0, due.size(),
+                    due, Map.of(), List.of(), cycleCalls), readings, now);
+            if (now >= measureFrom) {
+                calls += cycleCalls;
+                polls += due.size();
+            }
+        }
+
+        double callsPerMinute = calls / ((end - measureFrom) / (double) MINUTE);
+        assertThat(callsPerMinute).isLessThanOrEqualTo(budget * 1.1);
+        // Cities share group calls rather than each paying for one.
+        assertThat(polls).isGreaterThan(3 * calls);
+    }
+
+    private static void poll(AdaptivePollScheduler scheduler, long now, Weather... readings) {
+        Map<String, Weather> byCity = new HashMap<>();
+        for (Weather reading : readings) {
+            byCity.put(reading.getCity(), reading);
+        }
+        List<String> cities = new ArrayList<>(byCity.keySet());
+        scheduler.recordCycle(PollCycleReport.of(LocalDateTime.now(), 0, cities.size(),
+                cities, Map.of(), List.of(), 1), byCity, now);
+    }
+
+    private static PollSchedule.CitySchedule city(AdaptivePollScheduler scheduler, String name) {
+        return scheduler.getSchedule().cities().stream()
+                .filter(city -> city.city().equals(name))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static Weather sample(String city, double temperature, double windSpeed, String risk) {
+        Weather weather = new Weather();
+        weather.setCity(city);
+        weather.setTemperature(temperature);
+        weather.setWindSpeed(windSpeed);
+        weather.setWeatherCondition("Clear");
+        weather.setWeatherRisk(risk);
+        weather.setTimestamp(LocalDateTime.now());
+        return weather;
+    }
+
+    private static WeatherAlert alert(String city) {
+        WeatherAlert alert = new WeatherAlert();
+        alert.setCity(city);
+        alert.setAlertType("Heat Advisory");
+        alert.setCreatedAt(LocalDateTime.now());
+        return alert;
+    }
+}
@@ -0,0 +1,142 @@
+package com.nidak.weatherpulse.service;
+
+import com.nidak.weatherpulse.dto.PollCycleReport;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CityPollingEngineTest {
+
+    private static final long CYCLE_TIMEOUT_MS = 1000;
+
+    private CityPollingEngine engine;
+
+    @AfterEach
+    void shutdown() {
+        if (engine != null) {
+            engine.shutdown();
+        }
+    }
+
+    @Test
+    void reportsEveryCityOfACycle() {
+        engine = engine(60, 2);
+
+        PollCycleReport report = engine.runGroupedCycle(
+                List.of(List.of("Delhi", "Mumbai"), List.of("Pune")),
+                group -> group.contains("Mumbai") ? Map.of("Mumbai", "city not found") : Map.of());
+
+        assertThat(report.succeededCities()).containsExactly("Delhi", "Pune");
+        assertThat(report.failedCities()).containsExactly(Map.entry("Mumbai", "city not found"));
+        assertThat(report.skipped()).isZero();
+        assertThat(engine.isCycleRunning()).isFalse();
+    }
+
+    @Test
+    void skipsGroupsTheRateLimitCannotPayForBeforeTheDeadline() {
+        ProviderRateLimiter rateLimiter = new ProviderRateLimiter(1);
+        engine = new CityPollingEngine(rateLimiter, new WeatherMetrics(new SimpleMeterRegistry()), 1, CYCLE_TIMEOUT_MS);
+
+        PollCycleReport report = engine.runCycle(List.of("Delhi", "Mumbai", "Pune"), city -> spendToken(rateLimiter));
+
+        // One token a minute: the first city spends it and the others cannot wait that long.
+        assertThat(report.succeededCities()).containsExactly("Delhi");
+        assertThat(report.skippedCities()).containsExactly("Mumbai", "Pune");
+        assertThat(report.durationMs()).isLessThan(CYCLE_TIMEOUT_MS);
+        assertThat(report.providerCalls()).isEqualTo(1);
+    }
+
+    @Test
+    void keepsTheGuardUntilACallThatIgnoresCancellationReturns() throws Exception {
+        engine = engine(60, 2);
+        CountDownLatch providerAnswers = new CountDownLatch(1);
+        AtomicInteger stuckCalls = new AtomicInteger();
+
+        PollCycleReport report = engine.runCycle(List.of("Delhi", "Mumbai"), city -> {
+            if (city.equals("Delhi")) {
+                stuckCalls.incrementAndGet();
+                awaitUninterruptibly(providerAnswers);
+            }
+        });
+
+        assertThat(report.succeededCities()).containsExactly("Mumbai");
+        assertThat(report.failedCities()).containsExactly(Map.entry("Delhi", "Timed out after poll cycle deadline"));
+        assertThat(report.durationMs()).isBetween(CYCLE_TIMEOUT_MS, CYCLE_TIMEOUT_MS * 5);
+
+        // Delhi's call is still going, so the next cycle does not start another one.
+        assertThat(engine.isCycleRunning()).isTrue();
+        PollCycleReport overlapping = engine.runCycle(List.of("Delhi", "Mumbai"), city -> stuckCalls.incrementAndGet());
+        assertThat(overlapping.skippedCities()).containsExactly("Delhi", "Mumbai");
+        assertThat(stuckCalls).hasValue(1);
+
+        providerAnswers.countDown();
+        waitUntilIdle();
+        PollCycleReport next = engine.runCycle(List.of("Delhi", "Mumbai"), city -> {
+        });
+        assertThat(next.succeededCities()).containsExactly("Delhi", "Mumbai");
+    }
+
+    @Test
+    void aGroupAbandonedBeforeItStartedDoesNotHoldTheGuard() throws Exception {
+        engine = engine(60, 1);
+        CountDownLatch providerAnswers = new CountDownLatch(1);
+
+        // One worker: Delhi holds it past the deadline, so Mumbai is cancelled while still queued.
+        PollCycleReport report = engine.runCycle(List.of("Delhi", "Mumbai"), city -> awaitUninterruptibly(providerAnswers));
+        assertThat(report.failedCities()).containsOnlyKeys("Delhi", "Mumbai");
+
+        providerAnswers.countDown();
+        waitUntilIdle();
+    }
+
+    private CityPollingEngine engine(int permitsPerMinute, int maxInFlight) {
+        return new CityPollingEngine(new ProviderRateLimiter(permitsPerMinute),
+                new WeatherMetrics(new SimpleMeterRegistry()), maxInFlight, CYCLE_TIMEOUT_MS);
+    }
+
+    /**
+     * What the provider client does for each call: spends the cycle's reservation.
+     */
+    private static void spendToken(ProviderRateLimiter rateLimiter) {
+        try {
+            assertThat(rateLimiter.acquireForCall(0)).isTrue();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void waitUntilIdle() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (engine.isCycleRunning()) {
+            assertThat(System.nanoTime()).as("guard released in time").isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    /**
+     * Stands in for a blocking HTTP call, which an interrupt does not end.
+     */
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                if (latch.await(10, TimeUnit.SECONDS)) {
+                    break;
+                }
+            } catch (InterruptedException exception) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
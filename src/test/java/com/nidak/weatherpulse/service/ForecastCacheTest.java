@@ -0,0 +1,155 @@
+package com.nidak.weatherpulse.service;
+
+import com.nidak.weatherpulse.dto.CacheStats;
+import com.nidak.weatherpulse.entity.Weather;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ForecastCacheTest {
+
+    private static final long MINUTE = TimeUnit.MINUTES.toMillis(1);
+
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+    private ForecastCache cache;
+
+    @AfterEach
+    void shutdown() {
+        if (cache != null) {
+            cache.shutdown();
+        }
+    }
+
+    @Test
+    void reloadsAnEntryOnceItsTtlHasPassed() {
+        cache = new ForecastCache(60, 10, 1.0, clock::get);
+        CountingLoader loader = new CountingLoader();
+
+        assertThat(cache.get("Delhi", loader)).extracting(Weather::getTemperature).containsExactly(1.0);
+        clock.addAndGet(59 * MINUTE);
+        assertThat(cache.get("Delhi", loader)).extracting(Weather::getTemperature).containsExactly(1.0);
+        clock.addAndGet(MINUTE);
+        assertThat(cache.get("Delhi", loader)).extracting(Weather::getTemperature).containsExactly(2.0);
+
+        assertThat(loader.calls).hasValue(2);
+        assertThat(cache.getStats()).isEqualTo(new CacheStats(1, 1, 1, 1));
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedCityAtMaxSize() {
+        cache = new ForecastCache(60, 2, 1.0, clock::get);
+        CountingLoader delhi = new CountingLoader();
+        CountingLoader mumbai = new CountingLoader();
+        CountingLoader chennai = new CountingLoader();
+
+        cache.get("Delhi", delhi);
+        cache.get("Mumbai", mumbai);
+        // Reading Delhi makes Mumbai the eldest, so Chennai pushes Mumbai out.
+        cache.get("Delhi", delhi);
+        cache.get("Chennai", chennai);
+        cache.get("Delhi", delhi);
+        cache.get("Mumbai", mumbai);
+
+        assertThat(delhi.calls).hasValue(1);
+        assertThat(mumbai.calls).hasValue(2);
+        assertThat(cache.getStats().size()).isEqualTo(2);
+    }
+
+    @Test
+    void aHitPastTheRefreshAheadPointReloadsInTheBackground() throws Exception {
+        cache = new ForecastCache(60, 10, 0.5, clock::get);
+        CountingLoader loader = new CountingLoader();
+        cache.get("Delhi", loader);
+        clock.addAndGet(29 * MINUTE);
+        assertThat(cache.isRefreshDue("Delhi")).isFalse();
+        cache.get("Delhi", loader);
+        assertThat(loader.calls).hasValue(1);
+
+        clock.addAndGet(MINUTE);
+        assertThat(cache.isRefreshDue("Delhi")).isTrue();
+        assertThat(cache.get("Delhi", loader)).extracting(Weather::getTemperature).containsExactly(1.0);
+
+        waitUntil(() -> !cache.isRefreshDue("Delhi"));
+        assertThat(loader.calls).hasValue(2);
+        assertThat(cache.get("Delhi", loader)).extracting(Weather::getTemperature).containsExactly(2.0);
+    }
+
+    @Test
+    void aHitNeverWaitsOnASlowProvider() throws Exception {
+        cache = new ForecastCache(60, 10, 0.5, clock::get);
+        cache.get("Delhi", new CountingLoader());
+        clock.addAndGet(45 * MINUTE);
+
+        CountDownLatch providerAnswers = new CountDownLatch(1);
+        CountDownLatch refreshStarted = new CountDownLatch(1);
+        Supplier<List<Weather>> slowProvider = () -> {
+            refreshStarted.countDown();
+            try {
+                providerAnswers.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+            return List.of(forecast(9));
+        };
+        try {
+            long startNanos = System.nanoTime();
+            assertThat(cache.get("Delhi", slowProvider)).extracting(Weather::getTemperature).containsExactly(1.0);
+            assertThat(refreshStarted.await(5, TimeUnit.SECONDS)).isTrue();
+            // The refresh is still stuck on the provider; more hits are answered from the old entry straight away.
+            assertThat(cache.get("Delhi", slowProvider)).extracting(Weather::getTemperature).containsExactly(1.0);
+            assertThat(System.nanoTime() - startNanos).isLessThan(TimeUnit.SECONDS.toNanos(1));
+        } finally {
+            providerAnswers.countDown();
+        }
+    }
+
+    @Test
+    void aFailedLoadLeavesNothingCached() {
+        cache = new ForecastCache(60, 10, 1.0, clock::get);
+
+        assertThatThrownBy(() -> cache.get("Delhi", () -> {
+            throw new IllegalStateException("provider down");
+        })).hasMessage("provider down");
+        assertThat(cache.getStats().size()).isZero();
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition reached in time").isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    private static Weather forecast(double temperature) {
+        Weather weather = new Weather();
+        weather.setCity("Delhi");
+        weather.setTemperature(temperature);
+        weather.setTimestamp(LocalDateTime.now());
+        return weather;
+    }
+
+    /**
+     * Answers with its call number as the temperature, so a test can tell which load it got.
+     */
+    private static final class CountingLoader implements Supplier<List<Weather>> {
+
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public List<Weather> get() {
+            return List.of(forecast(calls.incrementAndGet()));
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.nidak.weatherpulse.service;
+
+import com.nidak.weatherpulse.dto.CacheStats;
+import com.nidak.weatherpulse.entity.Weather;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LatestWeatherCacheTest {
+
+    @Test
+    void countsHitsMissesAndStaleReads() {
+        LatestWeatherCache cache = new LatestWeatherCache(3);
+        LocalDateTime now = LocalDateTime.now();
+        cache.putAll(List.of(sample("Delhi", now.minusMinutes(1), 31), sample("Mumbai", now.minusMinutes(10), 29)));
+
+        assertThat(cache.getFresh("Delhi").getTemperature()).isEqualTo(31);
+        assertThat(cache.getFresh("Delhi")).isNotNull();
+        assertThat(cache.getFresh("Mumbai")).isNull();
+        assertThat(cache.getFresh("Chennai")).isNull();
+
+        assertThat(cache.getStats()).isEqualTo(new CacheStats(2, 2, 1, 1));
+    }
+
+    @Test
+    void staleMinutesDecideWhenAnEntryIsTooOld() {
+        Weather tenMinutesOld = sample("Delhi", LocalDateTime.now().minusMinutes(10), 31);
+
+        LatestWeatherCache strict = new LatestWeatherCache(3);
+        strict.put(tenMinutesOld);
+        LatestWeatherCache relaxed = new LatestWeatherCache(15);
+        relaxed.put(tenMinutesOld);
+
+        assertThat(strict.getFresh("Delhi")).isNull();
+        assertThat(relaxed.getFresh("Delhi")).isSameAs(tenMinutesOld);
+        // The timestamp lookup does not care about staleness and is not counted as a read.
+        assertThat(strict.latestTimestamp("Delhi")).isEqualTo(tenMinutesOld.getTimestamp());
+        assertThat(strict.getStats()).isEqualTo(new CacheStats(1, 0, 0, 1));
+    }
+
+    @Test
+    void keepsTheNewestObservationPerCity() {
+        LatestWeatherCache cache = new LatestWeatherCache(3);
+        LocalDateTime now = LocalDateTime.now();
+        cache.put(sample("Delhi", now, 31));
+        cache.put(sample("Delhi", now.minusMinutes(1), 25));
+
+        assertThat(cache.getFresh("Delhi").getTemperature()).isEqualTo(31);
+
+        cache.put(sample("Delhi", now.plusSeconds(30), 33));
+        assertThat(cache.getFresh("Delhi").getTemperature()).isEqualTo(33);
+    }
+
+    private static Weather sample(String city, LocalDateTime timestamp, double temperature) {
+        Weather weather = new Weather();
+        weather.setCity(city);
+        weather.setTemperature(temperature);
+        weather.setTimestamp(timestamp);
+        return weather;
+    }
+}
@@ -0,0 +1,51 @@
+package com.nidak.weatherpulse.service;
+
+import com.nidak.weatherpulse.exception.WeatherServiceException;
+import com.nidak.weatherpulse.support.LegacyOrgJsonMapping;
+import com.nidak.weatherpulse.support.ProviderFixtures;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OpenWeatherPayloadDecoderTest {
+
+    @Test
+    void decodesRecordedPayloadsLikeTheOrgJsonMapping() throws Exception {
+        byte[] current = ProviderFixtures.read("/openweather/current-weather.json");
+        byte[] forecast = ProviderFixtures.read("/openweather/forecast.json");
+
+        assertThat(OpenWeatherPayloadDecoder.decodeCurrent(new ByteArrayInputStream(current)))
+                .isEqualTo(LegacyOrgJsonMapping.decodeCurrent(
+                        new String(current, StandardCharsets.UTF_8)));
+        assertThat(OpenWeatherPayloadDecoder.decodeForecast(new ByteArrayInputStream(forecast)))
+                .hasSize(40)
+                .isEqualTo(LegacyOrgJsonMapping.decodeForecast(
+                        new String(forecast, StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void fallsBackLikeOptLookupsAndRejectsMissingRequiredFields() throws Exception {
+        String sparse = """
+                {"weather":[{"main":"Rain","description":null},{"main":"Mist"}],
+                 "main":{"temp":"300.5","humidity":null},"wind":"calm","extra":{"nested":[1,2,3]}}
+                """;
+        OpenWeatherPayloadDecoder.Observation observation = decode(sparse);
+        assertThat(observation).isEqualTo(new OpenWeatherPayloadDecoder.Observation(
+                300.5, 0, 0, 0, 0, "Rain", "Rain", null));
+
+        assertThatThrownBy(() -> decode("{\"weather\":[{\"main\":\"Rain\"}],\"main\":{}}"))
+                .isInstanceOf(WeatherServiceException.class);
+        assertThatThrownBy(() -> decode("{\"weather\":[],\"main\":{\"temp\":300}}"))
+                .isInstanceOf(WeatherServiceException.class);
+        assertThatThrownBy(() -> decode("{\"main\":"))
+                .isInstanceOf(WeatherServiceException.class);
+    }
+
+    private static OpenWeatherPayloadDecoder.Observation decode(String json) throws Exception {
+        return OpenWeatherPayloadDecoder.decodeCurrent(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+}
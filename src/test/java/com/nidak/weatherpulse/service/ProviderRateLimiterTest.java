@@ -0,0 +1,33 @@
+package com.nidak.weatherpulse.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProviderRateLimiterTest {
+
+    @Test
+    void aReservedTokenPaysForTheNextCallOnly() throws Exception {
+        ProviderRateLimiter limiter = new ProviderRateLimiter(2);
+
+        assertThat(limiter.tryReserve(0)).isTrue();
+        assertThat(limiter.acquireForCall(0)).isTrue();
+        assertThat(limiter.getAvailablePermits()).isEqualTo(1);
+
+        // The reservation is spent, so the next call takes the last token and the one after finds none.
+        assertThat(limiter.acquireForCall(0)).isTrue();
+        assertThat(limiter.acquireForCall(0)).isFalse();
+        assertThat(limiter.releaseReservation()).isEqualTo(2);
+        assertThat(limiter.releaseReservation()).isZero();
+    }
+
+    @Test
+    void anUnusedReservationIsHandedBack() throws Exception {
+        ProviderRateLimiter limiter = new ProviderRateLimiter(1);
+
+        assertThat(limiter.tryReserve(0)).isTrue();
+        assertThat(limiter.getAvailablePermits()).isZero();
+        assertThat(limiter.releaseReservation()).isZero();
+        assertThat(limiter.acquireForCall(0)).isTrue();
+    }
+}
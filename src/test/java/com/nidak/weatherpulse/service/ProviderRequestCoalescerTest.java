@@ -0,0 +1,157 @@
+package com.nidak.weatherpulse.service;
+
+import com.nidak.weatherpulse.dto.CoalescingStats;
+import com.nidak.weatherpulse.exception.WeatherServiceException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProviderRequestCoalescerTest {
+
+    private static final int CALLERS = 8;
+
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void stopCallers() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    void concurrentCallersShareOneProviderCallAndOneRow() throws Exception {
+        ProviderRequestCoalescer coalescer = new ProviderRequestCoalescer(5_000);
+        CountDownLatch providerAnswers = new CountDownLatch(1);
+        AtomicInteger providerCalls = new AtomicInteger();
+        Queue<String> storedRows = new ConcurrentLinkedQueue<>();
+
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(callers.submit(() -> coalescer.execute("current:delhi", () -> {
+                providerCalls.incrementAndGet();
+                await(providerAnswers);
+                storedRows.add("Delhi 31.5");
+                return "Delhi 31.5";
+            })));
+        }
+        waitUntil(() -> coalescer.getStats().coalesced() == CALLERS - 1);
+        providerAnswers.countDown();
+
+        for (Future<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("Delhi 31.5");
+        }
+        assertThat(providerCalls).hasValue(1);
+        assertThat(storedRows).hasSize(1);
+        assertThat(coalescer.getStats()).isEqualTo(new CoalescingStats(0, 1, CALLERS - 1, 0));
+    }
+
+    @Test
+    void aFollowerGivesUpAfterTheWaitTimeout() throws Exception {
+        ProviderRequestCoalescer coalescer = new ProviderRequestCoalescer(50);
+        CountDownLatch providerAnswers = new CountDownLatch(1);
+        Future<String> leader = callers.submit(() -> coalescer.execute("current:delhi", () -> {
+            await(providerAnswers);
+            return "Delhi 31.5";
+        }));
+        waitUntil(() -> coalescer.getStats().inFlight() == 1);
+
+        assertThatThrownBy(() -> coalescer.execute("current:delhi", () -> "never called"))
+                .isInstanceOfSatisfying(WeatherServiceException.class,
+                        exception -> assertThat(exception.getStatus()).isEqualTo(HttpStatus.GATEWAY_TIMEOUT));
+
+        providerAnswers.countDown();
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("Delhi 31.5");
+        assertThat(coalescer.getStats()).isEqualTo(new CoalescingStats(0, 1, 1, 1));
+    }
+
+    @Test
+    void aFailedLeaderFailsItsFollowersAndFreesTheKey() throws Exception {
+        ProviderRequestCoalescer coalescer = new ProviderRequestCoalescer(5_000);
+        CountDownLatch providerAnswers = new CountDownLatch(1);
+        Future<String> leader = callers.submit(() -> coalescer.execute("current:delhi", () -> {
+            await(providerAnswers);
+            throw new WeatherServiceException(HttpStatus.BAD_GATEWAY, "provider down");
+        }));
+        waitUntil(() -> coalescer.getStats().inFlight() == 1);
+        Future<String> follower = callers.submit(() -> coalescer.execute("current:delhi", () -> "never called"));
+        waitUntil(() -> coalescer.getStats().coalesced() == 1);
+        providerAnswers.countDown();
+
+        assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS)).hasRootCauseMessage("provider down");
+        assertThatThrownBy(() -> follower.get(5, TimeUnit.SECONDS)).hasRootCauseMessage("provider down");
+        assertThat(coalescer.execute("current:delhi", () -> "Delhi 30.0")).isEqualTo("Delhi 30.0");
+    }
+
+    @Test
+    void aClosedGroupClaimFailsFollowersOfTheKeysItNeverAnswered() throws Exception {
+        ProviderRequestCoalescer coalescer = new ProviderRequestCoalescer(5_000);
+        Future<String> mumbai;
+        Future<String> delhi;
+        try (ProviderRequestCoalescer.GroupClaim claim = coalescer.claim(List.of("current:mumbai", "current:delhi"))) {
+            assertThat(claim.holds("current:mumbai")).isTrue();
+            mumbai = callers.submit(() -> coalescer.execute("current:mumbai", () -> "never called"));
+            delhi = callers.submit(() -> coalescer.execute("current:delhi", () -> "never called"));
+            waitUntil(() -> coalescer.getStats().coalesced() == 2);
+
+            claim.complete("current:mumbai", "Mumbai 29.0");
+        }
+
+        assertThat(mumbai.get(5, TimeUnit.SECONDS)).isEqualTo("Mumbai 29.0");
+        assertThatThrownBy(() -> delhi.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .cause()
+                .isInstanceOfSatisfying(WeatherServiceException.class,
+                        exception -> assertThat(exception.getStatus()).isEqualTo(HttpStatus.BAD_GATEWAY));
+        assertThat(coalescer.getStats()).isEqualTo(new CoalescingStats(0, 2, 2, 0));
+    }
+
+    @Test
+    void aGroupClaimLeavesKeysThatAreAlreadyBeingFetched() throws Exception {
+        ProviderRequestCoalescer coalescer = new ProviderRequestCoalescer(5_000);
+        CountDownLatch providerAnswers = new CountDownLatch(1);
+        Future<String> leader = callers.submit(() -> coalescer.execute("current:delhi", () -> {
+            await(providerAnswers);
+            return "Delhi 31.5";
+        }));
+        waitUntil(() -> coalescer.getStats().inFlight() == 1);
+
+        try (ProviderRequestCoalescer.GroupClaim claim = coalescer.claim(List.of("current:delhi", "current:pune"))) {
+            assertThat(claim.holds("current:delhi")).isFalse();
+            assertThat(claim.holds("current:pune")).isTrue();
+        }
+        providerAnswers.countDown();
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("Delhi 31.5");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition reached in time").isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+}
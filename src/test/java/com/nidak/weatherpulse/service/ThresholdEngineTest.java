@@ -0,0 +1,163 @@
+package com.nidak.weatherpulse.service;
+
+import com.nidak.weatherpulse.entity.Weather;
+import com.nidak.weatherpulse.entity.WeatherThreshold;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class ThresholdEngineTest {
+
+    @Test
+    void firesEveryMatchingRuleForOneSample() {
+        ThresholdEngine engine = new ThresholdEngine();
+        engine.register(new WeatherThreshold("temperature", 30, null, 1, null));
+        engine.register(new WeatherThreshold("temperature", 35, null, 1, null));
+        engine.register(new WeatherThreshold("weatherCondition", 0, "clear", 1, "Clear sky"));
+        engine.register(new WeatherThreshold("temperature", 45, null, 1, null));
+
+        List<ThresholdEngine.ThresholdBreach> breaches = engine.evaluate("Delhi", sample("Delhi", 38, "Clear"));
+
+        assertThat(breaches)
+                .extracting(breach -> breach.rule().id())
+                .containsExactlyInAnyOrder(0, 1, 2);
+    }
+
+    @Test
+    void returnsBreachesInRegistrationOrder() {
+        ThresholdEngine engine = new ThresholdEngine();
+        engine.register(new WeatherThreshold("weatherCondition", 0, "Clear", 1, "Clear sky"));
+        engine.register(new WeatherThreshold("temperature", 35, null, 1, "Above 35"));
+        engine.register(new WeatherThreshold("temperature", 30, null, 1, "Above 30"));
+
+        assertThat(engine.evaluate("Delhi", sample("Delhi", 38, "Clear")))
+                .extracting(ThresholdEngine.ThresholdBreach::alertMessage)
+                .containsExactly("Clear sky", "Above 35", "Above 30");
+    }
+
+    @Test
+    void keepsRulesWithAnUnknownConditionWithoutEverFiringThem() {
+        ThresholdEngine engine = new ThresholdEngine();
+        ThresholdEngine.CompiledThreshold unknown = engine.register(new WeatherThreshold("humidity", 10, null, 1, null));
+        engine.register(new WeatherThreshold("temperature", 30, null, 1, null));
+
+        assertThat(unknown.metric()).isNull();
+        assertThat(engine.size()).isEqualTo(2);
+        assertThat(engine.evaluate("Delhi", sample("Delhi", 38, "Clear")))
+                .extracting(breach -> breach.rule().id())
+                .containsExactly(1);
+    }
+
+    @Test
+    void checkAnswersWithTheFirstRuleAddedWhileEveryRuleAdvances() {
+        ThresholdEngine engine = new ThresholdEngine();
+        engine.register(new WeatherThreshold("temperature", 30, null, 1, "Hot"));
+        engine.register(new WeatherThreshold("temperature", 35, null, 2, "Very hot"));
+        WeatherService service = new WeatherServiceBuilder().thresholdEngine(engine).build();
+
+        assertThat(service.checkAlerts(sample("Delhi", 38, "Clear"))).isEqualTo("Hot");
+        // The second rule counted the first sample too, so it fires on the second.
+        assertThat(service.checkAlerts(sample("Delhi", 38, "Clear"))).isEqualTo("Very hot");
+        assertThat(service.checkAlerts(sample("Delhi", 38, "Clear"))).isEqualTo("No alerts triggered.");
+    }
+
+    @Test
+    void resetsStreakWhenSampleStopsBreaching() {
+        ThresholdEngine engine = new ThresholdEngine();
+        engine.register(new WeatherThreshold("temperature", 30, null, 2, null));
+
+        assertThat(engine.evaluate("Delhi", sample("Delhi", 31, "Clear"))).isEmpty();
+        assertThat(engine.evaluate("Delhi", sample("Delhi", 29, "Clear"))).isEmpty();
+        assertThat(engine.evaluate("Delhi", sample("Delhi", 31, "Clear"))).isEmpty();
+        assertThat(engine.evaluate("Delhi", sample("Delhi", 31, "Clear"))).hasSize(1);
+        assertThat(engine.evaluate("Delhi", sample("Delhi", 31, "Clear"))).isEmpty();
+    }
+
+    @Test
+    void requeuedStreaksAreDrainedAgainWithTheirCurrentCount() {
+        ThresholdEngine engine = new ThresholdEngine();
+        engine.register(new WeatherThreshold("temperature", 30, null, 5, null), 7);
+
+        engine.evaluate("Delhi", sample("Delhi", 31, "Clear"));
+        List<ThresholdEngine.StreakUpdate> failedWrite = engine.drainChangedStreaks();
+        assertThat(failedWrite).extracting(ThresholdEngine.StreakUpdate::count).containsExactly(1);
+        assertThat(engine.drainChangedStreaks()).isEmpty();
+
+        engine.requeueChangedStreaks(failedWrite);
+        engine.evaluate("Delhi", sample("Delhi", 32, "Clear"));
+        assertThat(engine.drainChangedStreaks())
+                .extracting(ThresholdEngine.StreakUpdate::thresholdId, ThresholdEngine.StreakUpdate::count)
+                .containsExactly(tuple(7L, 2));
+    }
+
+    @Test
+    void concurrentSamplesFireEachRuleExactlyOncePerCity() throws Exception {
+        int ruleCount = 3_000;
+        int cityCount = 200;
+        int samplesPerCity = 6;
+        int consecutiveUpdates = 4;
+
+        ThresholdEngine engine = new ThresholdEngine();
+        for (int i = 0; i < ruleCount; i++) {
+            if (i % 3 == 0) {
+                engine.register(new WeatherThreshold("weatherCondition", 0, i % 2 == 0 ? "Clear" : "Rain",
+                        consecutiveUpdates, null));
+            } else {
+                engine.register(new WeatherThreshold("temperature", i % 60, null, consecutiveUpdates, null));
+            }
+        }
+
+        long breachingRules = 0;
+        for (int i = 0; i < ruleCount; i++) {
+            boolean conditionRule = i % 3 == 0;
+            if ((conditionRule && i % 2 == 0) || (!conditionRule && 45.5 > i % 60)) {
+                breachingRules++;
+            }
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger fired = new AtomicInteger();
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int c = 0; c < cityCount; c++) {
+                String city = "City" + c;
+                for (int s = 0; s < samplesPerCity; s++) {
+                    tasks.add(pool.submit(() -> {
+                        start.await();
+                        fired.addAndGet(engine.evaluate(city, sample(city, 45.5, "Clear")).size());
+                        return null;
+                    }));
+                }
+            }
+            start.countDown();
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(fired.get()).isEqualTo(breachingRules * cityCount);
+    }
+
+    private static Weather sample(String city, double temperature, String condition) {
+        Weather weather = new Weather();
+        weather.setCity(city);
+        weather.setTemperature(temperature);
+        weather.setFeelsLike(temperature);
+        weather.setWeatherCondition(condition);
+        weather.setTimestamp(LocalDateTime.now());
+        return weather;
+    }
+}
@@ -0,0 +1,24 @@
+package com.nidak.weatherpulse.service;
+
+import com.nidak.weatherpulse.dto.CityTrends;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TrendEngineTest {
+
+    @Test
+    void answersUnknownCitiesWithoutSeedingThem() {
+        // No repositories: seeding a city would throw, so these calls must not get that far.
+        TrendEngine engine = new TrendEngine(null, null, new CityRegistry(null), 1);
+
+        for (int i = 0; i < 3; i++) {
+            CityTrends trends = engine.trends("Made-up City " + i);
+            assertThat(trends.windows()).extracting(CityTrends.Window::window).containsExactly("24h", "7d", "30d");
+            assertThat(trends.windows()).allSatisfy(window -> {
+                assertThat(window.samples()).isZero();
+                assertThat(window.temperature().movingAverage()).isNull();
+            });
+        }
+    }
+}
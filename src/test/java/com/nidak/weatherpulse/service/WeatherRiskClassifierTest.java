@@ -0,0 +1,119 @@
+package com.nidak.weatherpulse.service;
+
+import com.nidak.weatherpulse.entity.Weather;
+import com.nidak.weatherpulse.entity.WeatherAlert;
+import com.nidak.weatherpulse.support.LegacyRiskRules;
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WeatherRiskClassifierTest {
+
+    /**
+     * Every OpenWeather condition code with the main/description pair the API reports for it.
+     */
+    private static final Object[][] OPENWEATHER_CODES = {
+            {200, "Thunderstorm", "thunderstorm with light rain"}, {201, "Thunderstorm", "thunderstorm with rain"},
+            {202, "Thunderstorm", "thunderstorm with heavy rain"}, {210, "Thunderstorm", "light thunderstorm"},
+            {211, "Thunderstorm", "thunderstorm"}, {212, "Thunderstorm", "heavy thunderstorm"},
+            {221, "Thunderstorm", "ragged thunderstorm"}, {230, "Thunderstorm", "thunderstorm with light drizzle"},
+            {231, "Thunderstorm", "thunderstorm with drizzle"}, {232, "Thunderstorm", "thunderstorm with heavy drizzle"},
+            {300, "Drizzle", "light intensity drizzle"}, {301, "Drizzle", "drizzle"},
+            {302, "Drizzle", "heavy intensity drizzle"}, {310, "Drizzle", "light intensity drizzle rain"},
+            {311, "Drizzle", "drizzle rain"}, {312, "Drizzle", "heavy intensity drizzle rain"},
+            {313, "Drizzle", "shower rain and drizzle"}, {314, "Drizzle", "heavy shower rain and drizzle"},
+            {321, "Drizzle", "shower drizzle"},
+            {500, "Rain", "light rain"}, {501, "Rain", "moderate rain"}, {502, "Rain", "heavy intensity rain"},
+            {503, "Rain", "very heavy rain"}, {504, "Rain", "extreme rain"}, {511, "Rain", "freezing rain"},
+            {520, "Rain", "light intensity shower rain"}, {521, "Rain", "shower rain"},
+            {522, "Rain", "heavy intensity shower rain"}, {531, "Rain", "ragged shower rain"},
+            {600, "Snow", "light snow"}, {601, "Snow", "snow"}, {602, "Snow", "heavy snow"}, {611, "Snow", "sleet"},
+            {612, "Snow", "light shower sleet"}, {613, "Snow", "shower sleet"}, {615, "Snow", "light rain and snow"},
+            {616, "Snow", "rain and snow"}, {620, "Snow", "light shower snow"}, {621, "Snow", "shower snow"},
+            {622, "Snow", "heavy shower snow"},
+            {701, "Mist", "mist"}, {711, "Smoke", "smoke"}, {721, "Haze", "haze"}, {731, "Dust", "sand/dust whirls"},
+            {741, "Fog", "fog"}, {751, "Sand", "sand"}, {761, "Dust", "dust"}, {762, "Ash", "volcanic ash"},
+            {771, "Squall", "squalls"}, {781, "Tornado", "tornado"},
+            {800, "Clear", "clear sky"}, {801, "Clouds", "few clouds"}, {802, "Clouds", "scattered clouds"},
+            {803, "Clouds", "broken clouds"}, {804, "Clouds", "overcast clouds"}
+    };
+
+    private static final double[] WIND_SPEEDS = {0, 5.5, 16.99, 17, 27.99, 28, 45};
+    private static final double[] TEMPERATURES = {-8, 20, 34.99, 35, 39.99, 40, 48};
+
+    @Test
+    void matchesTheOriginalRulesForEveryOpenWeatherCode() {
+        WeatherService service = new WeatherServiceBuilder().build();
+        for (Object[] code : OPENWEATHER_CODES) {
+            int weatherCode = (Integer) code[0];
+            for (String description : new String[]{(String) code[2], ((String) code[2]).toUpperCase(Locale.ROOT), null}) {
+                for (double windSpeed : WIND_SPEEDS) {
+                    for (double temperature : TEMPERATURES) {
+                        assertSameOutcome(service, weatherCode, (String) code[1], description, windSpeed, temperature);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void matchesTheOriginalRulesOnArbitraryText() {
+        WeatherService service = new WeatherServiceBuilder().build();
+        // Keywords in mixed case plus characters whose case mapping is not plain ASCII.
+        String[] fragments = {"sand", "DUST", "Tornado", "squaLL", "hurricane", "CYCLONE", "Clear", "sun", "Rain",
+                "drizzle", " ", "/", "sa", "cl", "tornad", "İ", "ſun", "Kelvin", "straße", "é", "x"};
+        Random random = new Random(19);
+        for (int i = 0; i < 100_000; i++) {
+            int weatherCode = random.nextInt(10) == 0 ? random.nextInt(1200) - 100 : 200 + random.nextInt(620);
+            assertSameOutcome(service, weatherCode, randomText(random, fragments), randomText(random, fragments),
+                    random.nextDouble() * 40, 20 + random.nextDouble() * 25);
+        }
+    }
+
+    @Test
+    void returnsSharedLabelConstants() {
+        assertThat(WeatherRiskClassifier.classify(800, "Clear", "clear sky", 2, 38))
+                .isSameAs(WeatherRiskClassifier.SUNNY_HEAT);
+        assertThat(WeatherRiskClassifier.classify(212, "Thunderstorm", "heavy thunderstorm", 30, 25))
+                .isSameAs(WeatherRiskClassifier.SEVERE_STORM);
+        assertThat(WeatherRiskClassifier.classify(731, "Dust", "sand/dust whirls", 3, 30))
+                .isSameAs(WeatherRiskClassifier.SANDSTORM);
+        assertThat(WeatherRiskClassifier.classify(804, "Clouds", "overcast clouds", 3, 30))
+                .isSameAs(WeatherRiskClassifier.LOW);
+    }
+
+    private static void assertSameOutcome(WeatherService service, int weatherCode, String condition, String description,
+                                          double windSpeed, double temperature) {
+        String expectedRisk = LegacyRiskRules.determineWeatherRisk(weatherCode, condition, description, windSpeed, temperature);
+        assertThat(service.determineWeatherRisk(weatherCode, condition, description, windSpeed, temperature))
+                .as("risk for %d/%s/%s wind %s temp %s", weatherCode, condition, description, windSpeed, temperature)
+                .isEqualTo(expectedRisk);
+
+        Weather weather = new Weather();
+        weather.setCity("Delhi");
+        weather.setWeatherCode(weatherCode);
+        weather.setWeatherCondition(condition);
+        weather.setWeatherDescription(description);
+        weather.setWindSpeed(windSpeed);
+        weather.setTemperature(temperature);
+        weather.setWeatherRisk(expectedRisk);
+        assertThat(service.buildSystemAlerts(weather))
+                .extracting(WeatherAlert::getAlertType)
+                .as("system alerts for %d/%s/%s temp %s", weatherCode, condition, description, temperature)
+                .containsExactlyElementsOf(LegacyRiskRules.systemAlertTypes(weather));
+    }
+
+    private static String randomText(Random random, String[] fragments) {
+        if (random.nextInt(20) == 0) {
+            return null;
+        }
+        StringBuilder text = new StringBuilder();
+        for (int i = random.nextInt(5); i > 0; i--) {
+            text.append(fragments[random.nextInt(fragments.length)]);
+        }
+        return text.toString();
+    }
+}
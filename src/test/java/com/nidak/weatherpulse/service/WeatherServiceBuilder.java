@@ -0,0 +1,100 @@
+package com.nidak.weatherpulse.service;
+
+import com.nidak.weatherpulse.repository.DailyWeatherSummaryRepository;
+import com.nidak.weatherpulse.repository.WeatherAlertRepository;
+import com.nidak.weatherpulse.repository.WeatherRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * A {@link WeatherService} for the tests and benchmarks that drive it without Spring or a database.
+ * The threshold engine, city registry and metrics are real; every other collaborator stays null unless set,
+ * so a path that reaches one it was not given fails loudly instead of quietly doing nothing.
+ */
+final class WeatherServiceBuilder {
+
+    private WeatherRepository weatherRepository;
+    private DailyWeatherSummaryRepository dailyWeatherSummaryRepository;
+    private WeatherAlertRepository weatherAlertRepository;
+    private CityPollingEngine cityPollingEngine;
+    private AdaptivePollScheduler adaptivePollScheduler;
+    private WeatherProviderClient weatherProviderClient;
+    private DailySummaryAggregator dailySummaryAggregator;
+    private LatestWeatherCache latestWeatherCache;
+    private ProviderRequestCoalescer providerRequestCoalescer;
+    private ForecastCache forecastCache;
+    private ProviderRateLimiter providerRateLimiter;
+    private WeatherIngestPipeline weatherIngestPipeline;
+    private WeatherHistoryReader weatherHistoryReader;
+    private WeatherExporter weatherExporter;
+    private WeatherRetentionManager weatherRetentionManager;
+    private TrendEngine trendEngine;
+    private CityBatchResolver cityBatchResolver;
+    private FinalizedDayResponseCache finalizedDayResponseCache;
+    private WeatherEventBroadcaster weatherEventBroadcaster;
+    private OpenWeatherCityIds openWeatherCityIds;
+    private CityRegistry cityRegistry = new CityRegistry(null);
+    private ThresholdEngine thresholdEngine = new ThresholdEngine();
+    private ThresholdStore thresholdStore;
+    private WeatherMetrics weatherMetrics = new WeatherMetrics(new SimpleMeterRegistry());
+    private String trackedCities = "";
+
+    WeatherServiceBuilder thresholdEngine(ThresholdEngine thresholdEngine) {
+        this.thresholdEngine = thresholdEngine;
+        return this;
+    }
+
+    WeatherServiceBuilder weatherProviderClient(WeatherProviderClient weatherProviderClient) {
+        this.weatherProviderClient = weatherProviderClient;
+        return this;
+    }
+
+    WeatherServiceBuilder cityPollingEngine(CityPollingEngine cityPollingEngine) {
+        this.cityPollingEngine = cityPollingEngine;
+        return this;
+    }
+
+    WeatherServiceBuilder adaptivePollScheduler(AdaptivePollScheduler adaptivePollScheduler) {
+        this.adaptivePollScheduler = adaptivePollScheduler;
+        return this;
+    }
+
+    /**
+     * Stands in for {@code weather.tracked-cities}, which the service reads from a field Spring fills in.
+     */
+    WeatherServiceBuilder trackedCities(String trackedCities) {
+        this.trackedCities = trackedCities;
+        return this;
+    }
+
+    WeatherService build() {
+        WeatherService service = new WeatherService(
+                weatherRepository,
+                dailyWeatherSummaryRepository,
+                weatherAlertRepository,
+                cityPollingEngine,
+                adaptivePollScheduler,
+                weatherProviderClient,
+                dailySummaryAggregator,
+                latestWeatherCache,
+                providerRequestCoalescer,
+                forecastCache,
+                providerRateLimiter,
+                weatherIngestPipeline,
+                weatherHistoryReader,
+                weatherExporter,
+                weatherRetentionManager,
+                trendEngine,
+                cityBatchResolver,
+                finalizedDayResponseCache,
+                weatherEventBroadcaster,
+                openWeatherCityIds,
+                cityRegistry,
+                thresholdEngine,
+                thresholdStore,
+                weatherMetrics
+        );
+        ReflectionTestUtils.setField(service, "trackedCitiesConfig", trackedCities);
+        return service;
+    }
+}
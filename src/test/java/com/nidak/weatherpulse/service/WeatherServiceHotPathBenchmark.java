@@ -0,0 +1,287 @@
+package com.nidak.weatherpulse.service;
+
+import com.nidak.weatherpulse.entity.Weather;
+import com.nidak.weatherpulse.entity.WeatherSummary;
+import com.nidak.weatherpulse.entity.WeatherThreshold;
+import com.nidak.weatherpulse.support.LegacyRiskRules;
+import com.nidak.weatherpulse.support.ProviderFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU hot paths of {@link WeatherService}, without Spring or a database: summaries, risk classification,
+ * threshold evaluation, provider mapping, forecast parsing and city normalization.
+ * Lives in the service package because most of these are package-private.
+ *
+ * <p>Sizes follow what a deployment sees: 1 to 10k samples per city-day (10k is a reading roughly every 9 seconds),
+ * 1 to 5k configured thresholds. Inputs come from a fixed seed so runs are comparable.
+ * {@code ./mvnw -Pbenchmarks -DskipTests verify} runs this with the GC profiler;
+ * the committed numbers are in {@code benchmarks/baseline.txt}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WeatherServiceHotPathBenchmark {
+
+    private static final String[] CITIES = {
+            "Delhi", "Mumbai", "Chennai", "Bangalore", "Kolkata", "Hyderabad", "Pune", "Jaipur",
+            "Lucknow", "Ahmedabad", "Surat", "Nagpur", "Indore", "Bhopal", "Patna", "Kochi"
+    };
+
+    private static final String[] RAW_CITY_INPUTS = {
+            "delhi", " Mumbai", "chennai ", "Bangalore", "  kolkata  ", "hyderabad", "PUNE", "jaipur",
+            "lucknow", "Ahmedabad ", "surat", " nagpur", "indore", "bhopal", "patna", "kochi"
+    };
+
+    /**
+     * Weather code, condition, description, wind and temperature as OpenWeather reports them,
+     * weighted towards the common clear/cloud/rain cases but covering every risk branch.
+     */
+    private static final RiskInput[] RISK_INPUTS = {
+            new RiskInput(800, "Clear", "clear sky", 3.1, 38.2),
+            new RiskInput(800, "Clear", "clear sky", 2.4, 29.0),
+            new RiskInput(801, "Clouds", "few clouds", 4.0, 31.5),
+            new RiskInput(802, "Clouds", "scattered clouds", 5.2, 27.3),
+            new RiskInput(803, "Clouds", "broken clouds", 6.7, 24.1),
+            new RiskInput(804, "Clouds", "overcast clouds", 7.5, 22.0),
+            new RiskInput(500, "Rain", "light rain", 4.8, 23.4),
+            new RiskInput(501, "Rain", "moderate rain", 8.9, 21.7),
+            new RiskInput(502, "Rain", "heavy intensity rain", 12.3, 20.2),
+            new RiskInput(300, "Drizzle", "light intensity drizzle", 3.3, 19.8),
+            new RiskInput(211, "Thunderstorm", "thunderstorm", 15.0, 26.4),
+            new RiskInput(212, "Thunderstorm", "heavy thunderstorm", 29.5, 25.0),
+            new RiskInput(600, "Snow", "light snow", 2.0, -1.2),
+            new RiskInput(701, "Mist", "mist", 1.5, 18.0),
+            new RiskInput(721, "Haze", "haze", 2.2, 30.1),
+            new RiskInput(731, "Dust", "sand/dust whirls", 9.1, 36.4),
+            new RiskInput(751, "Sand", "sand", 11.0, 39.0),
+            new RiskInput(771, "Squall", "squalls", 21.0, 27.0),
+            new RiskInput(781, "Tornado", "tornado", 33.0, 24.0),
+            new RiskInput(804, "Clouds", "overcast clouds", 18.4, 23.0),
+            new RiskInput(803, "Clouds", "broken clouds", 30.2, 22.5),
+            new RiskInput(800, "Clear", "sunny", 1.2, 41.0),
+            new RiskInput(500, "Rain", "light rain", 3.9, 25.6),
+            new RiskInput(801, "Clouds", "few clouds", 2.7, 33.3)
+    };
+
+    @State(Scope.Benchmark)
+    public static class SummaryInput {
+
+        @Param({"1", "288", "10000"})
+        public int samplesPerDay;
+
+        List<Weather> day;
+
+        @Setup
+        public void generate() {
+            day = samples(new Random(42), "Delhi", samplesPerDay);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThresholdInput {
+
+        @Param({"1", "100", "5000"})
+        public int thresholds;
+
+        WeatherService service;
+        Weather[] feed;
+        int cursor;
+
+        @Setup
+        public void configure() {
+            Random random = new Random(7);
+            ThresholdEngine engine = new ThresholdEngine();
+            for (WeatherThreshold threshold : thresholds(random, thresholds)) {
+                engine.register(threshold);
+            }
+            service = new WeatherServiceBuilder().thresholdEngine(engine).build();
+
+            List<Weather> samples = new ArrayList<>(1024);
+            for (int i = 0; i < 1024; i++) {
+                samples.addAll(samples(random, CITIES[i % CITIES.length], 1));
+            }
+            feed = samples.toArray(Weather[]::new);
+        }
+
+        Weather next() {
+            Weather weather = feed[cursor];
+            cursor = (cursor + 1) & (feed.length - 1);
+            return weather;
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class ProviderInput {
+
+        WeatherService service;
+        OpenWeatherPayloadDecoder.Observation[] observations;
+        Weather[] mapped;
+
+        @Setup
+        public void load() throws IOException {
+            byte[] forecastPayload = ProviderFixtures.read("/openweather/forecast.json");
+            service = new WeatherServiceBuilder().weatherProviderClient(new FixtureProviderClient(forecastPayload)).build();
+            observations = OpenWeatherPayloadDecoder.decodeForecast(new ByteArrayInputStream(forecastPayload))
+                    .toArray(OpenWeatherPayloadDecoder.Observation[]::new);
+            mapped = service.loadWeatherForecast("Delhi").toArray(Weather[]::new);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class PlainService {
+
+        WeatherService service;
+
+        @Setup
+        public void create() {
+            service = new WeatherServiceBuilder().build();
+        }
+    }
+
+    @Benchmark
+    public WeatherSummary calculateSummary(PlainService plain, SummaryInput input) {
+        return plain.service.calculateSummary(input.day);
+    }
+
+    @Benchmark
+    public String evaluateThresholds(ThresholdInput input) {
+        return input.service.checkAlerts(input.next());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(24)
+    public void determineWeatherRisk(PlainService plain, Blackhole blackhole) {
+        for (RiskInput row : RISK_INPUTS) {
+            blackhole.consume(plain.service.determineWeatherRisk(
+                    row.weatherCode(), row.condition(), row.description(), row.windSpeed(), row.temperature()));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(24)
+    public void determineWeatherRiskLegacy(Blackhole blackhole) {
+        for (RiskInput row : RISK_INPUTS) {
+            blackhole.consume(LegacyRiskRules.determineWeatherRisk(
+                    row.weatherCode(), row.condition(), row.description(), row.windSpeed(), row.temperature()));
+        }
+    }
+
+    /**
+     * System alerts for mapped samples; most raise none, a few raise heat or wind alerts.
+     */
+    @Benchmark
+    @OperationsPerInvocation(40)
+    public void buildSystemAlerts(ProviderInput input, Blackhole blackhole) {
+        for (Weather weather : input.mapped) {
+            blackhole.consume(input.service.buildSystemAlerts(weather));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(40)
+    public void mapCurrentWeather(ProviderInput input, Blackhole blackhole) {
+        for (OpenWeatherPayloadDecoder.Observation observation : input.observations) {
+            blackhole.consume(input.service.mapCurrentWeather(observation, "Delhi"));
+        }
+    }
+
+    /**
+     * Decoding the recorded 40-entry payload and mapping it to {@link Weather} rows, as a forecast miss does.
+     */
+    @Benchmark
+    public List<Weather> parseForecast(ProviderInput input) {
+        return input.service.loadWeatherForecast("Delhi");
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(16)
+    public void normalizeCity(PlainService plain, Blackhole blackhole) {
+        for (String city : RAW_CITY_INPUTS) {
+            blackhole.consume(plain.service.normalizeCity(city));
+        }
+    }
+
+    static List<Weather> samples(Random random, String city, int count) {
+        String[] conditions = {"Clear", "Clear", "Clouds", "Clouds", "Clouds", "Haze", "Rain", "Mist"};
+        LocalDateTime start = LocalDateTime.of(2024, 6, 1, 0, 0);
+        long stepSeconds = Math.max(1, 86_400 / Math.max(1, count));
+        List<Weather> samples = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Weather weather = new Weather();
+            weather.setCity(city);
+            weather.setTimestamp(start.plusSeconds(i * stepSeconds));
+            weather.setTemperature(Math.round((22 + random.nextDouble() * 22) * 100) / 100.0);
+            weather.setFeelsLike(Math.round((22 + random.nextDouble() * 25) * 100) / 100.0);
+            weather.setHumidity(20 + random.nextInt(75));
+            weather.setWindSpeed(Math.round(random.nextDouble() * 1500) / 100.0);
+            weather.setWeatherCondition(conditions[random.nextInt(conditions.length)]);
+            weather.setWeatherDescription(weather.getWeatherCondition().toLowerCase(Locale.ROOT));
+            samples.add(weather);
+        }
+        return samples;
+    }
+
+    static List<WeatherThreshold> thresholds(Random random, int count) {
+        String[] conditions = {"Clear", "Rain", "Haze", "Thunderstorm"};
+        List<WeatherThreshold> thresholds = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int consecutiveUpdates = 1 + random.nextInt(3);
+            if (random.nextInt(5) == 0) {
+                thresholds.add(new WeatherThreshold("weatherCondition", 0,
+                        conditions[random.nextInt(conditions.length)], consecutiveUpdates, null));
+                continue;
+            }
+            thresholds.add(new WeatherThreshold("temperature", 25 + random.nextInt(25), null, consecutiveUpdates, null));
+        }
+        return thresholds;
+    }
+
+    /**
+     * Serves the recorded forecast through the real decoder, so {@link #parseForecast} includes the parse.
+     */
+    private static final class FixtureProviderClient extends WeatherProviderClient {
+
+        private final byte[] forecastPayload;
+
+        FixtureProviderClient(byte[] forecastPayload) {
+            super(null, null, null, "http://localhost", "benchmark", 0);
+            this.forecastPayload = forecastPayload;
+        }
+
+        @Override
+        public List<OpenWeatherPayloadDecoder.Observation> fetchForecast(String city) {
+            try {
+                return OpenWeatherPayloadDecoder.decodeForecast(new ByteArrayInputStream(forecastPayload));
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+        }
+    }
+
+    private record RiskInput(int weatherCode, String condition, String description, double windSpeed, double temperature) {
+    }
+}
@@ -0,0 +1,37 @@
+package com.nidak.weatherpulse.service;
+
+import com.nidak.weatherpulse.dto.PollSchedule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WeatherServicePollingTest {
+
+    private static final long MINUTE = 60_000;
+
+    @Test
+    void aCycleThatThrowsHandsItsCitiesBackToTheScheduler() {
+        WeatherMetrics weatherMetrics = new WeatherMetrics(new SimpleMeterRegistry());
+        AdaptivePollScheduler scheduler = new AdaptivePollScheduler(true, 5 * MINUTE, MINUTE, 30 * MINUTE, 0, 60, false);
+        CityPollingEngine engine = new CityPollingEngine(new ProviderRateLimiter(60), weatherMetrics, 1, 1000);
+        // As while the application shuts down: every submit is rejected.
+        engine.shutdown();
+        WeatherService service = new WeatherServiceBuilder()
+                .weatherProviderClient(new WeatherProviderClient(null, weatherMetrics, new ProviderRateLimiter(60),
+                        "http://localhost", "stub-key", 0))
+                .cityPollingEngine(engine)
+                .adaptivePollScheduler(scheduler)
+                .trackedCities("Delhi,Mumbai")
+                .build();
+
+        assertThatThrownBy(service::pollDueCities).isInstanceOf(RejectedExecutionException.class);
+
+        // Nothing is left marked in flight: both cities are queued again and due straight away.
+        assertThat(scheduler.getSchedule().cities()).extracting(PollSchedule.CitySchedule::nextPollAt).doesNotContainNull();
+        assertThat(scheduler.takeDue()).containsExactlyInAnyOrder("Delhi", "Mumbai");
+    }
+}
@@ -0,0 +1,124 @@
+package com.nidak.weatherpulse.service;
+
+import com.nidak.weatherpulse.entity.Weather;
+import com.nidak.weatherpulse.entity.WeatherSummary;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class WeatherSummaryAccumulatorTest {
+
+    // "Aa" and "BB" share a hash code, so ties between them depend on HashMap bucket order.
+    private static final String[] CONDITIONS = {"Clear", "Clouds", "Rain", "Haze", "Aa", "BB", "Mist"};
+
+    @Test
+    void matchesTheStreamImplementationExactly() {
+        Random random = new Random(11);
+        for (int day = 0; day < 2000; day++) {
+            List<Weather> samples = randomDay(random, 1 + random.nextInt(day % 10 == 0 ? 5000 : 40));
+
+            assertThat(WeatherSummaryAccumulator.summarize(samples))
+                    .usingRecursiveComparison()
+                    .isEqualTo(streamSummary(samples));
+        }
+    }
+
+    @Test
+    void mergedPartitionsMatchOnePass() {
+        Random random = new Random(5);
+        for (int day = 0; day < 500; day++) {
+            List<Weather> samples = randomDay(random, 1 + random.nextInt(300));
+            WeatherSummaryAccumulator merged = new WeatherSummaryAccumulator();
+            int start = 0;
+            while (start < samples.size()) {
+                int end = Math.min(samples.size(), start + random.nextInt(50));
+                WeatherSummaryAccumulator partition = new WeatherSummaryAccumulator();
+                samples.subList(start, end).forEach(partition::add);
+                merged.merge(partition);
+                start = end;
+            }
+
+            WeatherSummary expected = streamSummary(samples);
+            WeatherSummary actual = merged.toSummary();
+            assertThat(merged.count()).isEqualTo(samples.size());
+            assertThat(actual)
+                    .usingRecursiveComparison()
+                    .comparingOnlyFields("maxTemperature", "minTemperature", "dominantWeatherCondition")
+                    .isEqualTo(expected);
+            // Partitioned compensated sums may differ in the last bit, like a parallel stream's.
+            assertThat(actual.getAverageTemperature()).isCloseTo(expected.getAverageTemperature(), within(0.0101));
+            assertThat(actual.getAverageHumidity()).isCloseTo(expected.getAverageHumidity(), within(0.0101));
+            assertThat(actual.getAverageWindSpeed()).isCloseTo(expected.getAverageWindSpeed(), within(0.0101));
+        }
+    }
+
+    @Test
+    void roundsLikeBigDecimalHalfUp() {
+        Random random = new Random(3);
+        List<Double> values = new ArrayList<>(List.of(1.005, -1.005, 2.675, 0.125, -0.0, -0.001, 1e-300, 9_999_999.995, 3e12));
+        for (int i = 0; i < 200_000; i++) {
+            values.add((random.nextInt(2_000_000) - 1_000_000) / 1000.0);
+            values.add(random.nextInt(400_000) / 1000.0 - 273.15);
+            values.add(random.nextDouble() * 200 - 100);
+        }
+
+        for (double value : values) {
+            double expected = BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP).doubleValue();
+            assertThat(WeatherMath.roundToTwoDecimalPlaces(value)).as("round(%s)", value).isEqualTo(expected);
+        }
+    }
+
+    private static List<Weather> randomDay(Random random, int size) {
+        int conditionCount = 1 + random.nextInt(CONDITIONS.length);
+        List<Weather> samples = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Weather weather = new Weather();
+            weather.setCity("Delhi");
+            weather.setTemperature(Math.round((random.nextDouble() * 60 - 15) * 100) / 100.0);
+            weather.setHumidity(random.nextInt(101));
+            weather.setWindSpeed(random.nextDouble() * 30);
+            weather.setWeatherCondition(CONDITIONS[random.nextInt(conditionCount)]);
+            samples.add(weather);
+        }
+        return samples;
+    }
+
+    /**
+     * What {@code calculateSummary} computed before the accumulator.
+     */
+    private static WeatherSummary streamSummary(List<Weather> weatherData) {
+        double averageTemp = weatherData.stream().mapToDouble(Weather::getTemperature).average().orElse(0);
+        double maxTemp = weatherData.stream().mapToDouble(Weather::getTemperature).max().orElse(0);
+        double minTemp = weatherData.stream().mapToDouble(Weather::getTemperature).min().orElse(0);
+        Map<String, Long> conditionCount = weatherData.stream()
+                .collect(Collectors.groupingBy(Weather::getWeatherCondition, Collectors.counting()));
+        String dominantCondition = conditionCount.entrySet().stream()
+                .max(Map.Entry.comparingByValue())
+                .map(Map.Entry::getKey)
+                .orElse("N/A");
+        double averageHumidity = weatherData.stream().mapToDouble(Weather::getHumidity).average().orElse(0);
+        double averageWindSpeed = weatherData.stream().mapToDouble(Weather::getWindSpeed).average().orElse(0);
+
+        return new WeatherSummary(
+                round(averageTemp),
+                round(maxTemp),
+                round(minTemp),
+                dominantCondition,
+                round(averageHumidity),
+                round(averageWindSpeed)
+        );
+    }
+
+    private static double round(double value) {
+        return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP).doubleValue();
+    }
+}
@@ -0,0 +1,48 @@
+package com.nidak.weatherpulse.support;
+
+import com.nidak.weatherpulse.service.OpenWeatherPayloadDecoder;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The field walk {@code WeatherService} used to do on {@code org.json} trees, kept as the baseline.
+ */
+public final class LegacyOrgJsonMapping {
+
+    private LegacyOrgJsonMapping() {
+    }
+
+    public static OpenWeatherPayloadDecoder.Observation decodeCurrent(String body) {
+        return toObservation(new JSONObject(body), null);
+    }
+
+    public static List<OpenWeatherPayloadDecoder.Observation> decodeForecast(String body) {
+        JSONArray list = new JSONObject(body).getJSONArray("list");
+        List<OpenWeatherPayloadDecoder.Observation> forecast = new ArrayList<>();
+        for (int i = 0; i < list.length(); i++) {
+            JSONObject forecastData = list.getJSONObject(i);
+            forecast.add(toObservation(forecastData, forecastData.getString("dt_txt")));
+        }
+        return forecast;
+    }
+
+    private static OpenWeatherPayloadDecoder.Observation toObservation(JSONObject json, String forecastTime) {
+        JSONObject main = json.getJSONObject("main");
+        JSONObject wind = json.optJSONObject("wind");
+        JSONObject weatherObject = json.getJSONArray("weather").getJSONObject(0);
+        String weatherCondition = weatherObject.getString("main");
+        return new OpenWeatherPayloadDecoder.Observation(
+                main.getDouble("temp"),
+                main.optDouble("feels_like", 0),
+                main.optDouble("humidity", 0),
+                wind == null ? 0 : wind.optDouble("speed", 0),
+                weatherObject.optInt("id", 0),
+                weatherCondition,
+                weatherObject.optString("description", weatherCondition),
+                forecastTime
+        );
+    }
+}
@@ -0,0 +1,100 @@
+package com.nidak.weatherpulse.support;
+
+import com.nidak.weatherpulse.entity.Weather;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The string-based rules {@code WeatherService} used before {@link com.nidak.weatherpulse.service.WeatherRiskClassifier}, kept as the baseline.
+ */
+public final class LegacyRiskRules {
+
+    private LegacyRiskRules() {
+    }
+
+    public static String determineWeatherRisk(
+            int weatherCode,
+            String weatherCondition,
+            String weatherDescription,
+            double windSpeed,
+            double temperature
+    ) {
+        String condition = weatherCondition == null ? "" : weatherCondition.toLowerCase(Locale.ROOT);
+        String description = weatherDescription == null ? "" : weatherDescription.toLowerCase(Locale.ROOT);
+
+        if (weatherCode >= 200 && weatherCode < 300) {
+            if (windSpeed >= 28) {
+                return "Cyclone/Severe Storm Risk";
+            }
+            return "Thunderstorm Risk";
+        }
+
+        if (weatherCode >= 600 && weatherCode < 700) {
+            return "Snow Risk";
+        }
+
+        if (weatherCode >= 700 && weatherCode < 800) {
+            if (description.contains("sand") || description.contains("dust")) {
+                return "Sandstorm/Dust Risk";
+            }
+            if (description.contains("tornado")) {
+                return "Cyclone/Tornado Risk";
+            }
+            if (description.contains("squall")) {
+                return "High Wind Squall Risk";
+            }
+        }
+
+        if (description.contains("hurricane") || description.contains("cyclone")) {
+            return "Cyclone Risk";
+        }
+
+        if (windSpeed >= 28) {
+            return "Cyclone-like Wind Risk";
+        }
+        if (windSpeed >= 17) {
+            return "Strong Wind Risk";
+        }
+
+        if ("rain".equals(condition) || "drizzle".equals(condition)) {
+            return "Rain Risk";
+        }
+
+        if ((condition.contains("clear") || description.contains("clear") || description.contains("sun"))
+                && weatherCode == 800
+                && temperature >= 35) {
+            return "Sunny/Heat Risk";
+        }
+
+        return "Low Risk";
+    }
+
+    /**
+     * Alert types the old {@code saveSystemAlerts} raised for a sample, in order.
+     */
+    public static List<String> systemAlertTypes(Weather weather) {
+        List<String> types = new ArrayList<>();
+        String condition = weather.getWeatherCondition() == null ? "" : weather.getWeatherCondition().toLowerCase(Locale.ROOT);
+        String description = weather.getWeatherDescription() == null ? "" : weather.getWeatherDescription().toLowerCase(Locale.ROOT);
+        boolean sunny = condition.contains("clear") || description.contains("clear") || description.contains("sun");
+        if (sunny && weather.getTemperature() >= 35) {
+            types.add("Heat Advisory");
+        }
+        if (weather.getTemperature() >= 40) {
+            types.add("Extreme Heat Warning");
+        }
+        String risk = weather.getWeatherRisk();
+        if (risk != null && risk.toLowerCase(Locale.ROOT).contains("cyclone")) {
+            types.add("Wind Risk Advisory");
+        }
+        if (risk != null && risk.toLowerCase(Locale.ROOT).contains("sandstorm")) {
+            types.add("Dust Risk Advisory");
+        }
+        if (risk != null && risk.toLowerCase(Locale.ROOT).contains("snow")) {
+            types.add("Snow Risk Advisory");
+        }
+        return types;
+    }
+}
@@ -0,0 +1,22 @@
+package com.nidak.weatherpulse.support;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * The recorded OpenWeather payloads under {@code src/test/resources/openweather}, shared by tests and benchmarks.
+ */
+public final class ProviderFixtures {
+
+    private ProviderFixtures() {
+    }
+
+    public static byte[] read(String resource) throws IOException {
+        try (InputStream input = ProviderFixtures.class.getResourceAsStream(resource)) {
+            if (input == null) {
+                throw new IOException("Missing fixture " + resource);
+            }
+            return input.readAllBytes();
+        }
+    }
+}